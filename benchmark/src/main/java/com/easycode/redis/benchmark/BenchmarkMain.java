@@ -0,0 +1,70 @@
+package com.easycode.redis.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.openjdk.jmh.Main;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.ProfilerConfig;
+
+/**
+ * benchmarks.jar的入口，在JMH命令行的基础上：
+ * <ul>
+ * <li>默认附带GC分析（<tt>-prof gc</tt>），输出每次操作的分配字节数；</li>
+ * <li><tt>-t</tt>可以给出逗号分隔的多个线程数，每个线程数依次运行一轮。</li>
+ * </ul>
+ *
+ * <pre>
+ * java -jar target/benchmarks.jar RedisFacadeBenchmark -t 1,4,16
+ * </pre>
+ *
+ * 其余参数与列表、帮助等命令原样交给JMH处理。
+ */
+public class BenchmarkMain {
+
+	public static void main(String[] args) throws Exception {
+		List<Integer> threads = new ArrayList<Integer>();
+		List<String> jmhArgs = new ArrayList<String>();
+		for (int i = 0; i < args.length; i++) {
+			if ("-t".equals(args[i]) && i + 1 < args.length && args[i + 1].indexOf(',') >= 0) {
+				for (String count : args[++i].split(",")) {
+					threads.add(Integer.valueOf(count.trim()));
+				}
+			} else {
+				jmhArgs.add(args[i]);
+			}
+		}
+
+		CommandLineOptions options = new CommandLineOptions(jmhArgs.toArray(new String[jmhArgs.size()]));
+		if (options.shouldHelp() || options.shouldList() || options.shouldListWithParams()
+				|| options.shouldListProfilers() || options.shouldListResultFormats()) {
+			Main.main(args);
+			return;
+		}
+
+		ChainedOptionsBuilder builder = new OptionsBuilder().parent(options);
+		if (!hasGcProfiler(options.getProfilers())) {
+			builder.addProfiler(GCProfiler.class);
+		}
+		if (threads.isEmpty()) {
+			new Runner(builder.build()).run();
+			return;
+		}
+		for (int count : threads) {
+			new Runner(builder.threads(count).build()).run();
+		}
+	}
+
+	private static boolean hasGcProfiler(List<ProfilerConfig> profilers) {
+		for (ProfilerConfig profiler : profilers) {
+			if ("gc".equals(profiler.getKlass()) || GCProfiler.class.getName().equals(profiler.getKlass())) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
@@ -0,0 +1,124 @@
+package com.easycode.redis.benchmark;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+
+import com.easycode.redis.server.Redis;
+import com.easycode.redis.server.codec.RedisCodecs;
+
+/**
+ * 对比multiSet、addAllToZSets中的序列化循环：每次调用都查找序列化器 vs 使用预先解析的{@link RedisCodecs}。
+ * <p>
+ * 只测客户端编码开销，不连接redis。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CodecBenchmark {
+
+	@Param({ "100", "1000" })
+	private int size;
+
+	private RedisTemplate<String, Object> redisTemplate;
+
+	private Map<String, Object> pairs;
+
+	private List<String> keys;
+
+	private Map<Object, Double> tuples;
+
+	@Setup
+	public void setup() {
+		redisTemplate = new RedisTemplate<String, Object>();
+		redisTemplate.setKeySerializer(new StringRedisSerializer());
+		redisTemplate.setValueSerializer(new JdkSerializationRedisSerializer());
+		redisTemplate.setHashKeySerializer(new StringRedisSerializer());
+		redisTemplate.setHashValueSerializer(new JdkSerializationRedisSerializer());
+
+		pairs = new LinkedHashMap<String, Object>();
+		keys = new ArrayList<String>();
+		tuples = new LinkedHashMap<Object, Double>();
+		for (int i = 0; i < size; i++) {
+			pairs.put("bench:key:" + i, Long.valueOf(i));
+			keys.add("bench:zset:" + i);
+			tuples.put("member:" + i, Double.valueOf(i));
+		}
+		Redis.codecs(redisTemplate);
+	}
+
+	@Benchmark
+	public void multiSetLookupPerCall(Blackhole blackhole) {
+		for (Map.Entry<String, Object> pair : pairs.entrySet()) {
+			blackhole.consume(serializeKey(redisTemplate, pair.getKey()));
+			blackhole.consume(serializeValue(redisTemplate, pair.getValue()));
+		}
+	}
+
+	@Benchmark
+	public void multiSetCodecs(Blackhole blackhole) {
+		RedisCodecs codecs = Redis.codecs(redisTemplate);
+		for (Map.Entry<String, Object> pair : pairs.entrySet()) {
+			blackhole.consume(codecs.encodeKey(pair.getKey()));
+			blackhole.consume(codecs.encodeValue(pair.getValue()));
+		}
+	}
+
+	@Benchmark
+	public void addAllToZSetsLookupPerCall(Blackhole blackhole) {
+		for (Object member : tuples.keySet()) {
+			blackhole.consume(serializeValue(redisTemplate, member));
+		}
+		for (String key : keys) {
+			blackhole.consume(serializeKey(redisTemplate, key));
+		}
+	}
+
+	@Benchmark
+	public void addAllToZSetsCodecs(Blackhole blackhole) {
+		RedisCodecs codecs = Redis.codecs(redisTemplate);
+		for (Object member : tuples.keySet()) {
+			blackhole.consume(codecs.encodeValue(member));
+		}
+		for (String key : keys) {
+			blackhole.consume(codecs.encodeKey(key));
+		}
+	}
+
+	// 与改造前Redis中的私有序列化方法一致
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private static byte[] serializeKey(RedisTemplate<?, ?> redisTemplate, Object key) {
+		RedisSerializer serializer = redisTemplate.getKeySerializer();
+		serializer = serializer == null ? redisTemplate.getStringSerializer() : serializer;
+		return serializer.serialize(key);
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private static byte[] serializeValue(RedisTemplate<?, ?> redisTemplate, Object value) {
+		RedisSerializer serializer = redisTemplate.getValueSerializer();
+		serializer = serializer == null ? redisTemplate.getDefaultSerializer() : serializer;
+		return serializer.serialize(value);
+	}
+}
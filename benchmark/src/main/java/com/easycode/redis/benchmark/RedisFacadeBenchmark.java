@@ -0,0 +1,237 @@
+package com.easycode.redis.benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.connection.jedis.JedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+
+import redis.clients.jedis.JedisPoolConfig;
+
+import com.easycode.redis.client.service.impl.NewRedisServiceImpl;
+import com.easycode.redis.server.Redis;
+import com.easycode.redis.server.embedded.EmbeddedRedisServer;
+import com.easycode.redis.server.lock.RedisLock;
+
+/**
+ * {@link Redis}与{@link NewRedisServiceImpl}主要操作的端到端基准，连接进程内的{@link EmbeddedRedisServer}，不需要网络与真实redis。
+ * <p>
+ * 同时输出吞吐量与延迟分位数（SampleTime）。线程数不在注解中固定，通过<tt>-t</tt>指定，可以给出多个；
+ * 经由{@link BenchmarkMain}（benchmarks.jar的入口）运行时默认附带GC分析，输出每次操作的分配字节数：
+ *
+ * <pre>
+ * java -jar target/benchmarks.jar RedisFacadeBenchmark -t 1,4,16
+ * java -cp target/benchmarks.jar com.easycode.redis.benchmark.RedisFacadeBenchmark -t 8
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RedisFacadeBenchmark {
+
+	private static final String VALUE_KEY = "bench:value";
+
+	private static final String ZSET_KEY = "bench:zset";
+
+	private static final String HASH_KEY = "bench:hash";
+
+	@Param({ "16", "1024" })
+	private int payloadSize;
+
+	@Param({ "10", "100" })
+	private int batchSize;
+
+	private EmbeddedRedisServer server;
+
+	private JedisConnectionFactory connectionFactory;
+
+	private RedisTemplate<String, Object> redisTemplate;
+
+	private NewRedisServiceImpl<String, Object> service;
+
+	private byte[] payload;
+
+	private Map<String, Object> pairs;
+
+	private List<String> keys;
+
+	private List<Object> values;
+
+	private Map<Object, Double> tuples;
+
+	private List<String> zsetKeys;
+
+	private Map<Object, Object> hash;
+
+	@Setup(Level.Trial)
+	public void setup() throws Exception {
+		server = new EmbeddedRedisServer();
+		int port = server.start();
+
+		JedisPoolConfig poolConfig = new JedisPoolConfig();
+		poolConfig.setMaxTotal(256);
+		poolConfig.setMaxIdle(256);
+		connectionFactory = new JedisConnectionFactory(poolConfig);
+		connectionFactory.setHostName("127.0.0.1");
+		connectionFactory.setPort(port);
+		connectionFactory.afterPropertiesSet();
+
+		redisTemplate = new RedisTemplate<String, Object>();
+		redisTemplate.setConnectionFactory(connectionFactory);
+		redisTemplate.setKeySerializer(new StringRedisSerializer());
+		redisTemplate.setValueSerializer(new JdkSerializationRedisSerializer());
+		redisTemplate.setHashKeySerializer(new StringRedisSerializer());
+		redisTemplate.setHashValueSerializer(new JdkSerializationRedisSerializer());
+		redisTemplate.afterPropertiesSet();
+
+		service = new NewRedisServiceImpl<String, Object>();
+		service.setRedisTemplate(redisTemplate);
+
+		payload = new byte[payloadSize];
+		Arrays.fill(payload, (byte) 'x');
+		pairs = new LinkedHashMap<String, Object>();
+		keys = new ArrayList<String>();
+		values = new ArrayList<Object>();
+		tuples = new LinkedHashMap<Object, Double>();
+		zsetKeys = new ArrayList<String>();
+		hash = new LinkedHashMap<Object, Object>();
+		for (int i = 0; i < batchSize; i++) {
+			pairs.put("bench:key:" + i, payload);
+			keys.add("bench:key:" + i);
+			values.add(payload);
+			tuples.put("member:" + i, Double.valueOf(i));
+			zsetKeys.add("bench:zsets:" + i);
+			hash.put("field:" + i, payload);
+		}
+
+		Redis.set(redisTemplate, VALUE_KEY, payload, null, null);
+		Redis.multiSet(redisTemplate, pairs, null, null);
+		Redis.zAddAll(redisTemplate, ZSET_KEY, tuples, null, null);
+		Redis.putAll(redisTemplate, HASH_KEY, hash, null, null);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws Exception {
+		connectionFactory.destroy();
+		server.stop();
+	}
+
+	/**
+	 * 每个线程独立的list与锁，避免线程之间互相干扰
+	 */
+	@State(Scope.Thread)
+	public static class ThreadKeys {
+
+		private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+		private String listKey;
+
+		private String lockKey;
+
+		@Setup(Level.Trial)
+		public void setup() {
+			int id = SEQUENCE.incrementAndGet();
+			listKey = "bench:list:" + id;
+			lockKey = "bench:lock:" + id;
+		}
+	}
+
+	@Benchmark
+	public void set() {
+		Redis.set(redisTemplate, VALUE_KEY, payload, null, null);
+	}
+
+	@Benchmark
+	public Object get() {
+		return Redis.get(redisTemplate, VALUE_KEY, Object.class);
+	}
+
+	@Benchmark
+	public Object serviceSetGet() {
+		service.set(VALUE_KEY, payload);
+		return service.getObj(VALUE_KEY, Object.class);
+	}
+
+	@Benchmark
+	public void multiSet() {
+		Redis.multiSet(redisTemplate, pairs, null, null);
+	}
+
+	@Benchmark
+	public Object multiGet() {
+		return Redis.multiGet(redisTemplate, keys, Object.class);
+	}
+
+	/**
+	 * 先写入batchSize个元素再一次弹出，包含两次往返
+	 */
+	@Benchmark
+	public Object rightPushAllThenLeftPop(ThreadKeys threadKeys) {
+		Redis.rightPushAll(redisTemplate, threadKeys.listKey, values, null, null);
+		return Redis.leftPop(redisTemplate, threadKeys.listKey, Object.class, batchSize);
+	}
+
+	@Benchmark
+	public long zAddAll() {
+		return Redis.zAddAll(redisTemplate, ZSET_KEY, tuples, null, null);
+	}
+
+	@Benchmark
+	public void addAllToZSets() {
+		Redis.addAllToZSets(redisTemplate, zsetKeys, tuples, null, null);
+	}
+
+	@Benchmark
+	public Object zrangeWithScore() {
+		return Redis.zrangeWithScore(redisTemplate, ZSET_KEY, 0, batchSize - 1, Object.class, false);
+	}
+
+	@Benchmark
+	public long putAll() {
+		return Redis.putAll(redisTemplate, HASH_KEY, hash, null, null);
+	}
+
+	@Benchmark
+	public Object hGetAll() {
+		return Redis.hGetAll(redisTemplate, HASH_KEY, Object.class);
+	}
+
+	@Benchmark
+	public boolean lockUnlock(ThreadKeys threadKeys) {
+		RedisLock lock = service.tryLock(threadKeys.lockKey, 10, TimeUnit.SECONDS);
+		return lock != null && lock.unlock();
+	}
+
+	/**
+	 * 参数与{@link BenchmarkMain}相同，只运行本类中的基准
+	 */
+	public static void main(String[] args) throws Exception {
+		String[] withInclude = new String[args.length + 1];
+		withInclude[0] = RedisFacadeBenchmark.class.getName() + ".*";
+		System.arraycopy(args, 0, withInclude, 1, args.length);
+		BenchmarkMain.main(withInclude);
+	}
+}
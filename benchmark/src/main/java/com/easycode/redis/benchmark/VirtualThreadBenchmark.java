@@ -0,0 +1,173 @@
+package com.easycode.redis.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.redis.connection.jedis.JedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+
+import redis.clients.jedis.JedisPoolConfig;
+
+import com.easycode.redis.client.service.impl.NewRedisServiceImpl;
+import com.easycode.redis.server.Redis;
+import com.easycode.redis.server.concurrency.ConcurrencyLimitConfig;
+import com.easycode.redis.server.embedded.EmbeddedRedisServer;
+
+/**
+ * 大量并发调用方共用一个连接池时，平台线程与虚拟线程的对比：每次操作同时发起callers个调用（每个调用一次GET与一次SET），
+ * 全部完成后结束，输出一批调用的总耗时。limit为semaphore时通过{@link Redis#enableConcurrencyLimit}在信号量上排队，
+ * 为none时直接在连接池中等待。
+ * <p>
+ * 虚拟线程需要JDK 21及以上，通过反射创建；低版本JDK上virtual的组合在setup中报错，JMH继续执行其余组合：
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar com.easycode.redis.benchmark.VirtualThreadBenchmark
+ * java -jar target/benchmarks.jar VirtualThreadBenchmark -p callers=1000,10000 -jvmArgs -Djdk.tracePinnedThreads=short
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class VirtualThreadBenchmark {
+
+	private static final String KEY_PREFIX = "bench:vt:";
+
+	private static final int KEYS = 1024;
+
+	@Param({ "platform", "virtual" })
+	private String threads;
+
+	@Param({ "none", "semaphore" })
+	private String limit;
+
+	@Param({ "10000" })
+	private int callers;
+
+	@Param({ "64" })
+	private int poolSize;
+
+	private EmbeddedRedisServer server;
+
+	private JedisConnectionFactory connectionFactory;
+
+	private RedisTemplate<String, Object> redisTemplate;
+
+	private NewRedisServiceImpl<String, Object> service;
+
+	private ExecutorService executor;
+
+	@Setup(Level.Trial)
+	public void setup() throws Exception {
+		executor = "virtual".equals(threads) ? newVirtualThreadExecutor() : Executors.newCachedThreadPool();
+		if (executor == null) {
+			throw new IllegalStateException("virtual threads require JDK 21+, skipping");
+		}
+
+		server = new EmbeddedRedisServer();
+		int port = server.start();
+
+		JedisPoolConfig poolConfig = new JedisPoolConfig();
+		poolConfig.setMaxTotal(poolSize);
+		poolConfig.setMaxIdle(poolSize);
+		poolConfig.setMaxWaitMillis(-1);
+		connectionFactory = new JedisConnectionFactory(poolConfig);
+		connectionFactory.setHostName("127.0.0.1");
+		connectionFactory.setPort(port);
+		connectionFactory.afterPropertiesSet();
+
+		redisTemplate = new RedisTemplate<String, Object>();
+		redisTemplate.setConnectionFactory(connectionFactory);
+		redisTemplate.setKeySerializer(new StringRedisSerializer());
+		redisTemplate.setValueSerializer(new JdkSerializationRedisSerializer());
+		redisTemplate.afterPropertiesSet();
+
+		service = new NewRedisServiceImpl<String, Object>();
+		if ("semaphore".equals(limit)) {
+			ConcurrencyLimitConfig config = new ConcurrencyLimitConfig();
+			config.setAcquireTimeoutMillis(-1);
+			service.setConcurrencyLimitConfig(config);
+		}
+		service.setRedisTemplate(redisTemplate);
+
+		for (int i = 0; i < KEYS; i++) {
+			service.setLong(KEY_PREFIX + i, i);
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws Exception {
+		if (executor != null) {
+			executor.shutdownNow();
+		}
+		if (connectionFactory != null) {
+			connectionFactory.destroy();
+		}
+		if (server != null) {
+			server.stop();
+		}
+	}
+
+	@Benchmark
+	public long concurrentCallers() throws Exception {
+		List<Future<Long>> futures = new ArrayList<Future<Long>>(callers);
+		for (int i = 0; i < callers; i++) {
+			final String key = KEY_PREFIX + (i & (KEYS - 1));
+			futures.add(executor.submit(new Callable<Long>() {
+				@Override
+				public Long call() {
+					long value = service.getLongValue(key);
+					service.setLong(key, value);
+					return value;
+				}
+			}));
+		}
+		long sum = 0;
+		for (Future<Long> future : futures) {
+			sum += future.get();
+		}
+		return sum;
+	}
+
+	/**
+	 * Executors.newVirtualThreadPerTaskExecutor()，JDK 21以下返回null
+	 */
+	private static ExecutorService newVirtualThreadExecutor() {
+		try {
+			return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch (NoSuchMethodException e) {
+			return null;
+		} catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(VirtualThreadBenchmark.class.getName() + ".*").build()).run();
+	}
+}
@@ -0,0 +1,487 @@
+package com.easycode.redis.client.service;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.data.redis.core.ZSetOperations.TypedTuple;
+
+import com.easycode.redis.server.LongScoreTuples;
+import com.easycode.redis.server.scan.ScanCallback;
+
+/**
+ * {@link NewRedisService}的异步版本，每个方法与同名同参数的同步方法语义相同，返回{@link CompletableFuture}。
+ * <p>
+ * 互不依赖的调用在不同的连接上并发执行，可以一次发出多个读取再统一等待，例如
+ * <code>CompletableFuture.allOf(a, b, c).join()</code>。调用失败时future异常完成，cause为同步方法抛出的异常；
+ * scan系列的回调在执行线程中调用。
+ * <p>
+ * 不包含锁（需在持有锁的线程中释放）、返回Iterator的扫描、本地聚合计数、复用{@link LongScoreTuples}的重载以及本身以future返回结果的batch。
+ */
+public interface AsyncNewRedisService<K, V> {
+
+	// base key-value
+	CompletableFuture<Void> set(K key, V value);
+
+	CompletableFuture<Void> set(K key, V value, Long timeout, TimeUnit unit);
+
+	CompletableFuture<Void> multiSet(Map<K, V> tuples);
+
+	CompletableFuture<Void> multiSet(Map<K, V> tuples, Long timeout, TimeUnit unit);
+
+	CompletableFuture<Void> setLong(K key, long value);
+
+	CompletableFuture<Void> setLong(K key, long value, Long timeout, TimeUnit unit);
+
+	CompletableFuture<Void> setDouble(K key, double value);
+
+	CompletableFuture<Void> setDouble(K key, double value, Long timeout, TimeUnit unit);
+
+	CompletableFuture<String> getString(K key);
+
+	CompletableFuture<Byte> getByte(K key);
+
+	CompletableFuture<Byte> getByteValue(K key);
+
+	CompletableFuture<Integer> getInteger(K key);
+
+	CompletableFuture<Integer> getIntegerValue(K key);
+
+	CompletableFuture<Long> getLong(K key);
+
+	CompletableFuture<Long> getLongValue(K key);
+
+	CompletableFuture<Double> getDouble(K key);
+
+	CompletableFuture<Double> getDoubleValue(K key);
+
+	CompletableFuture<BigDecimal> getBigDecimal(K key);
+
+	CompletableFuture<Double> getBigDecimalValue(K key);
+
+	<T> CompletableFuture<T> getObj(K key, Class<T> clazz);
+
+	CompletableFuture<Map<K, String>> multiGetString(Collection<? extends K> keys);
+
+	<T> CompletableFuture<Map<K, T>> multiGetObject(Collection<? extends K> keys, Class<T> clazz);
+
+	CompletableFuture<Void> del(K key);
+
+	CompletableFuture<Void> delAll(Collection<K> keys);
+
+	CompletableFuture<Boolean> hasKey(K key);
+
+	CompletableFuture<Long> scan(String pattern, int count, ScanCallback<K> callback);
+
+	// list
+	CompletableFuture<Void> leftPush(K key, V value);
+
+	CompletableFuture<Void> leftPush(K key, V value, Long timeout, TimeUnit unit);
+
+	CompletableFuture<Void> leftPushAll(K key, Collection<? extends V> values);
+
+	CompletableFuture<Void> leftPushAll(K key, Collection<? extends V> values, Long timeout, TimeUnit unit);
+
+	CompletableFuture<Void> rightPush(K key, V value);
+
+	CompletableFuture<Void> rightPush(K key, V value, Long timeout, TimeUnit unit);
+
+	CompletableFuture<Void> rightPushAll(K key, Collection<? extends V> values);
+
+	CompletableFuture<Void> rightPushAll(K key, Collection<? extends V> values, Long timeout, TimeUnit unit);
+
+	CompletableFuture<Byte> leftPopByte(K key);
+
+	CompletableFuture<List<Byte>> leftPopBytes(K key, int num);
+
+	CompletableFuture<Integer> leftPopInteger(K key);
+
+	CompletableFuture<List<Integer>> leftPopIntegers(K key, int num);
+
+	CompletableFuture<Long> leftPopLong(K key);
+
+	CompletableFuture<List<Long>> leftPopLongs(K key, int num);
+
+	CompletableFuture<Double> leftPopDouble(K key);
+
+	CompletableFuture<List<Double>> leftPopDoubles(K key, int num);
+
+	CompletableFuture<BigDecimal> leftPopBigDecimal(K key);
+
+	CompletableFuture<List<BigDecimal>> leftPopBigDecimals(K key, int num);
+
+	<T> CompletableFuture<T> leftPopObject(K key, Class<T> clazz);
+
+	<T> CompletableFuture<List<T>> leftPopObjects(K key, Class<T> clazz, int num);
+
+	CompletableFuture<Byte> rightPopByte(K key);
+
+	CompletableFuture<List<Byte>> rightPopBytes(K key, int num);
+
+	CompletableFuture<Integer> rightPopInteger(K key);
+
+	CompletableFuture<List<Integer>> rightPopIntegers(K key, int num);
+
+	CompletableFuture<Long> rightPopLong(K key);
+
+	CompletableFuture<List<Long>> rightPopLongs(K key, int num);
+
+	CompletableFuture<Double> rightPopDouble(K key);
+
+	CompletableFuture<List<Double>> rightPopDoubles(K key, int num);
+
+	CompletableFuture<BigDecimal> rightPopBigDecimal(K key);
+
+	CompletableFuture<List<BigDecimal>> rightPopBigDecimals(K key, int num);
+
+	<T> CompletableFuture<T> rightPopObject(K key, Class<T> clazz);
+
+	<T> CompletableFuture<List<T>> rightPopObjects(K key, Class<T> clazz, int num);
+
+	CompletableFuture<String> getStringElementAt(K key, long index);
+
+	CompletableFuture<Byte> getByteElementAt(K key, long index);
+
+	CompletableFuture<Byte> getByteValueElementAt(K key, long index);
+
+	CompletableFuture<Integer> getIntegerElementAt(K key, long index);
+
+	CompletableFuture<Integer> getIntegerValueElementAt(K key, long index);
+
+	CompletableFuture<Long> getLongElementAt(K key, long index);
+
+	CompletableFuture<Long> getLongValueElementAt(K key, long index);
+
+	CompletableFuture<Double> getDoubleElementAt(K key, long index);
+
+	CompletableFuture<Double> getDoubleValueElementAt(K key, long index);
+
+	CompletableFuture<BigDecimal> getBigDecimalElementAt(K key, long index);
+
+	CompletableFuture<Double> getBigDecimalValueElementAt(K key, long index);
+
+	CompletableFuture<Long> delFromList(K key, V value);
+
+	CompletableFuture<Long> lengthOfList(K key);
+
+	// Set
+	CompletableFuture<Void> sAdd(K key, V value);
+
+	CompletableFuture<Void> sAdd(K key, V value, Long timeout, TimeUnit unit);
+
+	CompletableFuture<Void> sAddAll(K key, Collection<? extends V> values);
+
+	CompletableFuture<Void> sAddAll(K key, Collection<? extends V> values, Long timeout, TimeUnit unit);
+
+	CompletableFuture<Byte> randomByte(K key);
+
+	CompletableFuture<Byte> randomByteValue(K key);
+
+	CompletableFuture<Integer> randomInteger(K key);
+
+	CompletableFuture<Integer> randomIntegerValue(K key);
+
+	CompletableFuture<Long> randomLong(K key);
+
+	CompletableFuture<Long> randomLongValue(K key);
+
+	CompletableFuture<Double> randomDouble(K key);
+
+	CompletableFuture<Double> randomDoubleValue(K key);
+
+	CompletableFuture<BigDecimal> randomBigDecimal(K key);
+
+	CompletableFuture<Double> randomBigDecimalValue(K key);
+
+	<T> CompletableFuture<T> randomObject(K key, Class<T> clazz);
+
+	CompletableFuture<List<Byte>> randomBytes(K key, int num);
+
+	CompletableFuture<List<Integer>> randomIntegers(K key, int num);
+
+	CompletableFuture<List<Long>> randomLongs(K key, int num);
+
+	CompletableFuture<List<Double>> randomDoubles(K key, int num);
+
+	CompletableFuture<List<BigDecimal>> randomBigDecimals(K key, int num);
+
+	<T> CompletableFuture<List<T>> randomObjects(K key, int num, Class<T> clazz);
+
+	CompletableFuture<List<Byte>> randomDistinctBytes(K key, int num);
+
+	CompletableFuture<List<Integer>> randomDistinctIntegers(K key, int num);
+
+	CompletableFuture<List<Long>> randomDistinctLongs(K key, int num);
+
+	CompletableFuture<List<Double>> randomDistinctDoubles(K key, int num);
+
+	CompletableFuture<List<BigDecimal>> randomDistinctBigDecimals(K key, int num);
+
+	<T> CompletableFuture<List<T>> randomDistinctObjects(K key, int num, Class<T> clazz);
+
+	CompletableFuture<Byte> randomPopByte(K key);
+
+	CompletableFuture<Byte> randomPopByteValue(K key);
+
+	CompletableFuture<Integer> randomPopInteger(K key);
+
+	CompletableFuture<Integer> randomPopIntegerValue(K key);
+
+	CompletableFuture<Long> randomPopLong(K key);
+
+	CompletableFuture<Long> randomPopLongValue(K key);
+
+	CompletableFuture<Double> randomPopDouble(K key);
+
+	CompletableFuture<Double> randomPopDoubleValue(K key);
+
+	CompletableFuture<BigDecimal> randomPopBigDecimal(K key);
+
+	CompletableFuture<Double> randomPopBigDecimalValue(K key);
+
+	<T> CompletableFuture<T> randomPopObject(K key, Class<T> clazz);
+
+	CompletableFuture<List<Byte>> randomPopBytes(K key, int num);
+
+	CompletableFuture<List<Integer>> randomPopIntegers(K key, int num);
+
+	CompletableFuture<List<Long>> randomPopLongs(K key, int num);
+
+	CompletableFuture<List<Double>> randomPopDoubles(K key, int num);
+
+	CompletableFuture<List<BigDecimal>> randomPopBigDecimals(K key, int num);
+
+	<T> CompletableFuture<List<T>> randomPopObjects(K key, int num, Class<T> clazz);
+
+	CompletableFuture<Long> sizeOfSet(K key);
+
+	CompletableFuture<Long> sRemove(K key, V[] value);
+
+	CompletableFuture<Boolean> sIsMember(K key, V value);
+
+	<T> CompletableFuture<Long> sScan(K key, int batchSize, Class<T> clazz, ScanCallback<T> callback);
+
+	// Zset
+	CompletableFuture<Void> zAdd(K key, V value, double score);
+
+	CompletableFuture<Void> zAdd(K key, V value, double score, Long timeout, TimeUnit unit);
+
+	CompletableFuture<Void> zAddAll(K key, Map<V, Double> tuples);
+
+	CompletableFuture<Void> zAddAll(K key, Map<V, Double> tuples, Long timeout, TimeUnit unit);
+
+	CompletableFuture<Void> addToZSets(Collection<K> keys, V value, double score);
+
+	CompletableFuture<Void> addToZSets(Collection<K> keys, V value, double score, Long timeout, TimeUnit unit);
+
+	CompletableFuture<Void> addAllToZSets(Collection<K> keys, Map<V, Double> tuples);
+
+	CompletableFuture<Void> addAllToZSets(Collection<K> keys, Map<V, Double> tuples, Long timeout, TimeUnit unit);
+
+	CompletableFuture<Long> delFromZSet(K key, V value);
+
+	CompletableFuture<Long> delAllFromZSet(K key, Collection<? extends V> values);
+
+	CompletableFuture<List<Byte>> zRangeBytes(K key, long start, long end);
+
+	CompletableFuture<List<Integer>> zRangeIntegers(K key, long start, long end);
+
+	CompletableFuture<List<Long>> zRangeLongs(K key, long start, long end);
+
+	CompletableFuture<List<Double>> zRangeDoubles(K key, long start, long end);
+
+	CompletableFuture<List<BigDecimal>> zRangeBigDecimals(K key, long start, long end);
+
+	<T> CompletableFuture<List<T>> zRangeObjects(K key, long start, long end, Class<T> clazz);
+
+	CompletableFuture<Map<Byte, Double>> zRangeBytesWithScore(K key, long start, long end);
+
+	CompletableFuture<Map<Integer, Double>> zRangeIntegersWithScore(K key, long start, long end);
+
+	CompletableFuture<Map<Long, Double>> zRangeLongsWithScore(K key, long start, long end);
+
+	CompletableFuture<Map<Double, Double>> zRangeDoublesWithScore(K key, long start, long end);
+
+	CompletableFuture<Map<BigDecimal, Double>> zRangeBigDecimalsWithScore(K key, long start, long end);
+
+	<T> CompletableFuture<Map<T, Double>> zRangeObjectsWithScore(K key, long start, long end, Class<T> clazz);
+
+	CompletableFuture<List<Byte>> zRevRangeBytes(K key, long start, long end);
+
+	CompletableFuture<List<Integer>> zRevRangeIntegers(K key, long start, long end);
+
+	CompletableFuture<List<Long>> zRevRangeLongs(K key, long start, long end);
+
+	CompletableFuture<List<Double>> zRevRangeDoubles(K key, long start, long end);
+
+	CompletableFuture<List<BigDecimal>> zRevRangeBigDecimals(K key, long start, long end);
+
+	<T> CompletableFuture<List<T>> zRevRangeObjects(K key, long start, long end, Class<T> clazz);
+
+	CompletableFuture<Map<Byte, Double>> zRevRangeBytesWithScore(K key, long start, long end);
+
+	CompletableFuture<Map<Integer, Double>> zRevRangeIntegersWithScore(K key, long start, long end);
+
+	CompletableFuture<Map<Long, Double>> zRevRangeLongsWithScore(K key, long start, long end);
+
+	CompletableFuture<Map<Double, Double>> zRevRangeDoublesWithScore(K key, long start, long end);
+
+	CompletableFuture<Map<BigDecimal, Double>> zRevRangeBigDecimalsWithScore(K key, long start, long end);
+
+	<T> CompletableFuture<Map<T, Double>> zRevRangeObjectsWithScore(K key, long start, long end, Class<T> clazz);
+
+	CompletableFuture<List<Byte>> zRangeBytesByScore(K key, double min, double max, long offset, long limit);
+
+	CompletableFuture<List<Integer>> zRangeIntegersByScore(K key, double min, double max, long offset, long limit);
+
+	CompletableFuture<List<Long>> zRangeLongByScore(K key, double min, double max, long offset, long limit);
+
+	CompletableFuture<List<Double>> zRangeDoublesByScore(K key, double min, double max, long offset, long limit);
+
+	CompletableFuture<List<BigDecimal>> zRangeBigDecimalsByScore(K key, double min, double max, long offset,
+			long limit);
+
+	<T> CompletableFuture<List<T>> zRangeObjectsByScore(K key, double min, double max, long offset, long limit,
+			Class<T> clazz);
+
+	CompletableFuture<List<Byte>> zRevRangeBytesByScore(K key, double min, double max, long offset, long limit);
+
+	CompletableFuture<List<Integer>> zRevRangeIntegersByScore(K key, double min, double max, long offset, long limit);
+
+	CompletableFuture<List<Long>> zRevRangeLongByScore(K key, double min, double max, long offset, long limit);
+
+	CompletableFuture<List<Double>> zRevRangeDoublesByScore(K key, double min, double max, long offset, long limit);
+
+	CompletableFuture<List<BigDecimal>> zRevRangeBigDecimalsByScore(K key, double min, double max, long offset,
+			long limit);
+
+	<T> CompletableFuture<List<T>> zRevRangeObjectsByScore(K key, double min, double max, long offset, long limit,
+			Class<T> clazz);
+
+	CompletableFuture<Map<Byte, Double>> zRevRangeBytesByScoreWithScore(K key, double min, double max, long offset,
+			long limit);
+
+	CompletableFuture<Map<Integer, Double>> zRevRangeIntegersByScoreWithScore(K key, double min, double max,
+			long offset, long limit);
+
+	CompletableFuture<Map<Long, Double>> zRevRangeLongsByScoreWithScore(K key, double min, double max, long offset,
+			long limit);
+
+	CompletableFuture<Map<Double, Double>> zRevRangeDoublesByScoreWithScore(K key, double min, double max, long offset,
+			long limit);
+
+	CompletableFuture<Map<BigDecimal, Double>> zRevRangeBigDecimalsByScoreWithScore(K key, double min, double max,
+			long offset, long limit);
+
+	<T> CompletableFuture<Map<T, Double>> zRevRangeObjectsByScoreWithScore(K key, double min, double max, long offset,
+			long limit, Class<T> clazz);
+
+	CompletableFuture<Map<Byte, Double>> zRangeBytesByScoreWithScore(K key, double min, double max, long offset,
+			long limit);
+
+	CompletableFuture<Map<Integer, Double>> zRangeIntegersByScoreWithScore(K key, double min, double max, long offset,
+			long limit);
+
+	CompletableFuture<Map<Long, Double>> zRangeLongsByScoreWithScore(K key, double min, double max, long offset,
+			long limit);
+
+	CompletableFuture<Map<Double, Double>> zRangeDoublesByScoreWithScore(K key, double min, double max, long offset,
+			long limit);
+
+	CompletableFuture<Map<BigDecimal, Double>> zRangeBigDecimalsByScoreWithScore(K key, double min, double max,
+			long offset, long limit);
+
+	<T> CompletableFuture<Map<T, Double>> zRangeObjectsByScoreWithScore(K key, double min, double max, long offset,
+			long limit, Class<T> clazz);
+
+	CompletableFuture<LongScoreTuples> zRangeLongsWithScores(K key, long start, long end);
+
+	CompletableFuture<LongScoreTuples> zRevRangeLongsWithScores(K key, long start, long end);
+
+	CompletableFuture<LongScoreTuples> zRangeLongsByScoreWithScores(K key, double min, double max, long offset,
+			long limit);
+
+	CompletableFuture<LongScoreTuples> zRevRangeLongsByScoreWithScores(K key, double min, double max, long offset,
+			long limit);
+
+	<T> CompletableFuture<Long> zScan(K key, int batchSize, Class<T> clazz, ScanCallback<TypedTuple<T>> callback);
+
+	CompletableFuture<Double> increaseScoreInZset(K key, V value, double delta);
+
+	CompletableFuture<Long> sizeOfZSet(K key);
+
+	CompletableFuture<Long> zRank(K key, V value);
+
+	CompletableFuture<Boolean> zContains(K key, V value);
+
+	CompletableFuture<Long> zCountLargerThan(K key, double min);
+
+	CompletableFuture<Long> zCountSmallerThan(K key, double max);
+
+	CompletableFuture<Double> zScore(K key, V value);
+
+	// Hash
+	CompletableFuture<Long> put(K key, Object hashKey, Object value);
+
+	CompletableFuture<Long> put(K key, Object hashKey, Object value, Long timeout, TimeUnit unit);
+
+	CompletableFuture<Long> putAll(K key, Map<Object, Object> value);
+
+	CompletableFuture<Long> putAll(K key, Map<Object, Object> value, Long timeout, TimeUnit unit);
+
+	CompletableFuture<Byte> hGetByte(K key, Object hashKey);
+
+	CompletableFuture<Integer> hGetInteger(K key, Object hashKey);
+
+	CompletableFuture<Long> hGetLong(K key, Object hashKey);
+
+	CompletableFuture<Double> hGetDouble(K key, Object hashKey);
+
+	CompletableFuture<BigDecimal> hGetBigDecimal(K key, Object hashKey);
+
+	<T> CompletableFuture<T> hGetObject(K key, Object hashKey, Class<T> clazz);
+
+	<T> CompletableFuture<List<T>> hMultiGetObjects(K key, Collection<Object> hashKeys, Class<T> clazz);
+
+	<T> CompletableFuture<Map<Object, T>> hGetAll(K key, Class<T> clazz);
+
+	CompletableFuture<Boolean> hContainKey(K key, Object hashKey);
+
+	CompletableFuture<Double> hIncrBy(K key, Object hashKey, double delta);
+
+	CompletableFuture<Integer> delFromHash(K key, Object hashKey);
+
+	CompletableFuture<Integer> delAllFromHash(K key, Object[] hashKeys);
+
+	CompletableFuture<Long> sizeOfHash(K key);
+
+	CompletableFuture<Long> incr(K key);
+
+	CompletableFuture<Long> incrBy(K key, long delta);
+
+	CompletableFuture<Void> setTimeOut(K key, long expireTime, TimeUnit unit);
+
+	CompletableFuture<Long> ttl(K key);
+
+	CompletableFuture<Void> delFromZsets(Collection<K> keys, V value);
+
+	CompletableFuture<Void> delAllFromZsets(Collection<K> keys, Collection<V> values);
+
+	CompletableFuture<List<Byte>> lRangeBytes(K key, long start, long end);
+
+	CompletableFuture<List<Integer>> lRangeIntegers(K key, long start, long end);
+
+	CompletableFuture<List<Long>> lRangeLongs(K key, long start, long end);
+
+	CompletableFuture<List<Double>> lRangeDoubles(K key, long start, long end);
+
+	CompletableFuture<List<BigDecimal>> lRangeBigDecimals(K key, long start, long end);
+
+	<T> CompletableFuture<List<T>> lRangeObjects(K key, long start, long end, Class<T> clazz);
+
+	<T> CompletableFuture<Long> hScan(K key, int batchSize, Class<T> clazz,
+			ScanCallback<Map.Entry<Object, T>> callback);
+}
@@ -2,9 +2,18 @@ package com.easycode.redis.client.service;
 
 import java.math.BigDecimal;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.springframework.data.redis.core.ZSetOperations.TypedTuple;
+
+import com.easycode.redis.server.LongScoreTuples;
+import com.easycode.redis.server.batch.RedisBatch;
+import com.easycode.redis.server.lock.RedisLock;
+import com.easycode.redis.server.scan.ScanCallback;
 
 public interface NewRedisService<K, V> {
 
@@ -53,6 +62,54 @@ public interface NewRedisService<K, V> {
 	 */
 	void multiSet(Map<K, V> tuples, Long timeout, TimeUnit unit);
 
+	/**
+	 * 以十进制文本写入long值，可被incr/incrBy直接累加，读取时不经过value序列化器
+	 * 
+	 * @param key
+	 *            redis中保存的key
+	 * @param value
+	 *            对应的值
+	 */
+	void setLong(K key, long value);
+
+	/**
+	 * 以十进制文本写入有过期时间的long值
+	 * 
+	 * @param key
+	 *            redis中保存的key
+	 * @param value
+	 *            对应的值
+	 * @param timeout
+	 *            过期时间
+	 * @param unit
+	 *            时间单位
+	 */
+	void setLong(K key, long value, Long timeout, TimeUnit unit);
+
+	/**
+	 * 以十进制文本写入double值，读取时不经过value序列化器
+	 * 
+	 * @param key
+	 *            redis中保存的key
+	 * @param value
+	 *            对应的值，不能为NaN或无穷大
+	 */
+	void setDouble(K key, double value);
+
+	/**
+	 * 以十进制文本写入有过期时间的double值
+	 * 
+	 * @param key
+	 *            redis中保存的key
+	 * @param value
+	 *            对应的值，不能为NaN或无穷大
+	 * @param timeout
+	 *            过期时间
+	 * @param unit
+	 *            时间单位
+	 */
+	void setDouble(K key, double value, Long timeout, TimeUnit unit);
+
 	/**
 	 * 获取一个String类型的值
 	 * 
@@ -208,6 +265,30 @@ public interface NewRedisService<K, V> {
 	 */
 	boolean hasKey(K key);
 
+	/**
+	 * 以SCAN惰性遍历匹配的key，不会像KEYS一样阻塞redis；遍历期间同一个key可能返回多次
+	 * 
+	 * @param pattern
+	 *            匹配模式，为<tt>null</tt>时遍历全部key
+	 * @param count
+	 *            每页的COUNT提示
+	 * @return key的迭代器，按页向redis读取
+	 */
+	Iterator<K> scan(String pattern, int count);
+
+	/**
+	 * 以SCAN逐页遍历匹配的key
+	 * 
+	 * @param pattern
+	 *            匹配模式，为<tt>null</tt>时遍历全部key
+	 * @param count
+	 *            每页的COUNT提示
+	 * @param callback
+	 *            每页的回调，返回false时停止遍历
+	 * @return 处理过的key个数
+	 */
+	long scan(String pattern, int count, ScanCallback<K> callback);
+
 	// list
 
 	/**
@@ -830,6 +911,47 @@ public interface NewRedisService<K, V> {
 
 	boolean sIsMember(K key, V value);
 
+	/**
+	 * 以SSCAN惰性遍历set中的成员，不会像SMEMBERS一样一次读入整个集合
+	 * 
+	 * @param key
+	 *            redis中对应的key
+	 * @param batchSize
+	 *            每页的COUNT提示
+	 * @param clazz
+	 *            成员的具体类型
+	 * @return 成员的迭代器，按页向redis读取；同一成员可能返回多次
+	 */
+	<T> Iterator<T> sScan(K key, int batchSize, Class<T> clazz);
+
+	/**
+	 * 以SSCAN逐页遍历set中的成员
+	 * 
+	 * @param key
+	 *            redis中对应的key
+	 * @param batchSize
+	 *            每页的COUNT提示
+	 * @param clazz
+	 *            成员的具体类型
+	 * @param callback
+	 *            每页的回调，返回false时停止遍历
+	 * @return 处理过的成员个数
+	 */
+	<T> long sScan(K key, int batchSize, Class<T> clazz, ScanCallback<T> callback);
+
+	/**
+	 * 以SSCAN惰性遍历set中的成员，返回顺序流
+	 * 
+	 * @param key
+	 *            redis中对应的key
+	 * @param batchSize
+	 *            每页的COUNT提示
+	 * @param clazz
+	 *            成员的具体类型
+	 * @return 成员的顺序流，按页向redis读取；同一成员可能返回多次
+	 */
+	<T> Stream<T> sScanStream(K key, int batchSize, Class<T> clazz);
+
 	// Zset
 	void zAdd(K key, V value, double score);
 
@@ -950,6 +1072,107 @@ public interface NewRedisService<K, V> {
 	<T> Map<T, Double> zRangeObjectsByScoreWithScore(K key, double min, double max, long offset, long limit,
 			Class<T> clazz);
 
+	/**
+	 * 按排名查询成员为整数的有序集合，成员与分值直接解码到基本类型数组，适用于大排行榜
+	 * 
+	 * @param key
+	 *            有序集合对应的redis-key
+	 * @param start
+	 *            起始排名
+	 * @param end
+	 *            结束排名，-1表示到最后
+	 * @return 成员及分值，按分值从小到大
+	 */
+	LongScoreTuples zRangeLongsWithScores(K key, long start, long end);
+
+	/**
+	 * 同{@link #zRangeLongsWithScores(Object, long, long)}，结果写入传入的对象以便复用
+	 * 
+	 * @param ret
+	 *            复用的结果对象，原有内容会被清空
+	 */
+	LongScoreTuples zRangeLongsWithScores(K key, long start, long end, LongScoreTuples ret);
+
+	/**
+	 * 按排名倒序查询成员为整数的有序集合
+	 * 
+	 * @return 成员及分值，按分值从大到小
+	 */
+	LongScoreTuples zRevRangeLongsWithScores(K key, long start, long end);
+
+	LongScoreTuples zRevRangeLongsWithScores(K key, long start, long end, LongScoreTuples ret);
+
+	/**
+	 * 按分值区间查询成员为整数的有序集合
+	 * 
+	 * @param key
+	 *            有序集合对应的redis-key
+	 * @param min
+	 *            最小分值，可为Double.NEGATIVE_INFINITY
+	 * @param max
+	 *            最大分值，可为Double.POSITIVE_INFINITY
+	 * @param offset
+	 *            跳过的元素个数
+	 * @param limit
+	 *            最多返回的元素个数，负数表示不限
+	 * @return 成员及分值，按分值从小到大
+	 */
+	LongScoreTuples zRangeLongsByScoreWithScores(K key, double min, double max, long offset, long limit);
+
+	LongScoreTuples zRangeLongsByScoreWithScores(K key, double min, double max, long offset, long limit,
+			LongScoreTuples ret);
+
+	/**
+	 * 按分值区间倒序查询成员为整数的有序集合
+	 * 
+	 * @return 成员及分值，按分值从大到小
+	 */
+	LongScoreTuples zRevRangeLongsByScoreWithScores(K key, double min, double max, long offset, long limit);
+
+	LongScoreTuples zRevRangeLongsByScoreWithScores(K key, double min, double max, long offset, long limit,
+			LongScoreTuples ret);
+
+	/**
+	 * 以ZSCAN惰性遍历有序集合中的成员与分值，返回顺序与分值无关
+	 * 
+	 * @param key
+	 *            redis中对应的key
+	 * @param batchSize
+	 *            每页的COUNT提示
+	 * @param clazz
+	 *            成员的具体类型
+	 * @return 成员与分值的迭代器，按页向redis读取；同一成员可能返回多次
+	 */
+	<T> Iterator<TypedTuple<T>> zScan(K key, int batchSize, Class<T> clazz);
+
+	/**
+	 * 以ZSCAN逐页遍历有序集合中的成员与分值
+	 * 
+	 * @param key
+	 *            redis中对应的key
+	 * @param batchSize
+	 *            每页的COUNT提示
+	 * @param clazz
+	 *            成员的具体类型
+	 * @param callback
+	 *            每页的回调，返回false时停止遍历
+	 * @return 处理过的成员个数
+	 */
+	<T> long zScan(K key, int batchSize, Class<T> clazz, ScanCallback<TypedTuple<T>> callback);
+
+	/**
+	 * 以ZSCAN惰性遍历有序集合中的成员与分值，返回顺序流
+	 * 
+	 * @param key
+	 *            redis中对应的key
+	 * @param batchSize
+	 *            每页的COUNT提示
+	 * @param clazz
+	 *            成员的具体类型
+	 * @return 成员与分值的顺序流，顺序与分值无关；同一成员可能返回多次
+	 */
+	<T> Stream<TypedTuple<T>> zScanStream(K key, int batchSize, Class<T> clazz);
+
 	double increaseScoreInZset(K key, V value, double delta);
 
 	long sizeOfZSet(K key);
@@ -999,13 +1222,105 @@ public interface NewRedisService<K, V> {
 
 	long sizeOfHash(K key);
 
+	/**
+	 * 尝试加锁，锁的key为<tt>key + ":lock"</tt>，租约默认1分钟；不可重入。本JVM内其他线程持有锁时先在本地排队，默认最多等待1秒
+	 * 
+	 * @return true：加锁成功；false：锁已被占用
+	 */
 	boolean lock(K key);
 
+	/**
+	 * 释放当前线程通过{@link #lock(Object)}获得的锁；其他线程调用、或锁已过期并被他人获得时不会删除
+	 */
 	void unlock(K key);
+
+	/**
+	 * 尝试加锁，只需一次往返
+	 * 
+	 * @param key
+	 *            需要加锁的key，锁的key为<tt>key + ":lock"</tt>
+	 * @param leaseTime
+	 *            租约时长，到期后锁自动释放
+	 * @param unit
+	 *            时间单位
+	 * @return 锁的句柄，通过{@link RedisLock#unlock()}释放；加锁失败返回<tt>null</tt>
+	 */
+	RedisLock tryLock(K key, long leaseTime, TimeUnit unit);
+
+	/**
+	 * 在waitTime内反复尝试加锁
+	 * 
+	 * @param key
+	 *            需要加锁的key，锁的key为<tt>key + ":lock"</tt>
+	 * @param waitTime
+	 *            最长等待时间
+	 * @param leaseTime
+	 *            租约时长，到期后锁自动释放
+	 * @param unit
+	 *            时间单位
+	 * @return 锁的句柄，通过{@link RedisLock#unlock()}释放；超时返回<tt>null</tt>
+	 */
+	RedisLock tryLock(K key, long waitTime, long leaseTime, TimeUnit unit);
+
+	/**
+	 * 在waitTime内反复尝试加锁，可选择自动续期
+	 * 
+	 * @param key
+	 *            需要加锁的key，锁的key为<tt>key + ":lock"</tt>
+	 * @param waitTime
+	 *            最长等待时间
+	 * @param leaseTime
+	 *            租约时长，自动续期时每经过1/3租约续约一次
+	 * @param unit
+	 *            时间单位
+	 * @param autoRenew
+	 *            是否由后台线程自动续期，直到释放锁或JVM关闭
+	 * @return 锁的句柄，通过{@link RedisLock#unlock()}释放；超时返回<tt>null</tt>
+	 */
+	RedisLock tryLock(K key, long waitTime, long leaseTime, TimeUnit unit, boolean autoRenew);
 	
 	long incr(K key);
 	
 	long incrBy(K key, long delta);
+
+	/**
+	 * 累加计数，开启计数器聚合后只在本地累加，由后台线程批量写入redis（最多滞后一个刷新周期）；未开启时等同于{@link #incrBy(Object, long)}
+	 * 
+	 * @param key
+	 *            redis中对应的key
+	 * @param delta
+	 *            增量
+	 */
+	void incrByBuffered(K key, long delta);
+
+	/**
+	 * 累加hash中的计数，开启计数器聚合后只在本地累加；未开启时等同于{@link #hIncrBy(Object, Object, double)}
+	 * 
+	 * @param key
+	 *            redis中对应的key
+	 * @param hashKey
+	 *            hash中的field
+	 * @param delta
+	 *            增量
+	 */
+	void hIncrByBuffered(K key, Object hashKey, double delta);
+
+	/**
+	 * 累加有序集合成员的分值，开启计数器聚合后只在本地累加；未开启时等同于{@link #increaseScoreInZset(Object, Object, double)}
+	 * 
+	 * @param key
+	 *            redis中对应的key
+	 * @param value
+	 *            有序集合的成员
+	 * @param delta
+	 *            增量
+	 */
+	void increaseScoreInZsetBuffered(K key, V value, double delta);
+
+	/**
+	 * 立即把本地聚合的计数增量写入redis
+	 */
+	void flushCounters();
 	
 	void setTimeOut(K key, long expireTime, TimeUnit unit);
 	
@@ -1069,4 +1384,54 @@ public interface NewRedisService<K, V> {
 	 * @return			对应的元素列表
 	 */
 	<T> List<T> lRangeObjects(K key, long start, long end, Class<T> clazz);
+
+	// hash
+	/**
+	 * 以HSCAN惰性遍历hash中的field与value，不会像HGETALL一样一次读入整个hash
+	 * 
+	 * @param key
+	 *            redis中对应的key
+	 * @param batchSize
+	 *            每页的COUNT提示
+	 * @param clazz
+	 *            value的具体类型
+	 * @return field与value的迭代器，按页向redis读取；同一field可能返回多次
+	 */
+	<T> Iterator<Map.Entry<Object, T>> hScan(K key, int batchSize, Class<T> clazz);
+
+	/**
+	 * 以HSCAN逐页遍历hash中的field与value
+	 * 
+	 * @param key
+	 *            redis中对应的key
+	 * @param batchSize
+	 *            每页的COUNT提示
+	 * @param clazz
+	 *            value的具体类型
+	 * @param callback
+	 *            每页的回调，返回false时停止遍历
+	 * @return 处理过的field个数
+	 */
+	<T> long hScan(K key, int batchSize, Class<T> clazz, ScanCallback<Map.Entry<Object, T>> callback);
+
+	/**
+	 * 以HSCAN惰性遍历hash中的field与value，返回顺序流
+	 * 
+	 * @param key
+	 *            redis中对应的key
+	 * @param batchSize
+	 *            每页的COUNT提示
+	 * @param clazz
+	 *            value的具体类型
+	 * @return field与value的顺序流，按页向redis读取；同一field可能返回多次
+	 */
+	<T> Stream<Map.Entry<Object, T>> hScanStream(K key, int batchSize, Class<T> clazz);
+
+	// batch
+	/**
+	 * 创建一个批量执行的命令集合：任意结构的读写命令加入后各自返回future，execute时在一个pipeline中一次往返执行
+	 * 
+	 * @return 只能执行一次的RedisBatch，非线程安全
+	 */
+	RedisBatch<K, V> batch();
 }
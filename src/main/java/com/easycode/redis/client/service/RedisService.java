@@ -1,6 +1,7 @@
 package com.easycode.redis.client.service;
 
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -8,6 +9,9 @@ import java.util.concurrent.TimeUnit;
 
 import org.springframework.data.redis.core.ZSetOperations.TypedTuple;
 
+import com.easycode.redis.server.lock.RedisLock;
+import com.easycode.redis.server.scan.ScanCallback;
+
 public interface RedisService {
 	// String
 
@@ -191,10 +195,31 @@ public interface RedisService {
 
 		public boolean containKey(String key);
 
+		/**
+		 * 尝试加锁，锁的key为<tt>key + ":lock"</tt>，租约默认1分钟；不可重入。本JVM内其他线程持有锁时先在本地排队，默认最多等待1秒
+		 */
 		public boolean lock(String key);
 
+		/**
+		 * 释放当前线程通过{@link #lock(String)}获得的锁；其他线程调用、或锁已过期并被他人获得时不会删除
+		 */
 		public void unlock(String key);
 
+		/**
+		 * 尝试加锁，只需一次往返；返回的句柄通过{@link RedisLock#unlock()}释放，加锁失败返回<tt>null</tt>
+		 */
+		public RedisLock tryLock(String key, long leaseTime, TimeUnit unit);
+
+		/**
+		 * 在waitTime内反复尝试加锁；返回的句柄通过{@link RedisLock#unlock()}释放，超时返回<tt>null</tt>
+		 */
+		public RedisLock tryLock(String key, long waitTime, long leaseTime, TimeUnit unit);
+
+		/**
+		 * 在waitTime内反复尝试加锁，autoRenew为true时由后台线程自动续期，直到释放锁或JVM关闭
+		 */
+		public RedisLock tryLock(String key, long waitTime, long leaseTime, TimeUnit unit, boolean autoRenew);
+
 		public void del(String key);
 
 		public void del(Set<String> keys);
@@ -217,7 +242,35 @@ public interface RedisService {
 		Long sizeOfZSet(String key);
 
 		
+		/**
+		 * @deprecated KEYS会阻塞redis，已改为基于SCAN实现，请使用{@link #scan(String, int)}或
+		 *             {@link #scan(String, int, ScanCallback)}逐批处理
+		 */
+		@Deprecated
 		Set<String> keys(String keyPattern);
+
+		/**
+		 * 以SCAN惰性遍历匹配的key，同一个key可能返回多次
+		 * 
+		 * @param keyPattern
+		 *            匹配模式
+		 * @param count
+		 *            每页的COUNT提示
+		 */
+		Iterator<String> scan(String keyPattern, int count);
+
+		/**
+		 * 以SCAN逐页遍历匹配的key，每次只持有一页
+		 * 
+		 * @param keyPattern
+		 *            匹配模式
+		 * @param count
+		 *            每页的COUNT提示
+		 * @param callback
+		 *            每页的回调，返回false时停止
+		 * @return 处理过的key个数
+		 */
+		long scan(String keyPattern, int count, ScanCallback<String> callback);
 		
 		public <T> Set<T> zRangeByScore(String key, double min, double max, long offset, long count, Class<T> clazz);
 		
@@ -0,0 +1,2348 @@
+package com.easycode.redis.client.service.impl;
+
+import com.easycode.redis.client.service.AsyncNewRedisService;
+import com.easycode.redis.client.service.NewRedisService;
+import com.easycode.redis.server.LongScoreTuples;
+import com.easycode.redis.server.scan.ScanCallback;
+
+import org.springframework.data.redis.core.ZSetOperations.TypedTuple;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 把同步的{@link NewRedisService}调用提交到执行器中，每个调用各自从连接池取连接，互不依赖的调用因此并发执行。
+ * <p>
+ * 未指定executor时按threads创建守护线程池，threads不宜超过连接池的maxTotal，否则多出的线程只是在等连接；
+ * 自建的线程池在{@link #destroy()}时关闭，之后的调用抛出{@link IllegalStateException}。
+ */
+public class AsyncNewRedisServiceImpl<K, V> implements AsyncNewRedisService<K, V> {
+
+	private static final AtomicInteger POOL_SEQUENCE = new AtomicInteger();
+
+	private NewRedisService<K, V> delegate;
+
+	private volatile Executor executor;
+
+	private ExecutorService ownExecutor;
+
+	private volatile boolean destroyed;
+
+	private int threads = 16;
+
+	public void setDelegate(NewRedisService<K, V> delegate) {
+		this.delegate = delegate;
+	}
+
+	/**
+	 * 执行同步调用的执行器，由调用方负责关闭
+	 */
+	public void setExecutor(Executor executor) {
+		this.executor = executor;
+	}
+
+	/**
+	 * 未指定executor时自建线程池的线程数，默认16
+	 */
+	public void setThreads(int threads) {
+		if (threads <= 0) {
+			throw new IllegalArgumentException("threads must be positive");
+		}
+		this.threads = threads;
+	}
+
+	public synchronized void destroy() {
+		destroyed = true;
+		if (ownExecutor != null) {
+			ownExecutor.shutdown();
+			ownExecutor = null;
+			executor = null;
+		}
+	}
+
+	private Executor executor() {
+		if (destroyed) {
+			throw new IllegalStateException("AsyncNewRedisServiceImpl is already destroyed");
+		}
+		Executor current = executor;
+		if (current != null) {
+			return current;
+		}
+		synchronized (this) {
+			if (destroyed) {
+				throw new IllegalStateException("AsyncNewRedisServiceImpl is already destroyed");
+			}
+			if (executor == null) {
+				final int pool = POOL_SEQUENCE.incrementAndGet();
+				ownExecutor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+					private final AtomicInteger sequence = new AtomicInteger();
+
+					@Override
+					public Thread newThread(Runnable r) {
+						Thread thread = new Thread(r, "redis-async-" + pool + "-" + sequence.incrementAndGet());
+						thread.setDaemon(true);
+						return thread;
+					}
+				});
+				executor = ownExecutor;
+			}
+			return executor;
+		}
+	}
+
+	// base key-value
+
+	@Override
+	public CompletableFuture<Void> set(final K key, final V value) {
+		return CompletableFuture.runAsync(new Runnable() {
+			@Override
+			public void run() {
+				delegate.set(key, value);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Void> set(final K key, final V value, final Long timeout, final TimeUnit unit) {
+		return CompletableFuture.runAsync(new Runnable() {
+			@Override
+			public void run() {
+				delegate.set(key, value, timeout, unit);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Void> multiSet(final Map<K, V> tuples) {
+		return CompletableFuture.runAsync(new Runnable() {
+			@Override
+			public void run() {
+				delegate.multiSet(tuples);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Void> multiSet(final Map<K, V> tuples, final Long timeout, final TimeUnit unit) {
+		return CompletableFuture.runAsync(new Runnable() {
+			@Override
+			public void run() {
+				delegate.multiSet(tuples, timeout, unit);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Void> setLong(final K key, final long value) {
+		return CompletableFuture.runAsync(new Runnable() {
+			@Override
+			public void run() {
+				delegate.setLong(key, value);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Void> setLong(final K key, final long value, final Long timeout, final TimeUnit unit) {
+		return CompletableFuture.runAsync(new Runnable() {
+			@Override
+			public void run() {
+				delegate.setLong(key, value, timeout, unit);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Void> setDouble(final K key, final double value) {
+		return CompletableFuture.runAsync(new Runnable() {
+			@Override
+			public void run() {
+				delegate.setDouble(key, value);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Void> setDouble(final K key, final double value, final Long timeout, final TimeUnit unit) {
+		return CompletableFuture.runAsync(new Runnable() {
+			@Override
+			public void run() {
+				delegate.setDouble(key, value, timeout, unit);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<String> getString(final K key) {
+		return CompletableFuture.supplyAsync(new Supplier<String>() {
+			@Override
+			public String get() {
+				return delegate.getString(key);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Byte> getByte(final K key) {
+		return CompletableFuture.supplyAsync(new Supplier<Byte>() {
+			@Override
+			public Byte get() {
+				return delegate.getByte(key);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Byte> getByteValue(final K key) {
+		return CompletableFuture.supplyAsync(new Supplier<Byte>() {
+			@Override
+			public Byte get() {
+				return delegate.getByteValue(key);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Integer> getInteger(final K key) {
+		return CompletableFuture.supplyAsync(new Supplier<Integer>() {
+			@Override
+			public Integer get() {
+				return delegate.getInteger(key);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Integer> getIntegerValue(final K key) {
+		return CompletableFuture.supplyAsync(new Supplier<Integer>() {
+			@Override
+			public Integer get() {
+				return delegate.getIntegerValue(key);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Long> getLong(final K key) {
+		return CompletableFuture.supplyAsync(new Supplier<Long>() {
+			@Override
+			public Long get() {
+				return delegate.getLong(key);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Long> getLongValue(final K key) {
+		return CompletableFuture.supplyAsync(new Supplier<Long>() {
+			@Override
+			public Long get() {
+				return delegate.getLongValue(key);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Double> getDouble(final K key) {
+		return CompletableFuture.supplyAsync(new Supplier<Double>() {
+			@Override
+			public Double get() {
+				return delegate.getDouble(key);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Double> getDoubleValue(final K key) {
+		return CompletableFuture.supplyAsync(new Supplier<Double>() {
+			@Override
+			public Double get() {
+				return delegate.getDoubleValue(key);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<BigDecimal> getBigDecimal(final K key) {
+		return CompletableFuture.supplyAsync(new Supplier<BigDecimal>() {
+			@Override
+			public BigDecimal get() {
+				return delegate.getBigDecimal(key);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Double> getBigDecimalValue(final K key) {
+		return CompletableFuture.supplyAsync(new Supplier<Double>() {
+			@Override
+			public Double get() {
+				return delegate.getBigDecimalValue(key);
+			}
+		}, executor());
+	}
+
+	@Override
+	public <T> CompletableFuture<T> getObj(final K key, final Class<T> clazz) {
+		return CompletableFuture.supplyAsync(new Supplier<T>() {
+			@Override
+			public T get() {
+				return delegate.getObj(key, clazz);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Map<K, String>> multiGetString(final Collection<? extends K> keys) {
+		return CompletableFuture.supplyAsync(new Supplier<Map<K, String>>() {
+			@Override
+			public Map<K, String> get() {
+				return delegate.multiGetString(keys);
+			}
+		}, executor());
+	}
+
+	@Override
+	public <T> CompletableFuture<Map<K, T>> multiGetObject(final Collection<? extends K> keys, final Class<T> clazz) {
+		return CompletableFuture.supplyAsync(new Supplier<Map<K, T>>() {
+			@Override
+			public Map<K, T> get() {
+				return delegate.multiGetObject(keys, clazz);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Void> del(final K key) {
+		return CompletableFuture.runAsync(new Runnable() {
+			@Override
+			public void run() {
+				delegate.del(key);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Void> delAll(final Collection<K> keys) {
+		return CompletableFuture.runAsync(new Runnable() {
+			@Override
+			public void run() {
+				delegate.delAll(keys);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Boolean> hasKey(final K key) {
+		return CompletableFuture.supplyAsync(new Supplier<Boolean>() {
+			@Override
+			public Boolean get() {
+				return delegate.hasKey(key);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Long> scan(final String pattern, final int count, final ScanCallback<K> callback) {
+		return CompletableFuture.supplyAsync(new Supplier<Long>() {
+			@Override
+			public Long get() {
+				return delegate.scan(pattern, count, callback);
+			}
+		}, executor());
+	}
+	// list
+
+	@Override
+	public CompletableFuture<Void> leftPush(final K key, final V value) {
+		return CompletableFuture.runAsync(new Runnable() {
+			@Override
+			public void run() {
+				delegate.leftPush(key, value);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Void> leftPush(final K key, final V value, final Long timeout, final TimeUnit unit) {
+		return CompletableFuture.runAsync(new Runnable() {
+			@Override
+			public void run() {
+				delegate.leftPush(key, value, timeout, unit);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Void> leftPushAll(final K key, final Collection<? extends V> values) {
+		return CompletableFuture.runAsync(new Runnable() {
+			@Override
+			public void run() {
+				delegate.leftPushAll(key, values);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Void> leftPushAll(final K key, final Collection<? extends V> values, final Long timeout,
+			final TimeUnit unit) {
+		return CompletableFuture.runAsync(new Runnable() {
+			@Override
+			public void run() {
+				delegate.leftPushAll(key, values, timeout, unit);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Void> rightPush(final K key, final V value) {
+		return CompletableFuture.runAsync(new Runnable() {
+			@Override
+			public void run() {
+				delegate.rightPush(key, value);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Void> rightPush(final K key, final V value, final Long timeout, final TimeUnit unit) {
+		return CompletableFuture.runAsync(new Runnable() {
+			@Override
+			public void run() {
+				delegate.rightPush(key, value, timeout, unit);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Void> rightPushAll(final K key, final Collection<? extends V> values) {
+		return CompletableFuture.runAsync(new Runnable() {
+			@Override
+			public void run() {
+				delegate.rightPushAll(key, values);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Void> rightPushAll(final K key, final Collection<? extends V> values, final Long timeout,
+			final TimeUnit unit) {
+		return CompletableFuture.runAsync(new Runnable() {
+			@Override
+			public void run() {
+				delegate.rightPushAll(key, values, timeout, unit);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Byte> leftPopByte(final K key) {
+		return CompletableFuture.supplyAsync(new Supplier<Byte>() {
+			@Override
+			public Byte get() {
+				return delegate.leftPopByte(key);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<List<Byte>> leftPopBytes(final K key, final int num) {
+		return CompletableFuture.supplyAsync(new Supplier<List<Byte>>() {
+			@Override
+			public List<Byte> get() {
+				return delegate.leftPopBytes(key, num);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Integer> leftPopInteger(final K key) {
+		return CompletableFuture.supplyAsync(new Supplier<Integer>() {
+			@Override
+			public Integer get() {
+				return delegate.leftPopInteger(key);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<List<Integer>> leftPopIntegers(final K key, final int num) {
+		return CompletableFuture.supplyAsync(new Supplier<List<Integer>>() {
+			@Override
+			public List<Integer> get() {
+				return delegate.leftPopIntegers(key, num);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Long> leftPopLong(final K key) {
+		return CompletableFuture.supplyAsync(new Supplier<Long>() {
+			@Override
+			public Long get() {
+				return delegate.leftPopLong(key);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<List<Long>> leftPopLongs(final K key, final int num) {
+		return CompletableFuture.supplyAsync(new Supplier<List<Long>>() {
+			@Override
+			public List<Long> get() {
+				return delegate.leftPopLongs(key, num);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Double> leftPopDouble(final K key) {
+		return CompletableFuture.supplyAsync(new Supplier<Double>() {
+			@Override
+			public Double get() {
+				return delegate.leftPopDouble(key);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<List<Double>> leftPopDoubles(final K key, final int num) {
+		return CompletableFuture.supplyAsync(new Supplier<List<Double>>() {
+			@Override
+			public List<Double> get() {
+				return delegate.leftPopDoubles(key, num);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<BigDecimal> leftPopBigDecimal(final K key) {
+		return CompletableFuture.supplyAsync(new Supplier<BigDecimal>() {
+			@Override
+			public BigDecimal get() {
+				return delegate.leftPopBigDecimal(key);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<List<BigDecimal>> leftPopBigDecimals(final K key, final int num) {
+		return CompletableFuture.supplyAsync(new Supplier<List<BigDecimal>>() {
+			@Override
+			public List<BigDecimal> get() {
+				return delegate.leftPopBigDecimals(key, num);
+			}
+		}, executor());
+	}
+
+	@Override
+	public <T> CompletableFuture<T> leftPopObject(final K key, final Class<T> clazz) {
+		return CompletableFuture.supplyAsync(new Supplier<T>() {
+			@Override
+			public T get() {
+				return delegate.leftPopObject(key, clazz);
+			}
+		}, executor());
+	}
+
+	@Override
+	public <T> CompletableFuture<List<T>> leftPopObjects(final K key, final Class<T> clazz, final int num) {
+		return CompletableFuture.supplyAsync(new Supplier<List<T>>() {
+			@Override
+			public List<T> get() {
+				return delegate.leftPopObjects(key, clazz, num);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Byte> rightPopByte(final K key) {
+		return CompletableFuture.supplyAsync(new Supplier<Byte>() {
+			@Override
+			public Byte get() {
+				return delegate.rightPopByte(key);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<List<Byte>> rightPopBytes(final K key, final int num) {
+		return CompletableFuture.supplyAsync(new Supplier<List<Byte>>() {
+			@Override
+			public List<Byte> get() {
+				return delegate.rightPopBytes(key, num);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Integer> rightPopInteger(final K key) {
+		return CompletableFuture.supplyAsync(new Supplier<Integer>() {
+			@Override
+			public Integer get() {
+				return delegate.rightPopInteger(key);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<List<Integer>> rightPopIntegers(final K key, final int num) {
+		return CompletableFuture.supplyAsync(new Supplier<List<Integer>>() {
+			@Override
+			public List<Integer> get() {
+				return delegate.rightPopIntegers(key, num);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Long> rightPopLong(final K key) {
+		return CompletableFuture.supplyAsync(new Supplier<Long>() {
+			@Override
+			public Long get() {
+				return delegate.rightPopLong(key);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<List<Long>> rightPopLongs(final K key, final int num) {
+		return CompletableFuture.supplyAsync(new Supplier<List<Long>>() {
+			@Override
+			public List<Long> get() {
+				return delegate.rightPopLongs(key, num);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Double> rightPopDouble(final K key) {
+		return CompletableFuture.supplyAsync(new Supplier<Double>() {
+			@Override
+			public Double get() {
+				return delegate.rightPopDouble(key);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<List<Double>> rightPopDoubles(final K key, final int num) {
+		return CompletableFuture.supplyAsync(new Supplier<List<Double>>() {
+			@Override
+			public List<Double> get() {
+				return delegate.rightPopDoubles(key, num);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<BigDecimal> rightPopBigDecimal(final K key) {
+		return CompletableFuture.supplyAsync(new Supplier<BigDecimal>() {
+			@Override
+			public BigDecimal get() {
+				return delegate.rightPopBigDecimal(key);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<List<BigDecimal>> rightPopBigDecimals(final K key, final int num) {
+		return CompletableFuture.supplyAsync(new Supplier<List<BigDecimal>>() {
+			@Override
+			public List<BigDecimal> get() {
+				return delegate.rightPopBigDecimals(key, num);
+			}
+		}, executor());
+	}
+
+	@Override
+	public <T> CompletableFuture<T> rightPopObject(final K key, final Class<T> clazz) {
+		return CompletableFuture.supplyAsync(new Supplier<T>() {
+			@Override
+			public T get() {
+				return delegate.rightPopObject(key, clazz);
+			}
+		}, executor());
+	}
+
+	@Override
+	public <T> CompletableFuture<List<T>> rightPopObjects(final K key, final Class<T> clazz, final int num) {
+		return CompletableFuture.supplyAsync(new Supplier<List<T>>() {
+			@Override
+			public List<T> get() {
+				return delegate.rightPopObjects(key, clazz, num);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<String> getStringElementAt(final K key, final long index) {
+		return CompletableFuture.supplyAsync(new Supplier<String>() {
+			@Override
+			public String get() {
+				return delegate.getStringElementAt(key, index);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Byte> getByteElementAt(final K key, final long index) {
+		return CompletableFuture.supplyAsync(new Supplier<Byte>() {
+			@Override
+			public Byte get() {
+				return delegate.getByteElementAt(key, index);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Byte> getByteValueElementAt(final K key, final long index) {
+		return CompletableFuture.supplyAsync(new Supplier<Byte>() {
+			@Override
+			public Byte get() {
+				return delegate.getByteValueElementAt(key, index);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Integer> getIntegerElementAt(final K key, final long index) {
+		return CompletableFuture.supplyAsync(new Supplier<Integer>() {
+			@Override
+			public Integer get() {
+				return delegate.getIntegerElementAt(key, index);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Integer> getIntegerValueElementAt(final K key, final long index) {
+		return CompletableFuture.supplyAsync(new Supplier<Integer>() {
+			@Override
+			public Integer get() {
+				return delegate.getIntegerValueElementAt(key, index);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Long> getLongElementAt(final K key, final long index) {
+		return CompletableFuture.supplyAsync(new Supplier<Long>() {
+			@Override
+			public Long get() {
+				return delegate.getLongElementAt(key, index);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Long> getLongValueElementAt(final K key, final long index) {
+		return CompletableFuture.supplyAsync(new Supplier<Long>() {
+			@Override
+			public Long get() {
+				return delegate.getLongValueElementAt(key, index);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Double> getDoubleElementAt(final K key, final long index) {
+		return CompletableFuture.supplyAsync(new Supplier<Double>() {
+			@Override
+			public Double get() {
+				return delegate.getDoubleElementAt(key, index);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Double> getDoubleValueElementAt(final K key, final long index) {
+		return CompletableFuture.supplyAsync(new Supplier<Double>() {
+			@Override
+			public Double get() {
+				return delegate.getDoubleValueElementAt(key, index);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<BigDecimal> getBigDecimalElementAt(final K key, final long index) {
+		return CompletableFuture.supplyAsync(new Supplier<BigDecimal>() {
+			@Override
+			public BigDecimal get() {
+				return delegate.getBigDecimalElementAt(key, index);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Double> getBigDecimalValueElementAt(final K key, final long index) {
+		return CompletableFuture.supplyAsync(new Supplier<Double>() {
+			@Override
+			public Double get() {
+				return delegate.getBigDecimalValueElementAt(key, index);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Long> delFromList(final K key, final V value) {
+		return CompletableFuture.supplyAsync(new Supplier<Long>() {
+			@Override
+			public Long get() {
+				return delegate.delFromList(key, value);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Long> lengthOfList(final K key) {
+		return CompletableFuture.supplyAsync(new Supplier<Long>() {
+			@Override
+			public Long get() {
+				return delegate.lengthOfList(key);
+			}
+		}, executor());
+	}
+	// Set
+
+	@Override
+	public CompletableFuture<Void> sAdd(final K key, final V value) {
+		return CompletableFuture.runAsync(new Runnable() {
+			@Override
+			public void run() {
+				delegate.sAdd(key, value);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Void> sAdd(final K key, final V value, final Long timeout, final TimeUnit unit) {
+		return CompletableFuture.runAsync(new Runnable() {
+			@Override
+			public void run() {
+				delegate.sAdd(key, value, timeout, unit);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Void> sAddAll(final K key, final Collection<? extends V> values) {
+		return CompletableFuture.runAsync(new Runnable() {
+			@Override
+			public void run() {
+				delegate.sAddAll(key, values);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Void> sAddAll(final K key, final Collection<? extends V> values, final Long timeout,
+			final TimeUnit unit) {
+		return CompletableFuture.runAsync(new Runnable() {
+			@Override
+			public void run() {
+				delegate.sAddAll(key, values, timeout, unit);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Byte> randomByte(final K key) {
+		return CompletableFuture.supplyAsync(new Supplier<Byte>() {
+			@Override
+			public Byte get() {
+				return delegate.randomByte(key);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Byte> randomByteValue(final K key) {
+		return CompletableFuture.supplyAsync(new Supplier<Byte>() {
+			@Override
+			public Byte get() {
+				return delegate.randomByteValue(key);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Integer> randomInteger(final K key) {
+		return CompletableFuture.supplyAsync(new Supplier<Integer>() {
+			@Override
+			public Integer get() {
+				return delegate.randomInteger(key);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Integer> randomIntegerValue(final K key) {
+		return CompletableFuture.supplyAsync(new Supplier<Integer>() {
+			@Override
+			public Integer get() {
+				return delegate.randomIntegerValue(key);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Long> randomLong(final K key) {
+		return CompletableFuture.supplyAsync(new Supplier<Long>() {
+			@Override
+			public Long get() {
+				return delegate.randomLong(key);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Long> randomLongValue(final K key) {
+		return CompletableFuture.supplyAsync(new Supplier<Long>() {
+			@Override
+			public Long get() {
+				return delegate.randomLongValue(key);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Double> randomDouble(final K key) {
+		return CompletableFuture.supplyAsync(new Supplier<Double>() {
+			@Override
+			public Double get() {
+				return delegate.randomDouble(key);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Double> randomDoubleValue(final K key) {
+		return CompletableFuture.supplyAsync(new Supplier<Double>() {
+			@Override
+			public Double get() {
+				return delegate.randomDoubleValue(key);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<BigDecimal> randomBigDecimal(final K key) {
+		return CompletableFuture.supplyAsync(new Supplier<BigDecimal>() {
+			@Override
+			public BigDecimal get() {
+				return delegate.randomBigDecimal(key);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Double> randomBigDecimalValue(final K key) {
+		return CompletableFuture.supplyAsync(new Supplier<Double>() {
+			@Override
+			public Double get() {
+				return delegate.randomBigDecimalValue(key);
+			}
+		}, executor());
+	}
+
+	@Override
+	public <T> CompletableFuture<T> randomObject(final K key, final Class<T> clazz) {
+		return CompletableFuture.supplyAsync(new Supplier<T>() {
+			@Override
+			public T get() {
+				return delegate.randomObject(key, clazz);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<List<Byte>> randomBytes(final K key, final int num) {
+		return CompletableFuture.supplyAsync(new Supplier<List<Byte>>() {
+			@Override
+			public List<Byte> get() {
+				return delegate.randomBytes(key, num);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<List<Integer>> randomIntegers(final K key, final int num) {
+		return CompletableFuture.supplyAsync(new Supplier<List<Integer>>() {
+			@Override
+			public List<Integer> get() {
+				return delegate.randomIntegers(key, num);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<List<Long>> randomLongs(final K key, final int num) {
+		return CompletableFuture.supplyAsync(new Supplier<List<Long>>() {
+			@Override
+			public List<Long> get() {
+				return delegate.randomLongs(key, num);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<List<Double>> randomDoubles(final K key, final int num) {
+		return CompletableFuture.supplyAsync(new Supplier<List<Double>>() {
+			@Override
+			public List<Double> get() {
+				return delegate.randomDoubles(key, num);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<List<BigDecimal>> randomBigDecimals(final K key, final int num) {
+		return CompletableFuture.supplyAsync(new Supplier<List<BigDecimal>>() {
+			@Override
+			public List<BigDecimal> get() {
+				return delegate.randomBigDecimals(key, num);
+			}
+		}, executor());
+	}
+
+	@Override
+	public <T> CompletableFuture<List<T>> randomObjects(final K key, final int num, final Class<T> clazz) {
+		return CompletableFuture.supplyAsync(new Supplier<List<T>>() {
+			@Override
+			public List<T> get() {
+				return delegate.randomObjects(key, num, clazz);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<List<Byte>> randomDistinctBytes(final K key, final int num) {
+		return CompletableFuture.supplyAsync(new Supplier<List<Byte>>() {
+			@Override
+			public List<Byte> get() {
+				return delegate.randomDistinctBytes(key, num);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<List<Integer>> randomDistinctIntegers(final K key, final int num) {
+		return CompletableFuture.supplyAsync(new Supplier<List<Integer>>() {
+			@Override
+			public List<Integer> get() {
+				return delegate.randomDistinctIntegers(key, num);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<List<Long>> randomDistinctLongs(final K key, final int num) {
+		return CompletableFuture.supplyAsync(new Supplier<List<Long>>() {
+			@Override
+			public List<Long> get() {
+				return delegate.randomDistinctLongs(key, num);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<List<Double>> randomDistinctDoubles(final K key, final int num) {
+		return CompletableFuture.supplyAsync(new Supplier<List<Double>>() {
+			@Override
+			public List<Double> get() {
+				return delegate.randomDistinctDoubles(key, num);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<List<BigDecimal>> randomDistinctBigDecimals(final K key, final int num) {
+		return CompletableFuture.supplyAsync(new Supplier<List<BigDecimal>>() {
+			@Override
+			public List<BigDecimal> get() {
+				return delegate.randomDistinctBigDecimals(key, num);
+			}
+		}, executor());
+	}
+
+	@Override
+	public <T> CompletableFuture<List<T>> randomDistinctObjects(final K key, final int num, final Class<T> clazz) {
+		return CompletableFuture.supplyAsync(new Supplier<List<T>>() {
+			@Override
+			public List<T> get() {
+				return delegate.randomDistinctObjects(key, num, clazz);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Byte> randomPopByte(final K key) {
+		return CompletableFuture.supplyAsync(new Supplier<Byte>() {
+			@Override
+			public Byte get() {
+				return delegate.randomPopByte(key);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Byte> randomPopByteValue(final K key) {
+		return CompletableFuture.supplyAsync(new Supplier<Byte>() {
+			@Override
+			public Byte get() {
+				return delegate.randomPopByteValue(key);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Integer> randomPopInteger(final K key) {
+		return CompletableFuture.supplyAsync(new Supplier<Integer>() {
+			@Override
+			public Integer get() {
+				return delegate.randomPopInteger(key);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Integer> randomPopIntegerValue(final K key) {
+		return CompletableFuture.supplyAsync(new Supplier<Integer>() {
+			@Override
+			public Integer get() {
+				return delegate.randomPopIntegerValue(key);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Long> randomPopLong(final K key) {
+		return CompletableFuture.supplyAsync(new Supplier<Long>() {
+			@Override
+			public Long get() {
+				return delegate.randomPopLong(key);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Long> randomPopLongValue(final K key) {
+		return CompletableFuture.supplyAsync(new Supplier<Long>() {
+			@Override
+			public Long get() {
+				return delegate.randomPopLongValue(key);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Double> randomPopDouble(final K key) {
+		return CompletableFuture.supplyAsync(new Supplier<Double>() {
+			@Override
+			public Double get() {
+				return delegate.randomPopDouble(key);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Double> randomPopDoubleValue(final K key) {
+		return CompletableFuture.supplyAsync(new Supplier<Double>() {
+			@Override
+			public Double get() {
+				return delegate.randomPopDoubleValue(key);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<BigDecimal> randomPopBigDecimal(final K key) {
+		return CompletableFuture.supplyAsync(new Supplier<BigDecimal>() {
+			@Override
+			public BigDecimal get() {
+				return delegate.randomPopBigDecimal(key);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Double> randomPopBigDecimalValue(final K key) {
+		return CompletableFuture.supplyAsync(new Supplier<Double>() {
+			@Override
+			public Double get() {
+				return delegate.randomPopBigDecimalValue(key);
+			}
+		}, executor());
+	}
+
+	@Override
+	public <T> CompletableFuture<T> randomPopObject(final K key, final Class<T> clazz) {
+		return CompletableFuture.supplyAsync(new Supplier<T>() {
+			@Override
+			public T get() {
+				return delegate.randomPopObject(key, clazz);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<List<Byte>> randomPopBytes(final K key, final int num) {
+		return CompletableFuture.supplyAsync(new Supplier<List<Byte>>() {
+			@Override
+			public List<Byte> get() {
+				return delegate.randomPopBytes(key, num);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<List<Integer>> randomPopIntegers(final K key, final int num) {
+		return CompletableFuture.supplyAsync(new Supplier<List<Integer>>() {
+			@Override
+			public List<Integer> get() {
+				return delegate.randomPopIntegers(key, num);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<List<Long>> randomPopLongs(final K key, final int num) {
+		return CompletableFuture.supplyAsync(new Supplier<List<Long>>() {
+			@Override
+			public List<Long> get() {
+				return delegate.randomPopLongs(key, num);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<List<Double>> randomPopDoubles(final K key, final int num) {
+		return CompletableFuture.supplyAsync(new Supplier<List<Double>>() {
+			@Override
+			public List<Double> get() {
+				return delegate.randomPopDoubles(key, num);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<List<BigDecimal>> randomPopBigDecimals(final K key, final int num) {
+		return CompletableFuture.supplyAsync(new Supplier<List<BigDecimal>>() {
+			@Override
+			public List<BigDecimal> get() {
+				return delegate.randomPopBigDecimals(key, num);
+			}
+		}, executor());
+	}
+
+	@Override
+	public <T> CompletableFuture<List<T>> randomPopObjects(final K key, final int num, final Class<T> clazz) {
+		return CompletableFuture.supplyAsync(new Supplier<List<T>>() {
+			@Override
+			public List<T> get() {
+				return delegate.randomPopObjects(key, num, clazz);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Long> sizeOfSet(final K key) {
+		return CompletableFuture.supplyAsync(new Supplier<Long>() {
+			@Override
+			public Long get() {
+				return delegate.sizeOfSet(key);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Long> sRemove(final K key, final V[] value) {
+		return CompletableFuture.supplyAsync(new Supplier<Long>() {
+			@Override
+			public Long get() {
+				return delegate.sRemove(key, value);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Boolean> sIsMember(final K key, final V value) {
+		return CompletableFuture.supplyAsync(new Supplier<Boolean>() {
+			@Override
+			public Boolean get() {
+				return delegate.sIsMember(key, value);
+			}
+		}, executor());
+	}
+
+	@Override
+	public <T> CompletableFuture<Long> sScan(final K key, final int batchSize, final Class<T> clazz,
+			final ScanCallback<T> callback) {
+		return CompletableFuture.supplyAsync(new Supplier<Long>() {
+			@Override
+			public Long get() {
+				return delegate.sScan(key, batchSize, clazz, callback);
+			}
+		}, executor());
+	}
+	// Zset
+
+	@Override
+	public CompletableFuture<Void> zAdd(final K key, final V value, final double score) {
+		return CompletableFuture.runAsync(new Runnable() {
+			@Override
+			public void run() {
+				delegate.zAdd(key, value, score);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Void> zAdd(final K key, final V value, final double score, final Long timeout,
+			final TimeUnit unit) {
+		return CompletableFuture.runAsync(new Runnable() {
+			@Override
+			public void run() {
+				delegate.zAdd(key, value, score, timeout, unit);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Void> zAddAll(final K key, final Map<V, Double> tuples) {
+		return CompletableFuture.runAsync(new Runnable() {
+			@Override
+			public void run() {
+				delegate.zAddAll(key, tuples);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Void> zAddAll(final K key, final Map<V, Double> tuples, final Long timeout,
+			final TimeUnit unit) {
+		return CompletableFuture.runAsync(new Runnable() {
+			@Override
+			public void run() {
+				delegate.zAddAll(key, tuples, timeout, unit);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Void> addToZSets(final Collection<K> keys, final V value, final double score) {
+		return CompletableFuture.runAsync(new Runnable() {
+			@Override
+			public void run() {
+				delegate.addToZSets(keys, value, score);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Void> addToZSets(final Collection<K> keys, final V value, final double score,
+			final Long timeout, final TimeUnit unit) {
+		return CompletableFuture.runAsync(new Runnable() {
+			@Override
+			public void run() {
+				delegate.addToZSets(keys, value, score, timeout, unit);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Void> addAllToZSets(final Collection<K> keys, final Map<V, Double> tuples) {
+		return CompletableFuture.runAsync(new Runnable() {
+			@Override
+			public void run() {
+				delegate.addAllToZSets(keys, tuples);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Void> addAllToZSets(final Collection<K> keys, final Map<V, Double> tuples,
+			final Long timeout, final TimeUnit unit) {
+		return CompletableFuture.runAsync(new Runnable() {
+			@Override
+			public void run() {
+				delegate.addAllToZSets(keys, tuples, timeout, unit);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Long> delFromZSet(final K key, final V value) {
+		return CompletableFuture.supplyAsync(new Supplier<Long>() {
+			@Override
+			public Long get() {
+				return delegate.delFromZSet(key, value);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Long> delAllFromZSet(final K key, final Collection<? extends V> values) {
+		return CompletableFuture.supplyAsync(new Supplier<Long>() {
+			@Override
+			public Long get() {
+				return delegate.delAllFromZSet(key, values);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<List<Byte>> zRangeBytes(final K key, final long start, final long end) {
+		return CompletableFuture.supplyAsync(new Supplier<List<Byte>>() {
+			@Override
+			public List<Byte> get() {
+				return delegate.zRangeBytes(key, start, end);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<List<Integer>> zRangeIntegers(final K key, final long start, final long end) {
+		return CompletableFuture.supplyAsync(new Supplier<List<Integer>>() {
+			@Override
+			public List<Integer> get() {
+				return delegate.zRangeIntegers(key, start, end);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<List<Long>> zRangeLongs(final K key, final long start, final long end) {
+		return CompletableFuture.supplyAsync(new Supplier<List<Long>>() {
+			@Override
+			public List<Long> get() {
+				return delegate.zRangeLongs(key, start, end);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<List<Double>> zRangeDoubles(final K key, final long start, final long end) {
+		return CompletableFuture.supplyAsync(new Supplier<List<Double>>() {
+			@Override
+			public List<Double> get() {
+				return delegate.zRangeDoubles(key, start, end);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<List<BigDecimal>> zRangeBigDecimals(final K key, final long start, final long end) {
+		return CompletableFuture.supplyAsync(new Supplier<List<BigDecimal>>() {
+			@Override
+			public List<BigDecimal> get() {
+				return delegate.zRangeBigDecimals(key, start, end);
+			}
+		}, executor());
+	}
+
+	@Override
+	public <T> CompletableFuture<List<T>> zRangeObjects(final K key, final long start, final long end,
+			final Class<T> clazz) {
+		return CompletableFuture.supplyAsync(new Supplier<List<T>>() {
+			@Override
+			public List<T> get() {
+				return delegate.zRangeObjects(key, start, end, clazz);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Map<Byte, Double>> zRangeBytesWithScore(final K key, final long start, final long end) {
+		return CompletableFuture.supplyAsync(new Supplier<Map<Byte, Double>>() {
+			@Override
+			public Map<Byte, Double> get() {
+				return delegate.zRangeBytesWithScore(key, start, end);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Map<Integer, Double>> zRangeIntegersWithScore(final K key, final long start,
+			final long end) {
+		return CompletableFuture.supplyAsync(new Supplier<Map<Integer, Double>>() {
+			@Override
+			public Map<Integer, Double> get() {
+				return delegate.zRangeIntegersWithScore(key, start, end);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Map<Long, Double>> zRangeLongsWithScore(final K key, final long start, final long end) {
+		return CompletableFuture.supplyAsync(new Supplier<Map<Long, Double>>() {
+			@Override
+			public Map<Long, Double> get() {
+				return delegate.zRangeLongsWithScore(key, start, end);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Map<Double, Double>> zRangeDoublesWithScore(final K key, final long start,
+			final long end) {
+		return CompletableFuture.supplyAsync(new Supplier<Map<Double, Double>>() {
+			@Override
+			public Map<Double, Double> get() {
+				return delegate.zRangeDoublesWithScore(key, start, end);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Map<BigDecimal, Double>> zRangeBigDecimalsWithScore(final K key, final long start,
+			final long end) {
+		return CompletableFuture.supplyAsync(new Supplier<Map<BigDecimal, Double>>() {
+			@Override
+			public Map<BigDecimal, Double> get() {
+				return delegate.zRangeBigDecimalsWithScore(key, start, end);
+			}
+		}, executor());
+	}
+
+	@Override
+	public <T> CompletableFuture<Map<T, Double>> zRangeObjectsWithScore(final K key, final long start, final long end,
+			final Class<T> clazz) {
+		return CompletableFuture.supplyAsync(new Supplier<Map<T, Double>>() {
+			@Override
+			public Map<T, Double> get() {
+				return delegate.zRangeObjectsWithScore(key, start, end, clazz);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<List<Byte>> zRevRangeBytes(final K key, final long start, final long end) {
+		return CompletableFuture.supplyAsync(new Supplier<List<Byte>>() {
+			@Override
+			public List<Byte> get() {
+				return delegate.zRevRangeBytes(key, start, end);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<List<Integer>> zRevRangeIntegers(final K key, final long start, final long end) {
+		return CompletableFuture.supplyAsync(new Supplier<List<Integer>>() {
+			@Override
+			public List<Integer> get() {
+				return delegate.zRevRangeIntegers(key, start, end);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<List<Long>> zRevRangeLongs(final K key, final long start, final long end) {
+		return CompletableFuture.supplyAsync(new Supplier<List<Long>>() {
+			@Override
+			public List<Long> get() {
+				return delegate.zRevRangeLongs(key, start, end);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<List<Double>> zRevRangeDoubles(final K key, final long start, final long end) {
+		return CompletableFuture.supplyAsync(new Supplier<List<Double>>() {
+			@Override
+			public List<Double> get() {
+				return delegate.zRevRangeDoubles(key, start, end);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<List<BigDecimal>> zRevRangeBigDecimals(final K key, final long start, final long end) {
+		return CompletableFuture.supplyAsync(new Supplier<List<BigDecimal>>() {
+			@Override
+			public List<BigDecimal> get() {
+				return delegate.zRevRangeBigDecimals(key, start, end);
+			}
+		}, executor());
+	}
+
+	@Override
+	public <T> CompletableFuture<List<T>> zRevRangeObjects(final K key, final long start, final long end,
+			final Class<T> clazz) {
+		return CompletableFuture.supplyAsync(new Supplier<List<T>>() {
+			@Override
+			public List<T> get() {
+				return delegate.zRevRangeObjects(key, start, end, clazz);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Map<Byte, Double>> zRevRangeBytesWithScore(final K key, final long start, final long end) {
+		return CompletableFuture.supplyAsync(new Supplier<Map<Byte, Double>>() {
+			@Override
+			public Map<Byte, Double> get() {
+				return delegate.zRevRangeBytesWithScore(key, start, end);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Map<Integer, Double>> zRevRangeIntegersWithScore(final K key, final long start,
+			final long end) {
+		return CompletableFuture.supplyAsync(new Supplier<Map<Integer, Double>>() {
+			@Override
+			public Map<Integer, Double> get() {
+				return delegate.zRevRangeIntegersWithScore(key, start, end);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Map<Long, Double>> zRevRangeLongsWithScore(final K key, final long start, final long end) {
+		return CompletableFuture.supplyAsync(new Supplier<Map<Long, Double>>() {
+			@Override
+			public Map<Long, Double> get() {
+				return delegate.zRevRangeLongsWithScore(key, start, end);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Map<Double, Double>> zRevRangeDoublesWithScore(final K key, final long start,
+			final long end) {
+		return CompletableFuture.supplyAsync(new Supplier<Map<Double, Double>>() {
+			@Override
+			public Map<Double, Double> get() {
+				return delegate.zRevRangeDoublesWithScore(key, start, end);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Map<BigDecimal, Double>> zRevRangeBigDecimalsWithScore(final K key, final long start,
+			final long end) {
+		return CompletableFuture.supplyAsync(new Supplier<Map<BigDecimal, Double>>() {
+			@Override
+			public Map<BigDecimal, Double> get() {
+				return delegate.zRevRangeBigDecimalsWithScore(key, start, end);
+			}
+		}, executor());
+	}
+
+	@Override
+	public <T> CompletableFuture<Map<T, Double>> zRevRangeObjectsWithScore(final K key, final long start,
+			final long end, final Class<T> clazz) {
+		return CompletableFuture.supplyAsync(new Supplier<Map<T, Double>>() {
+			@Override
+			public Map<T, Double> get() {
+				return delegate.zRevRangeObjectsWithScore(key, start, end, clazz);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<List<Byte>> zRangeBytesByScore(final K key, final double min, final double max,
+			final long offset, final long limit) {
+		return CompletableFuture.supplyAsync(new Supplier<List<Byte>>() {
+			@Override
+			public List<Byte> get() {
+				return delegate.zRangeBytesByScore(key, min, max, offset, limit);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<List<Integer>> zRangeIntegersByScore(final K key, final double min, final double max,
+			final long offset, final long limit) {
+		return CompletableFuture.supplyAsync(new Supplier<List<Integer>>() {
+			@Override
+			public List<Integer> get() {
+				return delegate.zRangeIntegersByScore(key, min, max, offset, limit);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<List<Long>> zRangeLongByScore(final K key, final double min, final double max,
+			final long offset, final long limit) {
+		return CompletableFuture.supplyAsync(new Supplier<List<Long>>() {
+			@Override
+			public List<Long> get() {
+				return delegate.zRangeLongByScore(key, min, max, offset, limit);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<List<Double>> zRangeDoublesByScore(final K key, final double min, final double max,
+			final long offset, final long limit) {
+		return CompletableFuture.supplyAsync(new Supplier<List<Double>>() {
+			@Override
+			public List<Double> get() {
+				return delegate.zRangeDoublesByScore(key, min, max, offset, limit);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<List<BigDecimal>> zRangeBigDecimalsByScore(final K key, final double min, final double max,
+			final long offset, final long limit) {
+		return CompletableFuture.supplyAsync(new Supplier<List<BigDecimal>>() {
+			@Override
+			public List<BigDecimal> get() {
+				return delegate.zRangeBigDecimalsByScore(key, min, max, offset, limit);
+			}
+		}, executor());
+	}
+
+	@Override
+	public <T> CompletableFuture<List<T>> zRangeObjectsByScore(final K key, final double min, final double max,
+			final long offset, final long limit, final Class<T> clazz) {
+		return CompletableFuture.supplyAsync(new Supplier<List<T>>() {
+			@Override
+			public List<T> get() {
+				return delegate.zRangeObjectsByScore(key, min, max, offset, limit, clazz);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<List<Byte>> zRevRangeBytesByScore(final K key, final double min, final double max,
+			final long offset, final long limit) {
+		return CompletableFuture.supplyAsync(new Supplier<List<Byte>>() {
+			@Override
+			public List<Byte> get() {
+				return delegate.zRevRangeBytesByScore(key, min, max, offset, limit);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<List<Integer>> zRevRangeIntegersByScore(final K key, final double min, final double max,
+			final long offset, final long limit) {
+		return CompletableFuture.supplyAsync(new Supplier<List<Integer>>() {
+			@Override
+			public List<Integer> get() {
+				return delegate.zRevRangeIntegersByScore(key, min, max, offset, limit);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<List<Long>> zRevRangeLongByScore(final K key, final double min, final double max,
+			final long offset, final long limit) {
+		return CompletableFuture.supplyAsync(new Supplier<List<Long>>() {
+			@Override
+			public List<Long> get() {
+				return delegate.zRevRangeLongByScore(key, min, max, offset, limit);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<List<Double>> zRevRangeDoublesByScore(final K key, final double min, final double max,
+			final long offset, final long limit) {
+		return CompletableFuture.supplyAsync(new Supplier<List<Double>>() {
+			@Override
+			public List<Double> get() {
+				return delegate.zRevRangeDoublesByScore(key, min, max, offset, limit);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<List<BigDecimal>> zRevRangeBigDecimalsByScore(final K key, final double min,
+			final double max, final long offset, final long limit) {
+		return CompletableFuture.supplyAsync(new Supplier<List<BigDecimal>>() {
+			@Override
+			public List<BigDecimal> get() {
+				return delegate.zRevRangeBigDecimalsByScore(key, min, max, offset, limit);
+			}
+		}, executor());
+	}
+
+	@Override
+	public <T> CompletableFuture<List<T>> zRevRangeObjectsByScore(final K key, final double min, final double max,
+			final long offset, final long limit, final Class<T> clazz) {
+		return CompletableFuture.supplyAsync(new Supplier<List<T>>() {
+			@Override
+			public List<T> get() {
+				return delegate.zRevRangeObjectsByScore(key, min, max, offset, limit, clazz);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Map<Byte, Double>> zRevRangeBytesByScoreWithScore(final K key, final double min,
+			final double max, final long offset, final long limit) {
+		return CompletableFuture.supplyAsync(new Supplier<Map<Byte, Double>>() {
+			@Override
+			public Map<Byte, Double> get() {
+				return delegate.zRevRangeBytesByScoreWithScore(key, min, max, offset, limit);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Map<Integer, Double>> zRevRangeIntegersByScoreWithScore(final K key, final double min,
+			final double max, final long offset, final long limit) {
+		return CompletableFuture.supplyAsync(new Supplier<Map<Integer, Double>>() {
+			@Override
+			public Map<Integer, Double> get() {
+				return delegate.zRevRangeIntegersByScoreWithScore(key, min, max, offset, limit);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Map<Long, Double>> zRevRangeLongsByScoreWithScore(final K key, final double min,
+			final double max, final long offset, final long limit) {
+		return CompletableFuture.supplyAsync(new Supplier<Map<Long, Double>>() {
+			@Override
+			public Map<Long, Double> get() {
+				return delegate.zRevRangeLongsByScoreWithScore(key, min, max, offset, limit);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Map<Double, Double>> zRevRangeDoublesByScoreWithScore(final K key, final double min,
+			final double max, final long offset, final long limit) {
+		return CompletableFuture.supplyAsync(new Supplier<Map<Double, Double>>() {
+			@Override
+			public Map<Double, Double> get() {
+				return delegate.zRevRangeDoublesByScoreWithScore(key, min, max, offset, limit);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Map<BigDecimal, Double>> zRevRangeBigDecimalsByScoreWithScore(final K key,
+			final double min, final double max, final long offset, final long limit) {
+		return CompletableFuture.supplyAsync(new Supplier<Map<BigDecimal, Double>>() {
+			@Override
+			public Map<BigDecimal, Double> get() {
+				return delegate.zRevRangeBigDecimalsByScoreWithScore(key, min, max, offset, limit);
+			}
+		}, executor());
+	}
+
+	@Override
+	public <T> CompletableFuture<Map<T, Double>> zRevRangeObjectsByScoreWithScore(final K key, final double min,
+			final double max, final long offset, final long limit, final Class<T> clazz) {
+		return CompletableFuture.supplyAsync(new Supplier<Map<T, Double>>() {
+			@Override
+			public Map<T, Double> get() {
+				return delegate.zRevRangeObjectsByScoreWithScore(key, min, max, offset, limit, clazz);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Map<Byte, Double>> zRangeBytesByScoreWithScore(final K key, final double min,
+			final double max, final long offset, final long limit) {
+		return CompletableFuture.supplyAsync(new Supplier<Map<Byte, Double>>() {
+			@Override
+			public Map<Byte, Double> get() {
+				return delegate.zRangeBytesByScoreWithScore(key, min, max, offset, limit);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Map<Integer, Double>> zRangeIntegersByScoreWithScore(final K key, final double min,
+			final double max, final long offset, final long limit) {
+		return CompletableFuture.supplyAsync(new Supplier<Map<Integer, Double>>() {
+			@Override
+			public Map<Integer, Double> get() {
+				return delegate.zRangeIntegersByScoreWithScore(key, min, max, offset, limit);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Map<Long, Double>> zRangeLongsByScoreWithScore(final K key, final double min,
+			final double max, final long offset, final long limit) {
+		return CompletableFuture.supplyAsync(new Supplier<Map<Long, Double>>() {
+			@Override
+			public Map<Long, Double> get() {
+				return delegate.zRangeLongsByScoreWithScore(key, min, max, offset, limit);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Map<Double, Double>> zRangeDoublesByScoreWithScore(final K key, final double min,
+			final double max, final long offset, final long limit) {
+		return CompletableFuture.supplyAsync(new Supplier<Map<Double, Double>>() {
+			@Override
+			public Map<Double, Double> get() {
+				return delegate.zRangeDoublesByScoreWithScore(key, min, max, offset, limit);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Map<BigDecimal, Double>> zRangeBigDecimalsByScoreWithScore(final K key, final double min,
+			final double max, final long offset, final long limit) {
+		return CompletableFuture.supplyAsync(new Supplier<Map<BigDecimal, Double>>() {
+			@Override
+			public Map<BigDecimal, Double> get() {
+				return delegate.zRangeBigDecimalsByScoreWithScore(key, min, max, offset, limit);
+			}
+		}, executor());
+	}
+
+	@Override
+	public <T> CompletableFuture<Map<T, Double>> zRangeObjectsByScoreWithScore(final K key, final double min,
+			final double max, final long offset, final long limit, final Class<T> clazz) {
+		return CompletableFuture.supplyAsync(new Supplier<Map<T, Double>>() {
+			@Override
+			public Map<T, Double> get() {
+				return delegate.zRangeObjectsByScoreWithScore(key, min, max, offset, limit, clazz);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<LongScoreTuples> zRangeLongsWithScores(final K key, final long start, final long end) {
+		return CompletableFuture.supplyAsync(new Supplier<LongScoreTuples>() {
+			@Override
+			public LongScoreTuples get() {
+				return delegate.zRangeLongsWithScores(key, start, end);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<LongScoreTuples> zRevRangeLongsWithScores(final K key, final long start, final long end) {
+		return CompletableFuture.supplyAsync(new Supplier<LongScoreTuples>() {
+			@Override
+			public LongScoreTuples get() {
+				return delegate.zRevRangeLongsWithScores(key, start, end);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<LongScoreTuples> zRangeLongsByScoreWithScores(final K key, final double min,
+			final double max, final long offset, final long limit) {
+		return CompletableFuture.supplyAsync(new Supplier<LongScoreTuples>() {
+			@Override
+			public LongScoreTuples get() {
+				return delegate.zRangeLongsByScoreWithScores(key, min, max, offset, limit);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<LongScoreTuples> zRevRangeLongsByScoreWithScores(final K key, final double min,
+			final double max, final long offset, final long limit) {
+		return CompletableFuture.supplyAsync(new Supplier<LongScoreTuples>() {
+			@Override
+			public LongScoreTuples get() {
+				return delegate.zRevRangeLongsByScoreWithScores(key, min, max, offset, limit);
+			}
+		}, executor());
+	}
+
+	@Override
+	public <T> CompletableFuture<Long> zScan(final K key, final int batchSize, final Class<T> clazz,
+			final ScanCallback<TypedTuple<T>> callback) {
+		return CompletableFuture.supplyAsync(new Supplier<Long>() {
+			@Override
+			public Long get() {
+				return delegate.zScan(key, batchSize, clazz, callback);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Double> increaseScoreInZset(final K key, final V value, final double delta) {
+		return CompletableFuture.supplyAsync(new Supplier<Double>() {
+			@Override
+			public Double get() {
+				return delegate.increaseScoreInZset(key, value, delta);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Long> sizeOfZSet(final K key) {
+		return CompletableFuture.supplyAsync(new Supplier<Long>() {
+			@Override
+			public Long get() {
+				return delegate.sizeOfZSet(key);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Long> zRank(final K key, final V value) {
+		return CompletableFuture.supplyAsync(new Supplier<Long>() {
+			@Override
+			public Long get() {
+				return delegate.zRank(key, value);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Boolean> zContains(final K key, final V value) {
+		return CompletableFuture.supplyAsync(new Supplier<Boolean>() {
+			@Override
+			public Boolean get() {
+				return delegate.zContains(key, value);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Long> zCountLargerThan(final K key, final double min) {
+		return CompletableFuture.supplyAsync(new Supplier<Long>() {
+			@Override
+			public Long get() {
+				return delegate.zCountLargerThan(key, min);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Long> zCountSmallerThan(final K key, final double max) {
+		return CompletableFuture.supplyAsync(new Supplier<Long>() {
+			@Override
+			public Long get() {
+				return delegate.zCountSmallerThan(key, max);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Double> zScore(final K key, final V value) {
+		return CompletableFuture.supplyAsync(new Supplier<Double>() {
+			@Override
+			public Double get() {
+				return delegate.zScore(key, value);
+			}
+		}, executor());
+	}
+	// Hash
+
+	@Override
+	public CompletableFuture<Long> put(final K key, final Object hashKey, final Object value) {
+		return CompletableFuture.supplyAsync(new Supplier<Long>() {
+			@Override
+			public Long get() {
+				return delegate.put(key, hashKey, value);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Long> put(final K key, final Object hashKey, final Object value, final Long timeout,
+			final TimeUnit unit) {
+		return CompletableFuture.supplyAsync(new Supplier<Long>() {
+			@Override
+			public Long get() {
+				return delegate.put(key, hashKey, value, timeout, unit);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Long> putAll(final K key, final Map<Object, Object> value) {
+		return CompletableFuture.supplyAsync(new Supplier<Long>() {
+			@Override
+			public Long get() {
+				return delegate.putAll(key, value);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Long> putAll(final K key, final Map<Object, Object> value, final Long timeout,
+			final TimeUnit unit) {
+		return CompletableFuture.supplyAsync(new Supplier<Long>() {
+			@Override
+			public Long get() {
+				return delegate.putAll(key, value, timeout, unit);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Byte> hGetByte(final K key, final Object hashKey) {
+		return CompletableFuture.supplyAsync(new Supplier<Byte>() {
+			@Override
+			public Byte get() {
+				return delegate.hGetByte(key, hashKey);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Integer> hGetInteger(final K key, final Object hashKey) {
+		return CompletableFuture.supplyAsync(new Supplier<Integer>() {
+			@Override
+			public Integer get() {
+				return delegate.hGetInteger(key, hashKey);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Long> hGetLong(final K key, final Object hashKey) {
+		return CompletableFuture.supplyAsync(new Supplier<Long>() {
+			@Override
+			public Long get() {
+				return delegate.hGetLong(key, hashKey);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Double> hGetDouble(final K key, final Object hashKey) {
+		return CompletableFuture.supplyAsync(new Supplier<Double>() {
+			@Override
+			public Double get() {
+				return delegate.hGetDouble(key, hashKey);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<BigDecimal> hGetBigDecimal(final K key, final Object hashKey) {
+		return CompletableFuture.supplyAsync(new Supplier<BigDecimal>() {
+			@Override
+			public BigDecimal get() {
+				return delegate.hGetBigDecimal(key, hashKey);
+			}
+		}, executor());
+	}
+
+	@Override
+	public <T> CompletableFuture<T> hGetObject(final K key, final Object hashKey, final Class<T> clazz) {
+		return CompletableFuture.supplyAsync(new Supplier<T>() {
+			@Override
+			public T get() {
+				return delegate.hGetObject(key, hashKey, clazz);
+			}
+		}, executor());
+	}
+
+	@Override
+	public <T> CompletableFuture<List<T>> hMultiGetObjects(final K key, final Collection<Object> hashKeys,
+			final Class<T> clazz) {
+		return CompletableFuture.supplyAsync(new Supplier<List<T>>() {
+			@Override
+			public List<T> get() {
+				return delegate.hMultiGetObjects(key, hashKeys, clazz);
+			}
+		}, executor());
+	}
+
+	@Override
+	public <T> CompletableFuture<Map<Object, T>> hGetAll(final K key, final Class<T> clazz) {
+		return CompletableFuture.supplyAsync(new Supplier<Map<Object, T>>() {
+			@Override
+			public Map<Object, T> get() {
+				return delegate.hGetAll(key, clazz);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Boolean> hContainKey(final K key, final Object hashKey) {
+		return CompletableFuture.supplyAsync(new Supplier<Boolean>() {
+			@Override
+			public Boolean get() {
+				return delegate.hContainKey(key, hashKey);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Double> hIncrBy(final K key, final Object hashKey, final double delta) {
+		return CompletableFuture.supplyAsync(new Supplier<Double>() {
+			@Override
+			public Double get() {
+				return delegate.hIncrBy(key, hashKey, delta);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Integer> delFromHash(final K key, final Object hashKey) {
+		return CompletableFuture.supplyAsync(new Supplier<Integer>() {
+			@Override
+			public Integer get() {
+				return delegate.delFromHash(key, hashKey);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Integer> delAllFromHash(final K key, final Object[] hashKeys) {
+		return CompletableFuture.supplyAsync(new Supplier<Integer>() {
+			@Override
+			public Integer get() {
+				return delegate.delAllFromHash(key, hashKeys);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Long> sizeOfHash(final K key) {
+		return CompletableFuture.supplyAsync(new Supplier<Long>() {
+			@Override
+			public Long get() {
+				return delegate.sizeOfHash(key);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Long> incr(final K key) {
+		return CompletableFuture.supplyAsync(new Supplier<Long>() {
+			@Override
+			public Long get() {
+				return delegate.incr(key);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Long> incrBy(final K key, final long delta) {
+		return CompletableFuture.supplyAsync(new Supplier<Long>() {
+			@Override
+			public Long get() {
+				return delegate.incrBy(key, delta);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Void> setTimeOut(final K key, final long expireTime, final TimeUnit unit) {
+		return CompletableFuture.runAsync(new Runnable() {
+			@Override
+			public void run() {
+				delegate.setTimeOut(key, expireTime, unit);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Long> ttl(final K key) {
+		return CompletableFuture.supplyAsync(new Supplier<Long>() {
+			@Override
+			public Long get() {
+				return delegate.ttl(key);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Void> delFromZsets(final Collection<K> keys, final V value) {
+		return CompletableFuture.runAsync(new Runnable() {
+			@Override
+			public void run() {
+				delegate.delFromZsets(keys, value);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<Void> delAllFromZsets(final Collection<K> keys, final Collection<V> values) {
+		return CompletableFuture.runAsync(new Runnable() {
+			@Override
+			public void run() {
+				delegate.delAllFromZsets(keys, values);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<List<Byte>> lRangeBytes(final K key, final long start, final long end) {
+		return CompletableFuture.supplyAsync(new Supplier<List<Byte>>() {
+			@Override
+			public List<Byte> get() {
+				return delegate.lRangeBytes(key, start, end);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<List<Integer>> lRangeIntegers(final K key, final long start, final long end) {
+		return CompletableFuture.supplyAsync(new Supplier<List<Integer>>() {
+			@Override
+			public List<Integer> get() {
+				return delegate.lRangeIntegers(key, start, end);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<List<Long>> lRangeLongs(final K key, final long start, final long end) {
+		return CompletableFuture.supplyAsync(new Supplier<List<Long>>() {
+			@Override
+			public List<Long> get() {
+				return delegate.lRangeLongs(key, start, end);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<List<Double>> lRangeDoubles(final K key, final long start, final long end) {
+		return CompletableFuture.supplyAsync(new Supplier<List<Double>>() {
+			@Override
+			public List<Double> get() {
+				return delegate.lRangeDoubles(key, start, end);
+			}
+		}, executor());
+	}
+
+	@Override
+	public CompletableFuture<List<BigDecimal>> lRangeBigDecimals(final K key, final long start, final long end) {
+		return CompletableFuture.supplyAsync(new Supplier<List<BigDecimal>>() {
+			@Override
+			public List<BigDecimal> get() {
+				return delegate.lRangeBigDecimals(key, start, end);
+			}
+		}, executor());
+	}
+
+	@Override
+	public <T> CompletableFuture<List<T>> lRangeObjects(final K key, final long start, final long end,
+			final Class<T> clazz) {
+		return CompletableFuture.supplyAsync(new Supplier<List<T>>() {
+			@Override
+			public List<T> get() {
+				return delegate.lRangeObjects(key, start, end, clazz);
+			}
+		}, executor());
+	}
+
+	@Override
+	public <T> CompletableFuture<Long> hScan(final K key, final int batchSize, final Class<T> clazz,
+			final ScanCallback<Map.Entry<Object, T>> callback) {
+		return CompletableFuture.supplyAsync(new Supplier<Long>() {
+			@Override
+			public Long get() {
+				return delegate.hScan(key, batchSize, clazz, callback);
+			}
+		}, executor());
+	}
+}
@@ -2,7 +2,22 @@
 package com.easycode.redis.client.service.impl;
 
 import com.easycode.redis.client.service.NewRedisService;
+import com.easycode.redis.server.LongScoreTuples;
 import com.easycode.redis.server.Redis;
+import com.easycode.redis.server.batch.BulkWriteConfig;
+import com.easycode.redis.server.batch.CounterAggregatorConfig;
+import com.easycode.redis.server.batch.CounterAggregatorStats;
+import com.easycode.redis.server.batch.GetCoalescerConfig;
+import com.easycode.redis.server.batch.RedisBatch;
+import com.easycode.redis.server.cache.InvalidationBusConfig;
+import com.easycode.redis.server.cache.NearCacheConfig;
+import com.easycode.redis.server.cache.NearCacheStats;
+import com.easycode.redis.server.codec.RedisCodecs;
+import com.easycode.redis.server.concurrency.ConcurrencyLimitConfig;
+import com.easycode.redis.server.concurrency.ConcurrencyLimitStats;
+import com.easycode.redis.server.lock.HeldLocks;
+import com.easycode.redis.server.lock.RedisLock;
+import com.easycode.redis.server.scan.ScanCallback;
 
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.core.ZSetOperations.TypedTuple;
@@ -10,17 +25,205 @@ import org.springframework.data.redis.core.ZSetOperations.TypedTuple;
 import java.math.BigDecimal;
 import java.util.*;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
 public class NewRedisServiceImpl<K, V> implements NewRedisService<K, V> {
 
 	private RedisTemplate<K, V> redisTemplate;
 
+	private NearCacheConfig nearCacheConfig;
+
+	private InvalidationBusConfig invalidationBusConfig;
+
+	private GetCoalescerConfig getCoalescerConfig;
+
+	private CounterAggregatorConfig counterAggregatorConfig;
+
+	private ConcurrencyLimitConfig concurrencyLimitConfig;
+
+	private BulkWriteConfig bulkWriteConfig;
+
+	private long lockLeaseMillis = 60000L;
+
+	private long lockWaitMillis = 1000L;
+
+	private boolean lockAutoRenew;
+
+	private final HeldLocks<K> heldLocks = new HeldLocks<K>();
+
 	public RedisTemplate<K, V> getRedisTemplate() {
 		return redisTemplate;
 	}
 
 	public void setRedisTemplate(RedisTemplate<K, V> redisTemplate) {
 		this.redisTemplate = redisTemplate;
+		applyNearCache();
+		applyInvalidationBus();
+		applyGetCoalescer();
+		applyCounterAggregator();
+		applyConcurrencyLimit();
+		applyBulkWrite();
+	}
+
+	public NearCacheConfig getNearCacheConfig() {
+		return nearCacheConfig;
+	}
+
+	/**
+	 * 设置后开启近端缓存，get/multiGet类方法优先读取本地缓存
+	 */
+	public void setNearCacheConfig(NearCacheConfig nearCacheConfig) {
+		this.nearCacheConfig = nearCacheConfig;
+		applyNearCache();
+	}
+
+	public NearCacheStats getNearCacheStats() {
+		return Redis.nearCacheStats(redisTemplate);
+	}
+
+	public InvalidationBusConfig getInvalidationBusConfig() {
+		return invalidationBusConfig;
+	}
+
+	/**
+	 * 设置后开启跨实例失效广播，其他实例的写操作会失效本实例的近端缓存
+	 */
+	public void setInvalidationBusConfig(InvalidationBusConfig invalidationBusConfig) {
+		this.invalidationBusConfig = invalidationBusConfig;
+		applyInvalidationBus();
+	}
+
+	public GetCoalescerConfig getGetCoalescerConfig() {
+		return getCoalescerConfig;
+	}
+
+	/**
+	 * 设置后开启GET合并，高并发下的单key读取合并为MGET
+	 */
+	public void setGetCoalescerConfig(GetCoalescerConfig getCoalescerConfig) {
+		this.getCoalescerConfig = getCoalescerConfig;
+		applyGetCoalescer();
+	}
+
+	public CounterAggregatorConfig getCounterAggregatorConfig() {
+		return counterAggregatorConfig;
+	}
+
+	/**
+	 * 设置后开启计数器本地聚合，*Buffered方法的增量在本地合并后批量写入redis
+	 */
+	public void setCounterAggregatorConfig(CounterAggregatorConfig counterAggregatorConfig) {
+		this.counterAggregatorConfig = counterAggregatorConfig;
+		applyCounterAggregator();
+	}
+
+	public CounterAggregatorStats getCounterAggregatorStats() {
+		return Redis.counterAggregatorStats(redisTemplate);
+	}
+
+	public ConcurrencyLimitConfig getConcurrencyLimitConfig() {
+		return concurrencyLimitConfig;
+	}
+
+	/**
+	 * 设置后用信号量限制同时占用的连接数，超出的调用排队等待而不在连接池内部阻塞，适合在虚拟线程中调用
+	 */
+	public void setConcurrencyLimitConfig(ConcurrencyLimitConfig concurrencyLimitConfig) {
+		this.concurrencyLimitConfig = concurrencyLimitConfig;
+		applyConcurrencyLimit();
+	}
+
+	public ConcurrencyLimitStats getConcurrencyLimitStats() {
+		return Redis.concurrencyLimitStats(redisTemplate);
+	}
+
+	public BulkWriteConfig getBulkWriteConfig() {
+		return bulkWriteConfig;
+	}
+
+	/**
+	 * multiSet、sAddAll、zAddAll、putAll、addAllToZSets的分块方式与进度回调，未设置时按默认值分块
+	 */
+	public void setBulkWriteConfig(BulkWriteConfig bulkWriteConfig) {
+		this.bulkWriteConfig = bulkWriteConfig;
+		applyBulkWrite();
+	}
+
+	public long getLockLeaseMillis() {
+		return lockLeaseMillis;
+	}
+
+	/**
+	 * {@link #lock(Object)}使用的租约时长，默认1分钟
+	 */
+	public void setLockLeaseMillis(long lockLeaseMillis) {
+		this.lockLeaseMillis = lockLeaseMillis;
+	}
+
+	public long getLockWaitMillis() {
+		return lockWaitMillis;
+	}
+
+	/**
+	 * {@link #lock(Object)}在本JVM内排队等待其他线程释放锁的最长时间，默认1秒；锁被其他实例持有时不等待
+	 */
+	public void setLockWaitMillis(long lockWaitMillis) {
+		this.lockWaitMillis = lockWaitMillis;
+	}
+
+	public boolean isLockAutoRenew() {
+		return lockAutoRenew;
+	}
+
+	/**
+	 * {@link #lock(Object)}获得的锁是否自动续期直到{@link #unlock(Object)}，开启后可以配合较短的租约使用
+	 */
+	public void setLockAutoRenew(boolean lockAutoRenew) {
+		this.lockAutoRenew = lockAutoRenew;
+	}
+
+	private void applyNearCache() {
+		if (redisTemplate != null && nearCacheConfig != null) {
+			Redis.enableNearCache(redisTemplate, nearCacheConfig);
+		}
+	}
+
+	private void applyGetCoalescer() {
+		if (redisTemplate != null && getCoalescerConfig != null) {
+			Redis.enableGetCoalescing(redisTemplate, getCoalescerConfig);
+		}
+	}
+
+	private void applyCounterAggregator() {
+		if (redisTemplate != null && counterAggregatorConfig != null) {
+			Redis.enableCounterAggregation(redisTemplate, counterAggregatorConfig);
+		}
+	}
+
+	private void applyConcurrencyLimit() {
+		if (redisTemplate != null && concurrencyLimitConfig != null) {
+			Redis.enableConcurrencyLimit(redisTemplate, concurrencyLimitConfig);
+		}
+	}
+
+	private void applyBulkWrite() {
+		if (redisTemplate != null && bulkWriteConfig != null) {
+			Redis.configureBulkWrites(redisTemplate, bulkWriteConfig);
+		}
+	}
+
+	private void applyInvalidationBus() {
+		if (redisTemplate != null && invalidationBusConfig != null) {
+			Redis.enableInvalidationBus(redisTemplate, invalidationBusConfig);
+		}
+	}
+
+	private RedisCodecs codecs() {
+		return Redis.codecs(redisTemplate);
+	}
+
+	private static boolean isEmpty(byte[] raw) {
+		return raw == null || raw.length <= 0;
 	}
 
 	@Override
@@ -43,6 +246,26 @@ public class NewRedisServiceImpl<K, V> implements NewRedisService<K, V> {
 		Redis.multiSet(redisTemplate, tuples, timeout, unit);
 	}
 
+	@Override
+	public void setLong(K key, long value) {
+		setLong(key, value, null, null);
+	}
+
+	@Override
+	public void setLong(K key, long value, Long timeout, TimeUnit unit) {
+		Redis.setLong(redisTemplate, key, value, timeout, unit);
+	}
+
+	@Override
+	public void setDouble(K key, double value) {
+		setDouble(key, value, null, null);
+	}
+
+	@Override
+	public void setDouble(K key, double value, Long timeout, TimeUnit unit) {
+		Redis.setDouble(redisTemplate, key, value, timeout, unit);
+	}
+
 	@Override
 	public String getString(K key) {
 		return Redis.get(redisTemplate, key, String.class);
@@ -50,56 +273,56 @@ public class NewRedisServiceImpl<K, V> implements NewRedisService<K, V> {
 
 	@Override
 	public Byte getByte(K key) {
-		Number ret = Redis.get(redisTemplate, key, Number.class);
-		return ret == null ? null : ret.byteValue();
+		byte[] raw = Redis.getRaw(redisTemplate, key);
+		return isEmpty(raw) ? null : Byte.valueOf((byte) codecs().decodeLong(raw));
 	}
 
 	@Override
 	public byte getByteValue(K key) {
-		Byte val = getByte(key);
-		return val == null ? 0 : val.byteValue();
+		byte[] raw = Redis.getRaw(redisTemplate, key);
+		return isEmpty(raw) ? 0 : (byte) codecs().decodeLong(raw);
 	}
 
 	@Override
 	public Integer getInteger(K key) {
-		Number ret = Redis.get(redisTemplate, key, Number.class);
-		return ret == null ? null : ret.intValue();
+		byte[] raw = Redis.getRaw(redisTemplate, key);
+		return isEmpty(raw) ? null : Integer.valueOf((int) codecs().decodeLong(raw));
 	}
 
 	@Override
 	public int getIntegerValue(K key) {
-		Integer val = getInteger(key);
-		return val == null ? 0 : val.intValue();
+		byte[] raw = Redis.getRaw(redisTemplate, key);
+		return isEmpty(raw) ? 0 : (int) codecs().decodeLong(raw);
 	}
 
 	@Override
 	public Long getLong(K key) {
-		Number ret = Redis.get(redisTemplate, key, Number.class);
-		return ret == null ? null : ret.longValue();
+		byte[] raw = Redis.getRaw(redisTemplate, key);
+		return isEmpty(raw) ? null : Long.valueOf(codecs().decodeLong(raw));
 	}
 
 	@Override
 	public long getLongValue(K key) {
-		Long val = getLong(key);
-		return val == null ? 0 : val.longValue();
+		byte[] raw = Redis.getRaw(redisTemplate, key);
+		return isEmpty(raw) ? 0 : codecs().decodeLong(raw);
 	}
 
 	@Override
 	public Double getDouble(K key) {
-		Number ret = Redis.get(redisTemplate, key, Number.class);
-		return ret == null ? null : ret.doubleValue();
+		byte[] raw = Redis.getRaw(redisTemplate, key);
+		return isEmpty(raw) ? null : Double.valueOf(codecs().decodeDouble(raw));
 	}
 
 	@Override
 	public double getDoubleValue(K key) {
-		Double val = getDouble(key);
-		return val == null ? 0 : val.doubleValue();
+		byte[] raw = Redis.getRaw(redisTemplate, key);
+		return isEmpty(raw) ? 0 : codecs().decodeDouble(raw);
 	}
 
 	@Override
 	public BigDecimal getBigDecimal(K key) {
-		Number ret = Redis.get(redisTemplate, key, Number.class);
-		return ret == null ? null : new BigDecimal(ret.doubleValue());
+		byte[] raw = Redis.getRaw(redisTemplate, key);
+		return isEmpty(raw) ? null : new BigDecimal(codecs().decodeDouble(raw));
 	}
 
 	@Override
@@ -168,105 +391,95 @@ public class NewRedisServiceImpl<K, V> implements NewRedisService<K, V> {
 
 	@Override
 	public Byte leftPopByte(K key) {
-		Number value = Redis.leftPop(redisTemplate, key, Number.class);
-		return value == null ? null : value.byteValue();
+		byte[] raw = Redis.leftPopRaw(redisTemplate, key);
+		return isEmpty(raw) ? null : Byte.valueOf((byte) codecs().decodeLong(raw));
 	}
 
 	@Override
 	public List<Byte> leftPopBytes(K key, int num) {
-		List<Number> results = Redis.leftPop(redisTemplate, key, Number.class, num);
+		List<byte[]> raws = Redis.leftPopRaw(redisTemplate, key, num);
 		List<Byte> ret = new ArrayList<Byte>();
-		if (results != null && results.size() > 0) {
-			for (Number result : results) {
-				if (result == null) {
-					break;
-				}
-				ret.add(result.byteValue());
+		for (byte[] raw : raws) {
+			if (isEmpty(raw)) {
+				break;
 			}
+			ret.add(Byte.valueOf((byte) codecs().decodeLong(raw)));
 		}
 		return ret;
 	}
 
 	@Override
 	public Integer leftPopInteger(K key) {
-		Number value = Redis.leftPop(redisTemplate, key, Number.class);
-		return value == null ? null : value.intValue();
+		byte[] raw = Redis.leftPopRaw(redisTemplate, key);
+		return isEmpty(raw) ? null : Integer.valueOf((int) codecs().decodeLong(raw));
 	}
 
 	@Override
 	public List<Integer> leftPopIntegers(K key, int num) {
-		List<Number> results = Redis.leftPop(redisTemplate, key, Number.class, num);
+		List<byte[]> raws = Redis.leftPopRaw(redisTemplate, key, num);
 		List<Integer> ret = new ArrayList<Integer>();
-		if (results != null && results.size() > 0) {
-			for (Number result : results) {
-				if (result == null) {
-					break;
-				}
-				ret.add(result.intValue());
+		for (byte[] raw : raws) {
+			if (isEmpty(raw)) {
+				break;
 			}
+			ret.add(Integer.valueOf((int) codecs().decodeLong(raw)));
 		}
 		return ret;
 	}
 
 	@Override
 	public Long leftPopLong(K key) {
-		Number value = Redis.leftPop(redisTemplate, key, Number.class);
-		return value == null ? null : value.longValue();
+		byte[] raw = Redis.leftPopRaw(redisTemplate, key);
+		return isEmpty(raw) ? null : Long.valueOf(codecs().decodeLong(raw));
 	}
 
 	@Override
 	public List<Long> leftPopLongs(K key, int num) {
-		List<Number> results = Redis.leftPop(redisTemplate, key, Number.class, num);
+		List<byte[]> raws = Redis.leftPopRaw(redisTemplate, key, num);
 		List<Long> ret = new ArrayList<Long>();
-		if (results != null && results.size() > 0) {
-			for (Number result : results) {
-				if (result == null) {
-					break;
-				}
-				ret.add(result.longValue());
+		for (byte[] raw : raws) {
+			if (isEmpty(raw)) {
+				break;
 			}
+			ret.add(Long.valueOf(codecs().decodeLong(raw)));
 		}
 		return ret;
 	}
 
 	@Override
 	public Double leftPopDouble(K key) {
-		Number value = Redis.leftPop(redisTemplate, key, Number.class);
-		return value == null ? null : value.doubleValue();
+		byte[] raw = Redis.leftPopRaw(redisTemplate, key);
+		return isEmpty(raw) ? null : Double.valueOf(codecs().decodeDouble(raw));
 	}
 
 	@Override
 	public List<Double> leftPopDoubles(K key, int num) {
-		List<Number> results = Redis.leftPop(redisTemplate, key, Number.class, num);
+		List<byte[]> raws = Redis.leftPopRaw(redisTemplate, key, num);
 		List<Double> ret = new ArrayList<Double>();
-		if (results != null && results.size() > 0) {
-			for (Number result : results) {
-				if (result == null) {
-					break;
-				}
-				ret.add(result.doubleValue());
+		for (byte[] raw : raws) {
+			if (isEmpty(raw)) {
+				break;
 			}
+			ret.add(Double.valueOf(codecs().decodeDouble(raw)));
 		}
 		return ret;
 	}
 
 	@Override
 	public BigDecimal leftPopBigDecimal(K key) {
-		Number value = Redis.leftPop(redisTemplate, key, Number.class);
-		return value == null ? null : new BigDecimal(value.doubleValue());
+		byte[] raw = Redis.leftPopRaw(redisTemplate, key);
+		return isEmpty(raw) ? null : new BigDecimal(codecs().decodeDouble(raw));
 	}
 
 	@Override
 	public List<BigDecimal> leftPopBigDecimals(K key, int num) {
-		List<Number> results = Redis.leftPop(redisTemplate, key, Number.class, num);
+		List<byte[]> raws = Redis.leftPopRaw(redisTemplate, key, num);
 		List<BigDecimal> ret = new ArrayList<BigDecimal>();
-		if (results != null && results.size() > 0) {
-			for (Number result : results) {
-				if (result == null) {
-					break;
-				}
-				ret.add(new BigDecimal(result.doubleValue()));
+		for (byte[] raw : raws) {
+			if (isEmpty(raw)) {
+				break;
 			}
+			ret.add(new BigDecimal(codecs().decodeDouble(raw)));
 		}
 		return ret;
 	}
@@ -283,105 +496,95 @@ public class NewRedisServiceImpl<K, V> implements NewRedisService<K, V> {
 
 	@Override
 	public Byte rightPopByte(K key) {
-		Number value = Redis.rightPop(redisTemplate, key, Number.class);
-		return value == null ? null : value.byteValue();
+		byte[] raw = Redis.rightPopRaw(redisTemplate, key);
+		return isEmpty(raw) ? null : Byte.valueOf((byte) codecs().decodeLong(raw));
 	}
 
 	@Override
 	public List<Byte> rightPopBytes(K key, int num) {
-		List<Number> results = Redis.rightPop(redisTemplate, key, Number.class, num);
+		List<byte[]> raws = Redis.rightPopRaw(redisTemplate, key, num);
 		List<Byte> ret = new ArrayList<Byte>();
-		if (results != null && results.size() > 0) {
-			for (Number result : results) {
-				if (result == null) {
-					break;
-				}
-				ret.add(result.byteValue());
+		for (byte[] raw : raws) {
+			if (isEmpty(raw)) {
+				break;
 			}
+			ret.add(Byte.valueOf((byte) codecs().decodeLong(raw)));
 		}
 		return ret;
 	}
 
 	@Override
 	public Integer rightPopInteger(K key) {
-		Number value = Redis.rightPop(redisTemplate, key, Number.class);
-		return value == null ? null : value.intValue();
+		byte[] raw = Redis.rightPopRaw(redisTemplate, key);
+		return isEmpty(raw) ? null : Integer.valueOf((int) codecs().decodeLong(raw));
 	}
 
 	@Override
 	public List<Integer> rightPopIntegers(K key, int num) {
-		List<Number> results = Redis.rightPop(redisTemplate, key, Number.class, num);
+		List<byte[]> raws = Redis.rightPopRaw(redisTemplate, key, num);
 		List<Integer> ret = new ArrayList<Integer>();
-		if (results != null && results.size() > 0) {
-			for (Number result : results) {
-				if (result == null) {
-					break;
-				}
-				ret.add(result.intValue());
+		for (byte[] raw : raws) {
+			if (isEmpty(raw)) {
+				break;
 			}
+			ret.add(Integer.valueOf((int) codecs().decodeLong(raw)));
 		}
 		return ret;
 	}
 
 	@Override
 	public Long rightPopLong(K key) {
-		Number value = Redis.rightPop(redisTemplate, key, Number.class);
-		return value == null ? null : value.longValue();
+		byte[] raw = Redis.rightPopRaw(redisTemplate, key);
+		return isEmpty(raw) ? null : Long.valueOf(codecs().decodeLong(raw));
 	}
 
 	@Override
 	public List<Long> rightPopLongs(K key, int num) {
-		List<Number> results = Redis.rightPop(redisTemplate, key, Number.class, num);
+		List<byte[]> raws = Redis.rightPopRaw(redisTemplate, key, num);
 		List<Long> ret = new ArrayList<Long>();
-		if (results != null && results.size() > 0) {
-			for (Number result : results) {
-				if (result == null) {
-					break;
-				}
-				ret.add(result.longValue());
+		for (byte[] raw : raws) {
+			if (isEmpty(raw)) {
+				break;
 			}
+			ret.add(Long.valueOf(codecs().decodeLong(raw)));
 		}
 		return ret;
 	}
 
 	@Override
 	public Double rightPopDouble(K key) {
-		Number value = Redis.rightPop(redisTemplate, key, Number.class);
-		return value == null ? null : value.doubleValue();
+		byte[] raw = Redis.rightPopRaw(redisTemplate, key);
+		return isEmpty(raw) ? null : Double.valueOf(codecs().decodeDouble(raw));
 	}
 
 	@Override
 	public List<Double> rightPopDoubles(K key, int num) {
-		List<Number> results = Redis.rightPop(redisTemplate, key, Number.class, num);
+		List<byte[]> raws = Redis.rightPopRaw(redisTemplate, key, num);
 		List<Double> ret = new ArrayList<Double>();
-		if (results != null && results.size() > 0) {
-			for (Number result : results) {
-				if (result == null) {
-					break;
-				}
-				ret.add(result.doubleValue());
+		for (byte[] raw : raws) {
+			if (isEmpty(raw)) {
+				break;
 			}
+			ret.add(Double.valueOf(codecs().decodeDouble(raw)));
 		}
 		return ret;
 	}
 
 	@Override
 	public BigDecimal rightPopBigDecimal(K key) {
-		Number value = Redis.rightPop(redisTemplate, key, Number.class);
-		return value == null ? null : new BigDecimal(value.doubleValue());
+		byte[] raw = Redis.rightPopRaw(redisTemplate, key);
+		return isEmpty(raw) ? null : new BigDecimal(codecs().decodeDouble(raw));
 	}
 
 	@Override
 	public List<BigDecimal> rightPopBigDecimals(K key, int num) {
-		List<Number> results = Redis.rightPop(redisTemplate, key, Number.class, num);
+		List<byte[]> raws = Redis.rightPopRaw(redisTemplate, key, num);
 		List<BigDecimal> ret = new ArrayList<BigDecimal>();
-		if (results != null && results.size() > 0) {
-			for (Number result : results) {
-				if (result == null) {
-					break;
-				}
-				ret.add(new BigDecimal(result.doubleValue()));
+		for (byte[] raw : raws) {
+			if (isEmpty(raw)) {
+				break;
 			}
+			ret.add(new BigDecimal(codecs().decodeDouble(raw)));
 		}
 		return ret;
 	}
@@ -745,7 +948,7 @@ public class NewRedisServiceImpl<K, V> implements NewRedisService<K, V> {
 
 	@Override
 	public byte randomPopByteValue(K key) {
-		Byte value = randomByte(key);
+		Byte value = randomPopByte(key);
 		return value == null ? 0 : value.byteValue();
 	}
 
@@ -757,7 +960,7 @@ public class NewRedisServiceImpl<K, V> implements NewRedisService<K, V> {
 
 	@Override
 	public int randomPopIntegerValue(K key) {
-		Integer value = randomInteger(key);
+		Integer value = randomPopInteger(key);
 		return value == null ? 0 : value.intValue();
 	}
 
@@ -769,7 +972,7 @@ public class NewRedisServiceImpl<K, V> implements NewRedisService<K, V> {
 
 	@Override
 	public long randomPopLongValue(K key) {
-		Long value = randomLong(key);
+		Long value = randomPopLong(key);
 		return value == null ? 0 : value.longValue();
 	}
 
@@ -781,7 +984,7 @@ public class NewRedisServiceImpl<K, V> implements NewRedisService<K, V> {
 
 	@Override
 	public double randomPopDoubleValue(K key) {
-		Double value = randomDouble(key);
+		Double value = randomPopDouble(key);
 		return value == null ? 0 : value.doubleValue();
 	}
 
@@ -793,7 +996,7 @@ public class NewRedisServiceImpl<K, V> implements NewRedisService<K, V> {
 
 	@Override
 	public double randomPopBigDecimalValue(K key) {
-		BigDecimal value = randomBigDecimal(key);
+		BigDecimal value = randomPopBigDecimal(key);
 		return value == null ? 0 : value.doubleValue();
 	}
 
@@ -1656,6 +1859,48 @@ public class NewRedisServiceImpl<K, V> implements NewRedisService<K, V> {
 		return pairs;
 	}
 
+	@Override
+	public LongScoreTuples zRangeLongsWithScores(K key, long start, long end) {
+		return zRangeLongsWithScores(key, start, end, null);
+	}
+
+	@Override
+	public LongScoreTuples zRangeLongsWithScores(K key, long start, long end, LongScoreTuples ret) {
+		return Redis.zrangeLongsWithScore(redisTemplate, key, start, end, false, ret);
+	}
+
+	@Override
+	public LongScoreTuples zRevRangeLongsWithScores(K key, long start, long end) {
+		return zRevRangeLongsWithScores(key, start, end, null);
+	}
+
+	@Override
+	public LongScoreTuples zRevRangeLongsWithScores(K key, long start, long end, LongScoreTuples ret) {
+		return Redis.zrangeLongsWithScore(redisTemplate, key, start, end, true, ret);
+	}
+
+	@Override
+	public LongScoreTuples zRangeLongsByScoreWithScores(K key, double min, double max, long offset, long limit) {
+		return zRangeLongsByScoreWithScores(key, min, max, offset, limit, null);
+	}
+
+	@Override
+	public LongScoreTuples zRangeLongsByScoreWithScores(K key, double min, double max, long offset, long limit,
+			LongScoreTuples ret) {
+		return Redis.zrangeLongsByScoreWithScore(redisTemplate, key, min, max, offset, limit, false, ret);
+	}
+
+	@Override
+	public LongScoreTuples zRevRangeLongsByScoreWithScores(K key, double min, double max, long offset, long limit) {
+		return zRevRangeLongsByScoreWithScores(key, min, max, offset, limit, null);
+	}
+
+	@Override
+	public LongScoreTuples zRevRangeLongsByScoreWithScores(K key, double min, double max, long offset, long limit,
+			LongScoreTuples ret) {
+		return Redis.zrangeLongsByScoreWithScore(redisTemplate, key, min, max, offset, limit, true, ret);
+	}
+
 	@Override
 	public double increaseScoreInZset(K key, V value, double delta) {
 		return Redis.zIncrBy(redisTemplate, key, value, delta);
@@ -1773,6 +2018,16 @@ public class NewRedisServiceImpl<K, V> implements NewRedisService<K, V> {
 		return Redis.hasKey(redisTemplate, key);
 	}
 
+	@Override
+	public Iterator<K> scan(String pattern, int count) {
+		return Redis.scan(redisTemplate, pattern, count);
+	}
+
+	@Override
+	public long scan(String pattern, int count, ScanCallback<K> callback) {
+		return Redis.scan(redisTemplate, pattern, count, callback);
+	}
+
 	@Override
 	public boolean zContains(K key, V value) {
 		return Redis.zContains(redisTemplate, key, value);
@@ -1790,23 +2045,38 @@ public class NewRedisServiceImpl<K, V> implements NewRedisService<K, V> {
 
 	@Override
 	public boolean lock(K key) {
-		Object lockKey = key + ":lock";
-
-		if (Redis.ttl(redisTemplate, (K) lockKey) < 0) {
-			del((K) lockKey.toString());
+		RedisLock lock = Redis.tryLockLocally(redisTemplate, lockKey(key), lockWaitMillis, lockLeaseMillis,
+				TimeUnit.MILLISECONDS, lockAutoRenew);
+		if (lock == null) {
+			return false;
 		}
+		heldLocks.hold(key, lock);
+		return true;
+	}
 
-		if (Redis.incrBy(redisTemplate, (K) lockKey, 1L, 1L, TimeUnit.MINUTES) <= 1) {
-			return true;
-		}
+	@Override
+	public void unlock(K key) {
+		heldLocks.release(key);
+	}
 
-		return false;
+	@Override
+	public RedisLock tryLock(K key, long leaseTime, TimeUnit unit) {
+		return tryLock(key, 0, leaseTime, unit);
 	}
 
 	@Override
-	public void unlock(K key) {
-		String lockKey = key + ":lock";
-		Redis.del(redisTemplate, (K) lockKey);
+	public RedisLock tryLock(K key, long waitTime, long leaseTime, TimeUnit unit) {
+		return Redis.tryLock(redisTemplate, lockKey(key), waitTime, leaseTime, unit);
+	}
+
+	@Override
+	public RedisLock tryLock(K key, long waitTime, long leaseTime, TimeUnit unit, boolean autoRenew) {
+		return Redis.tryLock(redisTemplate, lockKey(key), waitTime, leaseTime, unit, autoRenew);
+	}
+
+	@SuppressWarnings("unchecked")
+	private K lockKey(K key) {
+		return (K) (key + ":lock");
 	}
 
 	@Override
@@ -1829,6 +2099,26 @@ public class NewRedisServiceImpl<K, V> implements NewRedisService<K, V> {
 		return Redis.incrBy(redisTemplate, key, delta);
 	}
 
+	@Override
+	public void incrByBuffered(K key, long delta) {
+		Redis.incrByBuffered(redisTemplate, key, delta);
+	}
+
+	@Override
+	public void hIncrByBuffered(K key, Object hashKey, double delta) {
+		Redis.hIncrByBuffered(redisTemplate, key, hashKey, delta);
+	}
+
+	@Override
+	public void increaseScoreInZsetBuffered(K key, V value, double delta) {
+		Redis.zIncrByBuffered(redisTemplate, key, value, delta);
+	}
+
+	@Override
+	public void flushCounters() {
+		Redis.flushCounters(redisTemplate);
+	}
+
 	@Override
 	public void setTimeOut(K key, long expireTime, TimeUnit unit) {
 		Redis.expire(redisTemplate, key, expireTime, unit);
@@ -1954,4 +2244,54 @@ public class NewRedisServiceImpl<K, V> implements NewRedisService<K, V> {
 		Double ret = Redis.hIncrBy(redisTemplate, key, hashKey, delta);
 		return ret == null ? -1 : ret.doubleValue();
 	}
+
+	@Override
+	public <T> Iterator<T> sScan(K key, int batchSize, Class<T> clazz) {
+		return Redis.sScan(redisTemplate, key, null, batchSize, clazz);
+	}
+
+	@Override
+	public <T> long sScan(K key, int batchSize, Class<T> clazz, ScanCallback<T> callback) {
+		return Redis.sScan(redisTemplate, key, null, batchSize, clazz, callback);
+	}
+
+	@Override
+	public <T> Stream<T> sScanStream(K key, int batchSize, Class<T> clazz) {
+		return Redis.sScan(redisTemplate, key, null, batchSize, clazz).stream();
+	}
+
+	@Override
+	public <T> Iterator<TypedTuple<T>> zScan(K key, int batchSize, Class<T> clazz) {
+		return Redis.zScan(redisTemplate, key, null, batchSize, clazz);
+	}
+
+	@Override
+	public <T> long zScan(K key, int batchSize, Class<T> clazz, ScanCallback<TypedTuple<T>> callback) {
+		return Redis.zScan(redisTemplate, key, null, batchSize, clazz, callback);
+	}
+
+	@Override
+	public <T> Stream<TypedTuple<T>> zScanStream(K key, int batchSize, Class<T> clazz) {
+		return Redis.zScan(redisTemplate, key, null, batchSize, clazz).stream();
+	}
+
+	@Override
+	public <T> Iterator<Map.Entry<Object, T>> hScan(K key, int batchSize, Class<T> clazz) {
+		return Redis.hScan(redisTemplate, key, null, batchSize, clazz);
+	}
+
+	@Override
+	public <T> long hScan(K key, int batchSize, Class<T> clazz, ScanCallback<Map.Entry<Object, T>> callback) {
+		return Redis.hScan(redisTemplate, key, null, batchSize, clazz, callback);
+	}
+
+	@Override
+	public <T> Stream<Map.Entry<Object, T>> hScanStream(K key, int batchSize, Class<T> clazz) {
+		return Redis.hScan(redisTemplate, key, null, batchSize, clazz).stream();
+	}
+
+	@Override
+	public RedisBatch<K, V> batch() {
+		return Redis.batch(redisTemplate);
+	}
 }
@@ -3,6 +3,7 @@ package com.easycode.redis.client.service.impl;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -13,13 +14,29 @@ import org.springframework.data.redis.core.ZSetOperations.TypedTuple;
 
 import com.easycode.commons.StringUtils;
 import com.easycode.redis.client.service.RedisService;
+import com.easycode.redis.server.Redis;
+import com.easycode.redis.server.lock.HeldLocks;
+import com.easycode.redis.server.lock.RedisLock;
+import com.easycode.redis.server.metrics.MeteredCall;
+import com.easycode.redis.server.metrics.RedisMetrics;
+import com.easycode.redis.server.scan.ScanCallback;
 
 public class RedisServiceImpl implements RedisService {
 
+	private static final int SCAN_COUNT = 1000;
+
 	private RedisTemplate<String, String> stringRedisTemplate;
 
 	private RedisTemplate<String, Object> objRedisTemplate;
 
+	private long lockLeaseMillis = 60000L;
+
+	private long lockWaitMillis = 1000L;
+
+	private boolean lockAutoRenew;
+
+	private final HeldLocks<String> heldLocks = new HeldLocks<String>();
+
 	public RedisTemplate<String, String> getStringRedisTemplate() {
 		return stringRedisTemplate;
 	}
@@ -36,6 +53,39 @@ public class RedisServiceImpl implements RedisService {
 		this.objRedisTemplate = objRedisTemplate;
 	}
 
+	public long getLockLeaseMillis() {
+		return lockLeaseMillis;
+	}
+
+	/**
+	 * {@link #lock(String)}使用的租约时长，默认1分钟
+	 */
+	public void setLockLeaseMillis(long lockLeaseMillis) {
+		this.lockLeaseMillis = lockLeaseMillis;
+	}
+
+	public long getLockWaitMillis() {
+		return lockWaitMillis;
+	}
+
+	/**
+	 * {@link #lock(String)}在本JVM内排队等待其他线程释放锁的最长时间，默认1秒；锁被其他实例持有时不等待
+	 */
+	public void setLockWaitMillis(long lockWaitMillis) {
+		this.lockWaitMillis = lockWaitMillis;
+	}
+
+	public boolean isLockAutoRenew() {
+		return lockAutoRenew;
+	}
+
+	/**
+	 * {@link #lock(String)}获得的锁是否自动续期直到{@link #unlock(String)}，开启后可以配合较短的租约使用
+	 */
+	public void setLockAutoRenew(boolean lockAutoRenew) {
+		this.lockAutoRenew = lockAutoRenew;
+	}
+
 	// String
 
 	// ------------------------------Set String--------------------
@@ -51,6 +101,20 @@ public class RedisServiceImpl implements RedisService {
 
 	@Override
 	public int setString(String key, String value, Long timeout, TimeUnit unit) {
+		RedisMetrics metrics = RedisMetrics.of(stringRedisTemplate);
+		if (metrics == null) {
+			return doSetString(key, value, timeout, unit);
+		}
+		return RedisMetrics.record(metrics, "setString", key, null, new MeteredCall<Integer>() {
+			@Override
+			protected Integer call() {
+				return doSetString(key, value, timeout, unit);
+			}
+		});
+	}
+
+	private int doSetString(String key, String value, Long timeout, TimeUnit unit) {
+		TimeUnit timeUnit = unit == null ? TimeUnit.MILLISECONDS : unit;
 		if (StringUtils.isEmpty(key) || StringUtils.isEmpty(value)) {
 			return 0;
 		}
@@ -58,10 +122,7 @@ public class RedisServiceImpl implements RedisService {
 		if (timeout == null) {
 			stringRedisTemplate.opsForValue().set(key, value);
 		} else {
-			if (unit == null) {
-				unit = TimeUnit.MILLISECONDS;
-			}
-			stringRedisTemplate.opsForValue().set(key, value, timeout.longValue(), unit);
+			stringRedisTemplate.opsForValue().set(key, value, timeout.longValue(), timeUnit);
 		}
 
 		return 1;
@@ -70,18 +131,61 @@ public class RedisServiceImpl implements RedisService {
 	// -----------------------------Get-------------------------
 	@Override
 	public String getString(String key) {
+		RedisMetrics metrics = RedisMetrics.of(stringRedisTemplate);
+		if (metrics == null) {
+			return doGetString(key);
+		}
+		return RedisMetrics.record(metrics, "getString", key, null, new MeteredCall<String>() {
+			@Override
+			protected String call() {
+				return doGetString(key);
+			}
+		});
+	}
+
+	private String doGetString(String key) {
 		return stringRedisTemplate.opsForValue().get(key);
 	}
 
 	// -----------------------------DEL-------------------------
 	@Override
 	public void delString(String key) {
+		RedisMetrics metrics = RedisMetrics.of(stringRedisTemplate);
+		if (metrics == null) {
+			doDelString(key);
+			return;
+		}
+		RedisMetrics.record(metrics, "delString", key, null, new MeteredCall<Void>() {
+			@Override
+			protected Void call() {
+				doDelString(key);
+				return null;
+			}
+		});
+	}
+
+	private void doDelString(String key) {
 		stringRedisTemplate.delete(key);
 	}
 
 	// ----------------------------Append-------------------------
 	@Override
 	public void appendString(String key, String appendStr) {
+		RedisMetrics metrics = RedisMetrics.of(stringRedisTemplate);
+		if (metrics == null) {
+			doAppendString(key, appendStr);
+			return;
+		}
+		RedisMetrics.record(metrics, "appendString", key, null, new MeteredCall<Void>() {
+			@Override
+			protected Void call() {
+				doAppendString(key, appendStr);
+				return null;
+			}
+		});
+	}
+
+	private void doAppendString(String key, String appendStr) {
 		stringRedisTemplate.opsForValue().append(key, appendStr);
 	}
 
@@ -100,6 +204,20 @@ public class RedisServiceImpl implements RedisService {
 
 	@Override
 	public int setObj(String key, Object value, Long timeout, TimeUnit unit) {
+		RedisMetrics metrics = RedisMetrics.of(objRedisTemplate);
+		if (metrics == null) {
+			return doSetObj(key, value, timeout, unit);
+		}
+		return RedisMetrics.record(metrics, "setObj", key, null, new MeteredCall<Integer>() {
+			@Override
+			protected Integer call() {
+				return doSetObj(key, value, timeout, unit);
+			}
+		});
+	}
+
+	private int doSetObj(String key, Object value, Long timeout, TimeUnit unit) {
+		TimeUnit timeUnit = unit == null ? TimeUnit.MILLISECONDS : unit;
 		if (StringUtils.isEmpty(key) || value == null) {
 			return 0;
 		}
@@ -107,10 +225,7 @@ public class RedisServiceImpl implements RedisService {
 		if (timeout == null) {
 			objRedisTemplate.opsForValue().set(key, value);
 		} else {
-			if (unit == null) {
-				unit = TimeUnit.MILLISECONDS;
-			}
-			objRedisTemplate.opsForValue().set(key, value, timeout.longValue(), unit);
+			objRedisTemplate.opsForValue().set(key, value, timeout.longValue(), timeUnit);
 		}
 
 		return 1;
@@ -119,6 +234,19 @@ public class RedisServiceImpl implements RedisService {
 	// -----------------------------Get-------------------------
 	@Override
 	public <T> T getObj(String key, Class<T> clazz) {
+		RedisMetrics metrics = RedisMetrics.of(objRedisTemplate);
+		if (metrics == null) {
+			return doGetObj(key, clazz);
+		}
+		return RedisMetrics.record(metrics, "getObj", key, null, new MeteredCall<T>() {
+			@Override
+			protected T call() {
+				return doGetObj(key, clazz);
+			}
+		});
+	}
+
+	private <T> T doGetObj(String key, Class<T> clazz) {
 		if (StringUtils.isEmpty(key)) {
 			return null;
 		}
@@ -129,6 +257,21 @@ public class RedisServiceImpl implements RedisService {
 	// -----------------------------Del-------------------------
 	@Override
 	public void delObj(String key) {
+		RedisMetrics metrics = RedisMetrics.of(objRedisTemplate);
+		if (metrics == null) {
+			doDelObj(key);
+			return;
+		}
+		RedisMetrics.record(metrics, "delObj", key, null, new MeteredCall<Void>() {
+			@Override
+			protected Void call() {
+				doDelObj(key);
+				return null;
+			}
+		});
+	}
+
+	private void doDelObj(String key) {
 		if (StringUtils.isEmpty(key)) {
 			return;
 		}
@@ -174,25 +317,7 @@ public class RedisServiceImpl implements RedisService {
 		if (StringUtils.isEmpty(key) || value == null) {
 			return 0;
 		}
-		boolean isFirst = true;
-
-		if (objRedisTemplate.hasKey(key)) {
-			isFirst = false;
-		}
-
-		if (type.intValue() == 0) {
-			objRedisTemplate.opsForList().leftPush(key, value);
-		} else {
-			objRedisTemplate.opsForList().rightPush(key, value);
-		}
-
-		if (isFirst && timeout != null) {
-			if (unit == null) {
-				unit = TimeUnit.MILLISECONDS;
-			}
-			objRedisTemplate.expire(key, timeout, unit);
-		}
-
+		Redis.pushExpireOnCreate(objRedisTemplate, key, type.intValue() == 0, timeout, unit, value);
 		return 1;
 	}
 
@@ -231,26 +356,7 @@ public class RedisServiceImpl implements RedisService {
 		if (StringUtils.isEmpty(key) || values == null || values.length < 1) {
 			return 0L;
 		}
-		boolean isFirst = true;
-		Long result = null;
-
-		if (objRedisTemplate.hasKey(key)) {
-			isFirst = false;
-		}
-
-		if (type.intValue() == 0) {
-			result = objRedisTemplate.opsForList().leftPushAll(key, values);
-		} else {
-			result = objRedisTemplate.opsForList().rightPushAll(key, values);
-		}
-
-		if (isFirst && timeout != null) {
-			if (unit == null) {
-				unit = TimeUnit.MILLISECONDS;
-			}
-			objRedisTemplate.expire(key, timeout, unit);
-		}
-		return result;
+		return Redis.pushExpireOnCreate(objRedisTemplate, key, type.intValue() == 0, timeout, unit, values);
 	}
 
 	// ------------------------------Get
@@ -261,17 +367,28 @@ public class RedisServiceImpl implements RedisService {
 
 	@Override
 	public <T> List<T> range(String key, Long start, Long end, Class<T> clazz) {
+		RedisMetrics metrics = RedisMetrics.of(objRedisTemplate);
+		if (metrics == null) {
+			return doRange(key, start, end, clazz, null);
+		}
+		return RedisMetrics.record(metrics, "range", key, null, new MeteredCall<List<T>>() {
+			@Override
+			protected List<T> call() {
+				return doRange(key, start, end, clazz, metrics);
+			}
+		});
+	}
+
+	private <T> List<T> doRange(String key, Long start, Long end, Class<T> clazz, RedisMetrics metrics) {
 		if (StringUtils.isEmpty(key) || !objRedisTemplate.hasKey(key)) {
 			return null;
 		}
 
-		if (start < 0) {
-			start = 0L;
-		}
+		long from = start < 0 ? 0L : start;
 
-		List<T> list = (List<T>) (objRedisTemplate.opsForList().range(key, start, end));
+		List<T> list = (List<T>) (objRedisTemplate.opsForList().range(key, from, end));
 
-		return list;
+		return RedisMetrics.result(metrics, list);
 	}
 
 	@Override
@@ -286,6 +403,19 @@ public class RedisServiceImpl implements RedisService {
 
 	@Override
 	public Object rightPop(String key) {
+		RedisMetrics metrics = RedisMetrics.of(objRedisTemplate);
+		if (metrics == null) {
+			return doRightPop(key);
+		}
+		return RedisMetrics.record(metrics, "rightPop", key, null, new MeteredCall<Object>() {
+			@Override
+			protected Object call() {
+				return doRightPop(key);
+			}
+		});
+	}
+
+	private Object doRightPop(String key) {
 		if (StringUtils.isEmpty(key)) {
 			return null;
 		}
@@ -294,15 +424,25 @@ public class RedisServiceImpl implements RedisService {
 
 	@Override
 	public <T> T pop(String key, Class<T> clazz, Integer type) {
-		if (StringUtils.isEmpty(key)) {
-			return null;
+		RedisMetrics metrics = RedisMetrics.of(objRedisTemplate);
+		if (metrics == null) {
+			return doPop(key, clazz, type);
 		}
+		return RedisMetrics.record(metrics, "pop", key, null, new MeteredCall<T>() {
+			@Override
+			protected T call() {
+				return doPop(key, clazz, type);
+			}
+		});
+	}
 
-		if (type == null) {
-			type = 1;
+	private <T> T doPop(String key, Class<T> clazz, Integer type) {
+		if (StringUtils.isEmpty(key)) {
+			return null;
 		}
 
-		if (type.intValue() == 0) {
+		// 未指定type时从右侧弹出
+		if (type != null && type.intValue() == 0) {
 			return ((T) objRedisTemplate.opsForList().leftPop(key));
 		} else {
 			return ((T) objRedisTemplate.opsForList().rightPop(key));
@@ -311,6 +451,19 @@ public class RedisServiceImpl implements RedisService {
 
 	@Override
 	public <T> T elementAt(String key, Long index, Class<T> clazz) {
+		RedisMetrics metrics = RedisMetrics.of(objRedisTemplate);
+		if (metrics == null) {
+			return doElementAt(key, index, clazz);
+		}
+		return RedisMetrics.record(metrics, "elementAt", key, null, new MeteredCall<T>() {
+			@Override
+			protected T call() {
+				return doElementAt(key, index, clazz);
+			}
+		});
+	}
+
+	private <T> T doElementAt(String key, Long index, Class<T> clazz) {
 		if (index < -1) {
 			return null;
 		}
@@ -352,6 +505,19 @@ public class RedisServiceImpl implements RedisService {
 
 	@Override
 	public Long remove(String key, Long count, Object value) {
+		RedisMetrics metrics = RedisMetrics.of(objRedisTemplate);
+		if (metrics == null) {
+			return doRemove(key, count, value);
+		}
+		return RedisMetrics.record(metrics, "remove", key, null, new MeteredCall<Long>() {
+			@Override
+			protected Long call() {
+				return doRemove(key, count, value);
+			}
+		});
+	}
+
+	private Long doRemove(String key, Long count, Object value) {
 		if (StringUtils.isEmpty(key) || value == null) {
 			return 0L;
 		}
@@ -360,6 +526,19 @@ public class RedisServiceImpl implements RedisService {
 
 	@Override
 	public Long sizeOfList(String key) {
+		RedisMetrics metrics = RedisMetrics.of(objRedisTemplate);
+		if (metrics == null) {
+			return doSizeOfList(key);
+		}
+		return RedisMetrics.record(metrics, "sizeOfList", key, null, new MeteredCall<Long>() {
+			@Override
+			protected Long call() {
+				return doSizeOfList(key);
+			}
+		});
+	}
+
+	private Long doSizeOfList(String key) {
 		if (StringUtils.isEmpty(key)) {
 			return 0L;
 		}
@@ -368,6 +547,19 @@ public class RedisServiceImpl implements RedisService {
 
 	@Override
 	public Long getLength(String key) {
+		RedisMetrics metrics = RedisMetrics.of(objRedisTemplate);
+		if (metrics == null) {
+			return doGetLength(key);
+		}
+		return RedisMetrics.record(metrics, "getLength", key, null, new MeteredCall<Long>() {
+			@Override
+			protected Long call() {
+				return doGetLength(key);
+			}
+		});
+	}
+
+	private Long doGetLength(String key) {
 		if (StringUtils.isEmpty(key)) {
 			return 0L;
 		}
@@ -388,7 +580,20 @@ public class RedisServiceImpl implements RedisService {
 
 	@Override
 	public Long addToSet(String key, Long timeout, TimeUnit unit, Object[] values) {
+		RedisMetrics metrics = RedisMetrics.of(objRedisTemplate);
+		if (metrics == null) {
+			return doAddToSet(key, timeout, unit, values);
+		}
+		return RedisMetrics.record(metrics, "addToSet", key, values, new MeteredCall<Long>() {
+			@Override
+			protected Long call() {
+				return doAddToSet(key, timeout, unit, values);
+			}
+		});
+	}
 
+	private Long doAddToSet(String key, Long timeout, TimeUnit unit, Object[] values) {
+		TimeUnit timeUnit = unit == null ? TimeUnit.MILLISECONDS : unit;
 		if (values == null || values.length <= 0) {
 			return 0L;
 		}
@@ -401,10 +606,7 @@ public class RedisServiceImpl implements RedisService {
 		Long rtn = objRedisTemplate.opsForSet().add(key, values);
 
 		if (isFirst && timeout != null) {
-			if (unit == null) {
-				unit = TimeUnit.MILLISECONDS;
-			}
-			objRedisTemplate.expire(key, timeout, unit);
+			objRedisTemplate.expire(key, timeout, timeUnit);
 		}
 
 		if (rtn.longValue() <= 0) {
@@ -440,45 +642,149 @@ public class RedisServiceImpl implements RedisService {
 
 	@Override
 	public <T> Set<T> diff(String key, Set<String> otherKeys, Class<T> clazz) {
-		return ((Set<T>) objRedisTemplate.opsForSet().difference(key, otherKeys));
+		RedisMetrics metrics = RedisMetrics.of(objRedisTemplate);
+		if (metrics == null) {
+			return doDiff(key, otherKeys, clazz, null);
+		}
+		return RedisMetrics.record(metrics, "diff", key, otherKeys, new MeteredCall<Set<T>>() {
+			@Override
+			protected Set<T> call() {
+				return doDiff(key, otherKeys, clazz, metrics);
+			}
+		});
+	}
+
+	private <T> Set<T> doDiff(String key, Set<String> otherKeys, Class<T> clazz, RedisMetrics metrics) {
+		return RedisMetrics.result(metrics, ((Set<T>) objRedisTemplate.opsForSet().difference(key, otherKeys)));
 	}
 
 	@Override
 	public <T> Set<T> inter(String key, Set<String> otherKeys, Class<T> clazz) {
-		return (Set<T>) objRedisTemplate.opsForSet().intersect(key, otherKeys);
+		RedisMetrics metrics = RedisMetrics.of(objRedisTemplate);
+		if (metrics == null) {
+			return doInter(key, otherKeys, clazz, null);
+		}
+		return RedisMetrics.record(metrics, "inter", key, otherKeys, new MeteredCall<Set<T>>() {
+			@Override
+			protected Set<T> call() {
+				return doInter(key, otherKeys, clazz, metrics);
+			}
+		});
+	}
+
+	private <T> Set<T> doInter(String key, Set<String> otherKeys, Class<T> clazz, RedisMetrics metrics) {
+		return RedisMetrics.result(metrics, (Set<T>) objRedisTemplate.opsForSet().intersect(key, otherKeys));
 	}
 
 	@Override
 	public boolean isMember(String key, Object obj) {
+		RedisMetrics metrics = RedisMetrics.of(objRedisTemplate);
+		if (metrics == null) {
+			return doIsMember(key, obj);
+		}
+		return RedisMetrics.record(metrics, "isMember", key, null, new MeteredCall<Boolean>() {
+			@Override
+			protected Boolean call() {
+				return doIsMember(key, obj);
+			}
+		});
+	}
+
+	private boolean doIsMember(String key, Object obj) {
 		return objRedisTemplate.opsForSet().isMember(key, obj);
 	}
 
 	@Override
 	public <T> Set<T> members(String key, Class<T> clazz) {
-		return ((Set<T>) objRedisTemplate.opsForSet().members(key));
+		RedisMetrics metrics = RedisMetrics.of(objRedisTemplate);
+		if (metrics == null) {
+			return doMembers(key, clazz, null);
+		}
+		return RedisMetrics.record(metrics, "members", key, null, new MeteredCall<Set<T>>() {
+			@Override
+			protected Set<T> call() {
+				return doMembers(key, clazz, metrics);
+			}
+		});
+	}
+
+	private <T> Set<T> doMembers(String key, Class<T> clazz, RedisMetrics metrics) {
+		return RedisMetrics.result(metrics, ((Set<T>) objRedisTemplate.opsForSet().members(key)));
 	}
 
 	@Override
 	public <T> T randomPop(String key, Class<T> clazz) {
+		RedisMetrics metrics = RedisMetrics.of(objRedisTemplate);
+		if (metrics == null) {
+			return doRandomPop(key, clazz);
+		}
+		return RedisMetrics.record(metrics, "randomPop", key, null, new MeteredCall<T>() {
+			@Override
+			protected T call() {
+				return doRandomPop(key, clazz);
+			}
+		});
+	}
+
+	private <T> T doRandomPop(String key, Class<T> clazz) {
 		return (T) objRedisTemplate.opsForSet().pop(key);
 	}
 
 	@Override
 	public <T> List<T> randomMembers(String key, Long count, Class<T> clazz) {
-		return (List<T>) objRedisTemplate.opsForSet().randomMembers(key, count);
+		RedisMetrics metrics = RedisMetrics.of(objRedisTemplate);
+		if (metrics == null) {
+			return doRandomMembers(key, count, clazz, null);
+		}
+		return RedisMetrics.record(metrics, "randomMembers", key, null, new MeteredCall<List<T>>() {
+			@Override
+			protected List<T> call() {
+				return doRandomMembers(key, count, clazz, metrics);
+			}
+		});
+	}
+
+	private <T> List<T> doRandomMembers(String key, Long count, Class<T> clazz, RedisMetrics metrics) {
+		return RedisMetrics.result(metrics, (List<T>) objRedisTemplate.opsForSet().randomMembers(key, count));
 	}
 
 	@Override
 	public <T> Set<T> randomDistinctMembers(String key, Long count, Class<T> clazz) {
+		RedisMetrics metrics = RedisMetrics.of(objRedisTemplate);
+		if (metrics == null) {
+			return doRandomDistinctMembers(key, count, clazz, null);
+		}
+		return RedisMetrics.record(metrics, "randomDistinctMembers", key, null, new MeteredCall<Set<T>>() {
+			@Override
+			protected Set<T> call() {
+				return doRandomDistinctMembers(key, count, clazz, metrics);
+			}
+		});
+	}
+
+	private <T> Set<T> doRandomDistinctMembers(String key, Long count, Class<T> clazz, RedisMetrics metrics) {
 		if (StringUtils.isEmpty(key)) {
 			return null;
 		}
-		return (Set<T>) objRedisTemplate.opsForSet().distinctRandomMembers(key, count);
+		return RedisMetrics.result(metrics, (Set<T>) objRedisTemplate.opsForSet().distinctRandomMembers(key, count));
 	}
 
 	@Override
 	public <T> Set<T> union(String key, Set<String> otherKeys, Class<T> clazz) {
-		return (Set<T>) objRedisTemplate.opsForSet().union(key, otherKeys);
+		RedisMetrics metrics = RedisMetrics.of(objRedisTemplate);
+		if (metrics == null) {
+			return doUnion(key, otherKeys, clazz, null);
+		}
+		return RedisMetrics.record(metrics, "union", key, otherKeys, new MeteredCall<Set<T>>() {
+			@Override
+			protected Set<T> call() {
+				return doUnion(key, otherKeys, clazz, metrics);
+			}
+		});
+	}
+
+	private <T> Set<T> doUnion(String key, Set<String> otherKeys, Class<T> clazz, RedisMetrics metrics) {
+		return RedisMetrics.result(metrics, (Set<T>) objRedisTemplate.opsForSet().union(key, otherKeys));
 	}
 
 	@Override
@@ -491,11 +797,37 @@ public class RedisServiceImpl implements RedisService {
 	// -------------------------Del------------------------------
 	@Override
 	public Long removeElement(String key, Object value) {
+		RedisMetrics metrics = RedisMetrics.of(objRedisTemplate);
+		if (metrics == null) {
+			return doRemoveElement(key, value);
+		}
+		return RedisMetrics.record(metrics, "removeElement", key, null, new MeteredCall<Long>() {
+			@Override
+			protected Long call() {
+				return doRemoveElement(key, value);
+			}
+		});
+	}
+
+	private Long doRemoveElement(String key, Object value) {
 		return objRedisTemplate.opsForSet().remove(key, new Object[] { value });
 	}
 
 	@Override
 	public Long removeElements(String key, Object... values) {
+		RedisMetrics metrics = RedisMetrics.of(objRedisTemplate);
+		if (metrics == null) {
+			return doRemoveElements(key, values);
+		}
+		return RedisMetrics.record(metrics, "removeElements", key, values, new MeteredCall<Long>() {
+			@Override
+			protected Long call() {
+				return doRemoveElements(key, values);
+			}
+		});
+	}
+
+	private Long doRemoveElements(String key, Object... values) {
 		return objRedisTemplate.opsForSet().remove(key, values);
 	}
 
@@ -512,6 +844,19 @@ public class RedisServiceImpl implements RedisService {
 	// -------------------------Util
 	@Override
 	public Long sizeOfSet(String key) {
+		RedisMetrics metrics = RedisMetrics.of(objRedisTemplate);
+		if (metrics == null) {
+			return doSizeOfSet(key);
+		}
+		return RedisMetrics.record(metrics, "sizeOfSet", key, null, new MeteredCall<Long>() {
+			@Override
+			protected Long call() {
+				return doSizeOfSet(key);
+			}
+		});
+	}
+
+	private Long doSizeOfSet(String key) {
 		return objRedisTemplate.opsForSet().size(key);
 	}
 
@@ -527,6 +872,22 @@ public class RedisServiceImpl implements RedisService {
 	}
 
 	public void put(String key, Object hashKey, Object value, Long timeout, TimeUnit unit) {
+		RedisMetrics metrics = RedisMetrics.of(objRedisTemplate);
+		if (metrics == null) {
+			doPut(key, hashKey, value, timeout, unit);
+			return;
+		}
+		RedisMetrics.record(metrics, "put", key, null, new MeteredCall<Void>() {
+			@Override
+			protected Void call() {
+				doPut(key, hashKey, value, timeout, unit);
+				return null;
+			}
+		});
+	}
+
+	private void doPut(String key, Object hashKey, Object value, Long timeout, TimeUnit unit) {
+		TimeUnit timeUnit = unit == null ? TimeUnit.MILLISECONDS : unit;
 		if (StringUtils.isEmpty(key) || hashKey == null) {
 			return;
 		}
@@ -539,16 +900,26 @@ public class RedisServiceImpl implements RedisService {
 		objRedisTemplate.opsForHash().put(key, hashKey, value);
 
 		if (isFirst && timeout != null) {
-			if (unit == null) {
-				unit = TimeUnit.MILLISECONDS;
-			}
-			objRedisTemplate.expire(key, timeout, unit);
+			objRedisTemplate.expire(key, timeout, timeUnit);
 		}
 	}
 
 	// --------------------------Get
 
 	public <T> T getFromMap(String key, Object hashKey) {
+		RedisMetrics metrics = RedisMetrics.of(objRedisTemplate);
+		if (metrics == null) {
+			return doGetFromMap(key, hashKey);
+		}
+		return RedisMetrics.record(metrics, "getFromMap", key, null, new MeteredCall<T>() {
+			@Override
+			protected T call() {
+				return doGetFromMap(key, hashKey);
+			}
+		});
+	}
+
+	private <T> T doGetFromMap(String key, Object hashKey) {
 		if (StringUtils.isEmpty(key)) {
 			return null;
 		}
@@ -556,6 +927,19 @@ public class RedisServiceImpl implements RedisService {
 	}
 
 	public boolean existInMap(String key, Object hashKey) {
+		RedisMetrics metrics = RedisMetrics.of(objRedisTemplate);
+		if (metrics == null) {
+			return doExistInMap(key, hashKey);
+		}
+		return RedisMetrics.record(metrics, "existInMap", key, null, new MeteredCall<Boolean>() {
+			@Override
+			protected Boolean call() {
+				return doExistInMap(key, hashKey);
+			}
+		});
+	}
+
+	private boolean doExistInMap(String key, Object hashKey) {
 		if (StringUtils.isEmpty(key)) {
 			return false;
 		}
@@ -563,33 +947,102 @@ public class RedisServiceImpl implements RedisService {
 	}
 
 	public <T> Set<T> keys(String key, Class<T> clazz) {
+		RedisMetrics metrics = RedisMetrics.of(objRedisTemplate);
+		if (metrics == null) {
+			return doKeys(key, clazz, null);
+		}
+		return RedisMetrics.record(metrics, "keys", key, null, new MeteredCall<Set<T>>() {
+			@Override
+			protected Set<T> call() {
+				return doKeys(key, clazz, metrics);
+			}
+		});
+	}
+
+	private <T> Set<T> doKeys(String key, Class<T> clazz, RedisMetrics metrics) {
 		if (StringUtils.isEmpty(key)) {
 			return null;
 		}
-		return (Set<T>) objRedisTemplate.opsForHash().keys(key);
+		return RedisMetrics.result(metrics, (Set<T>) objRedisTemplate.opsForHash().keys(key));
 	}
 
 	public <K, V> Map<K, V> entries(String key, Class<K> keyClazz, Class<V> valueClazz) {
+		RedisMetrics metrics = RedisMetrics.of(objRedisTemplate);
+		if (metrics == null) {
+			return doEntries(key, keyClazz, valueClazz, null);
+		}
+		return RedisMetrics.record(metrics, "entries", key, null, new MeteredCall<Map<K, V>>() {
+			@Override
+			protected Map<K, V> call() {
+				return doEntries(key, keyClazz, valueClazz, metrics);
+			}
+		});
+	}
+
+	private <K, V> Map<K, V> doEntries(String key, Class<K> keyClazz, Class<V> valueClazz, RedisMetrics metrics) {
 		if (StringUtils.isEmpty(key)) {
 			return null;
 		}
-		return ((Map<K, V>) objRedisTemplate.opsForHash().entries(key));
+		return RedisMetrics.result(metrics, ((Map<K, V>) objRedisTemplate.opsForHash().entries(key)));
 	}
 
 	// --------------------------Del
 	@Override
 	public void delFromMap(String key, Object hashKey) {
+		RedisMetrics metrics = RedisMetrics.of(objRedisTemplate);
+		if (metrics == null) {
+			doDelFromMap(key, hashKey);
+			return;
+		}
+		RedisMetrics.record(metrics, "delFromMap", key, null, new MeteredCall<Void>() {
+			@Override
+			protected Void call() {
+				doDelFromMap(key, hashKey);
+				return null;
+			}
+		});
+	}
+
+	private void doDelFromMap(String key, Object hashKey) {
 		objRedisTemplate.opsForHash().delete(key, new Object[] { hashKey });
 	}
 
 	@Override
 	public void delFromMap(String key, Object... hashKeys) {
+		RedisMetrics metrics = RedisMetrics.of(objRedisTemplate);
+		if (metrics == null) {
+			doDelFromMap(key, hashKeys);
+			return;
+		}
+		RedisMetrics.record(metrics, "delFromMap", key, hashKeys, new MeteredCall<Void>() {
+			@Override
+			protected Void call() {
+				doDelFromMap(key, hashKeys);
+				return null;
+			}
+		});
+	}
+
+	private void doDelFromMap(String key, Object... hashKeys) {
 		objRedisTemplate.opsForHash().delete(key, hashKeys);
 	}
 
 	// --------------------------Util
 	@Override
 	public Long sizeOfMap(String key) {
+		RedisMetrics metrics = RedisMetrics.of(objRedisTemplate);
+		if (metrics == null) {
+			return doSizeOfMap(key);
+		}
+		return RedisMetrics.record(metrics, "sizeOfMap", key, null, new MeteredCall<Long>() {
+			@Override
+			protected Long call() {
+				return doSizeOfMap(key);
+			}
+		});
+	}
+
+	private Long doSizeOfMap(String key) {
 		if (StringUtils.isEmpty(key)) {
 			return 0L;
 		}
@@ -598,21 +1051,75 @@ public class RedisServiceImpl implements RedisService {
 
 	@Override
 	public Long increment(String key) {
+		RedisMetrics metrics = RedisMetrics.of(stringRedisTemplate);
+		if (metrics == null) {
+			return doIncrement(key);
+		}
+		return RedisMetrics.record(metrics, "increment", key, null, new MeteredCall<Long>() {
+			@Override
+			protected Long call() {
+				return doIncrement(key);
+			}
+		});
+	}
+
+	private Long doIncrement(String key) {
 		return stringRedisTemplate.opsForValue().increment(key, 1);
 	}
 
 	@Override
 	public Long increment(String key, Long step) {
+		RedisMetrics metrics = RedisMetrics.of(stringRedisTemplate);
+		if (metrics == null) {
+			return doIncrement(key, step);
+		}
+		return RedisMetrics.record(metrics, "increment", key, null, new MeteredCall<Long>() {
+			@Override
+			protected Long call() {
+				return doIncrement(key, step);
+			}
+		});
+	}
+
+	private Long doIncrement(String key, Long step) {
 		return stringRedisTemplate.opsForValue().increment(key, step);
 	}
 
 	@Override
 	public void setTimeout(String key, Long timeout, TimeUnit unit) {
+		RedisMetrics metrics = RedisMetrics.of(objRedisTemplate);
+		if (metrics == null) {
+			doSetTimeout(key, timeout, unit);
+			return;
+		}
+		RedisMetrics.record(metrics, "setTimeout", key, null, new MeteredCall<Void>() {
+			@Override
+			protected Void call() {
+				doSetTimeout(key, timeout, unit);
+				return null;
+			}
+		});
+	}
+
+	private void doSetTimeout(String key, Long timeout, TimeUnit unit) {
 		objRedisTemplate.expire(key, timeout, unit);
 	}
 
 	@Override
 	public boolean containKey(String key) {
+		RedisMetrics metrics = RedisMetrics.of(objRedisTemplate);
+		if (metrics == null) {
+			return doContainKey(key);
+		}
+		return RedisMetrics.record(metrics, "containKey", key, null, new MeteredCall<Boolean>() {
+			@Override
+			protected Boolean call() {
+				return doContainKey(key);
+			}
+		});
+	}
+
+	private boolean doContainKey(String key) {
 		return objRedisTemplate.hasKey(key);
 	}
 
@@ -621,50 +1128,98 @@ public class RedisServiceImpl implements RedisService {
 		if (key == null) {
 			return 0L;
 		}
-		boolean first = true;
-		if (containKey(key)) {
-			first = false;
-		}
-		Long val = increment(key, step);
-		if (first) {
-			setTimeout(key, timeout, unit);
-		}
-		return val;
+		return Redis.incrBy(stringRedisTemplate, key, step, timeout, unit);
 	}
 
 	@Override
 	public boolean lock(String key) {
-		String lockKey = key + ":lock";
-		long ttl = ttl(lockKey);
-		if(ttl < 0) {
-			del(lockKey);
-		}
-		
-		if (increment(lockKey, 1L, 1L, TimeUnit.MINUTES) <= 1) {
-			return true;
+		RedisLock lock = Redis.tryLockLocally(stringRedisTemplate, key + ":lock", lockWaitMillis, lockLeaseMillis,
+				TimeUnit.MILLISECONDS, lockAutoRenew);
+		if (lock == null) {
+			return false;
 		}
-		return false;
+		heldLocks.hold(key, lock);
+		return true;
 	}
 
 	@Override
 	public void unlock(String key) {
-		String lockKey = key + ":lock";
-		del(lockKey);
+		heldLocks.release(key);
+	}
+
+	@Override
+	public RedisLock tryLock(String key, long leaseTime, TimeUnit unit) {
+		return tryLock(key, 0, leaseTime, unit);
+	}
+
+	@Override
+	public RedisLock tryLock(String key, long waitTime, long leaseTime, TimeUnit unit) {
+		return Redis.tryLock(stringRedisTemplate, key + ":lock", waitTime, leaseTime, unit);
+	}
+
+	@Override
+	public RedisLock tryLock(String key, long waitTime, long leaseTime, TimeUnit unit, boolean autoRenew) {
+		return Redis.tryLock(stringRedisTemplate, key + ":lock", waitTime, leaseTime, unit, autoRenew);
 	}
 
 	@Override
 	public void del(String key) {
+		RedisMetrics metrics = RedisMetrics.of(objRedisTemplate);
+		if (metrics == null) {
+			doDel(key);
+			return;
+		}
+		RedisMetrics.record(metrics, "del", key, null, new MeteredCall<Void>() {
+			@Override
+			protected Void call() {
+				doDel(key);
+				return null;
+			}
+		});
+	}
+
+	private void doDel(String key) {
 		objRedisTemplate.delete(key);
 	}
 
 	@Override
 	public void del(Set<String> keys) {
+		RedisMetrics metrics = RedisMetrics.of(objRedisTemplate);
+		if (metrics == null) {
+			doDel(keys);
+			return;
+		}
+		RedisMetrics.record(metrics, "del", keys, null, new MeteredCall<Void>() {
+			@Override
+			protected Void call() {
+				doDel(keys);
+				return null;
+			}
+		});
+	}
+
+	private void doDel(Set<String> keys) {
 		objRedisTemplate.delete(keys);
 	}
 
 	// ZSET
 	@Override
 	public void zAdd(String key, Object value, double score) {
+		RedisMetrics metrics = RedisMetrics.of(objRedisTemplate);
+		if (metrics == null) {
+			doZAdd(key, value, score);
+			return;
+		}
+		RedisMetrics.record(metrics, "zAdd", key, null, new MeteredCall<Void>() {
+			@Override
+			protected Void call() {
+				doZAdd(key, value, score);
+				return null;
+			}
+		});
+	}
+
+	private void doZAdd(String key, Object value, double score) {
 		if (value == null) {
 			return;
 		}
@@ -673,6 +1228,21 @@ public class RedisServiceImpl implements RedisService {
 
 	@Override
 	public <V> void zAdd(String key, Set<TypedTuple<Object>> values) {
+		RedisMetrics metrics = RedisMetrics.of(objRedisTemplate);
+		if (metrics == null) {
+			doZAdd(key, values);
+			return;
+		}
+		RedisMetrics.record(metrics, "zAdd", key, values, new MeteredCall<Void>() {
+			@Override
+			protected Void call() {
+				doZAdd(key, values);
+				return null;
+			}
+		});
+	}
+
+	private <V> void doZAdd(String key, Set<TypedTuple<Object>> values) {
 		if (values == null || values.size() <= 0) {
 			return;
 		}
@@ -681,31 +1251,111 @@ public class RedisServiceImpl implements RedisService {
 
 	@Override
 	public double zIncrBy(String key, Object value, double delta) {
+		RedisMetrics metrics = RedisMetrics.of(objRedisTemplate);
+		if (metrics == null) {
+			return doZIncrBy(key, value, delta);
+		}
+		return RedisMetrics.record(metrics, "zIncrBy", key, null, new MeteredCall<Double>() {
+			@Override
+			protected Double call() {
+				return doZIncrBy(key, value, delta);
+			}
+		});
+	}
+
+	private double doZIncrBy(String key, Object value, double delta) {
 		return objRedisTemplate.opsForZSet().incrementScore(key, value, delta);
 	}
 
 	@Override
 	public <T> Set<T> zRange(String key, long start, long end, Class<T> clazz) {
-		return (Set<T>) objRedisTemplate.opsForZSet().range(key, start, end);
+		RedisMetrics metrics = RedisMetrics.of(objRedisTemplate);
+		if (metrics == null) {
+			return doZRange(key, start, end, clazz, null);
+		}
+		return RedisMetrics.record(metrics, "zRange", key, null, new MeteredCall<Set<T>>() {
+			@Override
+			protected Set<T> call() {
+				return doZRange(key, start, end, clazz, metrics);
+			}
+		});
+	}
+
+	private <T> Set<T> doZRange(String key, long start, long end, Class<T> clazz, RedisMetrics metrics) {
+		return RedisMetrics.result(metrics, (Set<T>) objRedisTemplate.opsForZSet().range(key, start, end));
 	}
 
 	@Override
 	public <T> Set<T> zRevRange(String key, long start, long end, Class<T> clazz) {
-		return (Set<T>) objRedisTemplate.opsForZSet().reverseRange(key, start, end);
+		RedisMetrics metrics = RedisMetrics.of(objRedisTemplate);
+		if (metrics == null) {
+			return doZRevRange(key, start, end, clazz, null);
+		}
+		return RedisMetrics.record(metrics, "zRevRange", key, null, new MeteredCall<Set<T>>() {
+			@Override
+			protected Set<T> call() {
+				return doZRevRange(key, start, end, clazz, metrics);
+			}
+		});
+	}
+
+	private <T> Set<T> doZRevRange(String key, long start, long end, Class<T> clazz, RedisMetrics metrics) {
+		return RedisMetrics.result(metrics, (Set<T>) objRedisTemplate.opsForZSet().reverseRange(key, start, end));
 	}
 
 	@Override
 	public <T> Set<T> zRangeByScore(String key, double min, double max, long offset, long count, Class<T> clazz) {
-		return (Set<T>) objRedisTemplate.opsForZSet().rangeByScore(key, min, max, offset, count);
+		RedisMetrics metrics = RedisMetrics.of(objRedisTemplate);
+		if (metrics == null) {
+			return doZRangeByScore(key, min, max, offset, count, clazz, null);
+		}
+		return RedisMetrics.record(metrics, "zRangeByScore", key, null, new MeteredCall<Set<T>>() {
+			@Override
+			protected Set<T> call() {
+				return doZRangeByScore(key, min, max, offset, count, clazz, metrics);
+			}
+		});
+	}
+
+	private <T> Set<T> doZRangeByScore(String key, double min, double max, long offset, long count, Class<T> clazz,
+			RedisMetrics metrics) {
+		return RedisMetrics.result(metrics, (Set<T>) objRedisTemplate.opsForZSet().rangeByScore(key, min, max, offset, count));
 	}
 
 	@Override
 	public <T> Set<T> zRevRangeByScore(String key, double min, double max, long offset, long count, Class<T> clazz) {
-		return (Set<T>) objRedisTemplate.opsForZSet().reverseRangeByScore(key, min, max, offset, count);
+		RedisMetrics metrics = RedisMetrics.of(objRedisTemplate);
+		if (metrics == null) {
+			return doZRevRangeByScore(key, min, max, offset, count, clazz, null);
+		}
+		return RedisMetrics.record(metrics, "zRevRangeByScore", key, null, new MeteredCall<Set<T>>() {
+			@Override
+			protected Set<T> call() {
+				return doZRevRangeByScore(key, min, max, offset, count, clazz, metrics);
+			}
+		});
+	}
+
+	private <T> Set<T> doZRevRangeByScore(String key, double min, double max, long offset, long count, Class<T> clazz,
+			RedisMetrics metrics) {
+		return RedisMetrics.result(metrics, (Set<T>) objRedisTemplate.opsForZSet().reverseRangeByScore(key, min, max, offset, count));
 	}
 
 	@Override
 	public Long zRemove(String key, Object... values) {
+		RedisMetrics metrics = RedisMetrics.of(objRedisTemplate);
+		if (metrics == null) {
+			return doZRemove(key, values);
+		}
+		return RedisMetrics.record(metrics, "zRemove", key, values, new MeteredCall<Long>() {
+			@Override
+			protected Long call() {
+				return doZRemove(key, values);
+			}
+		});
+	}
+
+	private Long doZRemove(String key, Object... values) {
 		return objRedisTemplate.opsForZSet().remove(key, values);
 	}
 
@@ -717,6 +1367,19 @@ public class RedisServiceImpl implements RedisService {
 
 	@Override
 	public Long sizeOfZSet(String key) {
+		RedisMetrics metrics = RedisMetrics.of(objRedisTemplate);
+		if (metrics == null) {
+			return doSizeOfZSet(key);
+		}
+		return RedisMetrics.record(metrics, "sizeOfZSet", key, null, new MeteredCall<Long>() {
+			@Override
+			protected Long call() {
+				return doSizeOfZSet(key);
+			}
+		});
+	}
+
+	private Long doSizeOfZSet(String key) {
 		return objRedisTemplate.opsForZSet().size(key);
 	}
 
@@ -734,33 +1397,91 @@ public class RedisServiceImpl implements RedisService {
 	}
 
 	@Override
+	@Deprecated
 	public Set<String> keys(String key) {
 		if (StringUtils.isEmpty(key)) {
 			return null;
 		}
-		return (Set<String>) objRedisTemplate.keys(key);
+		Set<String> ret = new HashSet<String>();
+		Iterator<String> iterator = scan(key, SCAN_COUNT);
+		while (iterator.hasNext()) {
+			ret.add(iterator.next());
+		}
+		return ret;
+	}
+
+	@Override
+	public Iterator<String> scan(String keyPattern, int count) {
+		return Redis.scan(objRedisTemplate, keyPattern, count);
+	}
+
+	@Override
+	public long scan(String keyPattern, int count, ScanCallback<String> callback) {
+		return Redis.scan(objRedisTemplate, keyPattern, count, callback);
 	}
 
 	@Override
 	public void expireObj(String key, Long timeout, TimeUnit unit) {
+		RedisMetrics metrics = RedisMetrics.of(objRedisTemplate);
+		if (metrics == null) {
+			doExpireObj(key, timeout, unit);
+			return;
+		}
+		RedisMetrics.record(metrics, "expireObj", key, null, new MeteredCall<Void>() {
+			@Override
+			protected Void call() {
+				doExpireObj(key, timeout, unit);
+				return null;
+			}
+		});
+	}
+
+	private void doExpireObj(String key, Long timeout, TimeUnit unit) {
 		objRedisTemplate.expire(key, timeout, unit);
 	}
 
 	@Override
 	public void putAll(String key, Map<? extends Object, ? extends Object> m) {
-		objRedisTemplate.opsForHash().putAll(key, m);
+		RedisMetrics metrics = RedisMetrics.of(objRedisTemplate);
+		if (metrics == null) {
+			doPutAll(key, m);
+			return;
+		}
+		RedisMetrics.record(metrics, "putAll", key, m, new MeteredCall<Void>() {
+			@Override
+			protected Void call() {
+				doPutAll(key, m);
+				return null;
+			}
+		});
+	}
 
+	private void doPutAll(String key, Map<? extends Object, ? extends Object> m) {
+		objRedisTemplate.opsForHash().putAll(key, m);
 	}
 
 	@Override
 	public List<Object> mulitGet(String key, Collection<Object> hashKeys) {
+		RedisMetrics metrics = RedisMetrics.of(objRedisTemplate);
+		if (metrics == null) {
+			return doMulitGet(key, hashKeys, null);
+		}
+		return RedisMetrics.record(metrics, "mulitGet", key, hashKeys, new MeteredCall<List<Object>>() {
+			@Override
+			protected List<Object> call() {
+				return doMulitGet(key, hashKeys, metrics);
+			}
+		});
+	}
+
+	private List<Object> doMulitGet(String key, Collection<Object> hashKeys, RedisMetrics metrics) {
 		if (StringUtils.isEmpty(key) || hashKeys == null || hashKeys.size() == 0) {
 			return null;
 		}
 
 		List<Object> ret = objRedisTemplate.opsForHash().multiGet(key, hashKeys);
 		ret.remove(null);
-		return ret;
+		return RedisMetrics.result(metrics, ret);
 	}
 
 	@Override
@@ -774,6 +1495,19 @@ public class RedisServiceImpl implements RedisService {
 
 	@Override
 	public Long zCount(String key, double min, double max) {
+		RedisMetrics metrics = RedisMetrics.of(objRedisTemplate);
+		if (metrics == null) {
+			return doZCount(key, min, max);
+		}
+		return RedisMetrics.record(metrics, "zCount", key, null, new MeteredCall<Long>() {
+			@Override
+			protected Long call() {
+				return doZCount(key, min, max);
+			}
+		});
+	}
+
+	private Long doZCount(String key, double min, double max) {
 		if (StringUtils.isEmpty(key)) {
 			return 0L;
 		}
@@ -783,10 +1517,23 @@ public class RedisServiceImpl implements RedisService {
 
 	@Override
 	public double zScore(String key, Object value) {
+		RedisMetrics metrics = RedisMetrics.of(objRedisTemplate);
+		if (metrics == null) {
+			return doZScore(key, value);
+		}
+		return RedisMetrics.record(metrics, "zScore", key, null, new MeteredCall<Double>() {
+			@Override
+			protected Double call() {
+				return doZScore(key, value);
+			}
+		});
+	}
+
+	private double doZScore(String key, Object value) {
 		Double score = objRedisTemplate.opsForZSet().score(key, value);
 
 		if (score == null) {
-			return -1;
+			return -1D;
 		}
 
 		return score.doubleValue();
@@ -805,10 +1552,23 @@ public class RedisServiceImpl implements RedisService {
 
 	@Override
 	public long ttl(String key) {
+		RedisMetrics metrics = RedisMetrics.of(objRedisTemplate);
+		if (metrics == null) {
+			return doTtl(key);
+		}
+		return RedisMetrics.record(metrics, "ttl", key, null, new MeteredCall<Long>() {
+			@Override
+			protected Long call() {
+				return doTtl(key);
+			}
+		});
+	}
+
+	private long doTtl(String key) {
 		if (StringUtils.isEmpty(key)) {
-			return -1;
+			return -1L;
 		}
-		
+
 		Long ret = objRedisTemplate.getExpire(key);
 		return ret == null ? -1 : ret.longValue();
 	}
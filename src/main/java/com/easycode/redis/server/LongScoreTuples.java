@@ -0,0 +1,99 @@
+package com.easycode.redis.server;
+
+import java.util.Arrays;
+
+/**
+ * 有序集合中成员为整数时的范围查询结果，成员与分值分别保存在两个平行的基本类型数组中，不创建元组与包装对象。
+ * <p>
+ * 可重复传入查询方法复用，查询前会先{@link #clear()}，数组容量只增不减。非线程安全。
+ */
+public class LongScoreTuples {
+
+	private long[] members;
+
+	private double[] scores;
+
+	private int size;
+
+	public LongScoreTuples() {
+		this(16);
+	}
+
+	public LongScoreTuples(int capacity) {
+		capacity = capacity <= 0 ? 16 : capacity;
+		this.members = new long[capacity];
+		this.scores = new double[capacity];
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public long getMember(int index) {
+		checkIndex(index);
+		return members[index];
+	}
+
+	public double getScore(int index) {
+		checkIndex(index);
+		return scores[index];
+	}
+
+	/**
+	 * @return 成员数组的副本，长度为{@link #size()}
+	 */
+	public long[] toMemberArray() {
+		return Arrays.copyOf(members, size);
+	}
+
+	/**
+	 * @return 分值数组的副本，长度为{@link #size()}
+	 */
+	public double[] toScoreArray() {
+		return Arrays.copyOf(scores, size);
+	}
+
+	public void add(long member, double score) {
+		if (size == members.length) {
+			int capacity = members.length << 1;
+			members = Arrays.copyOf(members, capacity);
+			scores = Arrays.copyOf(scores, capacity);
+		}
+		members[size] = member;
+		scores[size] = score;
+		size++;
+	}
+
+	public void clear() {
+		size = 0;
+	}
+
+	void ensureCapacity(int capacity) {
+		if (capacity > members.length) {
+			members = Arrays.copyOf(members, capacity);
+			scores = Arrays.copyOf(scores, capacity);
+		}
+	}
+
+	private void checkIndex(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("index: " + index + ", size: " + size);
+		}
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder("[");
+		for (int i = 0; i < size; i++) {
+			if (i > 0) {
+				builder.append(", ");
+			}
+			builder.append(members[i]).append('=').append(scores[i]);
+		}
+		return builder.append(']').toString();
+	}
+}
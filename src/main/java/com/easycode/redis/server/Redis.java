@@ -1,5 +1,6 @@
 package com.easycode.redis.server;
 
+import java.util.AbstractMap.SimpleImmutableEntry;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.LinkedHashMap;
@@ -10,10 +11,9 @@ import java.util.Map.Entry;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
-import javafx.scene.chart.ValueAxis;
-import org.omg.IOP.ComponentIdHelper;
 import org.springframework.dao.DataAccessException;
 import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.connection.RedisZSetCommands.Tuple;
 import org.springframework.data.redis.core.DefaultTypedTuple;
 import org.springframework.data.redis.core.RedisCallback;
@@ -23,8 +23,45 @@ import org.springframework.data.redis.core.ZSetOperations.TypedTuple;
 import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.util.StringUtils;
 
+import com.easycode.redis.server.batch.BulkWriteConfig;
+import com.easycode.redis.server.batch.BulkWriter;
+import com.easycode.redis.server.batch.CounterAggregator;
+import com.easycode.redis.server.batch.CounterAggregatorConfig;
+import com.easycode.redis.server.batch.CounterAggregatorStats;
+import com.easycode.redis.server.batch.GetCoalescer;
+import com.easycode.redis.server.batch.GetCoalescerConfig;
+import com.easycode.redis.server.batch.RedisBatch;
+import com.easycode.redis.server.codec.NumericCodec;
+import com.easycode.redis.server.codec.RedisCodecs;
+import com.easycode.redis.server.cache.InvalidationBus;
+import com.easycode.redis.server.cache.InvalidationBusConfig;
+import com.easycode.redis.server.cache.NearCache;
+import com.easycode.redis.server.cache.NearCacheConfig;
+import com.easycode.redis.server.cache.NearCacheStats;
+import com.easycode.redis.server.concurrency.ConcurrencyLimitConfig;
+import com.easycode.redis.server.concurrency.ConcurrencyLimitStats;
+import com.easycode.redis.server.concurrency.ConcurrencyLimitedConnectionFactory;
+import com.easycode.redis.server.lock.LocalLockQueue;
+import com.easycode.redis.server.lock.RedisLock;
+import com.easycode.redis.server.metrics.MeteredCall;
+import com.easycode.redis.server.metrics.RedisMetrics;
+import com.easycode.redis.server.metrics.RedisMetricsConfig;
+import com.easycode.redis.server.metrics.RedisMetricsSnapshot;
+import com.easycode.redis.server.metrics.SlowLog;
+import com.easycode.redis.server.metrics.SlowLogConfig;
+import com.easycode.redis.server.metrics.TimedConnectionFactory;
+import com.easycode.redis.server.scan.ScanCallback;
+import com.easycode.redis.server.scan.ScanIterator;
+import com.easycode.redis.server.script.RedisScripts;
+
 public class Redis {
 
+	private static final byte[] WITHSCORES = "WITHSCORES".getBytes();
+
+	private static final byte[] LIMIT = "LIMIT".getBytes();
+
+	private static final BulkWriteConfig DEFAULT_BULK_WRITE_CONFIG = new BulkWriteConfig();
+
 	public static <K, V, T> T execute(RedisTemplate<K, V> redisTemplate, RedisCallback<T> action, boolean pipelined) {
 		if (action == null) {
 			return null;
@@ -33,6 +70,607 @@ public class Redis {
 		return redisTemplate.execute(action, false, pipelined);
 	}
 
+	/**
+	 * 开启指标时以pipeline执行的action由这里打开与关闭pipeline，以便按closePipeline的回复数记录pipeline大小
+	 */
+	private static <K, V, T> T execute(RedisTemplate<K, V> redisTemplate, final RedisCallback<T> action,
+			boolean pipelined, final RedisMetrics metrics, final String family) {
+		if (metrics == null || !pipelined || action == null) {
+			return execute(redisTemplate, action, pipelined);
+		}
+		return redisTemplate.execute(new RedisCallback<T>() {
+			@Override
+			public T doInRedis(RedisConnection connection) throws DataAccessException {
+				connection.openPipeline();
+				boolean closed = false;
+				try {
+					T result = action.doInRedis(connection);
+					List<Object> results = connection.closePipeline();
+					closed = true;
+					metrics.recordPipeline(family, results == null ? 0 : results.size());
+					return result;
+				} finally {
+					if (!closed) {
+						connection.closePipeline();
+					}
+				}
+			}
+		}, false, false);
+	}
+
+	/**
+	 * 以pipeline方式执行action，返回未经反序列化的原始结果（状态类回复不包含在内）
+	 */
+	public static <K, V> List<Object> executePipelinedRaw(RedisTemplate<K, V> redisTemplate,
+			final RedisCallback<?> action) {
+		RedisMetrics metrics = RedisMetrics.of(redisTemplate);
+		if (metrics == null) {
+			return doExecutePipelinedRaw(redisTemplate, action, null, null);
+		}
+		return RedisMetrics.record(metrics, "executePipelinedRaw", null, null, new MeteredCall<List<Object>>() {
+			@Override
+			protected List<Object> call() {
+				return doExecutePipelinedRaw(redisTemplate, action, metrics, family);
+			}
+		});
+	}
+
+	private static <K, V> List<Object> doExecutePipelinedRaw(RedisTemplate<K, V> redisTemplate,
+			final RedisCallback<?> action, RedisMetrics metrics, String family) {
+		return RedisMetrics.result(metrics, executePipelinedRaw(redisTemplate, action, metrics, family));
+	}
+
+	private static <K, V> List<Object> executePipelinedRaw(RedisTemplate<K, V> redisTemplate,
+			final RedisCallback<?> action, final RedisMetrics metrics, final String family) {
+		return redisTemplate.execute(new RedisCallback<List<Object>>() {
+			@Override
+			public List<Object> doInRedis(RedisConnection connection) throws DataAccessException {
+				connection.openPipeline();
+				boolean closed = false;
+				try {
+					action.doInRedis(connection);
+					List<Object> results = connection.closePipeline();
+					closed = true;
+					if (metrics != null) {
+						metrics.recordPipeline(family, results == null ? 0 : results.size());
+					}
+					return results;
+				} finally {
+					if (!closed) {
+						connection.closePipeline();
+					}
+				}
+			}
+		});
+	}
+
+	/**
+	 * 创建一个批量执行的命令集合，加入的命令在{@link RedisBatch#execute()}时以一个pipeline发出
+	 */
+	public static <K, V> RedisBatch<K, V> batch(RedisTemplate<K, V> redisTemplate) {
+		return new RedisBatch<K, V>(redisTemplate);
+	}
+
+	// Codecs
+	/**
+	 * 获取template对应的编解码器，首次调用时按template上的序列化器创建
+	 */
+	public static <K, V> RedisCodecs codecs(RedisTemplate<K, V> redisTemplate) {
+		RedisContext context = RedisContext.getOrCreate(redisTemplate);
+		RedisCodecs codecs = context.getCodecs();
+		if (codecs == null) {
+			codecs = new RedisCodecs(redisTemplate);
+			codecs.setMetrics(context.getMetrics());
+			context.setCodecs(codecs);
+		}
+		return codecs;
+	}
+
+	/**
+	 * template上的序列化器变更后调用，下次使用时重新解析
+	 */
+	public static <K, V> void resetCodecs(RedisTemplate<K, V> redisTemplate) {
+		RedisContext context = RedisContext.get(redisTemplate);
+		if (context != null) {
+			context.setCodecs(null);
+		}
+	}
+
+	// Scan
+	/**
+	 * 以SCAN惰性遍历匹配的key，替代会阻塞服务端的KEYS
+	 *
+	 * @param pattern
+	 *            匹配模式，为<tt>null</tt>时遍历全部key
+	 * @param count
+	 *            每页的COUNT提示
+	 */
+	public static <K, V> ScanIterator<K> scan(RedisTemplate<K, V> redisTemplate, String pattern, int count) {
+		final RedisCodecs codecs = codecs(redisTemplate);
+		return new ScanIterator<K>(redisTemplate, "SCAN", null, pattern, count) {
+			@SuppressWarnings("unchecked")
+			@Override
+			protected void decode(List<Object> items, List<K> page) {
+				for (Object item : items) {
+					page.add((K) codecs.decodeKey((byte[]) item));
+				}
+			}
+		};
+	}
+
+	/**
+	 * 以SCAN逐页遍历匹配的key
+	 *
+	 * @return 回调处理过的key个数（可能包含重复）
+	 */
+	public static <K, V> long scan(RedisTemplate<K, V> redisTemplate, String pattern, int count,
+			ScanCallback<K> callback) {
+		return scan(redisTemplate, pattern, count).forEachPage(callback);
+	}
+
+	/**
+	 * 以HSCAN惰性遍历hash中的field与value，内存中只保留一页
+	 *
+	 * @param pattern
+	 *            field的匹配模式，为<tt>null</tt>时不过滤
+	 * @param count
+	 *            每页的COUNT提示
+	 */
+	public static <K, V, T> ScanIterator<Entry<Object, T>> hScan(RedisTemplate<K, V> redisTemplate, K key,
+			String pattern, int count, Class<T> clazz) {
+		final RedisCodecs codecs = codecs(redisTemplate);
+		return new ScanIterator<Entry<Object, T>>(redisTemplate, "HSCAN", codecs.encodeKey(key), pattern, count) {
+			@SuppressWarnings("unchecked")
+			@Override
+			protected void decode(List<Object> items, List<Entry<Object, T>> page) {
+				for (int i = 0; i + 1 < items.size(); i += 2) {
+					page.add(new SimpleImmutableEntry<Object, T>(codecs.decodeHashKey((byte[]) items.get(i)),
+							(T) codecs.decodeHashValue((byte[]) items.get(i + 1))));
+				}
+			}
+		};
+	}
+
+	public static <K, V, T> long hScan(RedisTemplate<K, V> redisTemplate, K key, String pattern, int count,
+			Class<T> clazz, ScanCallback<Entry<Object, T>> callback) {
+		return hScan(redisTemplate, key, pattern, count, clazz).forEachPage(callback);
+	}
+
+	/**
+	 * 以SSCAN惰性遍历set中的成员，内存中只保留一页
+	 */
+	public static <K, V, T> ScanIterator<T> sScan(RedisTemplate<K, V> redisTemplate, K key, String pattern,
+			int count, final Class<T> clazz) {
+		final RedisCodecs codecs = codecs(redisTemplate);
+		return new ScanIterator<T>(redisTemplate, "SSCAN", codecs.encodeKey(key), pattern, count) {
+			@Override
+			protected void decode(List<Object> items, List<T> page) {
+				for (Object item : items) {
+					page.add(codecs.decodeValue((byte[]) item, clazz));
+				}
+			}
+		};
+	}
+
+	public static <K, V, T> long sScan(RedisTemplate<K, V> redisTemplate, K key, String pattern, int count,
+			Class<T> clazz, ScanCallback<T> callback) {
+		return sScan(redisTemplate, key, pattern, count, clazz).forEachPage(callback);
+	}
+
+	/**
+	 * 以ZSCAN惰性遍历有序集合中的成员与分值，内存中只保留一页；返回顺序与分值无关
+	 */
+	public static <K, V, T> ScanIterator<TypedTuple<T>> zScan(RedisTemplate<K, V> redisTemplate, K key,
+			String pattern, int count, final Class<T> clazz) {
+		final RedisCodecs codecs = codecs(redisTemplate);
+		return new ScanIterator<TypedTuple<T>>(redisTemplate, "ZSCAN", codecs.encodeKey(key), pattern, count) {
+			@Override
+			protected void decode(List<Object> items, List<TypedTuple<T>> page) {
+				for (int i = 0; i + 1 < items.size(); i += 2) {
+					page.add(new DefaultTypedTuple<T>(codecs.decodeValue((byte[]) items.get(i), clazz),
+							decodeScore((byte[]) items.get(i + 1))));
+				}
+			}
+		};
+	}
+
+	public static <K, V, T> long zScan(RedisTemplate<K, V> redisTemplate, K key, String pattern, int count,
+			Class<T> clazz, ScanCallback<TypedTuple<T>> callback) {
+		return zScan(redisTemplate, key, pattern, count, clazz).forEachPage(callback);
+	}
+
+	// Lock
+	private static LocalLockQueue localLockQueue(RedisTemplate<?, ?> redisTemplate) {
+		RedisContext context = RedisContext.getOrCreate(redisTemplate);
+		LocalLockQueue queue = context.getLocalLockQueue();
+		if (queue == null) {
+			synchronized (context) {
+				queue = context.getLocalLockQueue();
+				if (queue == null) {
+					queue = new LocalLockQueue(redisTemplate);
+					context.setLocalLockQueue(queue);
+				}
+			}
+		}
+		return queue;
+	}
+
+	/**
+	 * 以<tt>SET key token NX PX</tt>尝试加锁，只需一次往返
+	 *
+	 * @param leaseTime
+	 *            租约时长，到期后锁自动释放
+	 * @return 加锁成功返回锁的句柄，否则返回<tt>null</tt>
+	 */
+	public static <K, V> RedisLock tryLock(RedisTemplate<K, V> redisTemplate, K key, long leaseTime, TimeUnit unit) {
+		return tryLock(redisTemplate, key, 0, leaseTime, unit);
+	}
+
+	/**
+	 * 在waitTime内反复尝试加锁，两次尝试之间退避等待；同一JVM内同一个key的竞争者先在本地排队，见{@link LocalLockQueue}
+	 *
+	 * @param waitTime
+	 *            最长等待时间，小于等于0时只尝试一次
+	 * @param leaseTime
+	 *            租约时长，到期后锁自动释放
+	 * @return 加锁成功返回锁的句柄，超时返回<tt>null</tt>
+	 */
+	public static <K, V> RedisLock tryLock(RedisTemplate<K, V> redisTemplate, K key, long waitTime, long leaseTime,
+			TimeUnit unit) {
+		if (StringUtils.isEmpty(key)) {
+			return null;
+		}
+		RedisMetrics metrics = RedisMetrics.of(redisTemplate);
+		if (metrics == null) {
+			return doTryLock(redisTemplate, key, waitTime, leaseTime, unit);
+		}
+		return RedisMetrics.record(metrics, "tryLock", key, null, new MeteredCall<RedisLock>() {
+			@Override
+			protected RedisLock call() {
+				return doTryLock(redisTemplate, key, waitTime, leaseTime, unit);
+			}
+		});
+	}
+
+	private static <K, V> RedisLock doTryLock(RedisTemplate<K, V> redisTemplate, K key, long waitTime, long leaseTime,
+			TimeUnit unit) {
+		return localLockQueue(redisTemplate).tryAcquire(key, codecs(redisTemplate).encodeKey(key),
+				unit.toMillis(leaseTime), unit.toMillis(waitTime));
+	}
+
+	/**
+	 * 在waitTime内反复尝试加锁，autoRenew为true时加锁成功后自动续期，见{@link RedisLock#autoRenew()}
+	 */
+	public static <K, V> RedisLock tryLock(RedisTemplate<K, V> redisTemplate, K key, long waitTime, long leaseTime,
+			TimeUnit unit, boolean autoRenew) {
+		RedisLock lock = tryLock(redisTemplate, key, waitTime, leaseTime, unit);
+		return lock != null && autoRenew ? lock.autoRenew() : lock;
+	}
+
+	/**
+	 * 同一JVM内的竞争者最多在本地排队waitTime，轮到后只向redis尝试一次；其他实例持有锁时立即返回<tt>null</tt>
+	 */
+	public static <K, V> RedisLock tryLockLocally(RedisTemplate<K, V> redisTemplate, K key, long waitTime,
+			long leaseTime, TimeUnit unit, boolean autoRenew) {
+		if (StringUtils.isEmpty(key)) {
+			return null;
+		}
+		RedisMetrics metrics = RedisMetrics.of(redisTemplate);
+		RedisLock lock;
+		if (metrics == null) {
+			lock = doTryLockLocally(redisTemplate, key, waitTime, leaseTime, unit);
+		} else {
+			lock = RedisMetrics.record(metrics, "tryLock", key, null, new MeteredCall<RedisLock>() {
+				@Override
+				protected RedisLock call() {
+					return doTryLockLocally(redisTemplate, key, waitTime, leaseTime, unit);
+				}
+			});
+		}
+		return lock != null && autoRenew ? lock.autoRenew() : lock;
+	}
+
+	private static <K, V> RedisLock doTryLockLocally(RedisTemplate<K, V> redisTemplate, K key, long waitTime,
+			long leaseTime, TimeUnit unit) {
+		return localLockQueue(redisTemplate).tryAcquireLocally(key, codecs(redisTemplate).encodeKey(key),
+				unit.toMillis(leaseTime), unit.toMillis(waitTime));
+	}
+
+	// Near cache
+	public static <K, V> void enableNearCache(RedisTemplate<K, V> redisTemplate, NearCacheConfig config) {
+		RedisContext.getOrCreate(redisTemplate).setNearCache(new NearCache(config));
+	}
+
+	public static <K, V> void disableNearCache(RedisTemplate<K, V> redisTemplate) {
+		RedisContext context = RedisContext.get(redisTemplate);
+		if (context != null) {
+			context.setNearCache(null);
+		}
+	}
+
+	public static <K, V> NearCacheStats nearCacheStats(RedisTemplate<K, V> redisTemplate) {
+		NearCache nearCache = nearCache(redisTemplate);
+		return nearCache == null ? null : nearCache.getStats();
+	}
+
+	private static <K, V> NearCache nearCache(RedisTemplate<K, V> redisTemplate) {
+		RedisContext context = RedisContext.get(redisTemplate);
+		return context == null ? null : context.getNearCache();
+	}
+
+	/**
+	 * 开启跨实例失效广播，本实例的写操作涉及的key会合并后发布给其他实例
+	 */
+	public static synchronized <K, V> void enableInvalidationBus(RedisTemplate<K, V> redisTemplate,
+			InvalidationBusConfig config) {
+		RedisContext context = RedisContext.getOrCreate(redisTemplate);
+		InvalidationBus old = context.getInvalidationBus();
+		InvalidationBus bus = new InvalidationBus(redisTemplate, config);
+		bus.start();
+		context.setInvalidationBus(bus);
+		if (old != null) {
+			old.stop();
+		}
+	}
+
+	public static synchronized <K, V> void disableInvalidationBus(RedisTemplate<K, V> redisTemplate) {
+		RedisContext context = RedisContext.get(redisTemplate);
+		if (context == null || context.getInvalidationBus() == null) {
+			return;
+		}
+		InvalidationBus bus = context.getInvalidationBus();
+		context.setInvalidationBus(null);
+		bus.stop();
+	}
+
+	// Get coalescing
+	/**
+	 * 开启GET合并，并发到达的{@link #get(RedisTemplate, Object, Class)}会在窗口内合并为一次MGET；已开启近端缓存时优先走近端缓存，未命中的读取同样合并
+	 */
+	public static <K, V> void enableGetCoalescing(RedisTemplate<K, V> redisTemplate, GetCoalescerConfig config) {
+		RedisContext.getOrCreate(redisTemplate).setGetCoalescer(new GetCoalescer(redisTemplate, config));
+	}
+
+	public static <K, V> void disableGetCoalescing(RedisTemplate<K, V> redisTemplate) {
+		RedisContext context = RedisContext.get(redisTemplate);
+		if (context != null) {
+			context.setGetCoalescer(null);
+		}
+	}
+
+	// Counter aggregation
+	/**
+	 * 开启计数器本地聚合，之后的{@link #incrByBuffered(RedisTemplate, Object, long)}等方法只在本地累加，由后台线程批量写入redis
+	 */
+	public static synchronized <K, V> void enableCounterAggregation(RedisTemplate<K, V> redisTemplate,
+			CounterAggregatorConfig config) {
+		RedisContext context = RedisContext.getOrCreate(redisTemplate);
+		CounterAggregator old = context.getCounterAggregator();
+		CounterAggregator aggregator = new CounterAggregator(redisTemplate, config);
+		aggregator.start();
+		context.setCounterAggregator(aggregator);
+		if (old != null) {
+			old.stop();
+		}
+	}
+
+	/**
+	 * 关闭计数器本地聚合，剩余的增量会立即写入redis
+	 */
+	public static synchronized <K, V> void disableCounterAggregation(RedisTemplate<K, V> redisTemplate) {
+		CounterAggregator aggregator = counterAggregator(redisTemplate);
+		if (aggregator == null) {
+			return;
+		}
+		RedisContext.get(redisTemplate).setCounterAggregator(null);
+		aggregator.stop();
+	}
+
+	public static <K, V> CounterAggregatorStats counterAggregatorStats(RedisTemplate<K, V> redisTemplate) {
+		CounterAggregator aggregator = counterAggregator(redisTemplate);
+		return aggregator == null ? null : aggregator.getStats();
+	}
+
+	/**
+	 * 立即把本地累积的增量写入redis
+	 */
+	public static <K, V> void flushCounters(RedisTemplate<K, V> redisTemplate) {
+		CounterAggregator aggregator = counterAggregator(redisTemplate);
+		if (aggregator != null) {
+			aggregator.flush();
+		}
+	}
+
+	/**
+	 * 开启计数器聚合时只在本地累加，否则直接INCRBY
+	 */
+	public static <K, V> void incrByBuffered(RedisTemplate<K, V> redisTemplate, K key, long delta) {
+		if (StringUtils.isEmpty(key)) {
+			return;
+		}
+		CounterAggregator aggregator = counterAggregator(redisTemplate);
+		if (aggregator == null) {
+			incrBy(redisTemplate, key, delta);
+		} else {
+			aggregator.incrBy(key, delta);
+		}
+	}
+
+	/**
+	 * 开启计数器聚合时只在本地累加，否则直接HINCRBYFLOAT
+	 */
+	public static <K, V> void hIncrByBuffered(RedisTemplate<K, V> redisTemplate, K key, Object hashKey, double delta) {
+		if (StringUtils.isEmpty(key) || StringUtils.isEmpty(hashKey)) {
+			return;
+		}
+		CounterAggregator aggregator = counterAggregator(redisTemplate);
+		if (aggregator == null) {
+			hIncrBy(redisTemplate, key, hashKey, delta);
+		} else {
+			aggregator.hIncrBy(key, hashKey, delta);
+		}
+	}
+
+	/**
+	 * 开启计数器聚合时只在本地累加，否则直接ZINCRBY
+	 */
+	public static <K, V> void zIncrByBuffered(RedisTemplate<K, V> redisTemplate, K key, V value, double delta) {
+		if (StringUtils.isEmpty(key) || StringUtils.isEmpty(value)) {
+			return;
+		}
+		CounterAggregator aggregator = counterAggregator(redisTemplate);
+		if (aggregator == null) {
+			zIncrBy(redisTemplate, key, value, delta);
+		} else {
+			aggregator.zIncrBy(key, value, delta);
+		}
+	}
+
+	// Bulk writes
+	/**
+	 * 设置批量写入的分块方式；未设置时按{@link BulkWriteConfig}的默认值分块
+	 */
+	public static <K, V> void configureBulkWrites(RedisTemplate<K, V> redisTemplate, BulkWriteConfig config) {
+		RedisContext.getOrCreate(redisTemplate).setBulkWriteConfig(config);
+	}
+
+	private static <K, V> BulkWriteConfig bulkWriteConfig(RedisTemplate<K, V> redisTemplate) {
+		RedisContext context = RedisContext.get(redisTemplate);
+		BulkWriteConfig config = context == null ? null : context.getBulkWriteConfig();
+		return config == null ? DEFAULT_BULK_WRITE_CONFIG : config;
+	}
+
+	// Metrics
+	/**
+	 * 开启客户端指标，按入口方法记录耗时直方图、错误数与pipeline大小，以及经过编解码器的字节数，见{@link RedisMetrics}
+	 */
+	public static synchronized <K, V> void enableMetrics(RedisTemplate<K, V> redisTemplate, RedisMetricsConfig config) {
+		RedisContext context = RedisContext.getOrCreate(redisTemplate);
+		if (context.getMetrics() != null) {
+			return;
+		}
+		RedisMetrics metrics = new RedisMetrics();
+		if (config.isJmxEnabled()) {
+			metrics.register(config.getName() == null ? "template-"
+					+ Integer.toHexString(System.identityHashCode(redisTemplate)) : config.getName());
+		}
+		context.setMetrics(metrics);
+		codecs(redisTemplate).setMetrics(metrics);
+	}
+
+	public static synchronized <K, V> void disableMetrics(RedisTemplate<K, V> redisTemplate) {
+		RedisContext context = RedisContext.get(redisTemplate);
+		RedisMetrics metrics = context == null ? null : context.getMetrics();
+		if (metrics == null) {
+			return;
+		}
+		context.setMetrics(null);
+		codecs(redisTemplate).setMetrics(null);
+		metrics.unregister();
+	}
+
+	/**
+	 * @return 指标快照，未开启时为<tt>null</tt>
+	 */
+	public static <K, V> RedisMetricsSnapshot metricsSnapshot(RedisTemplate<K, V> redisTemplate) {
+		RedisMetrics metrics = RedisMetrics.of(redisTemplate);
+		return metrics == null ? null : metrics.snapshot();
+	}
+
+	/**
+	 * 开启慢调用日志，耗时超过阈值的入口调用写入环形缓冲，见{@link SlowLog}；未开启指标时以默认配置一并开启。
+	 * 需要连接等待与服务端耗时时，template的连接工厂应使用{@link TimedConnectionFactory}包装
+	 */
+	public static synchronized <K, V> void enableSlowLog(RedisTemplate<K, V> redisTemplate, SlowLogConfig config) {
+		RedisMetrics metrics = RedisMetrics.of(redisTemplate);
+		if (metrics == null) {
+			enableMetrics(redisTemplate, new RedisMetricsConfig());
+			metrics = RedisMetrics.of(redisTemplate);
+		}
+		metrics.setSlowLog(new SlowLog(config));
+	}
+
+	public static synchronized <K, V> void disableSlowLog(RedisTemplate<K, V> redisTemplate) {
+		RedisMetrics metrics = RedisMetrics.of(redisTemplate);
+		if (metrics != null) {
+			metrics.setSlowLog(null);
+		}
+	}
+
+	/**
+	 * @return 慢调用日志，未开启时为<tt>null</tt>；可通过{@link SlowLog#entries()}或{@link SlowLog#dump()}导出
+	 */
+	public static <K, V> SlowLog slowLog(RedisTemplate<K, V> redisTemplate) {
+		RedisMetrics metrics = RedisMetrics.of(redisTemplate);
+		return metrics == null ? null : metrics.getSlowLog();
+	}
+
+	// Concurrency limit
+	/**
+	 * 用信号量限制template同时占用的连接数，超出的调用按到达顺序排队等待许可，不在连接池内部阻塞，
+	 * 适合虚拟线程等大量调用方共用一个连接池的场景，见{@link ConcurrencyLimitedConnectionFactory}。
+	 * 开启后template的连接工厂被替换为包装后的工厂
+	 */
+	public static synchronized <K, V> void enableConcurrencyLimit(RedisTemplate<K, V> redisTemplate,
+			ConcurrencyLimitConfig config) {
+		RedisConnectionFactory factory = redisTemplate.getConnectionFactory();
+		if (factory instanceof ConcurrencyLimitedConnectionFactory) {
+			factory = ((ConcurrencyLimitedConnectionFactory) factory).getDelegate();
+		}
+		redisTemplate.setConnectionFactory(new ConcurrencyLimitedConnectionFactory(factory, config));
+	}
+
+	public static synchronized <K, V> void disableConcurrencyLimit(RedisTemplate<K, V> redisTemplate) {
+		RedisConnectionFactory factory = redisTemplate.getConnectionFactory();
+		if (factory instanceof ConcurrencyLimitedConnectionFactory) {
+			redisTemplate.setConnectionFactory(((ConcurrencyLimitedConnectionFactory) factory).getDelegate());
+		}
+	}
+
+	/**
+	 * @return 并发上限的统计，未开启时为<tt>null</tt>
+	 */
+	public static <K, V> ConcurrencyLimitStats concurrencyLimitStats(RedisTemplate<K, V> redisTemplate) {
+		RedisConnectionFactory factory = redisTemplate.getConnectionFactory();
+		return factory instanceof ConcurrencyLimitedConnectionFactory ? ((ConcurrencyLimitedConnectionFactory) factory)
+				.getStats() : null;
+	}
+
+	private static <K, V> CounterAggregator counterAggregator(RedisTemplate<K, V> redisTemplate) {
+		RedisContext context = RedisContext.get(redisTemplate);
+		return context == null ? null : context.getCounterAggregator();
+	}
+
+	private static <K, V> void invalidate(RedisTemplate<K, V> redisTemplate, Object key) {
+		RedisContext context = RedisContext.get(redisTemplate);
+		if (context == null) {
+			return;
+		}
+		NearCache nearCache = context.getNearCache();
+		if (nearCache != null) {
+			nearCache.invalidate(key);
+		}
+		InvalidationBus bus = context.getInvalidationBus();
+		if (bus != null) {
+			bus.publish(key);
+		}
+	}
+
+	private static <K, V> void invalidateAll(RedisTemplate<K, V> redisTemplate, Collection<?> keys) {
+		RedisContext context = RedisContext.get(redisTemplate);
+		if (context == null) {
+			return;
+		}
+		NearCache nearCache = context.getNearCache();
+		if (nearCache != null) {
+			nearCache.invalidateAll(keys);
+		}
+		InvalidationBus bus = context.getInvalidationBus();
+		if (bus != null) {
+			bus.publishAll(keys);
+		}
+	}
+
 	public static Long convert(Long source, TimeUnit unit) {
 		// 默认为毫秒，最终转化结果为秒
 		if (source == null) {
@@ -63,6 +701,23 @@ public class Redis {
 	// Object
 	public static final <K, V> void set(final RedisTemplate<K, V> redisTemplate, final K key, final V value,
 			final Long expireTime, TimeUnit unit) {
+		RedisMetrics metrics = RedisMetrics.of(redisTemplate);
+		if (metrics == null) {
+			doSet(redisTemplate, key, value, expireTime, unit);
+			return;
+		}
+		RedisMetrics.record(metrics, "set", key, null, new MeteredCall<Void>() {
+			@Override
+			protected Void call() {
+				doSet(redisTemplate, key, value, expireTime, unit);
+				return null;
+			}
+		});
+	}
+
+	private static <K, V> void doSet(final RedisTemplate<K, V> redisTemplate, final K key, final V value,
+			final Long expireTime, TimeUnit unit) {
+		TimeUnit timeUnit = unit == null ? TimeUnit.MILLISECONDS : unit;
 		if (key == null || StringUtils.isEmpty(key.toString()) || value == null
 				|| StringUtils.isEmpty(value.toString())) {
 			return;
@@ -71,82 +726,434 @@ public class Redis {
 		if (expireTime == null || expireTime.longValue() <= 0) {
 			redisTemplate.opsForValue().set(key, value);
 		} else {
-			if (unit == null) {
-				unit = TimeUnit.MILLISECONDS;
-			}
-			redisTemplate.opsForValue().set(key, value, expireTime, unit);
+			redisTemplate.opsForValue().set(key, value, expireTime, timeUnit);
 		}
+		invalidate(redisTemplate, key);
 	}
 
+	/**
+	 * 按{@link BulkWriteConfig}分块写入：无过期时间时拆为多条MSET，有过期时间时每个key一条PSETEX，各块之间不保证原子性
+	 */
 	public static final <K, V> void multiSet(final RedisTemplate<K, V> redisTemplate,
 			final Map<? extends K, ? extends V> pairs, Long expireTime, TimeUnit unit) {
+		RedisMetrics metrics = RedisMetrics.of(redisTemplate);
+		if (metrics == null) {
+			doMultiSet(redisTemplate, pairs, expireTime, unit, null, null);
+			return;
+		}
+		RedisMetrics.record(metrics, "multiSet", pairs, null, new MeteredCall<Void>() {
+			@Override
+			protected Void call() {
+				doMultiSet(redisTemplate, pairs, expireTime, unit, metrics, family);
+				return null;
+			}
+		});
+	}
+
+	private static <K, V> void doMultiSet(final RedisTemplate<K, V> redisTemplate, final Map<? extends K,
+			? extends V> pairs, Long expireTime, TimeUnit unit, RedisMetrics metrics, String family) {
+		TimeUnit timeUnit = unit == null ? TimeUnit.MILLISECONDS : unit;
 		if (pairs == null || pairs.size() <= 0) {
 			return;
 		}
 
-		if (unit == null) {
-			unit = TimeUnit.MILLISECONDS;
+		// 有过期时间时每个key一条PSETEX，毫秒精度，且不再额外发送EXPIRE
+		final long expireMillis = expireTime == null || expireTime.longValue() <= 0 ? 0
+				: Math.max(timeUnit.toMillis(expireTime), 1L);
+
+		BulkWriter.execute(redisTemplate, bulkWriteConfig(redisTemplate), metrics, family, null, pairs.size(),
+				new BulkWriter.Action() {
+					@Override
+					public void write(BulkWriter writer) {
+						RedisCodecs codecs = codecs(redisTemplate);
+						RedisConnection connection = writer.getConnection();
+						if (expireMillis > 0) {
+							for (Map.Entry<? extends K, ? extends V> pair : pairs.entrySet()) {
+								Object key = pair.getKey();
+								Object value = pair.getValue();
+								if (key == null || StringUtils.isEmpty(key.toString()) || value == null
+										|| StringUtils.isEmpty(value)) {
+									writer.skipped(1);
+									continue;
+								}
+								byte[] rawKey = codecs.encodeKey(key);
+								byte[] rawValue = codecs.encodeValue(value);
+								setWithExpire(connection, rawKey, rawValue, expireMillis);
+								writer.sent(rawKey.length + rawValue.length, 1);
+							}
+							return;
+						}
+
+						int maxElements = writer.getMaxElementsPerCommand();
+						Map<byte[], byte[]> chunk = new LinkedHashMap<byte[], byte[]>();
+						long bytes = 0;
+						for (Map.Entry<? extends K, ? extends V> pair : pairs.entrySet()) {
+							byte[] rawKey = codecs.encodeKey(pair.getKey());
+							byte[] rawValue = codecs.encodeValue(pair.getValue());
+							chunk.put(rawKey, rawValue);
+							bytes += rawKey.length + rawValue.length;
+							if (chunk.size() >= maxElements) {
+								connection.mSet(chunk);
+								writer.sent(bytes, chunk.size());
+								chunk = new LinkedHashMap<byte[], byte[]>();
+								bytes = 0;
+							}
+						}
+						if (!chunk.isEmpty()) {
+							connection.mSet(chunk);
+							writer.sent(bytes, chunk.size());
+						}
+					}
+				});
+		invalidateAll(redisTemplate, pairs.keySet());
+	}
+
+	/**
+	 * 带过期时间写入；spring-data-redis的pSetEx会把毫秒数截断为int，超过{@link Integer#MAX_VALUE}毫秒时改用秒级的SETEX
+	 */
+	private static void setWithExpire(RedisConnection connection, byte[] rawKey, byte[] raw, long expireMillis) {
+		if (expireMillis <= Integer.MAX_VALUE) {
+			connection.pSetEx(rawKey, expireMillis, raw);
+		} else {
+			connection.setEx(rawKey, (expireMillis + 999) / 1000, raw);
 		}
+	}
 
-		final Long finalExpireTime = Redis.convert(expireTime, unit);
+	public static <K, V, T> T get(final RedisTemplate<K, V> redisTemplate, final K key, Class<T> clazz) {
+		RedisMetrics metrics = RedisMetrics.of(redisTemplate);
+		if (metrics == null) {
+			return doGet(redisTemplate, key, clazz, null, null);
+		}
+		return RedisMetrics.record(metrics, "get", key, null, new MeteredCall<T>() {
+			@Override
+			protected T call() {
+				return doGet(redisTemplate, key, clazz, metrics, family);
+			}
+		});
+	}
 
-		if (finalExpireTime == null || finalExpireTime.longValue() <= 0) {
-			redisTemplate.opsForValue().multiSet(pairs);
+	@SuppressWarnings("unchecked")
+	private static <K, V, T> T doGet(final RedisTemplate<K, V> redisTemplate, final K key, Class<T> clazz,
+			RedisMetrics metrics, String family) {
+		RedisContext context = RedisContext.get(redisTemplate);
+		NearCache nearCache = context == null ? null : context.getNearCache();
+		GetCoalescer coalescer = context == null ? null : context.getGetCoalescer();
+		if (nearCache == null || key == null) {
+			if (coalescer == null || key == null) {
+				return (T) redisTemplate.opsForValue().get(key);
+			}
+			RedisCodecs codecs = codecs(redisTemplate);
+			return (T) codecs.decodeValue(coalescer.get(codecs.encodeKey(key)));
+		}
+
+		Object cached = nearCache.get(key);
+		if (cached != null) {
+			return (T) cached;
+		}
+
+		long generation = nearCache.generation(key);
+		GetCoalescer.Entry entry = loadForNearCache(redisTemplate, key, coalescer, metrics, family);
+		byte[] raw = entry.getValue();
+		if (raw == null) {
+			return null;
+		}
+		Object value = codecs(redisTemplate).decodeValue(raw);
+		nearCache.put(key, raw, value, entry.getPttl(), generation);
+		return (T) value;
+	}
+
+	/**
+	 * 近端缓存未命中时读取值和剩余过期时间：开启GET合并时随批次一起读取，否则在同一个pipeline中读取
+	 */
+	private static <K, V> GetCoalescer.Entry loadForNearCache(final RedisTemplate<K, V> redisTemplate, final K key,
+			GetCoalescer coalescer, RedisMetrics metrics, String family) {
+		final byte[] rawKey = codecs(redisTemplate).encodeKey(key);
+		if (coalescer != null) {
+			return coalescer.getWithPttl(rawKey);
+		}
+		List<Object> results = executePipelinedRaw(redisTemplate, new RedisCallback<Object>() {
+			@Override
+			public Object doInRedis(RedisConnection connection) throws DataAccessException {
+				connection.get(rawKey);
+				connection.pTtl(rawKey);
+				return null;
+			}
+		}, metrics, family);
+		return new GetCoalescer.Entry((byte[]) results.get(0), (Long) results.get(1));
+	}
+
+	/**
+	 * 读取key对应的原始字节，同样经过近端缓存与GET合并，供不经过value序列化器的数字读取使用
+	 */
+	public static <K, V> byte[] getRaw(final RedisTemplate<K, V> redisTemplate, final K key) {
+		RedisMetrics metrics = RedisMetrics.of(redisTemplate);
+		if (metrics == null) {
+			return doGetRaw(redisTemplate, key, null, null);
+		}
+		return RedisMetrics.record(metrics, "getRaw", key, null, new MeteredCall<byte[]>() {
+			@Override
+			protected byte[] call() {
+				return doGetRaw(redisTemplate, key, metrics, family);
+			}
+		});
+	}
+
+	private static <K, V> byte[] doGetRaw(final RedisTemplate<K, V> redisTemplate, final K key, RedisMetrics metrics,
+			String family) {
+		if (key == null) {
+			return null;
+		}
+		final RedisCodecs codecs = codecs(redisTemplate);
+		RedisContext context = RedisContext.get(redisTemplate);
+		NearCache nearCache = context == null ? null : context.getNearCache();
+		GetCoalescer coalescer = context == null ? null : context.getGetCoalescer();
+		if (nearCache == null) {
+			if (coalescer != null) {
+				return coalescer.get(codecs.encodeKey(key));
+			}
+			return redisTemplate.execute(new RedisCallback<byte[]>() {
+				@Override
+				public byte[] doInRedis(RedisConnection connection) throws DataAccessException {
+					return connection.get(codecs.encodeKey(key));
+				}
+			});
+		}
+
+		byte[] cached = nearCache.getRaw(key);
+		if (cached != null) {
+			return cached;
+		}
+		long generation = nearCache.generation(key);
+		GetCoalescer.Entry entry = loadForNearCache(redisTemplate, key, coalescer, metrics, family);
+		byte[] raw = entry.getValue();
+		if (raw == null) {
+			return null;
+		}
+		nearCache.put(key, raw, null, entry.getPttl(), generation);
+		return raw;
+	}
+
+	/**
+	 * 以ASCII十进制写入long值，可被INCRBY直接累加
+	 */
+	public static <K, V> void setLong(RedisTemplate<K, V> redisTemplate, K key, long value, Long expireTime,
+			TimeUnit unit) {
+		RedisMetrics metrics = RedisMetrics.of(redisTemplate);
+		if (metrics == null) {
+			doSetLong(redisTemplate, key, value, expireTime, unit);
+			return;
+		}
+		RedisMetrics.record(metrics, "setLong", key, null, new MeteredCall<Void>() {
+			@Override
+			protected Void call() {
+				doSetLong(redisTemplate, key, value, expireTime, unit);
+				return null;
+			}
+		});
+	}
+
+	private static <K, V> void doSetLong(RedisTemplate<K, V> redisTemplate, K key, long value, Long expireTime,
+			TimeUnit unit) {
+		setRaw(redisTemplate, key, codecs(redisTemplate).encodeLong(value), expireTime, unit);
+	}
+
+	/**
+	 * 以ASCII十进制写入double值，可被INCRBYFLOAT直接累加
+	 */
+	public static <K, V> void setDouble(RedisTemplate<K, V> redisTemplate, K key, double value, Long expireTime,
+			TimeUnit unit) {
+		RedisMetrics metrics = RedisMetrics.of(redisTemplate);
+		if (metrics == null) {
+			doSetDouble(redisTemplate, key, value, expireTime, unit);
 			return;
 		}
+		RedisMetrics.record(metrics, "setDouble", key, null, new MeteredCall<Void>() {
+			@Override
+			protected Void call() {
+				doSetDouble(redisTemplate, key, value, expireTime, unit);
+				return null;
+			}
+		});
+	}
+
+	private static <K, V> void doSetDouble(RedisTemplate<K, V> redisTemplate, K key, double value, Long expireTime,
+			TimeUnit unit) {
+		setRaw(redisTemplate, key, codecs(redisTemplate).encodeDouble(value), expireTime, unit);
+	}
 
-		redisTemplate.executePipelined(new RedisCallback<Object>() {
+	private static <K, V> void setRaw(final RedisTemplate<K, V> redisTemplate, final K key, final byte[] raw,
+			Long expireTime, TimeUnit unit) {
+		if (key == null || StringUtils.isEmpty(key.toString())) {
+			return;
+		}
+		final long expireMillis = expireTime == null || expireTime.longValue() <= 0 ? 0
+				: Math.max((unit == null ? TimeUnit.MILLISECONDS : unit).toMillis(expireTime), 1L);
+		redisTemplate.execute(new RedisCallback<Object>() {
 			@Override
 			public Object doInRedis(RedisConnection connection) throws DataAccessException {
-				for (Object key : pairs.keySet()) {
-					Object value = pairs.get(key);
-					if (key == null || StringUtils.isEmpty(key.toString()) || value == null
-							|| StringUtils.isEmpty(value)) {
-						continue;
-					}
-					connection.set(serializeKey(redisTemplate, key), serializeValue(redisTemplate, value));
-					if (finalExpireTime != null && finalExpireTime.longValue() > 0) {
-						connection.expire(serializeKey(redisTemplate, key), finalExpireTime);
-					}
+				byte[] rawKey = codecs(redisTemplate).encodeKey(key);
+				if (expireMillis > 0) {
+					setWithExpire(connection, rawKey, raw, expireMillis);
+				} else {
+					connection.set(rawKey, raw);
 				}
 				return null;
 			}
 		});
+		invalidate(redisTemplate, key);
 	}
 
-	@SuppressWarnings("unchecked")
-	public static <K, V, T> T get(RedisTemplate<K, V> redisTemplate, K key, Class<T> clazz) {
-		return (T) redisTemplate.opsForValue().get(key);
+	public static <K, V, T> Map<K, T> multiGet(final RedisTemplate<K, V> redisTemplate, Collection<? extends K> keys,
+			Class<T> clazz) {
+		RedisMetrics metrics = RedisMetrics.of(redisTemplate);
+		if (metrics == null) {
+			return doMultiGet(redisTemplate, keys, clazz, null, null);
+		}
+		return RedisMetrics.record(metrics, "multiGet", keys, null, new MeteredCall<Map<K, T>>() {
+			@Override
+			protected Map<K, T> call() {
+				return doMultiGet(redisTemplate, keys, clazz, metrics, family);
+			}
+		});
 	}
 
 	@SuppressWarnings("unchecked")
-	public static <K, V, T> Map<K, T> multiGet(RedisTemplate<K, V> redisTemplate, Collection<? extends K> keys,
-			Class<T> clazz) {
-		List<T> values = (List<T>) redisTemplate.opsForValue().multiGet((Collection<K>) keys);
+	private static <K, V, T> Map<K, T> doMultiGet(final RedisTemplate<K, V> redisTemplate, Collection<? extends K> keys,
+			Class<T> clazz, RedisMetrics metrics, String family) {
+		NearCache nearCache = nearCache(redisTemplate);
+		if (nearCache == null) {
+			List<T> values = (List<T>) redisTemplate.opsForValue().multiGet((Collection<K>) keys);
+			Map<K, T> ret = new LinkedHashMap<K, T>();
+			int i = 0;
+			for (K key : keys) {
+				ret.put(key, values.get(i++));
+			}
+			return ret;
+		}
+
 		Map<K, T> ret = new LinkedHashMap<K, T>();
-		int i = 0;
+		final List<K> misses = new ArrayList<K>();
 		for (K key : keys) {
-			ret.put(key, values.get(i++));
+			Object cached = nearCache.get(key);
+			ret.put(key, (T) cached);
+			if (cached == null) {
+				misses.add(key);
+			}
 		}
-		return ret;
+		if (misses.size() <= 0) {
+			return ret;
+		}
+
+		final RedisCodecs codecs = codecs(redisTemplate);
+		long[] generations = new long[misses.size()];
+		int g = 0;
+		for (K key : misses) {
+			generations[g++] = nearCache.generation(key);
+		}
+		List<Object> results = executePipelinedRaw(redisTemplate, new RedisCallback<Object>() {
+			@Override
+			public Object doInRedis(RedisConnection connection) throws DataAccessException {
+				byte[][] rawKeys = new byte[misses.size()][];
+				int i = 0;
+				for (K key : misses) {
+					rawKeys[i++] = codecs.encodeKey(key);
+				}
+				connection.mGet(rawKeys);
+				for (byte[] rawKey : rawKeys) {
+					connection.pTtl(rawKey);
+				}
+				return null;
+			}
+		}, metrics, family);
+		List<byte[]> raws = (List<byte[]>) results.get(0);
+		int i = 0;
+		for (K key : misses) {
+			byte[] raw = raws.get(i);
+			Object value = codecs.decodeValue(raw);
+			nearCache.put(key, raw, value, (Long) results.get(i + 1), generations[i]);
+			i++;
+			ret.put(key, (T) value);
+		}
+		return RedisMetrics.result(metrics, ret);
 	}
 
 	public static <K, V> void del(RedisTemplate<K, V> redisTemplate, Collection<K> keys) {
+		RedisMetrics metrics = RedisMetrics.of(redisTemplate);
+		if (metrics == null) {
+			doDel(redisTemplate, keys);
+			return;
+		}
+		RedisMetrics.record(metrics, "del", keys, null, new MeteredCall<Void>() {
+			@Override
+			protected Void call() {
+				doDel(redisTemplate, keys);
+				return null;
+			}
+		});
+	}
+
+	private static <K, V> void doDel(RedisTemplate<K, V> redisTemplate, Collection<K> keys) {
 		redisTemplate.delete(keys);
+		invalidateAll(redisTemplate, keys);
 	}
 
 	public static <K, V> void del(RedisTemplate<K, V> redisTemplate, K key) {
+		RedisMetrics metrics = RedisMetrics.of(redisTemplate);
+		if (metrics == null) {
+			doDel(redisTemplate, key);
+			return;
+		}
+		RedisMetrics.record(metrics, "del", key, null, new MeteredCall<Void>() {
+			@Override
+			protected Void call() {
+				doDel(redisTemplate, key);
+				return null;
+			}
+		});
+	}
+
+	private static <K, V> void doDel(RedisTemplate<K, V> redisTemplate, K key) {
 		redisTemplate.delete(key);
+		invalidate(redisTemplate, key);
 	}
 
 	public static <K, V> boolean hasKey(RedisTemplate<K, V> redisTemplate, K key) {
+		RedisMetrics metrics = RedisMetrics.of(redisTemplate);
+		if (metrics == null) {
+			return doHasKey(redisTemplate, key);
+		}
+		return RedisMetrics.record(metrics, "hasKey", key, null, new MeteredCall<Boolean>() {
+			@Override
+			protected Boolean call() {
+				return doHasKey(redisTemplate, key);
+			}
+		});
+	}
+
+	private static <K, V> boolean doHasKey(RedisTemplate<K, V> redisTemplate, K key) {
 		return redisTemplate.hasKey(key);
 	}
 
 	// Set
-	@SuppressWarnings("unchecked")
 	public static <K, V> void sadd(final RedisTemplate<K, V> redisTemplate, final K key, final V value, Long expireTime,
 			TimeUnit unit) {
+		RedisMetrics metrics = RedisMetrics.of(redisTemplate);
+		if (metrics == null) {
+			doSadd(redisTemplate, key, value, expireTime, unit, null, null);
+			return;
+		}
+		RedisMetrics.record(metrics, "sadd", key, null, new MeteredCall<Void>() {
+			@Override
+			protected Void call() {
+				doSadd(redisTemplate, key, value, expireTime, unit, metrics, family);
+				return null;
+			}
+		});
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <K, V> void doSadd(final RedisTemplate<K, V> redisTemplate, final K key, final V value,
+			Long expireTime, TimeUnit unit, RedisMetrics metrics, String family) {
 		if (key == null || StringUtils.isEmpty(key.toString()) || value == null
 				|| StringUtils.isEmpty(value.toString())) {
 			return;
@@ -155,65 +1162,137 @@ public class Redis {
 		if (expireTime == null || expireTime.longValue() <= 0) {
 			redisTemplate.opsForSet().add(key, value);
 		} else {
-			redisTemplate.executePipelined(new RedisCallback<Object>() {
+			executePipelinedRaw(redisTemplate, new RedisCallback<Object>() {
 				@Override
 				public Object doInRedis(RedisConnection connection) throws DataAccessException {
-					connection.sAdd(serializeKey(redisTemplate, key), serializeValue(redisTemplate, value));
-					connection.expire(serializeKey(redisTemplate, key), finalExpireTime);
+					RedisCodecs codecs = codecs(redisTemplate);
+					connection.sAdd(codecs.encodeKey(key), codecs.encodeValue(value));
+					connection.expire(codecs.encodeKey(key), finalExpireTime);
 					return null;
 				}
-			});
+			}, metrics, family);
 		}
 	}
 
 	public static <K, V> void saddAll(final RedisTemplate<K, V> redisTemplate, final K key,
 			final Collection<? extends V> values, Long expireTime, TimeUnit unit) {
+		RedisMetrics metrics = RedisMetrics.of(redisTemplate);
+		if (metrics == null) {
+			doSaddAll(redisTemplate, key, values, expireTime, unit, null, null);
+			return;
+		}
+		RedisMetrics.record(metrics, "saddAll", key, values, new MeteredCall<Void>() {
+			@Override
+			protected Void call() {
+				doSaddAll(redisTemplate, key, values, expireTime, unit, metrics, family);
+				return null;
+			}
+		});
+	}
+
+	private static <K, V> void doSaddAll(final RedisTemplate<K, V> redisTemplate, final K key,
+			final Collection<? extends V> values, Long expireTime, TimeUnit unit, RedisMetrics metrics, String family) {
 		if (key == null || StringUtils.isEmpty(key.toString()) || values == null || values.size() <= 0) {
 			return;
 		}
 
 		final Long finalExpireTime = Redis.convert(expireTime, unit);
 
-		if (finalExpireTime == null || finalExpireTime.longValue() <= 0) {
-			redisTemplate.opsForSet().add(key, (V[]) values.toArray());
-		} else {
-			redisTemplate.executePipelined(new RedisCallback<Object>() {
-				@Override
-				public Object doInRedis(RedisConnection connection) throws DataAccessException {
-					byte[][] valuesBytes = new byte[values.size()][];
-					int i = 0;
-					for (V value : values) {
-						valuesBytes[i++] = serializeValue(redisTemplate, value);
+		// 按maxElementsPerCommand拆为多条SADD，最后一块之后设置过期时间
+		BulkWriter.execute(redisTemplate, bulkWriteConfig(redisTemplate), metrics, family, key, values.size(),
+				new BulkWriter.Action() {
+					@Override
+					public void write(BulkWriter writer) {
+						RedisCodecs codecs = codecs(redisTemplate);
+						RedisConnection connection = writer.getConnection();
+						byte[] rawKey = codecs.encodeKey(key);
+						int maxElements = writer.getMaxElementsPerCommand();
+						List<byte[]> chunk = new ArrayList<byte[]>(Math.min(values.size(), maxElements));
+						long bytes = 0;
+						for (V value : values) {
+							byte[] rawValue = codecs.encodeValue(value);
+							chunk.add(rawValue);
+							bytes += rawValue.length;
+							if (chunk.size() >= maxElements) {
+								connection.sAdd(rawKey, chunk.toArray(new byte[chunk.size()][]));
+								writer.sent(rawKey.length + bytes, chunk.size());
+								chunk.clear();
+								bytes = 0;
+							}
+						}
+						if (!chunk.isEmpty()) {
+							connection.sAdd(rawKey, chunk.toArray(new byte[chunk.size()][]));
+							writer.sent(rawKey.length + bytes, chunk.size());
+						}
+						if (finalExpireTime != null && finalExpireTime.longValue() > 0) {
+							connection.expire(rawKey, finalExpireTime);
+							writer.sent(rawKey.length, 0);
+						}
 					}
-					connection.sAdd(serializeKey(redisTemplate, key), valuesBytes);
-					connection.expire(serializeKey(redisTemplate, key), finalExpireTime);
-					return null;
-				}
-			});
+				});
+	}
+
+	public static final <K, V, T> Set<T> sDiff(RedisTemplate<K, V> redisTemplate, K key1, K key2, Class<T> clazz) {
+		RedisMetrics metrics = RedisMetrics.of(redisTemplate);
+		if (metrics == null) {
+			return doSDiff(redisTemplate, key1, key2, clazz, null);
 		}
+		return RedisMetrics.record(metrics, "sDiff", key1, null, new MeteredCall<Set<T>>() {
+			@Override
+			protected Set<T> call() {
+				return doSDiff(redisTemplate, key1, key2, clazz, metrics);
+			}
+		});
 	}
 
 	@SuppressWarnings("unchecked")
-	public static final <K, V, T> Set<T> sDiff(RedisTemplate<K, V> redisTemplate, K key1, K key2, Class<T> clazz) {
+	private static <K, V, T> Set<T> doSDiff(RedisTemplate<K, V> redisTemplate, K key1, K key2, Class<T> clazz,
+			RedisMetrics metrics) {
 		if (StringUtils.isEmpty(key1) || StringUtils.isEmpty(key2)) {
 			return null;
 		}
-		return (Set<T>) redisTemplate.opsForSet().difference(key1, key2);
+		return RedisMetrics.result(metrics, (Set<T>) redisTemplate.opsForSet().difference(key1, key2));
 	}
 
-	@SuppressWarnings("unchecked")
 	public static final <K, V, T> Set<T> sDiff(RedisTemplate<K, V> redisTemplate, K key, Collection<K> otherKeys,
 			Class<T> clazz) {
+		RedisMetrics metrics = RedisMetrics.of(redisTemplate);
+		if (metrics == null) {
+			return doSDiff(redisTemplate, key, otherKeys, clazz, null);
+		}
+		return RedisMetrics.record(metrics, "sDiff", key, otherKeys, new MeteredCall<Set<T>>() {
+			@Override
+			protected Set<T> call() {
+				return doSDiff(redisTemplate, key, otherKeys, clazz, metrics);
+			}
+		});
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <K, V, T> Set<T> doSDiff(RedisTemplate<K, V> redisTemplate, K key, Collection<K> otherKeys,
+			Class<T> clazz, RedisMetrics metrics) {
 		if (StringUtils.isEmpty(key) || otherKeys == null || otherKeys.size() <= 0) {
 			return null;
 		}
-		return (Set<T>) redisTemplate.opsForSet().difference(key, otherKeys);
+		return RedisMetrics.result(metrics, (Set<T>) redisTemplate.opsForSet().difference(key, otherKeys));
 	}
 
 	public static final <K, V, T> long sDiffAndStore(RedisTemplate<K, V> redisTemplate, K key1, K key2, K storeKey) {
+		RedisMetrics metrics = RedisMetrics.of(redisTemplate);
+		if (metrics == null) {
+			return doSDiffAndStore(redisTemplate, key1, key2, storeKey);
+		}
+		return RedisMetrics.record(metrics, "sDiffAndStore", key1, null, new MeteredCall<Long>() {
+			@Override
+			protected Long call() {
+				return doSDiffAndStore(redisTemplate, key1, key2, storeKey);
+			}
+		});
+	}
 
+	private static <K, V, T> long doSDiffAndStore(RedisTemplate<K, V> redisTemplate, K key1, K key2, K storeKey) {
 		if (StringUtils.isEmpty(key1) || StringUtils.isEmpty(key2) || StringUtils.isEmpty(storeKey)) {
-			return 0;
+			return 0L;
 		}
 
 		Long ret = redisTemplate.opsForSet().differenceAndStore(key1, key2, storeKey);
@@ -223,9 +1302,22 @@ public class Redis {
 
 	public static final <K, V, T> long sDiffAndStore(RedisTemplate<K, V> redisTemplate, K key1, Collection<K> otherKeys,
 			K storeKey) {
+		RedisMetrics metrics = RedisMetrics.of(redisTemplate);
+		if (metrics == null) {
+			return doSDiffAndStore(redisTemplate, key1, otherKeys, storeKey);
+		}
+		return RedisMetrics.record(metrics, "sDiffAndStore", key1, otherKeys, new MeteredCall<Long>() {
+			@Override
+			protected Long call() {
+				return doSDiffAndStore(redisTemplate, key1, otherKeys, storeKey);
+			}
+		});
+	}
 
+	private static <K, V, T> long doSDiffAndStore(RedisTemplate<K, V> redisTemplate, K key1, Collection<K> otherKeys,
+			K storeKey) {
 		if (StringUtils.isEmpty(key1) || otherKeys == null || otherKeys.size() <= 0 || StringUtils.isEmpty(storeKey)) {
-			return 0;
+			return 0L;
 		}
 
 		Long ret = redisTemplate.opsForSet().differenceAndStore(key1, otherKeys, storeKey);
@@ -233,27 +1325,68 @@ public class Redis {
 		return ret == null ? 0 : ret.longValue();
 	}
 
-	@SuppressWarnings("unchecked")
 	public static final <K, V, T> Set<T> sInter(RedisTemplate<K, V> redisTemplate, K key1, K key2, Class<T> clazz) {
+		RedisMetrics metrics = RedisMetrics.of(redisTemplate);
+		if (metrics == null) {
+			return doSInter(redisTemplate, key1, key2, clazz, null);
+		}
+		return RedisMetrics.record(metrics, "sInter", key1, null, new MeteredCall<Set<T>>() {
+			@Override
+			protected Set<T> call() {
+				return doSInter(redisTemplate, key1, key2, clazz, metrics);
+			}
+		});
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <K, V, T> Set<T> doSInter(RedisTemplate<K, V> redisTemplate, K key1, K key2, Class<T> clazz,
+			RedisMetrics metrics) {
 		if (StringUtils.isEmpty(key1) || StringUtils.isEmpty(key2)) {
 			return null;
 		}
-		return (Set<T>) redisTemplate.opsForSet().intersect(key1, key2);
+		return RedisMetrics.result(metrics, (Set<T>) redisTemplate.opsForSet().intersect(key1, key2));
 	}
 
-	@SuppressWarnings("unchecked")
 	public static final <K, V, T> Set<T> sInter(RedisTemplate<K, V> redisTemplate, K key1, Collection<K> otherKeys,
 			Class<T> clazz) {
+		RedisMetrics metrics = RedisMetrics.of(redisTemplate);
+		if (metrics == null) {
+			return doSInter(redisTemplate, key1, otherKeys, clazz, null);
+		}
+		return RedisMetrics.record(metrics, "sInter", key1, otherKeys, new MeteredCall<Set<T>>() {
+			@Override
+			protected Set<T> call() {
+				return doSInter(redisTemplate, key1, otherKeys, clazz, metrics);
+			}
+		});
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <K, V, T> Set<T> doSInter(RedisTemplate<K, V> redisTemplate, K key1, Collection<K> otherKeys,
+			Class<T> clazz, RedisMetrics metrics) {
 		if (StringUtils.isEmpty(key1) || otherKeys == null || otherKeys.size() <= 0) {
 			return null;
 		}
 
-		return (Set<T>) redisTemplate.opsForSet().intersect(key1, otherKeys);
+		return RedisMetrics.result(metrics, (Set<T>) redisTemplate.opsForSet().intersect(key1, otherKeys));
 	}
 
 	public static final <K, V, T> long sInterAndStore(RedisTemplate<K, V> redisTemplate, K key1, K key2, K storeKey) {
+		RedisMetrics metrics = RedisMetrics.of(redisTemplate);
+		if (metrics == null) {
+			return doSInterAndStore(redisTemplate, key1, key2, storeKey);
+		}
+		return RedisMetrics.record(metrics, "sInterAndStore", key1, null, new MeteredCall<Long>() {
+			@Override
+			protected Long call() {
+				return doSInterAndStore(redisTemplate, key1, key2, storeKey);
+			}
+		});
+	}
+
+	private static <K, V, T> long doSInterAndStore(RedisTemplate<K, V> redisTemplate, K key1, K key2, K storeKey) {
 		if (StringUtils.isEmpty(key1) || StringUtils.isEmpty(key2) || StringUtils.isEmpty(storeKey)) {
-			return 0;
+			return 0L;
 		}
 
 		Long ret = redisTemplate.opsForSet().intersectAndStore(key1, key2, storeKey);
@@ -263,8 +1396,22 @@ public class Redis {
 
 	public static final <K, V, T> long sInterAndStore(RedisTemplate<K, V> redisTemplate, K key1,
 			Collection<K> otherKeys, K storeKey) {
+		RedisMetrics metrics = RedisMetrics.of(redisTemplate);
+		if (metrics == null) {
+			return doSInterAndStore(redisTemplate, key1, otherKeys, storeKey);
+		}
+		return RedisMetrics.record(metrics, "sInterAndStore", key1, otherKeys, new MeteredCall<Long>() {
+			@Override
+			protected Long call() {
+				return doSInterAndStore(redisTemplate, key1, otherKeys, storeKey);
+			}
+		});
+	}
+
+	private static <K, V, T> long doSInterAndStore(RedisTemplate<K, V> redisTemplate, K key1, Collection<K> otherKeys,
+			K storeKey) {
 		if (StringUtils.isEmpty(key1) || otherKeys == null || otherKeys.size() <= 0 || StringUtils.isEmpty(storeKey)) {
-			return 0;
+			return 0L;
 		}
 
 		Long ret = redisTemplate.opsForSet().intersectAndStore(key1, otherKeys, storeKey);
@@ -273,23 +1420,64 @@ public class Redis {
 	}
 
 	public static final <K, V> boolean isMember(RedisTemplate<K, V> redisTemplate, K key, V value) {
+		RedisMetrics metrics = RedisMetrics.of(redisTemplate);
+		if (metrics == null) {
+			return doIsMember(redisTemplate, key, value);
+		}
+		return RedisMetrics.record(metrics, "isMember", key, null, new MeteredCall<Boolean>() {
+			@Override
+			protected Boolean call() {
+				return doIsMember(redisTemplate, key, value);
+			}
+		});
+	}
+
+	private static <K, V> boolean doIsMember(RedisTemplate<K, V> redisTemplate, K key, V value) {
 		if (StringUtils.isEmpty(key) || value == null) {
 			return false;
 		}
 		return redisTemplate.opsForSet().isMember(key, value);
 	}
 
-	@SuppressWarnings("unchecked")
 	public static final <K, V, T> Set<T> members(RedisTemplate<K, V> redisTemplate, K key, Class<T> clazz) {
+		RedisMetrics metrics = RedisMetrics.of(redisTemplate);
+		if (metrics == null) {
+			return doMembers(redisTemplate, key, clazz, null);
+		}
+		return RedisMetrics.record(metrics, "members", key, null, new MeteredCall<Set<T>>() {
+			@Override
+			protected Set<T> call() {
+				return doMembers(redisTemplate, key, clazz, metrics);
+			}
+		});
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <K, V, T> Set<T> doMembers(RedisTemplate<K, V> redisTemplate, K key, Class<T> clazz,
+			RedisMetrics metrics) {
 		if (StringUtils.isEmpty(key)) {
 			return null;
 		}
-		return (Set<T>) redisTemplate.opsForSet().members(key);
+		return RedisMetrics.result(metrics, (Set<T>) redisTemplate.opsForSet().members(key));
 	}
 
-	@SuppressWarnings("unchecked")
 	public static final <K, V, T> List<T> randomMembers(RedisTemplate<K, V> redisTemplate, K key, int count,
 			Class<T> clazz) {
+		RedisMetrics metrics = RedisMetrics.of(redisTemplate);
+		if (metrics == null) {
+			return doRandomMembers(redisTemplate, key, count, clazz, null);
+		}
+		return RedisMetrics.record(metrics, "randomMembers", key, null, new MeteredCall<List<T>>() {
+			@Override
+			protected List<T> call() {
+				return doRandomMembers(redisTemplate, key, count, clazz, metrics);
+			}
+		});
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <K, V, T> List<T> doRandomMembers(RedisTemplate<K, V> redisTemplate, K key, int count,
+			Class<T> clazz, RedisMetrics metrics) {
 		if (StringUtils.isEmpty(key) || count <= 0) {
 			return null;
 		}
@@ -300,12 +1488,26 @@ public class Redis {
 			return ret;
 		}
 
-		return (List<T>) redisTemplate.opsForSet().randomMembers(key, count);
+		return RedisMetrics.result(metrics, (List<T>) redisTemplate.opsForSet().randomMembers(key, count));
 	}
 
-	@SuppressWarnings("unchecked")
 	public static final <K, V, T> List<T> randomDistinctMembers(RedisTemplate<K, V> redisTemplate, K key, int count,
 			Class<T> clazz) {
+		RedisMetrics metrics = RedisMetrics.of(redisTemplate);
+		if (metrics == null) {
+			return doRandomDistinctMembers(redisTemplate, key, count, clazz, null);
+		}
+		return RedisMetrics.record(metrics, "randomDistinctMembers", key, null, new MeteredCall<List<T>>() {
+			@Override
+			protected List<T> call() {
+				return doRandomDistinctMembers(redisTemplate, key, count, clazz, metrics);
+			}
+		});
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <K, V, T> List<T> doRandomDistinctMembers(RedisTemplate<K, V> redisTemplate, K key, int count,
+			Class<T> clazz, RedisMetrics metrics) {
 		if (StringUtils.isEmpty(key) || count <= 0) {
 			return null;
 		}
@@ -316,56 +1518,162 @@ public class Redis {
 			return ret;
 		}
 
-		return (List<T>) redisTemplate.opsForSet().distinctRandomMembers(key, count);
+		return RedisMetrics.result(metrics, (List<T>) redisTemplate.opsForSet().distinctRandomMembers(key, count));
 	}
 
+	/**
+	 * 原子地随机弹出最多count个成员，一次网络往返。
+	 * <p>
+	 * 优先使用redis 3.2起支持的<tt>SPOP key count</tt>；低版本服务端改为在同一pipeline中以MULTI/EXEC包裹count个SPOP。
+	 * 不使用lua脚本，因为3.2以前的服务端在脚本中执行SPOP这类随机命令后会拒绝后续写命令。
+	 */
 	public static final <K, V, T> List<T> randomPopMembers(final RedisTemplate<K, V> redisTemplate, final K key,
 			final int count, final Class<T> clazz) {
+		RedisMetrics metrics = RedisMetrics.of(redisTemplate);
+		if (metrics == null) {
+			return doRandomPopMembers(redisTemplate, key, count, clazz, null, null);
+		}
+		return RedisMetrics.record(metrics, "randomPopMembers", key, null, new MeteredCall<List<T>>() {
+			@Override
+			protected List<T> call() {
+				return doRandomPopMembers(redisTemplate, key, count, clazz, metrics, family);
+			}
+		});
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <K, V, T> List<T> doRandomPopMembers(final RedisTemplate<K, V> redisTemplate, final K key,
+			final int count, final Class<T> clazz, RedisMetrics metrics, String family) {
 		if (StringUtils.isEmpty(key) || count <= 0) {
 			return null;
 		}
-		List<T> ret = new ArrayList<T>();
-		RedisCallback<List<T>> action = new RedisCallback<List<T>>() {
-			@Override
-			public List<T> doInRedis(RedisConnection connection) throws DataAccessException {
-				List<T> ret = new ArrayList<T>();
-				byte[] keyBytes = serializeKey(redisTemplate, key);
-				for (int i = 0; i < count; i++) {
-					byte[] value = connection.sPop(keyBytes);
-					if (value == null || value.length <= 0) {
-						break;
+		final RedisContext context = RedisContext.getOrCreate(redisTemplate);
+		final RedisCodecs codecs = codecs(redisTemplate);
+		final byte[] keyBytes = codecs.encodeKey(key);
+		List<Object> values = null;
+		if (count == 1) {
+			values = new ArrayList<Object>();
+			values.add(redisTemplate.execute(new RedisCallback<byte[]>() {
+				@Override
+				public byte[] doInRedis(RedisConnection connection) throws DataAccessException {
+					return connection.sPop(keyBytes);
+				}
+			}));
+		} else if (!context.isSpopCountUnsupported()) {
+			try {
+				values = redisTemplate.execute(new RedisCallback<List<Object>>() {
+					@Override
+					public List<Object> doInRedis(RedisConnection connection) throws DataAccessException {
+						return (List<Object>) connection.execute("SPOP", keyBytes,
+								codecs.encodeString(String.valueOf(count)));
 					}
-					ret.add(deserializeValue(redisTemplate, value, clazz));
+				});
+			} catch (DataAccessException e) {
+				if (!isWrongNumberOfArguments(e)) {
+					throw e;
 				}
-				return ret;
+				context.setSpopCountUnsupported(true);
 			}
-		};
-		ret = execute(redisTemplate, action, false);
-		return ret;
+		}
+		if (values == null) {
+			List<Object> results = executePipelinedRaw(redisTemplate, new RedisCallback<Object>() {
+				@Override
+				public Object doInRedis(RedisConnection connection) throws DataAccessException {
+					connection.execute("MULTI");
+					for (int i = 0; i < count; i++) {
+						connection.execute("SPOP", keyBytes);
+					}
+					connection.execute("EXEC");
+					return null;
+				}
+			}, metrics, family);
+			// 前面是MULTI及各命令的QUEUED回复，最后一个才是EXEC的结果
+			Object exec = results == null || results.size() <= 0 ? null : results.get(results.size() - 1);
+			values = exec instanceof List ? (List<Object>) exec : new ArrayList<Object>();
+		}
+
+		List<T> ret = new ArrayList<T>();
+		for (Object value : values) {
+			if (value instanceof byte[] && ((byte[]) value).length > 0) {
+				ret.add(codecs.decodeValue((byte[]) value, clazz));
+			}
+		}
+		return RedisMetrics.result(metrics, ret);
+	}
+
+	private static boolean isWrongNumberOfArguments(Throwable e) {
+		for (Throwable current = e; current != null; current = current.getCause()) {
+			String message = current.getMessage();
+			if (message != null && message.contains("wrong number of arguments")) {
+				return true;
+			}
+		}
+		return false;
 	}
 
-	@SuppressWarnings("unchecked")
 	public static final <K, V, T> Set<T> union(RedisTemplate<K, V> redisTemplate, K key1, K key2, Class<T> clazz) {
+		RedisMetrics metrics = RedisMetrics.of(redisTemplate);
+		if (metrics == null) {
+			return doUnion(redisTemplate, key1, key2, clazz, null);
+		}
+		return RedisMetrics.record(metrics, "union", key1, null, new MeteredCall<Set<T>>() {
+			@Override
+			protected Set<T> call() {
+				return doUnion(redisTemplate, key1, key2, clazz, metrics);
+			}
+		});
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <K, V, T> Set<T> doUnion(RedisTemplate<K, V> redisTemplate, K key1, K key2, Class<T> clazz,
+			RedisMetrics metrics) {
 		if (StringUtils.isEmpty(key1) || StringUtils.isEmpty(key2)) {
 			return null;
 		}
 
-		return (Set<T>) redisTemplate.opsForSet().union(key1, key2);
+		return RedisMetrics.result(metrics, (Set<T>) redisTemplate.opsForSet().union(key1, key2));
 	}
 
-	@SuppressWarnings("unchecked")
 	public static final <K, V, T> Set<T> union(RedisTemplate<K, V> redisTemplate, K key1, Collection<K> otherKeys,
 			Class<T> clazz) {
+		RedisMetrics metrics = RedisMetrics.of(redisTemplate);
+		if (metrics == null) {
+			return doUnion(redisTemplate, key1, otherKeys, clazz, null);
+		}
+		return RedisMetrics.record(metrics, "union", key1, otherKeys, new MeteredCall<Set<T>>() {
+			@Override
+			protected Set<T> call() {
+				return doUnion(redisTemplate, key1, otherKeys, clazz, metrics);
+			}
+		});
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <K, V, T> Set<T> doUnion(RedisTemplate<K, V> redisTemplate, K key1, Collection<K> otherKeys,
+			Class<T> clazz, RedisMetrics metrics) {
 		if (StringUtils.isEmpty(key1) || otherKeys == null || otherKeys.size() <= 0) {
 			return null;
 		}
 
-		return (Set<T>) redisTemplate.opsForSet().union(key1, otherKeys);
+		return RedisMetrics.result(metrics, (Set<T>) redisTemplate.opsForSet().union(key1, otherKeys));
 	}
 
 	public static final <K, V, T> long unionAndStore(RedisTemplate<K, V> redisTemplate, K key1, K key2, K storeKey) {
+		RedisMetrics metrics = RedisMetrics.of(redisTemplate);
+		if (metrics == null) {
+			return doUnionAndStore(redisTemplate, key1, key2, storeKey);
+		}
+		return RedisMetrics.record(metrics, "unionAndStore", key1, null, new MeteredCall<Long>() {
+			@Override
+			protected Long call() {
+				return doUnionAndStore(redisTemplate, key1, key2, storeKey);
+			}
+		});
+	}
+
+	private static <K, V, T> long doUnionAndStore(RedisTemplate<K, V> redisTemplate, K key1, K key2, K storeKey) {
 		if (StringUtils.isEmpty(key1) || StringUtils.isEmpty(key2) || StringUtils.isEmpty(storeKey)) {
-			return 0;
+			return 0L;
 		}
 
 		Long ret = redisTemplate.opsForSet().unionAndStore(key1, key2, storeKey);
@@ -375,8 +1683,22 @@ public class Redis {
 
 	public static final <K, V, T> long unionAndStore(RedisTemplate<K, V> redisTemplate, K key1, Collection<K> otherKeys,
 			K storeKey) {
+		RedisMetrics metrics = RedisMetrics.of(redisTemplate);
+		if (metrics == null) {
+			return doUnionAndStore(redisTemplate, key1, otherKeys, storeKey);
+		}
+		return RedisMetrics.record(metrics, "unionAndStore", key1, otherKeys, new MeteredCall<Long>() {
+			@Override
+			protected Long call() {
+				return doUnionAndStore(redisTemplate, key1, otherKeys, storeKey);
+			}
+		});
+	}
+
+	private static <K, V, T> long doUnionAndStore(RedisTemplate<K, V> redisTemplate, K key1, Collection<K> otherKeys,
+			K storeKey) {
 		if (StringUtils.isEmpty(key1) || otherKeys == null || otherKeys.size() <= 0 || StringUtils.isEmpty(storeKey)) {
-			return 0;
+			return 0L;
 		}
 
 		Long ret = redisTemplate.opsForSet().unionAndStore(key1, otherKeys, storeKey);
@@ -385,19 +1707,44 @@ public class Redis {
 	}
 
 	public static final <K, V> long sRemove(RedisTemplate<K, V> redisTemplate, K key, V[] values) {
+		RedisMetrics metrics = RedisMetrics.of(redisTemplate);
+		if (metrics == null) {
+			return doSRemove(redisTemplate, key, values);
+		}
+		return RedisMetrics.record(metrics, "sRemove", key, values, new MeteredCall<Long>() {
+			@Override
+			protected Long call() {
+				return doSRemove(redisTemplate, key, values);
+			}
+		});
+	}
+
+	private static <K, V> long doSRemove(RedisTemplate<K, V> redisTemplate, K key, V[] values) {
 		if (StringUtils.isEmpty(key) || values == null || values.length <= 0) {
-			return 0;
+			return 0L;
 		}
 
 		Long count = redisTemplate.opsForSet().remove(key, values);
 
 		return count == null ? 0 : count.longValue();
-
 	}
 
 	public static final <K, V> long sCard(RedisTemplate<K, V> redisTemplate, K key) {
+		RedisMetrics metrics = RedisMetrics.of(redisTemplate);
+		if (metrics == null) {
+			return doSCard(redisTemplate, key);
+		}
+		return RedisMetrics.record(metrics, "sCard", key, null, new MeteredCall<Long>() {
+			@Override
+			protected Long call() {
+				return doSCard(redisTemplate, key);
+			}
+		});
+	}
+
+	private static <K, V> long doSCard(RedisTemplate<K, V> redisTemplate, K key) {
 		if (StringUtils.isEmpty(key)) {
-			return 0;
+			return 0L;
 		}
 
 		Long size = redisTemplate.opsForSet().size(key);
@@ -408,29 +1755,42 @@ public class Redis {
 	// List
 	public static final <K, V> long leftPush(final RedisTemplate<K, V> redisTemplate, final K key, final V value,
 			Long expireTime, TimeUnit unit) {
+		RedisMetrics metrics = RedisMetrics.of(redisTemplate);
+		if (metrics == null) {
+			return doLeftPush(redisTemplate, key, value, expireTime, unit, null, null);
+		}
+		return RedisMetrics.record(metrics, "leftPush", key, null, new MeteredCall<Long>() {
+			@Override
+			protected Long call() {
+				return doLeftPush(redisTemplate, key, value, expireTime, unit, metrics, family);
+			}
+		});
+	}
+
+	private static <K, V> long doLeftPush(final RedisTemplate<K, V> redisTemplate, final K key, final V value,
+			Long expireTime, TimeUnit unit, RedisMetrics metrics, String family) {
+		TimeUnit timeUnit = unit == null ? TimeUnit.MILLISECONDS : unit;
 		if (key == null || StringUtils.isEmpty(key) || value == null || StringUtils.isEmpty(value.toString())) {
 			return 0L;
 		}
-		if (unit == null) {
-			unit = TimeUnit.MILLISECONDS;
-		}
 
 		Long count = 0L;
 
-		final Long finalExpireTime = Redis.convert(expireTime, unit);
+		final Long finalExpireTime = Redis.convert(expireTime, timeUnit);
 		if (finalExpireTime == null) {
 			count = redisTemplate.opsForList().leftPush(key, value);
 		} else {
 			RedisCallback<Long> action = new RedisCallback<Long>() {
 				@Override
 				public Long doInRedis(RedisConnection connection) throws DataAccessException {
-					Long result = connection.lPush(serializeKey(redisTemplate, key),
-							serializeValue(redisTemplate, value));
-					connection.expire(serializeKey(redisTemplate, key), finalExpireTime);
+					RedisCodecs codecs = codecs(redisTemplate);
+					Long result = connection.lPush(codecs.encodeKey(key),
+							codecs.encodeValue(value));
+					connection.expire(codecs.encodeKey(key), finalExpireTime);
 					return result;
 				}
 			};
-			count = execute(redisTemplate, action, true);
+			count = execute(redisTemplate, action, true, metrics, family);
 		}
 
 		return count == null ? 0 : count.longValue();
@@ -438,34 +1798,46 @@ public class Redis {
 
 	public static final <K, V> long leftPushAll(final RedisTemplate<K, V> redisTemplate, final K key,
 			final Collection<? extends V> values, Long expireTime, TimeUnit unit) {
-		if (StringUtils.isEmpty(key) || values == null || values.size() <= 0) {
-			return 0;
+		RedisMetrics metrics = RedisMetrics.of(redisTemplate);
+		if (metrics == null) {
+			return doLeftPushAll(redisTemplate, key, values, expireTime, unit, null, null);
 		}
+		return RedisMetrics.record(metrics, "leftPushAll", key, values, new MeteredCall<Long>() {
+			@Override
+			protected Long call() {
+				return doLeftPushAll(redisTemplate, key, values, expireTime, unit, metrics, family);
+			}
+		});
+	}
 
-		if (unit == null) {
-			unit = TimeUnit.MICROSECONDS;
+	private static <K, V> long doLeftPushAll(final RedisTemplate<K, V> redisTemplate, final K key,
+			final Collection<? extends V> values, Long expireTime, TimeUnit unit, RedisMetrics metrics, String family) {
+		TimeUnit timeUnit = unit == null ? TimeUnit.MICROSECONDS : unit;
+		if (StringUtils.isEmpty(key) || values == null || values.size() <= 0) {
+			return 0L;
 		}
 
 		Long count = 0L;
 
-		final Long finalExpireSeconds = Redis.convert(expireTime, unit);
+		final Long finalExpireSeconds = Redis.convert(expireTime, timeUnit);
 		if (finalExpireSeconds == null || finalExpireSeconds.longValue() <= 0) {
 			count = redisTemplate.opsForList().leftPushAll(key, new ArrayList<V>(values));
 		} else {
 			RedisCallback<Long> action = new RedisCallback<Long>() {
 				@Override
 				public Long doInRedis(RedisConnection connection) throws DataAccessException {
+					RedisCodecs codecs = codecs(redisTemplate);
 					byte[][] valueBytes = new byte[values.size()][];
 					int i = 0;
 					for (Object value : values) {
-						valueBytes[i++] = serializeValue(redisTemplate, value);
+						valueBytes[i++] = codecs.encodeValue(value);
 					}
-					Long result = connection.lPush(serializeKey(redisTemplate, key), valueBytes);
-					connection.expire(serializeKey(redisTemplate, key), finalExpireSeconds);
+					Long result = connection.lPush(codecs.encodeKey(key), valueBytes);
+					connection.expire(codecs.encodeKey(key), finalExpireSeconds);
 					return result;
 				}
 			};
-			count = Redis.execute(redisTemplate, action, true);
+			count = execute(redisTemplate, action, true, metrics, family);
 		}
 
 		return count == null ? 0l : count.longValue();
@@ -473,29 +1845,42 @@ public class Redis {
 
 	public static final <K, V> long rightPush(final RedisTemplate<K, V> redisTemplate, final K key, final V value,
 			Long expireTime, TimeUnit unit) {
+		RedisMetrics metrics = RedisMetrics.of(redisTemplate);
+		if (metrics == null) {
+			return doRightPush(redisTemplate, key, value, expireTime, unit, null, null);
+		}
+		return RedisMetrics.record(metrics, "rightPush", key, null, new MeteredCall<Long>() {
+			@Override
+			protected Long call() {
+				return doRightPush(redisTemplate, key, value, expireTime, unit, metrics, family);
+			}
+		});
+	}
+
+	private static <K, V> long doRightPush(final RedisTemplate<K, V> redisTemplate, final K key, final V value,
+			Long expireTime, TimeUnit unit, RedisMetrics metrics, String family) {
+		TimeUnit timeUnit = unit == null ? TimeUnit.MILLISECONDS : unit;
 		if (key == null || StringUtils.isEmpty(key) || value == null || StringUtils.isEmpty(value.toString())) {
 			return 0L;
 		}
-		if (unit == null) {
-			unit = TimeUnit.MILLISECONDS;
-		}
 
 		Long count = 0L;
 
-		final Long finalExpireTime = Redis.convert(expireTime, unit);
+		final Long finalExpireTime = Redis.convert(expireTime, timeUnit);
 		if (finalExpireTime == null) {
 			count = redisTemplate.opsForList().rightPush(key, value);
 		} else {
 			RedisCallback<Long> action = new RedisCallback<Long>() {
 				@Override
 				public Long doInRedis(RedisConnection connection) throws DataAccessException {
-					Long result = connection.rPush(serializeKey(redisTemplate, key),
-							serializeValue(redisTemplate, value));
-					connection.expire(serializeKey(redisTemplate, key), finalExpireTime);
+					RedisCodecs codecs = codecs(redisTemplate);
+					Long result = connection.rPush(codecs.encodeKey(key),
+							codecs.encodeValue(value));
+					connection.expire(codecs.encodeKey(key), finalExpireTime);
 					return result;
 				}
 			};
-			count = Redis.execute(redisTemplate, action, true);
+			count = execute(redisTemplate, action, true, metrics, family);
 		}
 
 		return count == null ? 0 : count.longValue();
@@ -503,148 +1888,385 @@ public class Redis {
 
 	public static final <K, V> long rightPushAll(final RedisTemplate<K, V> redisTemplate, final K key,
 			final Collection<? extends V> values, Long expireTime, TimeUnit unit) {
-		if (StringUtils.isEmpty(key) || values == null || values.size() <= 0) {
-			return 0;
+		RedisMetrics metrics = RedisMetrics.of(redisTemplate);
+		if (metrics == null) {
+			return doRightPushAll(redisTemplate, key, values, expireTime, unit, null, null);
 		}
+		return RedisMetrics.record(metrics, "rightPushAll", key, values, new MeteredCall<Long>() {
+			@Override
+			protected Long call() {
+				return doRightPushAll(redisTemplate, key, values, expireTime, unit, metrics, family);
+			}
+		});
+	}
 
-		if (unit == null) {
-			unit = TimeUnit.MICROSECONDS;
+	private static <K, V> long doRightPushAll(final RedisTemplate<K, V> redisTemplate, final K key,
+			final Collection<? extends V> values, Long expireTime, TimeUnit unit, RedisMetrics metrics, String family) {
+		TimeUnit timeUnit = unit == null ? TimeUnit.MICROSECONDS : unit;
+		if (StringUtils.isEmpty(key) || values == null || values.size() <= 0) {
+			return 0L;
 		}
 
 		Long count = 0L;
 
-		final Long finalExpireSeconds = Redis.convert(expireTime, unit);
+		final Long finalExpireSeconds = Redis.convert(expireTime, timeUnit);
 		if (finalExpireSeconds == null || finalExpireSeconds.longValue() <= 0) {
 			count = redisTemplate.opsForList().rightPushAll(key, new ArrayList<V>(values));
 		} else {
 			RedisCallback<Long> action = new RedisCallback<Long>() {
 				@Override
 				public Long doInRedis(RedisConnection connection) throws DataAccessException {
+					RedisCodecs codecs = codecs(redisTemplate);
 					byte[][] valueBytes = new byte[values.size()][];
 					int i = 0;
 					for (Object value : values) {
-						valueBytes[i++] = serializeValue(redisTemplate, value);
+						valueBytes[i++] = codecs.encodeValue(value);
 					}
-					Long result = connection.rPush(serializeKey(redisTemplate, key), valueBytes);
-					connection.expire(serializeKey(redisTemplate, key), finalExpireSeconds);
+					Long result = connection.rPush(codecs.encodeKey(key), valueBytes);
+					connection.expire(codecs.encodeKey(key), finalExpireSeconds);
 					return result;
 				}
 			};
-			count = Redis.execute(redisTemplate, action, true);
+			count = execute(redisTemplate, action, true, metrics, family);
 		}
 
 		return count == null ? 0l : count.longValue();
 	}
 
 	public static final <K, V> long llength(RedisTemplate<K, V> redisTemplate, K key) {
+		RedisMetrics metrics = RedisMetrics.of(redisTemplate);
+		if (metrics == null) {
+			return doLlength(redisTemplate, key);
+		}
+		return RedisMetrics.record(metrics, "llength", key, null, new MeteredCall<Long>() {
+			@Override
+			protected Long call() {
+				return doLlength(redisTemplate, key);
+			}
+		});
+	}
+
+	private static <K, V> long doLlength(RedisTemplate<K, V> redisTemplate, K key) {
 		if (StringUtils.isEmpty(key)) {
 			return 0L;
 		}
 		return redisTemplate.opsForList().size(key);
 	}
 
-	@SuppressWarnings("unchecked")
 	public static final <K, V, T> List<T> range(RedisTemplate<K, V> redisTemplate, K key, Class<T> clazz, long start,
 			long end) {
+		RedisMetrics metrics = RedisMetrics.of(redisTemplate);
+		if (metrics == null) {
+			return doRange(redisTemplate, key, clazz, start, end, null);
+		}
+		return RedisMetrics.record(metrics, "range", key, null, new MeteredCall<List<T>>() {
+			@Override
+			protected List<T> call() {
+				return doRange(redisTemplate, key, clazz, start, end, metrics);
+			}
+		});
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <K, V, T> List<T> doRange(RedisTemplate<K, V> redisTemplate, K key, Class<T> clazz, long start,
+			long end, RedisMetrics metrics) {
 		if (StringUtils.isEmpty(key) || clazz == null || start > end) {
 			return new ArrayList<T>();
 		}
-		return (List<T>) redisTemplate.opsForList().range(key, start, end);
+		return RedisMetrics.result(metrics, (List<T>) redisTemplate.opsForList().range(key, start, end));
 	}
 
-	@SuppressWarnings("unchecked")
 	public static final <K, V, T> T leftPop(RedisTemplate<K, V> redisTemplate, K key, Class<T> clazz) {
+		RedisMetrics metrics = RedisMetrics.of(redisTemplate);
+		if (metrics == null) {
+			return doLeftPop(redisTemplate, key, clazz);
+		}
+		return RedisMetrics.record(metrics, "leftPop", key, null, new MeteredCall<T>() {
+			@Override
+			protected T call() {
+				return doLeftPop(redisTemplate, key, clazz);
+			}
+		});
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <K, V, T> T doLeftPop(RedisTemplate<K, V> redisTemplate, K key, Class<T> clazz) {
 		if (StringUtils.isEmpty(key)) {
 			return null;
 		}
 
-		return (T) redisTemplate.opsForList().leftPop(key);
+		T ret = (T) redisTemplate.opsForList().leftPop(key);
+		return ret;
 	}
 
-	@SuppressWarnings("unchecked")
 	public static final <K, V, T> List<T> lRange(RedisTemplate<K, V> redisTemplate, K key, long start, long end, Class<T> clazz) {
+		RedisMetrics metrics = RedisMetrics.of(redisTemplate);
+		if (metrics == null) {
+			return doLRange(redisTemplate, key, start, end, clazz, null);
+		}
+		return RedisMetrics.record(metrics, "lRange", key, null, new MeteredCall<List<T>>() {
+			@Override
+			protected List<T> call() {
+				return doLRange(redisTemplate, key, start, end, clazz, metrics);
+			}
+		});
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <K, V, T> List<T> doLRange(RedisTemplate<K, V> redisTemplate, K key, long start, long end,
+			Class<T> clazz, RedisMetrics metrics) {
 		if (StringUtils.isEmpty(key)) {
 			return null;
 		}
 
-		return (List<T>) redisTemplate.opsForList().range(key, start, end);
+		return RedisMetrics.result(metrics, (List<T>) redisTemplate.opsForList().range(key, start, end));
 	}
 
 	public static final <K, V, T> List<T> leftPop(final RedisTemplate<K, V> redisTemplate, final K key,
 			final Class<T> clazz, final int num) {
+		RedisMetrics metrics = RedisMetrics.of(redisTemplate);
+		if (metrics == null) {
+			return doLeftPop(redisTemplate, key, clazz, num, null);
+		}
+		return RedisMetrics.record(metrics, "leftPop", key, null, new MeteredCall<List<T>>() {
+			@Override
+			protected List<T> call() {
+				return doLeftPop(redisTemplate, key, clazz, num, metrics);
+			}
+		});
+	}
+
+	private static <K, V, T> List<T> doLeftPop(RedisTemplate<K, V> redisTemplate, K key, Class<T> clazz, int num,
+			RedisMetrics metrics) {
 		List<T> ret = new ArrayList<T>();
 		if (StringUtils.isEmpty(key) || num <= 0) {
 			return ret;
 		}
 
 		if (num == 1) {
-			ret.add(leftPop(redisTemplate, key, clazz));
+			ret.add(doLeftPop(redisTemplate, key, clazz));
 			return ret;
 		}
 
-		RedisCallback<List<T>> action = new RedisCallback<List<T>>() {
+		RedisCodecs codecs = codecs(redisTemplate);
+		for (byte[] value : doLeftPopRaw(redisTemplate, key, num, null)) {
+			ret.add(codecs.decodeValue(value, clazz));
+		}
+		return RedisMetrics.result(metrics, ret);
+	}
+
+	/**
+	 * 从左侧弹出单个元素，返回未反序列化的原始字节
+	 */
+	public static final <K, V> byte[] leftPopRaw(final RedisTemplate<K, V> redisTemplate, final K key) {
+		RedisMetrics metrics = RedisMetrics.of(redisTemplate);
+		if (metrics == null) {
+			return doLeftPopRaw(redisTemplate, key);
+		}
+		return RedisMetrics.record(metrics, "leftPopRaw", key, null, new MeteredCall<byte[]>() {
 			@Override
-			public List<T> doInRedis(RedisConnection connection) throws DataAccessException {
-				List<T> ret = new ArrayList<T>();
-				byte[] keyBytes = serializeKey(redisTemplate, key);
+			protected byte[] call() {
+				return doLeftPopRaw(redisTemplate, key);
+			}
+		});
+	}
 
-				for (int i = 0; i < num; i++) {
-					byte[] value = connection.lPop(keyBytes);
-					if (value == null || value.length <= 0) {
-						break;
-					}
-					ret.add(deserializeValue(redisTemplate, value, clazz));
-				}
-				return ret;
+	private static <K, V> byte[] doLeftPopRaw(final RedisTemplate<K, V> redisTemplate, final K key) {
+		if (StringUtils.isEmpty(key)) {
+			return null;
+		}
+		byte[] ret = redisTemplate.execute(new RedisCallback<byte[]>() {
+			@Override
+			public byte[] doInRedis(RedisConnection connection) throws DataAccessException {
+				return connection.lPop(codecs(redisTemplate).encodeKey(key));
+			}
+		});
+		return ret;
+	}
+
+	/**
+	 * 从左侧一次弹出最多num个元素，返回未反序列化的原始字节
+	 */
+	public static final <K, V> List<byte[]> leftPopRaw(final RedisTemplate<K, V> redisTemplate, final K key,
+			final int num) {
+		RedisMetrics metrics = RedisMetrics.of(redisTemplate);
+		if (metrics == null) {
+			return doLeftPopRaw(redisTemplate, key, num, null);
+		}
+		return RedisMetrics.record(metrics, "leftPopRaw", key, null, new MeteredCall<List<byte[]>>() {
+			@Override
+			protected List<byte[]> call() {
+				return doLeftPopRaw(redisTemplate, key, num, metrics);
+			}
+		});
+	}
+
+	private static <K, V> List<byte[]> doLeftPopRaw(final RedisTemplate<K, V> redisTemplate, final K key, final int num,
+			RedisMetrics metrics) {
+		if (StringUtils.isEmpty(key) || num <= 0) {
+			return new ArrayList<byte[]>();
+		}
+
+		RedisCallback<List<byte[]>> action = new RedisCallback<List<byte[]>>() {
+			@Override
+			public List<byte[]> doInRedis(RedisConnection connection) throws DataAccessException {
+				RedisCodecs codecs = codecs(redisTemplate);
+				// LRANGE+LTRIM在一次往返内原子地弹出num个元素
+				List<byte[]> values = RedisScripts.LEFT_POP_BATCH.execute(connection, 1,
+						codecs.encodeKey(key), codecs.encodeString(String.valueOf(num)));
+				return values == null ? new ArrayList<byte[]>() : values;
 			}
 		};
 
-		return Redis.execute(redisTemplate, action, false);
+		List<byte[]> ret = Redis.execute(redisTemplate, action, false);
+		return RedisMetrics.result(metrics, ret);
 	}
 
-	@SuppressWarnings("unchecked")
 	public static final <K, V, T> T rightPop(RedisTemplate<K, V> redisTemplate, K key, Class<T> clazz) {
+		RedisMetrics metrics = RedisMetrics.of(redisTemplate);
+		if (metrics == null) {
+			return doRightPop(redisTemplate, key, clazz);
+		}
+		return RedisMetrics.record(metrics, "rightPop", key, null, new MeteredCall<T>() {
+			@Override
+			protected T call() {
+				return doRightPop(redisTemplate, key, clazz);
+			}
+		});
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <K, V, T> T doRightPop(RedisTemplate<K, V> redisTemplate, K key, Class<T> clazz) {
 		if (StringUtils.isEmpty(key)) {
 			return null;
 		}
 
-		return (T) redisTemplate.opsForList().rightPop(key);
+		T ret = (T) redisTemplate.opsForList().rightPop(key);
+		return ret;
 	}
 
 	public static final <K, V, T> List<T> rightPop(final RedisTemplate<K, V> redisTemplate, final K key,
 			final Class<T> clazz, final int num) {
+		RedisMetrics metrics = RedisMetrics.of(redisTemplate);
+		if (metrics == null) {
+			return doRightPop(redisTemplate, key, clazz, num, null);
+		}
+		return RedisMetrics.record(metrics, "rightPop", key, null, new MeteredCall<List<T>>() {
+			@Override
+			protected List<T> call() {
+				return doRightPop(redisTemplate, key, clazz, num, metrics);
+			}
+		});
+	}
+
+	private static <K, V, T> List<T> doRightPop(RedisTemplate<K, V> redisTemplate, K key, Class<T> clazz, int num,
+			RedisMetrics metrics) {
 		List<T> ret = new ArrayList<T>();
 		if (StringUtils.isEmpty(key) || num <= 0) {
 			return ret;
 		}
 
 		if (num == 1) {
-			ret.add(rightPop(redisTemplate, key, clazz));
+			ret.add(doRightPop(redisTemplate, key, clazz));
 			return ret;
 		}
 
-		RedisCallback<List<T>> action = new RedisCallback<List<T>>() {
+		RedisCodecs codecs = codecs(redisTemplate);
+		for (byte[] value : doRightPopRaw(redisTemplate, key, num, null)) {
+			ret.add(codecs.decodeValue(value, clazz));
+		}
+		return RedisMetrics.result(metrics, ret);
+	}
+
+	/**
+	 * 从右侧弹出单个元素，返回未反序列化的原始字节
+	 */
+	public static final <K, V> byte[] rightPopRaw(final RedisTemplate<K, V> redisTemplate, final K key) {
+		RedisMetrics metrics = RedisMetrics.of(redisTemplate);
+		if (metrics == null) {
+			return doRightPopRaw(redisTemplate, key);
+		}
+		return RedisMetrics.record(metrics, "rightPopRaw", key, null, new MeteredCall<byte[]>() {
 			@Override
-			public List<T> doInRedis(RedisConnection connection) throws DataAccessException {
-				List<T> ret = new ArrayList<T>();
-				byte[] keyBytes = serializeKey(redisTemplate, key);
+			protected byte[] call() {
+				return doRightPopRaw(redisTemplate, key);
+			}
+		});
+	}
 
-				for (int i = 0; i < num; i++) {
-					byte[] value = connection.rPop(keyBytes);
-					if (value == null || value.length <= 0) {
-						break;
-					}
-					ret.add(deserializeValue(redisTemplate, value, clazz));
+	private static <K, V> byte[] doRightPopRaw(final RedisTemplate<K, V> redisTemplate, final K key) {
+		if (StringUtils.isEmpty(key)) {
+			return null;
+		}
+		byte[] ret = redisTemplate.execute(new RedisCallback<byte[]>() {
+			@Override
+			public byte[] doInRedis(RedisConnection connection) throws DataAccessException {
+				return connection.rPop(codecs(redisTemplate).encodeKey(key));
+			}
+		});
+		return ret;
+	}
+
+	/**
+	 * 从右侧一次弹出最多num个元素，按弹出顺序返回未反序列化的原始字节
+	 */
+	public static final <K, V> List<byte[]> rightPopRaw(final RedisTemplate<K, V> redisTemplate, final K key,
+			final int num) {
+		RedisMetrics metrics = RedisMetrics.of(redisTemplate);
+		if (metrics == null) {
+			return doRightPopRaw(redisTemplate, key, num, null);
+		}
+		return RedisMetrics.record(metrics, "rightPopRaw", key, null, new MeteredCall<List<byte[]>>() {
+			@Override
+			protected List<byte[]> call() {
+				return doRightPopRaw(redisTemplate, key, num, metrics);
+			}
+		});
+	}
+
+	private static <K, V> List<byte[]> doRightPopRaw(final RedisTemplate<K, V> redisTemplate, final K key,
+			final int num, RedisMetrics metrics) {
+		if (StringUtils.isEmpty(key) || num <= 0) {
+			return new ArrayList<byte[]>();
+		}
+
+		RedisCallback<List<byte[]>> action = new RedisCallback<List<byte[]>>() {
+			@Override
+			public List<byte[]> doInRedis(RedisConnection connection) throws DataAccessException {
+				RedisCodecs codecs = codecs(redisTemplate);
+				List<byte[]> values = RedisScripts.RIGHT_POP_BATCH.execute(connection, 1,
+						codecs.encodeKey(key), codecs.encodeString(String.valueOf(num)));
+				List<byte[]> ret = new ArrayList<byte[]>();
+				if (values == null) {
+					return ret;
+				}
+				// 脚本按列表顺序返回，倒序后与逐个RPOP的顺序一致
+				for (int i = values.size() - 1; i >= 0; i--) {
+					ret.add(values.get(i));
 				}
 				return ret;
 			}
 		};
 
-		return Redis.execute(redisTemplate, action, false);
+		List<byte[]> ret = Redis.execute(redisTemplate, action, false);
+		return RedisMetrics.result(metrics, ret);
 	}
 
-	@SuppressWarnings("unchecked")
 	public static final <K, V, T> T elementAt(RedisTemplate<K, V> redisTemplate, K key, long index, Class<T> clazz) {
+		RedisMetrics metrics = RedisMetrics.of(redisTemplate);
+		if (metrics == null) {
+			return doElementAt(redisTemplate, key, index, clazz);
+		}
+		return RedisMetrics.record(metrics, "elementAt", key, null, new MeteredCall<T>() {
+			@Override
+			protected T call() {
+				return doElementAt(redisTemplate, key, index, clazz);
+			}
+		});
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <K, V, T> T doElementAt(RedisTemplate<K, V> redisTemplate, K key, long index, Class<T> clazz) {
 		if (StringUtils.isEmpty(key) || index < 0) {
 			return null;
 		}
@@ -652,8 +2274,21 @@ public class Redis {
 	}
 
 	public static final <K, V> long lRemove(RedisTemplate<K, V> redisTemplate, K key, V value, long count) {
+		RedisMetrics metrics = RedisMetrics.of(redisTemplate);
+		if (metrics == null) {
+			return doLRemove(redisTemplate, key, value, count);
+		}
+		return RedisMetrics.record(metrics, "lRemove", key, null, new MeteredCall<Long>() {
+			@Override
+			protected Long call() {
+				return doLRemove(redisTemplate, key, value, count);
+			}
+		});
+	}
+
+	private static <K, V> long doLRemove(RedisTemplate<K, V> redisTemplate, K key, V value, long count) {
 		if (StringUtils.isEmpty(key) || value == null) {
-			return 0;
+			return 0L;
 		}
 		Long ret = redisTemplate.opsForList().remove(key, count, value);
 		return ret == null ? 0 : ret.longValue();
@@ -662,46 +2297,80 @@ public class Redis {
 	// Zset
 	public static final <K, V> long zAdd(final RedisTemplate<K, V> redisTemplate, final K key, final V value,
 			final double score, Long expireTime, TimeUnit unit) {
+		RedisMetrics metrics = RedisMetrics.of(redisTemplate);
+		if (metrics == null) {
+			return doZAdd(redisTemplate, key, value, score, expireTime, unit, null, null);
+		}
+		return RedisMetrics.record(metrics, "zAdd", key, null, new MeteredCall<Long>() {
+			@Override
+			protected Long call() {
+				return doZAdd(redisTemplate, key, value, score, expireTime, unit, metrics, family);
+			}
+		});
+	}
+
+	private static <K, V> long doZAdd(final RedisTemplate<K, V> redisTemplate, final K key, final V value,
+			final double score, Long expireTime, TimeUnit unit, RedisMetrics metrics, String family) {
 		if (StringUtils.isEmpty(key)) {
 			return 0l;
 		}
 
 		if (expireTime == null || expireTime.longValue() <= 0) {
-			return redisTemplate.opsForZSet().add(key, value, score) ? 1l : 0l;
+			boolean added = redisTemplate.opsForZSet().add(key, value, score);
+			return added ? 1l : 0l;
 		}
 
-		unit = unit == null ? TimeUnit.MILLISECONDS : unit;
+		TimeUnit timeUnit = unit == null ? TimeUnit.MILLISECONDS : unit;
 
-		final Long expireSeconds = Redis.convert(expireTime, unit);
+		final Long expireSeconds = Redis.convert(expireTime, timeUnit);
 
 		RedisCallback<Long> action = new RedisCallback<Long>() {
 			@Override
 			public Long doInRedis(RedisConnection connection) throws DataAccessException {
-				byte[] keyBytes = serializeKey(redisTemplate, key);
-				Long ret = connection.zAdd(keyBytes, score, serializeValue(redisTemplate, value)) ? 1L : 0L;
+				RedisCodecs codecs = codecs(redisTemplate);
+				byte[] keyBytes = codecs.encodeKey(key);
+				Long ret = connection.zAdd(keyBytes, score, codecs.encodeValue(value)) ? 1L : 0L;
 				connection.expire(keyBytes, expireSeconds);
 				return ret;
 			}
 		};
 
-		return Redis.execute(redisTemplate, action, true);
+		Long ret = execute(redisTemplate, action, true, metrics, family);
+		return ret;
 	}
 
     public static final <K, V> void addToZSets(final RedisTemplate<K, V> template, final Collection<K> keys,
                                                final V value, final double score, Long timeout, TimeUnit unit) {
+        RedisMetrics metrics = RedisMetrics.of(template);
+        if (metrics == null) {
+            doAddToZSets(template, keys, value, score, timeout, unit, null, null);
+            return;
+        }
+        RedisMetrics.record(metrics, "addToZSets", keys, null, new MeteredCall<Void>() {
+            @Override
+            protected Void call() {
+                doAddToZSets(template, keys, value, score, timeout, unit, metrics, family);
+                return null;
+            }
+        });
+    }
+
+    private static <K, V> void doAddToZSets(final RedisTemplate<K, V> template, final Collection<K> keys, final V value,
+            final double score, Long timeout, TimeUnit unit, RedisMetrics metrics, String family) {
         if (keys == null || keys.size() <= 0 || value == null) {
             return;
         }
 
-        unit = unit == null ? TimeUnit.MILLISECONDS : unit;
-        final Long seconds = Redis.convert(timeout, unit);
+        TimeUnit timeUnit = unit == null ? TimeUnit.MILLISECONDS : unit;
+        final Long seconds = Redis.convert(timeout, timeUnit);
 
         RedisCallback<Long> action = new RedisCallback<Long>() {
             @Override
             public Long doInRedis(RedisConnection connection) throws DataAccessException {
-                byte[] rawValue = serializeValue(template, value);
+                RedisCodecs codecs = codecs(template);
+                byte[] rawValue = codecs.encodeValue(value);
                 for (K key : keys) {
-                    byte[] rawKey = serializeKey(template, key);
+                    byte[] rawKey = codecs.encodeKey(key);
                     connection.zAdd(rawKey, score, rawValue);
                     if (seconds != null) {
                         connection.expire(rawKey, seconds);
@@ -711,148 +2380,257 @@ public class Redis {
             }
         };
 
-        Redis.execute(template, action, true);
+        execute(template, action, true, metrics, family);
     }
 
     public static final <K, V> void addAllToZSets(final RedisTemplate<K, V> template, final Collection<K> keys,
                                                   final Map<V, Double> tuples, Long timeout, TimeUnit unit) {
+        RedisMetrics metrics = RedisMetrics.of(template);
+        if (metrics == null) {
+            doAddAllToZSets(template, keys, tuples, timeout, unit, null, null);
+            return;
+        }
+        RedisMetrics.record(metrics, "addAllToZSets", keys, tuples, new MeteredCall<Void>() {
+            @Override
+            protected Void call() {
+                doAddAllToZSets(template, keys, tuples, timeout, unit, metrics, family);
+                return null;
+            }
+        });
+    }
+
+    private static <K, V> void doAddAllToZSets(final RedisTemplate<K, V> template, final Collection<K> keys,
+            final Map<V, Double> tuples, Long timeout, TimeUnit unit, RedisMetrics metrics, String family) {
         if (keys == null || keys.size() <= 0 || tuples == null || tuples.size() <= 0) {
             return;
         }
 
-        unit = unit == null ? TimeUnit.MILLISECONDS : unit;
-        final Long seconds = Redis.convert(timeout, unit);
+        TimeUnit timeUnit = unit == null ? TimeUnit.MILLISECONDS : unit;
+        final Long seconds = Redis.convert(timeout, timeUnit);
 
-        RedisCallback<Long> action = new RedisCallback<Long>() {
+        BulkWriter.Action action = new BulkWriter.Action() {
             @Override
-            public Long doInRedis(RedisConnection connection) throws DataAccessException {
+            public void write(BulkWriter writer) {
+                RedisCodecs codecs = codecs(template);
+                RedisConnection connection = writer.getConnection();
                 byte[][] rawValues = new byte[tuples.size()][];
                 double[] scores = new double[tuples.size()];
                 int i = 0;
 
                 for (Map.Entry<V, Double> tuple : tuples.entrySet()) {
-                    rawValues[i] = serializeValue(template, tuple.getKey());
+                    rawValues[i] = codecs.encodeValue(tuple.getKey());
                     scores[i] = tuple.getValue();
                     i++;
                 }
 
+                // pipeline中的ZADD只能携带一个成员，按maxCommandsPerFlush与maxBytesPerFlush分块
                 for (K key : keys) {
-                    byte[] rawKey = serializeKey(template, key);
+                    byte[] rawKey = codecs.encodeKey(key);
                     for (i = 0; i < rawValues.length; i++) {
                         connection.zAdd(rawKey, scores[i], rawValues[i]);
+                        writer.sent(rawKey.length + rawValues[i].length, 1);
                     }
                     if (seconds != null) {
                         connection.expire(rawKey, seconds);
+                        writer.sent(rawKey.length, 0);
                     }
                 }
-                return null;
             }
         };
 
-        Redis.execute(template, action, true);
+        BulkWriter.execute(template, bulkWriteConfig(template), metrics, family, keys,
+                (long) keys.size() * tuples.size(), action);
     }
 
     public static final <K, V> long zAddAll(final RedisTemplate<K, V> redisTemplate, final K key,
                                             final Map<V, Double> tuples, Long expireTime, TimeUnit unit) {
+        RedisMetrics metrics = RedisMetrics.of(redisTemplate);
+        if (metrics == null) {
+            return doZAddAll(redisTemplate, key, tuples, expireTime, unit, null, null);
+        }
+        return RedisMetrics.record(metrics, "zAddAll", key, tuples, new MeteredCall<Long>() {
+            @Override
+            protected Long call() {
+                return doZAddAll(redisTemplate, key, tuples, expireTime, unit, metrics, family);
+            }
+        });
+    }
+
+    private static <K, V> long doZAddAll(final RedisTemplate<K, V> redisTemplate, final K key, final Map<V,
+            Double> tuples, Long expireTime, TimeUnit unit, RedisMetrics metrics, String family) {
         if (StringUtils.isEmpty(key) || tuples == null || tuples.size() <= 0) {
-            return 0;
+            return 0L;
         }
 
 		final Long expireSeconds = Redis.convert(expireTime, unit);
 
-		RedisCallback<Long> action = new RedisCallback<Long>() {
+		BulkWriter.Action action = new BulkWriter.Action() {
 
 			@Override
-			public Long doInRedis(RedisConnection connection) throws DataAccessException {
-				long ret = 0;
+			public void write(BulkWriter writer) {
+				RedisCodecs codecs = codecs(redisTemplate);
+				RedisConnection connection = writer.getConnection();
 
-				byte[] keyBytes = serializeKey(redisTemplate, key);
+				byte[] keyBytes = codecs.encodeKey(key);
 				for (Entry<V, Double> tuple : tuples.entrySet()) {
 					double score = tuple.getValue() == null ? 0 : tuple.getValue().doubleValue();
-					byte[] value = serializeValue(redisTemplate, tuple.getKey());
+					byte[] value = codecs.encodeValue(tuple.getKey());
 					connection.zAdd(keyBytes, score, value);
+					writer.sent(keyBytes.length + value.length, 1);
 				}
 
 				if (expireSeconds != null && expireSeconds.longValue() > 0) {
 					connection.expire(keyBytes, expireSeconds);
+					writer.sent(keyBytes.length, 0);
 				}
-				return ret;
 			}
 		};
 
-		return Redis.execute(redisTemplate, action, true);
-	}
+		BulkWriter.execute(redisTemplate, bulkWriteConfig(redisTemplate), metrics, family, key, tuples.size(),
+				action);
+		return 0L;
+    }
 
-	@SuppressWarnings("unchecked")
 	public static final <K, V, T> Set<T> zrange(RedisTemplate<K, V> redisTemplate, K key, long start, long end,
 			Class<T> clazz, boolean reverse) {
+		RedisMetrics metrics = RedisMetrics.of(redisTemplate);
+		if (metrics == null) {
+			return doZrange(redisTemplate, key, start, end, clazz, reverse, null);
+		}
+		return RedisMetrics.record(metrics, "zrange", key, null, new MeteredCall<Set<T>>() {
+			@Override
+			protected Set<T> call() {
+				return doZrange(redisTemplate, key, start, end, clazz, reverse, metrics);
+			}
+		});
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <K, V, T> Set<T> doZrange(RedisTemplate<K, V> redisTemplate, K key, long start, long end,
+			Class<T> clazz, boolean reverse, RedisMetrics metrics) {
 		if (key == null || StringUtils.isEmpty(key) || start > end) {
 			return new LinkedHashSet<T>();
 		}
 		if (reverse) {
-			return (Set<T>) redisTemplate.opsForZSet().reverseRange(key, start, end);
+			return RedisMetrics.result(metrics, (Set<T>) redisTemplate.opsForZSet().reverseRange(key, start, end));
 		}
-		return (Set<T>) redisTemplate.opsForZSet().range(key, start, end);
+		return RedisMetrics.result(metrics, (Set<T>) redisTemplate.opsForZSet().range(key, start, end));
 	}
 
-	@SuppressWarnings("unchecked")
 	public static final <K, V, T> Set<T> zrangeByScore(RedisTemplate<K, V> redisTemplate, K key, double min, double max,
 			Class<T> clazz, boolean reverse) {
+		RedisMetrics metrics = RedisMetrics.of(redisTemplate);
+		if (metrics == null) {
+			return doZrangeByScore(redisTemplate, key, min, max, clazz, reverse, null);
+		}
+		return RedisMetrics.record(metrics, "zrangeByScore", key, null, new MeteredCall<Set<T>>() {
+			@Override
+			protected Set<T> call() {
+				return doZrangeByScore(redisTemplate, key, min, max, clazz, reverse, metrics);
+			}
+		});
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <K, V, T> Set<T> doZrangeByScore(RedisTemplate<K, V> redisTemplate, K key, double min, double max,
+			Class<T> clazz, boolean reverse, RedisMetrics metrics) {
 		if (key == null || StringUtils.isEmpty(key) || min > max) {
 			return new LinkedHashSet<T>();
 		}
 
 		if (reverse) {
-			return (Set<T>) redisTemplate.opsForZSet().reverseRangeByScore(key, min, max);
+			return RedisMetrics.result(metrics, (Set<T>) redisTemplate.opsForZSet().reverseRangeByScore(key, min, max));
 		}
-		return (Set<T>) redisTemplate.opsForZSet().rangeByScore(key, min, max);
+		return RedisMetrics.result(metrics, (Set<T>) redisTemplate.opsForZSet().rangeByScore(key, min, max));
 	}
 
-	@SuppressWarnings("unchecked")
 	public static final <K, V, T> Set<T> zrangeByScore(RedisTemplate<K, V> redisTemplate, K key, double min, double max,
 			long offset, long limit, Class<T> clazz, boolean reverse) {
+		RedisMetrics metrics = RedisMetrics.of(redisTemplate);
+		if (metrics == null) {
+			return doZrangeByScore(redisTemplate, key, min, max, offset, limit, clazz, reverse, null);
+		}
+		return RedisMetrics.record(metrics, "zrangeByScore", key, null, new MeteredCall<Set<T>>() {
+			@Override
+			protected Set<T> call() {
+				return doZrangeByScore(redisTemplate, key, min, max, offset, limit, clazz, reverse, metrics);
+			}
+		});
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <K, V, T> Set<T> doZrangeByScore(RedisTemplate<K, V> redisTemplate, K key, double min, double max,
+			long offset, long limit, Class<T> clazz, boolean reverse, RedisMetrics metrics) {
 		if (StringUtils.isEmpty(key) || min > max) {
 			return new LinkedHashSet<T>();
 		}
-		if (offset < 0) {
-			offset = 0;
-		}
+		long start = offset < 0 ? 0 : offset;
 		if (reverse) {
-			return (Set<T>) redisTemplate.opsForZSet().reverseRangeByScore(key, min, max, offset, limit);
+			return RedisMetrics.result(metrics, (Set<T>) redisTemplate.opsForZSet().reverseRangeByScore(key, min, max, start, limit));
+		}
+		return RedisMetrics.result(metrics, (Set<T>) redisTemplate.opsForZSet().rangeByScore(key, min, max, start, limit));
+	}
+
+	public static final <K, V, T> Set<TypedTuple<T>> zrangeWithScore(final RedisTemplate<K, V> redisTemplate,
+			final K key, final long start, final long end, final Class<T> clazz, final boolean reverse) {
+		RedisMetrics metrics = RedisMetrics.of(redisTemplate);
+		if (metrics == null) {
+			return doZrangeWithScore(redisTemplate, key, start, end, clazz, reverse, null);
 		}
-		return (Set<T>) redisTemplate.opsForZSet().rangeByScore(key, min, max, offset, limit);
+		return RedisMetrics.record(metrics, "zrangeWithScore", key, null, new MeteredCall<Set<TypedTuple<T>>>() {
+			@Override
+			protected Set<TypedTuple<T>> call() {
+				return doZrangeWithScore(redisTemplate, key, start, end, clazz, reverse, metrics);
+			}
+		});
 	}
 
-	public static final <K, V, T> Set<TypedTuple<T>> zrangeWithScore(final RedisTemplate<K, V> redisTemplate,
-			final K key, final long start, final long end, final Class<T> clazz, final boolean reverse) {
+	private static <K, V, T> Set<TypedTuple<T>> doZrangeWithScore(final RedisTemplate<K, V> redisTemplate, final K key,
+			final long start, final long end, final Class<T> clazz, final boolean reverse, RedisMetrics metrics) {
 		if (key == null || StringUtils.isEmpty(key) || start > end) {
 			return new LinkedHashSet<TypedTuple<T>>();
 		}
 		RedisCallback<Set<TypedTuple<T>>> action = new RedisCallback<Set<TypedTuple<T>>>() {
 			@Override
 			public Set<TypedTuple<T>> doInRedis(RedisConnection connection) throws DataAccessException {
+				RedisCodecs codecs = codecs(redisTemplate);
 				Set<TypedTuple<T>> ret = new LinkedHashSet<ZSetOperations.TypedTuple<T>>();
 				Set<Tuple> tuples = null;
 				if (reverse) {
-					tuples = connection.zRevRangeWithScores(serializeKey(redisTemplate, key), start, end);
+					tuples = connection.zRevRangeWithScores(codecs.encodeKey(key), start, end);
 				} else {
-					tuples = connection.zRangeWithScores(serializeKey(redisTemplate, key), start, end);
+					tuples = connection.zRangeWithScores(codecs.encodeKey(key), start, end);
 				}
 
 				if (tuples != null && tuples.size() > 0) {
 					for (Tuple tuple : tuples) {
-						ret.add(new DefaultTypedTuple<T>(deserializeValue(redisTemplate, tuple.getValue(), clazz),
+						ret.add(new DefaultTypedTuple<T>(codecs.decodeValue(tuple.getValue(), clazz),
 								tuple.getScore()));
 					}
 				}
 				return ret;
 			}
 		};
-		return execute(redisTemplate, action, false);
+		return RedisMetrics.result(metrics, execute(redisTemplate, action, false));
 	}
 
 	public static final <K, V, T> Set<TypedTuple<T>> zrangeByScoreWithScore(final RedisTemplate<K, V> redisTemplate,
 			final K key, final double min, final double max, final Class<T> clazz, final boolean reverse) {
+		RedisMetrics metrics = RedisMetrics.of(redisTemplate);
+		if (metrics == null) {
+			return doZrangeByScoreWithScore(redisTemplate, key, min, max, clazz, reverse, null);
+		}
+		return RedisMetrics.record(metrics, "zrangeByScoreWithScore", key, null, new MeteredCall<Set<TypedTuple<T>>>() {
+			@Override
+			protected Set<TypedTuple<T>> call() {
+				return doZrangeByScoreWithScore(redisTemplate, key, min, max, clazz, reverse, metrics);
+			}
+		});
+	}
+
+	private static <K, V, T> Set<TypedTuple<T>> doZrangeByScoreWithScore(final RedisTemplate<K, V> redisTemplate,
+			final K key, final double min, final double max, final Class<T> clazz, final boolean reverse,
+			RedisMetrics metrics) {
 		if (StringUtils.isEmpty(key) || min > max) {
 			return new LinkedHashSet<TypedTuple<T>>();
 		}
@@ -860,17 +2638,18 @@ public class Redis {
 		RedisCallback<Set<TypedTuple<T>>> action = new RedisCallback<Set<TypedTuple<T>>>() {
 			@Override
 			public Set<TypedTuple<T>> doInRedis(RedisConnection connection) throws DataAccessException {
+				RedisCodecs codecs = codecs(redisTemplate);
 				Set<TypedTuple<T>> ret = new LinkedHashSet<ZSetOperations.TypedTuple<T>>();
 				Set<Tuple> tuples = null;
 				if (reverse) {
-					tuples = connection.zRevRangeByScoreWithScores(serializeKey(redisTemplate, key), min, max);
+					tuples = connection.zRevRangeByScoreWithScores(codecs.encodeKey(key), min, max);
 				} else {
-					tuples = connection.zRangeByScoreWithScores(serializeKey(redisTemplate, key), min, max);
+					tuples = connection.zRangeByScoreWithScores(codecs.encodeKey(key), min, max);
 				}
 
 				if (tuples != null && tuples.size() > 0) {
 					for (Tuple tuple : tuples) {
-						ret.add(new DefaultTypedTuple<T>(deserializeValue(redisTemplate, tuple.getValue(), clazz),
+						ret.add(new DefaultTypedTuple<T>(codecs.decodeValue(tuple.getValue(), clazz),
 								tuple.getScore()));
 					}
 				}
@@ -878,12 +2657,27 @@ public class Redis {
 			}
 		};
 
-		return execute(redisTemplate, action, false);
+		return RedisMetrics.result(metrics, execute(redisTemplate, action, false));
 	}
 
 	public static final <K, V, T> Set<TypedTuple<T>> zrangeByScoreWithScore(final RedisTemplate<K, V> redisTemplate,
 			final K key, final double min, final double max, final long offset, final long limit, final Class<T> clazz,
 			final boolean reverse) {
+		RedisMetrics metrics = RedisMetrics.of(redisTemplate);
+		if (metrics == null) {
+			return doZrangeByScoreWithScore(redisTemplate, key, min, max, offset, limit, clazz, reverse, null);
+		}
+		return RedisMetrics.record(metrics, "zrangeByScoreWithScore", key, null, new MeteredCall<Set<TypedTuple<T>>>() {
+			@Override
+			protected Set<TypedTuple<T>> call() {
+				return doZrangeByScoreWithScore(redisTemplate, key, min, max, offset, limit, clazz, reverse, metrics);
+			}
+		});
+	}
+
+	private static <K, V, T> Set<TypedTuple<T>> doZrangeByScoreWithScore(final RedisTemplate<K, V> redisTemplate,
+			final K key, final double min, final double max, final long offset, final long limit, final Class<T> clazz,
+			final boolean reverse, RedisMetrics metrics) {
 		if (StringUtils.isEmpty(key) || min > max) {
 			return new LinkedHashSet<TypedTuple<T>>();
 		}
@@ -891,19 +2685,20 @@ public class Redis {
 		RedisCallback<Set<TypedTuple<T>>> action = new RedisCallback<Set<TypedTuple<T>>>() {
 			@Override
 			public Set<TypedTuple<T>> doInRedis(RedisConnection connection) throws DataAccessException {
+				RedisCodecs codecs = codecs(redisTemplate);
 				Set<TypedTuple<T>> ret = new LinkedHashSet<ZSetOperations.TypedTuple<T>>();
 				Set<Tuple> tuples = null;
 				if (reverse) {
-					tuples = connection.zRevRangeByScoreWithScores(serializeKey(redisTemplate, key), min, max, offset,
+					tuples = connection.zRevRangeByScoreWithScores(codecs.encodeKey(key), min, max, offset,
 							limit);
 				} else {
-					tuples = connection.zRangeByScoreWithScores(serializeKey(redisTemplate, key), min, max, offset,
+					tuples = connection.zRangeByScoreWithScores(codecs.encodeKey(key), min, max, offset,
 							limit);
 				}
 
 				if (tuples != null && tuples.size() > 0) {
 					for (Tuple tuple : tuples) {
-						ret.add(new DefaultTypedTuple<T>(deserializeValue(redisTemplate, tuple.getValue(), clazz),
+						ret.add(new DefaultTypedTuple<T>(codecs.decodeValue(tuple.getValue(), clazz),
 								tuple.getScore()));
 					}
 				}
@@ -911,28 +2706,180 @@ public class Redis {
 			}
 		};
 
-		return execute(redisTemplate, action, false);
+		return RedisMetrics.result(metrics, execute(redisTemplate, action, false));
+	}
+
+	/**
+	 * 按排名查询成员为整数的有序集合，直接从原始回复解码到{@link LongScoreTuples}
+	 *
+	 * @param ret
+	 *            用于复用的结果对象，为<tt>null</tt>时新建
+	 */
+	public static final <K, V> LongScoreTuples zrangeLongsWithScore(final RedisTemplate<K, V> redisTemplate,
+			final K key, final long start, final long end, final boolean reverse, LongScoreTuples ret) {
+		RedisMetrics metrics = RedisMetrics.of(redisTemplate);
+		if (metrics == null) {
+			return doZrangeLongsWithScore(redisTemplate, key, start, end, reverse, ret);
+		}
+		return RedisMetrics.record(metrics, "zrangeLongsWithScore", key, null, new MeteredCall<LongScoreTuples>() {
+			@Override
+			protected LongScoreTuples call() {
+				return doZrangeLongsWithScore(redisTemplate, key, start, end, reverse, ret);
+			}
+		});
+	}
+
+	private static <K, V> LongScoreTuples doZrangeLongsWithScore(final RedisTemplate<K, V> redisTemplate, final K key,
+			final long start, final long end, final boolean reverse, LongScoreTuples ret) {
+		final LongScoreTuples tuples = ret == null ? new LongScoreTuples() : ret;
+		tuples.clear();
+		if (key == null || StringUtils.isEmpty(key) || start > end && end >= 0) {
+			return tuples;
+		}
+		final RedisCodecs codecs = codecs(redisTemplate);
+		RedisCallback<Object> action = new RedisCallback<Object>() {
+			@Override
+			public Object doInRedis(RedisConnection connection) throws DataAccessException {
+				return connection.execute(reverse ? "ZREVRANGE" : "ZRANGE", codecs.encodeKey(key),
+						codecs.encodeLong(start), codecs.encodeLong(end), WITHSCORES);
+			}
+		};
+		decodeLongScores(codecs, execute(redisTemplate, action, false), tuples);
+		return tuples;
+	}
+
+	/**
+	 * 按分值查询成员为整数的有序集合，直接从原始回复解码到{@link LongScoreTuples}
+	 *
+	 * @param ret
+	 *            用于复用的结果对象，为<tt>null</tt>时新建
+	 */
+	public static final <K, V> LongScoreTuples zrangeLongsByScoreWithScore(final RedisTemplate<K, V> redisTemplate,
+			final K key, final double min, final double max, final long offset, final long limit,
+			final boolean reverse, LongScoreTuples ret) {
+		RedisMetrics metrics = RedisMetrics.of(redisTemplate);
+		if (metrics == null) {
+			return doZrangeLongsByScoreWithScore(redisTemplate, key, min, max, offset, limit, reverse, ret);
+		}
+		return RedisMetrics.record(metrics, "zrangeLongsByScoreWithScore", key, null, new MeteredCall<LongScoreTuples>() {
+			@Override
+			protected LongScoreTuples call() {
+				return doZrangeLongsByScoreWithScore(redisTemplate, key, min, max, offset, limit, reverse, ret);
+			}
+		});
+	}
+
+	private static <K, V> LongScoreTuples doZrangeLongsByScoreWithScore(final RedisTemplate<K, V> redisTemplate,
+			final K key, final double min, final double max, final long offset, final long limit, final boolean reverse,
+			LongScoreTuples ret) {
+		final LongScoreTuples tuples = ret == null ? new LongScoreTuples() : ret;
+		tuples.clear();
+		if (StringUtils.isEmpty(key) || min > max) {
+			return tuples;
+		}
+		final RedisCodecs codecs = codecs(redisTemplate);
+		RedisCallback<Object> action = new RedisCallback<Object>() {
+			@Override
+			public Object doInRedis(RedisConnection connection) throws DataAccessException {
+				byte[] rawMin = encodeScore(min);
+				byte[] rawMax = encodeScore(max);
+				return connection.execute(reverse ? "ZREVRANGEBYSCORE" : "ZRANGEBYSCORE", codecs.encodeKey(key),
+						reverse ? rawMax : rawMin, reverse ? rawMin : rawMax, WITHSCORES, LIMIT,
+						codecs.encodeLong(offset < 0 ? 0 : offset), codecs.encodeLong(limit));
+			}
+		};
+		decodeLongScores(codecs, execute(redisTemplate, action, false), tuples);
+		return tuples;
+	}
+
+	private static byte[] encodeScore(double score) {
+		if (score == Double.POSITIVE_INFINITY) {
+			return "+inf".getBytes();
+		}
+		if (score == Double.NEGATIVE_INFINITY) {
+			return "-inf".getBytes();
+		}
+		return NumericCodec.encodeDouble(score);
+	}
+
+	private static double decodeScore(byte[] raw) {
+		if (NumericCodec.isNumber(raw)) {
+			return NumericCodec.decodeDouble(raw);
+		}
+		// redis以inf/-inf表示无穷大
+		return raw.length > 0 && raw[0] == '-' ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static void decodeLongScores(RedisCodecs codecs, Object reply, LongScoreTuples tuples) {
+		if (!(reply instanceof List)) {
+			return;
+		}
+		List<Object> values = (List<Object>) reply;
+		tuples.ensureCapacity(values.size() / 2);
+		for (int i = 0; i + 1 < values.size(); i += 2) {
+			tuples.add(codecs.decodeLong((byte[]) values.get(i)), decodeScore((byte[]) values.get(i + 1)));
+		}
 	}
 
 	public static final <K, V> double zIncrBy(RedisTemplate<K, V> redisTemplate, K key, V value, double delta) {
+		RedisMetrics metrics = RedisMetrics.of(redisTemplate);
+		if (metrics == null) {
+			return doZIncrBy(redisTemplate, key, value, delta);
+		}
+		return RedisMetrics.record(metrics, "zIncrBy", key, null, new MeteredCall<Double>() {
+			@Override
+			protected Double call() {
+				return doZIncrBy(redisTemplate, key, value, delta);
+			}
+		});
+	}
+
+	private static <K, V> double doZIncrBy(RedisTemplate<K, V> redisTemplate, K key, V value, double delta) {
 		if (StringUtils.isEmpty(key) || StringUtils.isEmpty(value)) {
-			return 0;
+			return 0D;
 		}
 		Double ret = redisTemplate.opsForZSet().incrementScore(key, value, delta);
 		return ret == null ? 0 : ret.doubleValue();
 	}
 
 	public static final <K, V> long zRemove(RedisTemplate<K, V> redisTemplate, K key, Collection<? extends V> values) {
+		RedisMetrics metrics = RedisMetrics.of(redisTemplate);
+		if (metrics == null) {
+			return doZRemove(redisTemplate, key, values);
+		}
+		return RedisMetrics.record(metrics, "zRemove", key, values, new MeteredCall<Long>() {
+			@Override
+			protected Long call() {
+				return doZRemove(redisTemplate, key, values);
+			}
+		});
+	}
+
+	private static <K, V> long doZRemove(RedisTemplate<K, V> redisTemplate, K key, Collection<? extends V> values) {
 		if (StringUtils.isEmpty(key) || StringUtils.isEmpty(values) || values.size() <=0) {
-			return 0;
+			return 0L;
 		}
 		Long ret = redisTemplate.opsForZSet().remove(key, values.toArray());
 		return ret == null ? 0 : ret.longValue();
 	}
 
 	public static final <K, V> long zCard(RedisTemplate<K, V> redisTemplate, K key) {
+		RedisMetrics metrics = RedisMetrics.of(redisTemplate);
+		if (metrics == null) {
+			return doZCard(redisTemplate, key);
+		}
+		return RedisMetrics.record(metrics, "zCard", key, null, new MeteredCall<Long>() {
+			@Override
+			protected Long call() {
+				return doZCard(redisTemplate, key);
+			}
+		});
+	}
+
+	private static <K, V> long doZCard(RedisTemplate<K, V> redisTemplate, K key) {
 		if (StringUtils.isEmpty(key)) {
-			return 0;
+			return 0L;
 		}
 
 		Long ret = redisTemplate.opsForZSet().zCard(key);
@@ -940,11 +2887,37 @@ public class Redis {
 	}
 
 	public static final <K, V> long zCount(RedisTemplate<K, V> redisTemplate, K key, double min, double max) {
+		RedisMetrics metrics = RedisMetrics.of(redisTemplate);
+		if (metrics == null) {
+			return doZCount(redisTemplate, key, min, max);
+		}
+		return RedisMetrics.record(metrics, "zCount", key, null, new MeteredCall<Long>() {
+			@Override
+			protected Long call() {
+				return doZCount(redisTemplate, key, min, max);
+			}
+		});
+	}
+
+	private static <K, V> long doZCount(RedisTemplate<K, V> redisTemplate, K key, double min, double max) {
 		Long count = redisTemplate.opsForZSet().count(key, min, max);
 		return count == null ? 0 : count.longValue();
 	}
 
 	public static final <K, V> long zRank(RedisTemplate<K, V> redisTemplate, K key, V value) {
+		RedisMetrics metrics = RedisMetrics.of(redisTemplate);
+		if (metrics == null) {
+			return doZRank(redisTemplate, key, value);
+		}
+		return RedisMetrics.record(metrics, "zRank", key, null, new MeteredCall<Long>() {
+			@Override
+			protected Long call() {
+				return doZRank(redisTemplate, key, value);
+			}
+		});
+	}
+
+	private static <K, V> long doZRank(RedisTemplate<K, V> redisTemplate, K key, V value) {
 		if (StringUtils.isEmpty(key) || value == null) {
 			return Long.MAX_VALUE;
 		}
@@ -955,15 +2928,26 @@ public class Redis {
 	// Map
 	public static final <K, V> long put(final RedisTemplate<K, V> redisTemplate, final K key, final Object hashKey,
 			final Object value, Long timeout, TimeUnit unit) {
-		if (StringUtils.isEmpty(key) || value == null) {
-			return 0;
+		RedisMetrics metrics = RedisMetrics.of(redisTemplate);
+		if (metrics == null) {
+			return doPut(redisTemplate, key, hashKey, value, timeout, unit, null, null);
 		}
+		return RedisMetrics.record(metrics, "put", key, null, new MeteredCall<Long>() {
+			@Override
+			protected Long call() {
+				return doPut(redisTemplate, key, hashKey, value, timeout, unit, metrics, family);
+			}
+		});
+	}
 
-		if (unit == null) {
-			unit = TimeUnit.MILLISECONDS;
+	private static <K, V> long doPut(final RedisTemplate<K, V> redisTemplate, final K key, final Object hashKey,
+			final Object value, Long timeout, TimeUnit unit, RedisMetrics metrics, String family) {
+		TimeUnit timeUnit = unit == null ? TimeUnit.MILLISECONDS : unit;
+		if (StringUtils.isEmpty(key) || value == null) {
+			return 0L;
 		}
 
-		final Long finalTimeOut = convert(timeout, unit);
+		final Long finalTimeOut = convert(timeout, timeUnit);
 
 		Long ret = 1L;
 
@@ -973,96 +2957,212 @@ public class Redis {
 			RedisCallback<Long> action = new RedisCallback<Long>() {
 				@Override
 				public Long doInRedis(RedisConnection connection) throws DataAccessException {
-					byte[] rawKey = serializeKey(redisTemplate, key);
-					long ret = connection.hSet(rawKey, serializeHashKey(redisTemplate, hashKey),
-							serializeValue(redisTemplate, value)) ? 1 : 0;
+					RedisCodecs codecs = codecs(redisTemplate);
+					byte[] rawKey = codecs.encodeKey(key);
+					long ret = connection.hSet(rawKey, codecs.encodeHashKey(hashKey),
+							codecs.encodeHashValue(value)) ? 1 : 0;
 					connection.expire(rawKey, finalTimeOut);
 					return ret;
 				}
 			};
-			ret = execute(redisTemplate, action, true);
+			ret = execute(redisTemplate, action, true, metrics, family);
 		}
+		invalidate(redisTemplate, key);
 
 		return ret == null ? 0 : ret.longValue();
 	}
 
 	public static final <K, V> long putAll(final RedisTemplate<K, V> redisTemplate, final K key,
 			final Map<Object, Object> tuples, Long timeout, TimeUnit unit) {
+		RedisMetrics metrics = RedisMetrics.of(redisTemplate);
+		if (metrics == null) {
+			return doPutAll(redisTemplate, key, tuples, timeout, unit, null, null);
+		}
+		return RedisMetrics.record(metrics, "putAll", key, tuples, new MeteredCall<Long>() {
+			@Override
+			protected Long call() {
+				return doPutAll(redisTemplate, key, tuples, timeout, unit, metrics, family);
+			}
+		});
+	}
+
+	private static <K, V> long doPutAll(final RedisTemplate<K, V> redisTemplate, final K key, final Map<Object,
+			Object> tuples, Long timeout, TimeUnit unit, RedisMetrics metrics, String family) {
 		if (StringUtils.isEmpty(key) || tuples == null || tuples.size() <= 0) {
-			return 0;
+			return 0L;
 		}
-		unit = unit == null ? TimeUnit.MILLISECONDS : unit;
-		final Long finalTimeout = convert(timeout, unit);
-		Long ret = 0L;
+		TimeUnit timeUnit = unit == null ? TimeUnit.MILLISECONDS : unit;
+		final Long finalTimeout = convert(timeout, timeUnit);
 
-		RedisCallback<Long> action = new RedisCallback<Long>() {
+		// 按maxElementsPerCommand拆为多条HMSET，最后一块之后设置过期时间
+		BulkWriter.Action action = new BulkWriter.Action() {
 			@Override
-			public Long doInRedis(RedisConnection connection) throws DataAccessException {
+			public void write(BulkWriter writer) {
+				RedisCodecs codecs = codecs(redisTemplate);
+				RedisConnection connection = writer.getConnection();
+				byte[] rawKey = codecs.encodeKey(key);
+				int maxElements = writer.getMaxElementsPerCommand();
 				Map<byte[], byte[]> values = new LinkedHashMap<byte[], byte[]>();
+				long bytes = rawKey.length;
 				for (Map.Entry<Object, Object> tuple : tuples.entrySet()) {
-					values.put(serializeHashKey(redisTemplate, tuple.getKey()),
-							serializeHashValue(redisTemplate, tuple.getValue()));
+					byte[] rawHashKey = codecs.encodeHashKey(tuple.getKey());
+					byte[] rawHashValue = codecs.encodeHashValue(tuple.getValue());
+					values.put(rawHashKey, rawHashValue);
+					bytes += rawHashKey.length + rawHashValue.length;
+					if (values.size() >= maxElements) {
+						connection.hMSet(rawKey, values);
+						writer.sent(bytes, values.size());
+						values = new LinkedHashMap<byte[], byte[]>();
+						bytes = rawKey.length;
+					}
+				}
+				if (!values.isEmpty()) {
+					connection.hMSet(rawKey, values);
+					writer.sent(bytes, values.size());
 				}
-				connection.hMSet(serializeKey(redisTemplate, key), values);
 				if (finalTimeout != null && finalTimeout.longValue() > 0) {
-					connection.expire(serializeKey(redisTemplate, key), finalTimeout);
+					connection.expire(rawKey, finalTimeout);
+					writer.sent(rawKey.length, 0);
 				}
-				return (long) tuples.size();
 			}
 		};
 
-		ret = execute(redisTemplate, action, true);
-		return ret == null ? 0 : ret.longValue();
+		BulkWriter.execute(redisTemplate, bulkWriteConfig(redisTemplate), metrics, family, key, tuples.size(),
+				action);
+		invalidate(redisTemplate, key);
+		return (long) tuples.size();
 	}
 
-	@SuppressWarnings("unchecked")
 	public static final <K, V, T> T hGet(RedisTemplate<K, V> redisTemplate, K key, Object hashKey, Class<T> clazz) {
+		RedisMetrics metrics = RedisMetrics.of(redisTemplate);
+		if (metrics == null) {
+			return doHGet(redisTemplate, key, hashKey, clazz);
+		}
+		return RedisMetrics.record(metrics, "hGet", key, null, new MeteredCall<T>() {
+			@Override
+			protected T call() {
+				return doHGet(redisTemplate, key, hashKey, clazz);
+			}
+		});
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <K, V, T> T doHGet(RedisTemplate<K, V> redisTemplate, K key, Object hashKey, Class<T> clazz) {
 		if (StringUtils.isEmpty(key) || StringUtils.isEmpty(hashKey)) {
 			return null;
 		}
 		return (T) redisTemplate.opsForHash().get(key, hashKey);
 	}
 
-	@SuppressWarnings("unchecked")
 	public static final <K, V, T> Map<Object, T> hGetAll(RedisTemplate<K, V> redisTemplate, K key, Class<T> clazz) {
+		RedisMetrics metrics = RedisMetrics.of(redisTemplate);
+		if (metrics == null) {
+			return doHGetAll(redisTemplate, key, clazz, null);
+		}
+		return RedisMetrics.record(metrics, "hGetAll", key, null, new MeteredCall<Map<Object, T>>() {
+			@Override
+			protected Map<Object, T> call() {
+				return doHGetAll(redisTemplate, key, clazz, metrics);
+			}
+		});
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <K, V, T> Map<Object, T> doHGetAll(RedisTemplate<K, V> redisTemplate, K key, Class<T> clazz,
+			RedisMetrics metrics) {
 		if (StringUtils.isEmpty(key)) {
 			return null;
 		}
 
-		return (Map<Object, T>) redisTemplate.opsForHash().entries(key);
+		return RedisMetrics.result(metrics, (Map<Object, T>) redisTemplate.opsForHash().entries(key));
 	}
 
-	@SuppressWarnings("unchecked")
 	public static final <K, V, T> List<T> hMultiGet(RedisTemplate<K, V> redisTemplate, K key,
 			Collection<Object> hashKeys, Class<T> clazz) {
+		RedisMetrics metrics = RedisMetrics.of(redisTemplate);
+		if (metrics == null) {
+			return doHMultiGet(redisTemplate, key, hashKeys, clazz, null);
+		}
+		return RedisMetrics.record(metrics, "hMultiGet", key, hashKeys, new MeteredCall<List<T>>() {
+			@Override
+			protected List<T> call() {
+				return doHMultiGet(redisTemplate, key, hashKeys, clazz, metrics);
+			}
+		});
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <K, V, T> List<T> doHMultiGet(RedisTemplate<K, V> redisTemplate, K key, Collection<Object> hashKeys,
+			Class<T> clazz, RedisMetrics metrics) {
 		if (StringUtils.isEmpty(key) || hashKeys == null || hashKeys.size() <= 0) {
 			return null;
 		}
 
 		List<T> result = (List<T>) redisTemplate.opsForHash().multiGet(key, hashKeys);
 //		result.removeAll(null);
-		return result;
+		return RedisMetrics.result(metrics, result);
 	}
 
-	@SuppressWarnings("unchecked")
 	public static final <K, V, T> Set<T> hKeys(RedisTemplate<K, V> redisTemplate, K key, Class<T> clazz) {
+		RedisMetrics metrics = RedisMetrics.of(redisTemplate);
+		if (metrics == null) {
+			return doHKeys(redisTemplate, key, clazz, null);
+		}
+		return RedisMetrics.record(metrics, "hKeys", key, null, new MeteredCall<Set<T>>() {
+			@Override
+			protected Set<T> call() {
+				return doHKeys(redisTemplate, key, clazz, metrics);
+			}
+		});
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <K, V, T> Set<T> doHKeys(RedisTemplate<K, V> redisTemplate, K key, Class<T> clazz,
+			RedisMetrics metrics) {
 		if (StringUtils.isEmpty(key)) {
 			return null;
 		}
 
-		return (Set<T>) redisTemplate.opsForHash().keys(key);
+		return RedisMetrics.result(metrics, (Set<T>) redisTemplate.opsForHash().keys(key));
 	}
 
-	@SuppressWarnings("unchecked")
 	public static final <K, V, T> Set<T> hValues(RedisTemplate<K, V> redisTemplate, K key, Class<T> clazz) {
+		RedisMetrics metrics = RedisMetrics.of(redisTemplate);
+		if (metrics == null) {
+			return doHValues(redisTemplate, key, clazz, null);
+		}
+		return RedisMetrics.record(metrics, "hValues", key, null, new MeteredCall<Set<T>>() {
+			@Override
+			protected Set<T> call() {
+				return doHValues(redisTemplate, key, clazz, metrics);
+			}
+		});
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <K, V, T> Set<T> doHValues(RedisTemplate<K, V> redisTemplate, K key, Class<T> clazz,
+			RedisMetrics metrics) {
 		if (StringUtils.isEmpty(key)) {
 			return null;
 		}
 
-		return (Set<T>) redisTemplate.opsForHash().values(key);
+		return RedisMetrics.result(metrics, (Set<T>) redisTemplate.opsForHash().values(key));
 	}
 
 	public static final <K, V> boolean hContainKey(RedisTemplate<K, V> redisTemplate, K key, Object hashKey) {
+		RedisMetrics metrics = RedisMetrics.of(redisTemplate);
+		if (metrics == null) {
+			return doHContainKey(redisTemplate, key, hashKey);
+		}
+		return RedisMetrics.record(metrics, "hContainKey", key, null, new MeteredCall<Boolean>() {
+			@Override
+			protected Boolean call() {
+				return doHContainKey(redisTemplate, key, hashKey);
+			}
+		});
+	}
+
+	private static <K, V> boolean doHContainKey(RedisTemplate<K, V> redisTemplate, K key, Object hashKey) {
 		if (StringUtils.isEmpty(key) || StringUtils.isEmpty(hashKey)) {
 			return false;
 		}
@@ -1070,6 +3170,19 @@ public class Redis {
 	}
 
 	public static final <K, V> int hDel(RedisTemplate<K, V> redisTemplate, K key, Object[] hashKeys) {
+		RedisMetrics metrics = RedisMetrics.of(redisTemplate);
+		if (metrics == null) {
+			return doHDel(redisTemplate, key, hashKeys);
+		}
+		return RedisMetrics.record(metrics, "hDel", key, hashKeys, new MeteredCall<Integer>() {
+			@Override
+			protected Integer call() {
+				return doHDel(redisTemplate, key, hashKeys);
+			}
+		});
+	}
+
+	private static <K, V> int doHDel(RedisTemplate<K, V> redisTemplate, K key, Object[] hashKeys) {
 		if (StringUtils.isEmpty(key) || hashKeys == null || hashKeys.length <= 0) {
 			return 0;
 		}
@@ -1078,8 +3191,21 @@ public class Redis {
 	}
 
 	public static final <K, V> long hLen(RedisTemplate<K, V> redisTemplate, K key) {
+		RedisMetrics metrics = RedisMetrics.of(redisTemplate);
+		if (metrics == null) {
+			return doHLen(redisTemplate, key);
+		}
+		return RedisMetrics.record(metrics, "hLen", key, null, new MeteredCall<Long>() {
+			@Override
+			protected Long call() {
+				return doHLen(redisTemplate, key);
+			}
+		});
+	}
+
+	private static <K, V> long doHLen(RedisTemplate<K, V> redisTemplate, K key) {
 		if (StringUtils.isEmpty(key)) {
-			return 0;
+			return 0L;
 		}
 
 		Long ret = redisTemplate.opsForHash().size(key);
@@ -1087,72 +3213,140 @@ public class Redis {
 	}
 
 	public static final <K, V> long incrBy(RedisTemplate<K, V> redisTemplate, K key, long delta) {
-		return redisTemplate.opsForValue().increment(key, delta);
+		RedisMetrics metrics = RedisMetrics.of(redisTemplate);
+		if (metrics == null) {
+			return doIncrBy(redisTemplate, key, delta);
+		}
+		return RedisMetrics.record(metrics, "incrBy", key, null, new MeteredCall<Long>() {
+			@Override
+			protected Long call() {
+				return doIncrBy(redisTemplate, key, delta);
+			}
+		});
 	}
 
-	public static final <K, V> long incrBy(RedisTemplate<K, V> redisTemplate, K key, long delta, Long timeout,
-			TimeUnit unit) {
+	private static <K, V> long doIncrBy(RedisTemplate<K, V> redisTemplate, K key, long delta) {
+		Long ret = redisTemplate.opsForValue().increment(key, delta);
+		invalidate(redisTemplate, key);
+		return ret;
+	}
+
+	/**
+	 * 累加，key原本不存在时同时设置过期时间；在一个脚本中原子完成，只需一次往返
+	 */
+	public static final <K, V> long incrBy(final RedisTemplate<K, V> redisTemplate, final K key, final long delta,
+			Long timeout, TimeUnit unit) {
 		if (key == null) {
 			return 0L;
 		}
-		boolean first = true;
-		if (hasKey(redisTemplate, key)) {
-			first = false;
+		if (timeout == null) {
+			return incrBy(redisTemplate, key, delta);
 		}
-		Long val = incrBy(redisTemplate, key, delta);
-		if (first) {
-			expire(redisTemplate, key, timeout, unit);
+		RedisMetrics metrics = RedisMetrics.of(redisTemplate);
+		if (metrics == null) {
+			return doIncrBy(redisTemplate, key, delta, timeout, unit);
 		}
-		return val.longValue();
+		return RedisMetrics.record(metrics, "incrBy", key, null, new MeteredCall<Long>() {
+			@Override
+			protected Long call() {
+				return doIncrBy(redisTemplate, key, delta, timeout, unit);
+			}
+		});
 	}
 
-	public static <K, V> void expire(RedisTemplate<K, V> redisTemplate, K key, Long timeout, TimeUnit unit) {
-		if (unit == null) {
-			unit = TimeUnit.MILLISECONDS;
-		}
-		redisTemplate.expire(key, timeout, unit);
+	private static <K, V> long doIncrBy(final RedisTemplate<K, V> redisTemplate, final K key, final long delta,
+			Long timeout, TimeUnit unit) {
+		final byte[] rawTimeout = NumericCodec.encodeLong(toMillis(timeout, unit));
+		RedisCallback<Long> action = new RedisCallback<Long>() {
+			@Override
+			public Long doInRedis(RedisConnection connection) throws DataAccessException {
+				RedisCodecs codecs = codecs(redisTemplate);
+				return RedisScripts.INCRBY_EXPIRE_ON_CREATE.execute(connection, 1, codecs.encodeKey(key),
+						NumericCodec.encodeLong(delta), rawTimeout);
+			}
+		};
+		Long ret = execute(redisTemplate, action, false);
+		invalidate(redisTemplate, key);
+		return ret == null ? 0L : ret.longValue();
+	}
+
+	/**
+	 * 向列表写入多个元素，列表原本不存在时同时设置过期时间（已存在的列表不刷新过期时间）；在一个脚本中原子完成
+	 *
+	 * @param left
+	 *            true：LPUSH；false：RPUSH
+	 * @return 写入后列表的长度
+	 */
+	public static final <K, V> long pushExpireOnCreate(final RedisTemplate<K, V> redisTemplate, final K key,
+			final boolean left, Long timeout, TimeUnit unit, final Object... values) {
+		RedisMetrics metrics = RedisMetrics.of(redisTemplate);
+		if (metrics == null) {
+			return doPushExpireOnCreate(redisTemplate, key, left, timeout, unit, values);
+		}
+		return RedisMetrics.record(metrics, "pushExpireOnCreate", key, values, new MeteredCall<Long>() {
+			@Override
+			protected Long call() {
+				return doPushExpireOnCreate(redisTemplate, key, left, timeout, unit, values);
+			}
+		});
 	}
 
-	// Serializer
-	@SuppressWarnings("unchecked")
-	private static final <K, V> byte[] serializeKey(RedisTemplate<K, V> redisTemplate, Object key) {
-		RedisSerializer serializer = redisTemplate.getKeySerializer();
-		serializer = serializer == null ? redisTemplate.getStringSerializer() : serializer;
-		return serializer.serialize(key);
+	private static <K, V> long doPushExpireOnCreate(final RedisTemplate<K, V> redisTemplate, final K key,
+			final boolean left, Long timeout, TimeUnit unit, final Object... values) {
+		if (StringUtils.isEmpty(key) || values == null || values.length <= 0) {
+			return 0L;
+		}
+		final Long timeoutMillis = timeout == null ? null : toMillis(timeout, unit);
+		RedisCallback<Long> action = new RedisCallback<Long>() {
+			@Override
+			public Long doInRedis(RedisConnection connection) throws DataAccessException {
+				RedisCodecs codecs = codecs(redisTemplate);
+				byte[] rawKey = codecs.encodeKey(key);
+				if (timeoutMillis == null) {
+					byte[][] rawValues = new byte[values.length][];
+					for (int i = 0; i < values.length; i++) {
+						rawValues[i] = codecs.encodeValue(values[i]);
+					}
+					return left ? connection.lPush(rawKey, rawValues) : connection.rPush(rawKey, rawValues);
+				}
+				byte[][] keysAndArgs = new byte[values.length + 3][];
+				keysAndArgs[0] = rawKey;
+				keysAndArgs[1] = codecs.encodeString(left ? "LPUSH" : "RPUSH");
+				keysAndArgs[2] = NumericCodec.encodeLong(timeoutMillis);
+				for (int i = 0; i < values.length; i++) {
+					keysAndArgs[i + 3] = codecs.encodeValue(values[i]);
+				}
+				return RedisScripts.PUSH_EXPIRE_ON_CREATE.execute(connection, 1, keysAndArgs);
+			}
+		};
+		Long ret = execute(redisTemplate, action, false);
+		return ret == null ? 0L : ret.longValue();
 	}
 
-	@SuppressWarnings("unchecked")
-	private static final <K, V> byte[] serializeValue(RedisTemplate<K, V> redisTemplate, Object value) {
-		RedisSerializer serializer = redisTemplate.getValueSerializer();
-		serializer = serializer == null ? redisTemplate.getDefaultSerializer() : serializer;
-		return serializer.serialize(value);
+	private static long toMillis(long timeout, TimeUnit unit) {
+		long millis = (unit == null ? TimeUnit.MILLISECONDS : unit).toMillis(timeout);
+		return millis <= 0 ? 1 : millis;
 	}
 
-	@SuppressWarnings("unchecked")
-	private static final <K, V, T> T deserializeValue(RedisTemplate<K, V> redisTemplate, byte[] value, Class<T> clazz) {
-		if (value == null || value.length <= 0) {
-			return null;
-		}
-		if (clazz == String.class) {
-			return (T) redisTemplate.getStringSerializer().deserialize(value);
+	public static <K, V> void expire(RedisTemplate<K, V> redisTemplate, K key, Long timeout, TimeUnit unit) {
+		RedisMetrics metrics = RedisMetrics.of(redisTemplate);
+		if (metrics == null) {
+			doExpire(redisTemplate, key, timeout, unit);
+			return;
 		}
-		RedisSerializer serializer = redisTemplate.getValueSerializer();
-		serializer = serializer == null ? redisTemplate.getDefaultSerializer() : serializer;
-		return (T) serializer.deserialize(value);
-	}
-
-	@SuppressWarnings("unchecked")
-	private static final <K, V> byte[] serializeHashKey(RedisTemplate<K, V> redisTemplate, Object hashKey) {
-		RedisSerializer serializer = redisTemplate.getHashKeySerializer();
-		serializer = serializer == null ? redisTemplate.getDefaultSerializer() : serializer;
-		return serializer.serialize(hashKey);
+		RedisMetrics.record(metrics, "expire", key, null, new MeteredCall<Void>() {
+			@Override
+			protected Void call() {
+				doExpire(redisTemplate, key, timeout, unit);
+				return null;
+			}
+		});
 	}
 
-	@SuppressWarnings("unchecked")
-	private static final <K, V> byte[] serializeHashValue(RedisTemplate<K, V> redisTemplate, Object hashValue) {
-		RedisSerializer serializer = redisTemplate.getHashValueSerializer();
-		serializer = serializer == null ? redisTemplate.getDefaultSerializer() : serializer;
-		return serializer.serialize(hashValue);
+	private static <K, V> void doExpire(RedisTemplate<K, V> redisTemplate, K key, Long timeout, TimeUnit unit) {
+		TimeUnit timeUnit = unit == null ? TimeUnit.MILLISECONDS : unit;
+		redisTemplate.expire(key, timeout, timeUnit);
+		invalidate(redisTemplate, key);
 	}
 
 	public static <K, V> boolean zContains(RedisTemplate<K, V> redisTemplate, K key, V value) {
@@ -1164,6 +3358,19 @@ public class Redis {
 	}
 
 	public static <K, V> double zScore(RedisTemplate<K, V> redisTemplate, K key, V value) {
+		RedisMetrics metrics = RedisMetrics.of(redisTemplate);
+		if (metrics == null) {
+			return doZScore(redisTemplate, key, value);
+		}
+		return RedisMetrics.record(metrics, "zScore", key, null, new MeteredCall<Double>() {
+			@Override
+			protected Double call() {
+				return doZScore(redisTemplate, key, value);
+			}
+		});
+	}
+
+	private static <K, V> double doZScore(RedisTemplate<K, V> redisTemplate, K key, V value) {
 		if (StringUtils.isEmpty(key) || StringUtils.isEmpty(value)) {
 			return Double.MIN_VALUE;
 		}
@@ -1172,14 +3379,43 @@ public class Redis {
 	}
 
 	public static <K, V> long ttl(RedisTemplate<K, V> redisTemplate, K key) {
+		RedisMetrics metrics = RedisMetrics.of(redisTemplate);
+		if (metrics == null) {
+			return doTtl(redisTemplate, key);
+		}
+		return RedisMetrics.record(metrics, "ttl", key, null, new MeteredCall<Long>() {
+			@Override
+			protected Long call() {
+				return doTtl(redisTemplate, key);
+			}
+		});
+	}
+
+	private static <K, V> long doTtl(RedisTemplate<K, V> redisTemplate, K key) {
 		if (StringUtils.isEmpty(key)) {
-			return -1;
+			return -1L;
 		}
 		Long ttl = redisTemplate.getExpire(key);
 		return ttl == null ? -1 : ttl.longValue();
 	}
 
 	public static <K, V> void delFromZSets(final RedisTemplate<K, V> redisTemplate, final Collection<K> keys, final V value) {
+		RedisMetrics metrics = RedisMetrics.of(redisTemplate);
+		if (metrics == null) {
+			doDelFromZSets(redisTemplate, keys, value, null, null);
+			return;
+		}
+		RedisMetrics.record(metrics, "delFromZSets", keys, null, new MeteredCall<Void>() {
+			@Override
+			protected Void call() {
+				doDelFromZSets(redisTemplate, keys, value, metrics, family);
+				return null;
+			}
+		});
+	}
+
+	private static <K, V> void doDelFromZSets(final RedisTemplate<K, V> redisTemplate, final Collection<K> keys,
+			final V value, RedisMetrics metrics, String family) {
 		if (keys == null || keys.size() <= 0 || value == null) {
 			return;
 		}
@@ -1187,41 +3423,74 @@ public class Redis {
 		RedisCallback<Long> action = new RedisCallback<Long>() {
 			@Override
 			public Long doInRedis(RedisConnection connection) throws DataAccessException {
-				byte[] rawValue = serializeValue(redisTemplate, value);
+				RedisCodecs codecs = codecs(redisTemplate);
+				byte[] rawValue = codecs.encodeValue(value);
 				for (K key : keys) {
-					connection.zRem(serializeKey(redisTemplate, key), rawValue);
+					connection.zRem(codecs.encodeKey(key), rawValue);
 				}
 				return null;
 			}
 		};
-		execute(redisTemplate, action, true);
+		execute(redisTemplate, action, true, metrics, family);
 	}
 
 	public static <K, V> void delAllFromZSets(final RedisTemplate<K, V> redisTemplate, final Collection<K> keys, final Collection<V> values) {
+		RedisMetrics metrics = RedisMetrics.of(redisTemplate);
+		if (metrics == null) {
+			doDelAllFromZSets(redisTemplate, keys, values, null, null);
+			return;
+		}
+		RedisMetrics.record(metrics, "delAllFromZSets", keys, values, new MeteredCall<Void>() {
+			@Override
+			protected Void call() {
+				doDelAllFromZSets(redisTemplate, keys, values, metrics, family);
+				return null;
+			}
+		});
+	}
+
+	private static <K, V> void doDelAllFromZSets(final RedisTemplate<K, V> redisTemplate, final Collection<K> keys,
+			final Collection<V> values, RedisMetrics metrics, String family) {
 		if (keys == null || keys.size() <= 0 || values == null || values.size() <= 0) {
 			return;
 		}
 		RedisCallback<Long> action = new RedisCallback<Long>() {
 			@Override
 			public Long doInRedis(RedisConnection connection) throws DataAccessException {
+				RedisCodecs codecs = codecs(redisTemplate);
 				byte[][] rawValues = new byte[values.size()][];
 				int i = 0;
 				for (V value : values) {
-					rawValues[i++] = serializeValue(redisTemplate, value);
+					rawValues[i++] = codecs.encodeValue(value);
 				}
 				for (K key : keys) {
-					connection.zRem(serializeKey(redisTemplate, key), rawValues);
+					connection.zRem(codecs.encodeKey(key), rawValues);
 				}
 				return null;
 			}
 		};
-		execute(redisTemplate, action, true);
+		execute(redisTemplate, action, true, metrics, family);
 	}
 
 	public static final <K, V> double hIncrBy(final RedisTemplate<K, V> redisTemplate, final K key, final Object hashKey, final double delta) {
+		RedisMetrics metrics = RedisMetrics.of(redisTemplate);
+		if (metrics == null) {
+			return doHIncrBy(redisTemplate, key, hashKey, delta);
+		}
+		return RedisMetrics.record(metrics, "hIncrBy", key, null, new MeteredCall<Double>() {
+			@Override
+			protected Double call() {
+				return doHIncrBy(redisTemplate, key, hashKey, delta);
+			}
+		});
+	}
+
+	private static <K, V> double doHIncrBy(final RedisTemplate<K, V> redisTemplate, final K key, final Object hashKey,
+			final double delta) {
 		if(StringUtils.isEmpty(key) || StringUtils.isEmpty(hashKey)) {
-			return -1;
+			return -1D;
 		}
-		return redisTemplate.opsForHash().increment(key, hashKey, delta);
+		Double ret = redisTemplate.opsForHash().increment(key, hashKey, delta);
+		return ret;
 	}
 }
@@ -0,0 +1,136 @@
+package com.easycode.redis.server;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.data.redis.core.RedisTemplate;
+
+import com.easycode.redis.server.batch.BulkWriteConfig;
+import com.easycode.redis.server.batch.CounterAggregator;
+import com.easycode.redis.server.batch.GetCoalescer;
+import com.easycode.redis.server.codec.RedisCodecs;
+import com.easycode.redis.server.cache.InvalidationBus;
+import com.easycode.redis.server.cache.NearCache;
+import com.easycode.redis.server.lock.LocalLockQueue;
+import com.easycode.redis.server.metrics.RedisMetrics;
+
+/**
+ * 与某个RedisTemplate绑定的客户端扩展状态（近端缓存、GET合并等），{@link Redis}在各入口按需查找，未开启时不产生额外开销
+ */
+public final class RedisContext {
+
+	private static final ConcurrentMap<RedisTemplate<?, ?>, RedisContext> CONTEXTS = new ConcurrentHashMap<RedisTemplate<?, ?>, RedisContext>();
+
+	private volatile RedisCodecs codecs;
+
+	private volatile NearCache nearCache;
+
+	private volatile InvalidationBus invalidationBus;
+
+	private volatile GetCoalescer getCoalescer;
+
+	private volatile boolean spopCountUnsupported;
+
+	private volatile LocalLockQueue localLockQueue;
+
+	private volatile CounterAggregator counterAggregator;
+
+	private volatile RedisMetrics metrics;
+
+	private volatile BulkWriteConfig bulkWriteConfig;
+
+	private RedisContext() {
+	}
+
+	public static RedisContext get(RedisTemplate<?, ?> redisTemplate) {
+		if (redisTemplate == null) {
+			return null;
+		}
+		return CONTEXTS.get(redisTemplate);
+	}
+
+	public static RedisContext getOrCreate(RedisTemplate<?, ?> redisTemplate) {
+		RedisContext context = CONTEXTS.get(redisTemplate);
+		if (context != null) {
+			return context;
+		}
+		context = new RedisContext();
+		RedisContext existing = CONTEXTS.putIfAbsent(redisTemplate, context);
+		return existing == null ? context : existing;
+	}
+
+	public RedisCodecs getCodecs() {
+		return codecs;
+	}
+
+	public void setCodecs(RedisCodecs codecs) {
+		this.codecs = codecs;
+	}
+
+	public NearCache getNearCache() {
+		return nearCache;
+	}
+
+	public void setNearCache(NearCache nearCache) {
+		this.nearCache = nearCache;
+	}
+
+	public InvalidationBus getInvalidationBus() {
+		return invalidationBus;
+	}
+
+	public void setInvalidationBus(InvalidationBus invalidationBus) {
+		this.invalidationBus = invalidationBus;
+	}
+
+	public GetCoalescer getGetCoalescer() {
+		return getCoalescer;
+	}
+
+	public void setGetCoalescer(GetCoalescer getCoalescer) {
+		this.getCoalescer = getCoalescer;
+	}
+
+	public LocalLockQueue getLocalLockQueue() {
+		return localLockQueue;
+	}
+
+	public void setLocalLockQueue(LocalLockQueue localLockQueue) {
+		this.localLockQueue = localLockQueue;
+	}
+
+	public CounterAggregator getCounterAggregator() {
+		return counterAggregator;
+	}
+
+	public void setCounterAggregator(CounterAggregator counterAggregator) {
+		this.counterAggregator = counterAggregator;
+	}
+
+	public RedisMetrics getMetrics() {
+		return metrics;
+	}
+
+	public void setMetrics(RedisMetrics metrics) {
+		this.metrics = metrics;
+	}
+
+	public BulkWriteConfig getBulkWriteConfig() {
+		return bulkWriteConfig;
+	}
+
+	public void setBulkWriteConfig(BulkWriteConfig bulkWriteConfig) {
+		this.bulkWriteConfig = bulkWriteConfig;
+	}
+
+	/**
+	 * 服务端是否不支持<tt>SPOP key count</tt>（redis 3.2以前），首次探测失败后记录，避免每次重试
+	 */
+	public boolean isSpopCountUnsupported() {
+		return spopCountUnsupported;
+	}
+
+	public void setSpopCountUnsupported(boolean spopCountUnsupported) {
+		this.spopCountUnsupported = spopCountUnsupported;
+	}
+}
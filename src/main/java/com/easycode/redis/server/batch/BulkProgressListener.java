@@ -0,0 +1,21 @@
+package com.easycode.redis.server.batch;
+
+/**
+ * 批量写入的进度回调，在执行写入的线程中调用；抛出异常时中止写入，已写入的块不会回滚
+ */
+public interface BulkProgressListener {
+
+	/**
+	 * 一块的回复全部读取后调用
+	 * 
+	 * @param operation
+	 *            批量方法名，如multiSet、zAddAll
+	 * @param key
+	 *            写入的key，addAllToZSets为key的集合，multiSet为<tt>null</tt>
+	 * @param written
+	 *            已写入的元素数（键值对、成员或field）
+	 * @param total
+	 *            元素总数
+	 */
+	void onProgress(String operation, Object key, long written, long total);
+}
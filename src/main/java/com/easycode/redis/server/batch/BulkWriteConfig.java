@@ -0,0 +1,63 @@
+package com.easycode.redis.server.batch;
+
+/**
+ * 批量写入（multiSet、saddAll、zAddAll、putAll、addAllToZSets）的分块配置，各项不大于0时不限制
+ */
+public class BulkWriteConfig {
+
+	private int maxCommandsPerFlush = 1000;
+
+	private long maxBytesPerFlush = 1024L * 1024L;
+
+	private int maxElementsPerCommand = 1000;
+
+	private BulkProgressListener progressListener;
+
+	public int getMaxCommandsPerFlush() {
+		return maxCommandsPerFlush;
+	}
+
+	/**
+	 * @param maxCommandsPerFlush
+	 *            一次pipeline最多发出的命令数，达到后读取这一块的回复再继续
+	 */
+	public void setMaxCommandsPerFlush(int maxCommandsPerFlush) {
+		this.maxCommandsPerFlush = maxCommandsPerFlush;
+	}
+
+	public long getMaxBytesPerFlush() {
+		return maxBytesPerFlush;
+	}
+
+	/**
+	 * @param maxBytesPerFlush
+	 *            一次pipeline最多发出的key与value字节数
+	 */
+	public void setMaxBytesPerFlush(long maxBytesPerFlush) {
+		this.maxBytesPerFlush = maxBytesPerFlush;
+	}
+
+	public int getMaxElementsPerCommand() {
+		return maxElementsPerCommand;
+	}
+
+	/**
+	 * @param maxElementsPerCommand
+	 *            MSET、SADD、HMSET等多参数命令一次携带的元素数，超出时拆为多条命令，避免单条命令长时间阻塞redis
+	 */
+	public void setMaxElementsPerCommand(int maxElementsPerCommand) {
+		this.maxElementsPerCommand = maxElementsPerCommand;
+	}
+
+	public BulkProgressListener getProgressListener() {
+		return progressListener;
+	}
+
+	/**
+	 * @param progressListener
+	 *            每写完一块后回调，用于大批量导入时报告进度
+	 */
+	public void setProgressListener(BulkProgressListener progressListener) {
+		this.progressListener = progressListener;
+	}
+}
@@ -0,0 +1,150 @@
+package com.easycode.redis.server.batch;
+
+import java.util.List;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import com.easycode.redis.server.metrics.RedisMetrics;
+
+/**
+ * 分块pipeline：在同一个连接上发出命令，命令数或字节数达到{@link BulkWriteConfig}的上限时关闭pipeline读取这一块的回复，
+ * 再打开新的pipeline继续写入。客户端缓存的命令与回复、redis的输出缓冲都只有一块大小，各块之间不保证原子性。
+ */
+public final class BulkWriter {
+
+	/**
+	 * 向writer的连接写入命令，每条命令后调用{@link BulkWriter#sent(long, long)}
+	 */
+	public interface Action {
+
+		void write(BulkWriter writer);
+	}
+
+	private final RedisConnection connection;
+
+	private final BulkWriteConfig config;
+
+	private final RedisMetrics metrics;
+
+	private final String operation;
+
+	private final Object key;
+
+	private final long total;
+
+	private boolean pipelined;
+
+	private int commands;
+
+	private long bytes;
+
+	private long elements;
+
+	private long written;
+
+	private BulkWriter(RedisConnection connection, BulkWriteConfig config, RedisMetrics metrics, String operation,
+			Object key, long total) {
+		this.connection = connection;
+		this.config = config;
+		this.metrics = metrics;
+		this.operation = operation;
+		this.key = key;
+		this.total = total;
+	}
+
+	/**
+	 * 借一个连接分块执行action，返回前读取最后一块的回复
+	 * 
+	 * @param operation
+	 *            批量方法名，用于指标与进度回调
+	 * @param key
+	 *            进度回调中的key
+	 * @param total
+	 *            元素总数
+	 */
+	public static void execute(RedisTemplate<?, ?> redisTemplate, final BulkWriteConfig config,
+			final RedisMetrics metrics, final String operation, final Object key, final long total,
+			final Action action) {
+		redisTemplate.execute(new RedisCallback<Object>() {
+			@Override
+			public Object doInRedis(RedisConnection connection) throws DataAccessException {
+				BulkWriter writer = new BulkWriter(connection, config, metrics, operation, key, total);
+				writer.open();
+				try {
+					action.write(writer);
+					writer.flush(false);
+				} finally {
+					if (writer.pipelined) {
+						writer.pipelined = false;
+						connection.closePipeline();
+					}
+				}
+				return null;
+			}
+		});
+	}
+
+	public RedisConnection getConnection() {
+		return connection;
+	}
+
+	/**
+	 * 多参数命令一次最多携带的元素数
+	 */
+	public int getMaxElementsPerCommand() {
+		return config.getMaxElementsPerCommand() > 0 ? config.getMaxElementsPerCommand() : Integer.MAX_VALUE;
+	}
+
+	/**
+	 * 记录刚发出的一条命令，达到分块上限时读取这一块的回复
+	 * 
+	 * @param bytes
+	 *            命令携带的key与value字节数
+	 * @param elements
+	 *            命令写入的元素数，EXPIRE等附带命令为0
+	 */
+	public void sent(long bytes, long elements) {
+		this.commands++;
+		this.bytes += bytes;
+		this.elements += elements;
+		if ((config.getMaxCommandsPerFlush() > 0 && commands >= config.getMaxCommandsPerFlush())
+				|| (config.getMaxBytesPerFlush() > 0 && this.bytes >= config.getMaxBytesPerFlush())) {
+			flush(true);
+		}
+	}
+
+	/**
+	 * 记录跳过的元素（如空值），只计入进度
+	 */
+	public void skipped(long elements) {
+		this.elements += elements;
+	}
+
+	private void open() {
+		connection.openPipeline();
+		pipelined = true;
+	}
+
+	private void flush(boolean reopen) {
+		pipelined = false;
+		List<Object> results = connection.closePipeline();
+		if (metrics != null && commands > 0) {
+			metrics.recordPipeline(operation, results == null ? 0 : results.size());
+		}
+		boolean progressed = elements > 0;
+		written += elements;
+		commands = 0;
+		bytes = 0;
+		elements = 0;
+		BulkProgressListener listener = config.getProgressListener();
+		if (progressed && listener != null) {
+			listener.onProgress(operation, key, written, total);
+		}
+		if (reopen) {
+			open();
+		}
+	}
+}
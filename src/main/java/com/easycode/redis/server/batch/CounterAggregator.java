@@ -0,0 +1,461 @@
+package com.easycode.redis.server.batch;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisPipelineException;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import com.easycode.redis.server.Redis;
+import com.easycode.redis.server.RedisContext;
+import com.easycode.redis.server.cache.InvalidationBus;
+import com.easycode.redis.server.cache.NearCache;
+import com.easycode.redis.server.codec.RedisCodecs;
+
+/**
+ * 计数类写操作的本地聚合（write-behind）。
+ * <p>
+ * INCRBY、HINCRBYFLOAT、ZINCRBY的增量按(key, field/member)累加在本地的LongAdder/DoubleAdder中，后台线程每隔
+ * {@link CounterAggregatorConfig#getFlushIntervalMillis()}，或本地计数器个数达到{@link CounterAggregatorConfig#getMaxPendingCounters()}时，
+ * 在一个pipeline中把所有增量写入redis。尚未刷新的增量在redis中不可见，最多滞后一个刷新周期；{@link #stop()}与JVM关闭时会刷新剩余增量。
+ * <p>
+ * 刷新时先切换到新的一代计数器，再等待旧一代上进行中的累加结束，累加路径不加锁且增量不会丢失。
+ * 进行中的累加按线程分段计数，命中已有计数器时累加路径不分配对象。
+ * <p>
+ * 只有未能获取连接时才会把增量合并回当前一代、下次重试；命令已经开始发送后的任何失败都可能已部分生效，
+ * 为避免重复累加，丢弃该批增量并计入{@link CounterAggregatorStats#getDroppedRequests()}。
+ */
+public class CounterAggregator {
+
+	private static final Logger logger = LoggerFactory.getLogger(CounterAggregator.class);
+
+	private static final byte INCRBY = 0;
+
+	private static final byte HINCRBYFLOAT = 1;
+
+	private static final byte ZINCRBY = 2;
+
+	private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+	private static final int WRITER_STRIPES = Math.max(2,
+			Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1) << 1);
+
+	/**
+	 * 每个分段计数占一个缓存行，避免伪共享
+	 */
+	private static final int WRITER_PADDING = 16;
+
+	private final RedisTemplate<?, ?> redisTemplate;
+
+	private final long flushIntervalMillis;
+
+	private final int maxPendingCounters;
+
+	private volatile Epoch current = new Epoch();
+
+	private final ReentrantLock flushLock = new ReentrantLock();
+
+	private final AtomicBoolean flushRequested = new AtomicBoolean();
+
+	private final LongAdder requests = new LongAdder();
+
+	private final LongAdder flushedRequests = new LongAdder();
+
+	private final LongAdder flushedCommands = new LongAdder();
+
+	private final LongAdder flushes = new LongAdder();
+
+	private final LongAdder failedFlushes = new LongAdder();
+
+	private final LongAdder droppedRequests = new LongAdder();
+
+	private ScheduledExecutorService flusher;
+
+	private Thread shutdownHook;
+
+	public CounterAggregator(RedisTemplate<?, ?> redisTemplate, CounterAggregatorConfig config) {
+		if (config == null) {
+			config = new CounterAggregatorConfig();
+		}
+		this.redisTemplate = redisTemplate;
+		this.flushIntervalMillis = config.getFlushIntervalMillis() <= 0 ? 100L : config.getFlushIntervalMillis();
+		this.maxPendingCounters = config.getMaxPendingCounters() <= 0 ? Integer.MAX_VALUE : config
+				.getMaxPendingCounters();
+	}
+
+	public synchronized void start() {
+		if (flusher != null) {
+			return;
+		}
+		flusher = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread thread = new Thread(r, "redis-counter-aggregator-" + THREAD_COUNT.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		flusher.scheduleWithFixedDelay(new Runnable() {
+			@Override
+			public void run() {
+				flushQuietly();
+			}
+		}, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+		shutdownHook = new Thread("redis-counter-aggregator-shutdown") {
+			@Override
+			public void run() {
+				flushQuietly();
+			}
+		};
+		Runtime.getRuntime().addShutdownHook(shutdownHook);
+	}
+
+	/**
+	 * 停止后台刷新，并把剩余增量写入redis
+	 */
+	public synchronized void stop() {
+		if (flusher == null) {
+			return;
+		}
+		flusher.shutdown();
+		flusher = null;
+		try {
+			Runtime.getRuntime().removeShutdownHook(shutdownHook);
+		} catch (IllegalStateException e) {
+			// JVM正在关闭，由shutdown hook负责刷新
+		}
+		shutdownHook = null;
+		flush();
+	}
+
+	public void incrBy(Object key, long delta) {
+		requests.increment();
+		addLong(key, delta, 1);
+	}
+
+	public void hIncrBy(Object key, Object hashKey, double delta) {
+		requests.increment();
+		addDouble(HINCRBYFLOAT, key, hashKey, delta, 1);
+	}
+
+	public void zIncrBy(Object key, Object member, double delta) {
+		requests.increment();
+		addDouble(ZINCRBY, key, member, delta, 1);
+	}
+
+	public CounterAggregatorStats getStats() {
+		return new CounterAggregatorStats(requests.sum(), flushedRequests.sum(), flushedCommands.sum(),
+				flushes.sum(), failedFlushes.sum(), droppedRequests.sum());
+	}
+
+	/**
+	 * 立即把当前累积的增量写入redis
+	 */
+	public void flush() {
+		flushLock.lock();
+		try {
+			flushRequested.set(false);
+			Epoch epoch = current;
+			if (epoch.isEmpty()) {
+				return;
+			}
+			current = new Epoch();
+			// 等待在切换前进入旧一代的累加完成
+			epoch.awaitWriters();
+			write(epoch);
+		} finally {
+			flushLock.unlock();
+		}
+	}
+
+	private void flushQuietly() {
+		try {
+			flush();
+		} catch (Throwable e) {
+			logger.warn("failed to flush redis counters", e);
+		}
+	}
+
+	private void addLong(Object key, long delta, long count) {
+		int stripe = writerStripe();
+		while (true) {
+			Epoch epoch = enter(stripe);
+			try {
+				if (epoch != current) {
+					continue;
+				}
+				LongAdder adder = epoch.longs.get(key);
+				if (adder == null) {
+					LongAdder created = new LongAdder();
+					adder = epoch.longs.putIfAbsent(key, created);
+					if (adder == null) {
+						adder = created;
+						counterCreated(epoch);
+					}
+				}
+				adder.add(delta);
+				epoch.requests.add(count);
+				return;
+			} finally {
+				epoch.exit(stripe);
+			}
+		}
+	}
+
+	private void addDouble(byte type, Object key, Object field, double delta, long count) {
+		int stripe = writerStripe();
+		while (true) {
+			Epoch epoch = enter(stripe);
+			try {
+				if (epoch != current) {
+					continue;
+				}
+				ConcurrentMap<Object, ConcurrentMap<Object, DoubleAdder>> counters = type == HINCRBYFLOAT ? epoch.hashes
+						: epoch.zsets;
+				ConcurrentMap<Object, DoubleAdder> fields = counters.get(key);
+				if (fields == null) {
+					ConcurrentMap<Object, DoubleAdder> created = new ConcurrentHashMap<Object, DoubleAdder>();
+					fields = counters.putIfAbsent(key, created);
+					if (fields == null) {
+						fields = created;
+					}
+				}
+				DoubleAdder adder = fields.get(field);
+				if (adder == null) {
+					DoubleAdder created = new DoubleAdder();
+					adder = fields.putIfAbsent(field, created);
+					if (adder == null) {
+						adder = created;
+						counterCreated(epoch);
+					}
+				}
+				adder.add(delta);
+				epoch.requests.add(count);
+				return;
+			} finally {
+				epoch.exit(stripe);
+			}
+		}
+	}
+
+	private Epoch enter(int stripe) {
+		Epoch epoch = current;
+		epoch.writers.incrementAndGet(stripe);
+		return epoch;
+	}
+
+	private void counterCreated(Epoch epoch) {
+		if (epoch.size.incrementAndGet() >= maxPendingCounters) {
+			requestFlush();
+		}
+	}
+
+	private static int writerStripe() {
+		long id = Thread.currentThread().getId();
+		return (int) ((id ^ (id >>> 16)) & (WRITER_STRIPES - 1)) * WRITER_PADDING;
+	}
+
+	private void requestFlush() {
+		ScheduledExecutorService executor = flusher;
+		if (executor == null || !flushRequested.compareAndSet(false, true)) {
+			return;
+		}
+		try {
+			executor.execute(new Runnable() {
+				@Override
+				public void run() {
+					flushQuietly();
+				}
+			});
+		} catch (RuntimeException e) {
+			flushRequested.set(false);
+		}
+	}
+
+	private void write(final Epoch epoch) {
+		final List<Counter> counters = new ArrayList<Counter>(epoch.size.get());
+		for (Entry<Object, LongAdder> entry : epoch.longs.entrySet()) {
+			long delta = entry.getValue().sum();
+			if (delta != 0) {
+				counters.add(new Counter(INCRBY, entry.getKey(), null, delta));
+			}
+		}
+		collect(HINCRBYFLOAT, epoch.hashes, counters);
+		collect(ZINCRBY, epoch.zsets, counters);
+		long count = epoch.requests.sum();
+		if (counters.size() <= 0) {
+			flushedRequests.add(count);
+			return;
+		}
+
+		final boolean[] connected = new boolean[1];
+		try {
+			Redis.executePipelinedRaw(redisTemplate, new RedisCallback<Object>() {
+				@Override
+				public Object doInRedis(RedisConnection connection) throws DataAccessException {
+					connected[0] = true;
+					RedisCodecs codecs = Redis.codecs(redisTemplate);
+					for (Counter counter : counters) {
+						byte[] rawKey = codecs.encodeKey(counter.key);
+						if (counter.type == INCRBY) {
+							connection.incrBy(rawKey, counter.delta.longValue());
+						} else if (counter.type == HINCRBYFLOAT) {
+							connection.hIncrBy(rawKey, codecs.encodeHashKey(counter.field), counter.delta.doubleValue());
+						} else {
+							connection.zIncrBy(rawKey, counter.delta.doubleValue(), codecs.encodeValue(counter.field));
+						}
+					}
+					return null;
+				}
+			});
+			flushes.increment();
+			flushedRequests.add(count);
+			flushedCommands.add(counters.size());
+		} catch (RuntimeException e) {
+			failedFlushes.increment();
+			if (!connected[0]) {
+				// 未获取到连接，命令一条也没有发出，合并回当前一代下次重试
+				logger.warn("failed to get a connection to flush " + counters.size() + " buffered counters, will retry", e);
+				for (int i = 0; i < counters.size(); i++) {
+					Counter counter = counters.get(i);
+					long requestCount = i == 0 ? count : 0;
+					if (counter.type == INCRBY) {
+						addLong(counter.key, counter.delta.longValue(), requestCount);
+					} else {
+						addDouble(counter.type, counter.key, counter.field, counter.delta.doubleValue(), requestCount);
+					}
+				}
+				return;
+			}
+			droppedRequests.add(count);
+			logger.warn("failed to flush " + counters.size() + " buffered counters after sending, dropping " + count
+					+ " increments to avoid applying them twice", e);
+			if (e instanceof RedisPipelineException) {
+				// 部分命令已经生效，仍需失效对应的近端缓存
+				invalidate(counters);
+			}
+			return;
+		}
+		invalidate(counters);
+	}
+
+	private static void collect(byte type, ConcurrentMap<Object, ConcurrentMap<Object, DoubleAdder>> counters,
+			List<Counter> target) {
+		for (Entry<Object, ConcurrentMap<Object, DoubleAdder>> entry : counters.entrySet()) {
+			for (Entry<Object, DoubleAdder> field : entry.getValue().entrySet()) {
+				double delta = field.getValue().sum();
+				if (delta != 0) {
+					target.add(new Counter(type, entry.getKey(), field.getKey(), delta));
+				}
+			}
+		}
+	}
+
+	private void invalidate(List<Counter> counters) {
+		RedisContext context = RedisContext.get(redisTemplate);
+		if (context == null) {
+			return;
+		}
+		NearCache nearCache = context.getNearCache();
+		InvalidationBus bus = context.getInvalidationBus();
+		if (nearCache == null && bus == null) {
+			return;
+		}
+		// 近端缓存只缓存字符串GET，hash与有序集合的增量不影响缓存
+		Set<Object> keys = new LinkedHashSet<Object>();
+		for (Counter counter : counters) {
+			if (counter.type == INCRBY) {
+				keys.add(counter.key);
+			}
+		}
+		if (keys.isEmpty()) {
+			return;
+		}
+		if (nearCache != null) {
+			nearCache.invalidateAll(keys);
+		}
+		if (bus != null) {
+			bus.publishAll(keys);
+		}
+	}
+
+	private static final class Epoch {
+
+		private final ConcurrentMap<Object, LongAdder> longs = new ConcurrentHashMap<Object, LongAdder>();
+
+		private final ConcurrentMap<Object, ConcurrentMap<Object, DoubleAdder>> hashes =
+				new ConcurrentHashMap<Object, ConcurrentMap<Object, DoubleAdder>>();
+
+		private final ConcurrentMap<Object, ConcurrentMap<Object, DoubleAdder>> zsets =
+				new ConcurrentHashMap<Object, ConcurrentMap<Object, DoubleAdder>>();
+
+		private final AtomicInteger size = new AtomicInteger();
+
+		private final LongAdder requests = new LongAdder();
+
+		/**
+		 * 按线程分段的进行中累加数，同一线程的进入与退出落在同一分段
+		 */
+		private final AtomicLongArray writers = new AtomicLongArray(WRITER_STRIPES * WRITER_PADDING);
+
+		private void exit(int stripe) {
+			writers.decrementAndGet(stripe);
+		}
+
+		/**
+		 * 逐个分段等待归零；切换代之后才进入的累加会发现代已变化并退出，不会被漏等
+		 */
+		private void awaitWriters() {
+			for (int i = 0; i < WRITER_STRIPES; i++) {
+				while (writers.get(i * WRITER_PADDING) > 0) {
+					Thread.yield();
+				}
+			}
+		}
+
+		private boolean isEmpty() {
+			return size.get() == 0;
+		}
+	}
+
+	/**
+	 * 刷新时取出的一条待写入增量
+	 */
+	private static final class Counter {
+
+		private final byte type;
+
+		private final Object key;
+
+		private final Object field;
+
+		private final Number delta;
+
+		private Counter(byte type, Object key, Object field, Number delta) {
+			this.type = type;
+			this.key = key;
+			this.field = field;
+			this.delta = delta;
+		}
+	}
+}
@@ -0,0 +1,35 @@
+package com.easycode.redis.server.batch;
+
+/**
+ * 计数器本地聚合的配置
+ */
+public class CounterAggregatorConfig {
+
+	private long flushIntervalMillis = 100L;
+
+	private int maxPendingCounters = 10000;
+
+	public long getFlushIntervalMillis() {
+		return flushIntervalMillis;
+	}
+
+	/**
+	 * @param flushIntervalMillis
+	 *            刷新间隔（毫秒），即redis中计数值最多滞后的时间
+	 */
+	public void setFlushIntervalMillis(long flushIntervalMillis) {
+		this.flushIntervalMillis = flushIntervalMillis;
+	}
+
+	public int getMaxPendingCounters() {
+		return maxPendingCounters;
+	}
+
+	/**
+	 * @param maxPendingCounters
+	 *            本地累积的不同计数器个数达到该值时立即触发一次刷新，不等待刷新间隔
+	 */
+	public void setMaxPendingCounters(int maxPendingCounters) {
+		this.maxPendingCounters = maxPendingCounters;
+	}
+}
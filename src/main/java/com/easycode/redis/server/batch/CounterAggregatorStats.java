@@ -0,0 +1,79 @@
+package com.easycode.redis.server.batch;
+
+/**
+ * 计数器本地聚合统计数据的快照
+ */
+public class CounterAggregatorStats {
+
+	private final long requests;
+
+	private final long flushedRequests;
+
+	private final long flushedCommands;
+
+	private final long flushes;
+
+	private final long failedFlushes;
+
+	private final long droppedRequests;
+
+	public CounterAggregatorStats(long requests, long flushedRequests, long flushedCommands, long flushes,
+			long failedFlushes, long droppedRequests) {
+		this.requests = requests;
+		this.flushedRequests = flushedRequests;
+		this.flushedCommands = flushedCommands;
+		this.flushes = flushes;
+		this.failedFlushes = failedFlushes;
+		this.droppedRequests = droppedRequests;
+	}
+
+	/**
+	 * 调用方提交的累加次数
+	 */
+	public long getRequests() {
+		return requests;
+	}
+
+	/**
+	 * 已经写入redis的累加次数
+	 */
+	public long getFlushedRequests() {
+		return flushedRequests;
+	}
+
+	/**
+	 * 实际发往redis的INCRBY/HINCRBYFLOAT/ZINCRBY命令数
+	 */
+	public long getFlushedCommands() {
+		return flushedCommands;
+	}
+
+	public long getFlushes() {
+		return flushes;
+	}
+
+	public long getFailedFlushes() {
+		return failedFlushes;
+	}
+
+	/**
+	 * 因发送后失败而丢弃的累加次数，这些增量可能已部分写入redis
+	 */
+	public long getDroppedRequests() {
+		return droppedRequests;
+	}
+
+	/**
+	 * 压缩比，即平均每条redis命令合并了多少次累加
+	 */
+	public double getCompressionRatio() {
+		return flushedCommands == 0 ? 0 : (double) flushedRequests / flushedCommands;
+	}
+
+	@Override
+	public String toString() {
+		return "CounterAggregatorStats [requests=" + requests + ", flushedRequests=" + flushedRequests
+				+ ", flushedCommands=" + flushedCommands + ", flushes=" + flushes + ", failedFlushes=" + failedFlushes
+				+ ", droppedRequests=" + droppedRequests + "]";
+	}
+}
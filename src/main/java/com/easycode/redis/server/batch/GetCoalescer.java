@@ -0,0 +1,305 @@
+package com.easycode.redis.server.batch;
+
+import java.nio.ByteBuffer;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import com.easycode.redis.server.Redis;
+
+/**
+ * 将并发到达的单key GET合并为一次MGET。
+ * <p>
+ * 批次中第一个到达的线程成为leader，等待{@link GetCoalescerConfig#getWindowMicros()}或攒满
+ * {@link GetCoalescerConfig#getMaxBatchSize()}后用一条连接发出MGET，再把结果分发给同批次的其他线程；
+ * 同一批次内重复的key只读取一次。MGET失败时异常会抛给批次内的所有调用方。
+ * <p>
+ * 只有批次之外还有进行中的读取时leader才会等待窗口；没有并发时leader立即发出请求，不增加单线程的延迟。
+ * <p>
+ * 近端缓存未命中时通过{@link #getWithPttl(byte[])}读取，批次内只要有一个这样的调用方，MGET与各key的PTTL就在同一个pipeline中发出。
+ */
+public class GetCoalescer {
+
+	private final RedisTemplate<?, ?> redisTemplate;
+
+	private final long windowNanos;
+
+	private final int maxBatchSize;
+
+	private final long waitTimeoutMillis;
+
+	private final ReentrantLock lock = new ReentrantLock();
+
+	private final Condition full = lock.newCondition();
+
+	private Batch current;
+
+	private final AtomicInteger active = new AtomicInteger();
+
+	private final AtomicLong requests = new AtomicLong();
+
+	private final AtomicLong batches = new AtomicLong();
+
+	public GetCoalescer(RedisTemplate<?, ?> redisTemplate, GetCoalescerConfig config) {
+		if (config == null) {
+			config = new GetCoalescerConfig();
+		}
+		this.redisTemplate = redisTemplate;
+		this.windowNanos = TimeUnit.MICROSECONDS.toNanos(config.getWindowMicros() < 0 ? 0 : config.getWindowMicros());
+		this.maxBatchSize = config.getMaxBatchSize() <= 0 ? 1 : config.getMaxBatchSize();
+		this.waitTimeoutMillis = config.getWaitTimeoutMillis() <= 0 ? 1000L : config.getWaitTimeoutMillis();
+	}
+
+	/**
+	 * 读取单个key，可能与其他线程的读取合并
+	 *
+	 * @param rawKey
+	 *            序列化后的key
+	 * @return redis返回的原始字节，key不存在返回<tt>null</tt>
+	 */
+	public byte[] get(byte[] rawKey) {
+		return read(rawKey, null);
+	}
+
+	/**
+	 * 读取单个key及其剩余过期时间，可能与其他线程的读取合并
+	 *
+	 * @param rawKey
+	 *            序列化后的key
+	 * @return redis返回的原始字节与PTTL
+	 */
+	public Entry getWithPttl(byte[] rawKey) {
+		Long[] pttl = new Long[1];
+		byte[] value = read(rawKey, pttl);
+		return new Entry(value, pttl[0]);
+	}
+
+	/**
+	 * @param pttl
+	 *            不为<tt>null</tt>时一并读取PTTL，写入其第一个元素
+	 */
+	private byte[] read(byte[] rawKey, Long[] pttl) {
+		requests.incrementAndGet();
+		active.incrementAndGet();
+		try {
+			return coalesce(rawKey, pttl);
+		} finally {
+			active.decrementAndGet();
+		}
+	}
+
+	public long getRequestCount() {
+		return requests.get();
+	}
+
+	public long getBatchCount() {
+		return batches.get();
+	}
+
+	private byte[] coalesce(byte[] rawKey, Long[] pttl) {
+		Batch batch;
+		int index;
+		boolean leader = false;
+		lock.lock();
+		try {
+			if (current == null || current.size() >= maxBatchSize) {
+				current = new Batch();
+				leader = true;
+			}
+			batch = current;
+			index = batch.add(rawKey);
+			batch.withPttl |= pttl != null;
+			if (batch.size() >= maxBatchSize || batch.size() >= active.get()) {
+				full.signalAll();
+			}
+		} finally {
+			lock.unlock();
+		}
+
+		if (leader) {
+			lead(batch);
+		} else {
+			boolean done;
+			try {
+				done = batch.done.await(waitTimeoutMillis, TimeUnit.MILLISECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				done = false;
+			}
+			if (!done) {
+				// leader迟迟未返回时不再等待，单独读取
+				return getDirectly(rawKey, pttl);
+			}
+		}
+
+		if (batch.error != null) {
+			throw batch.error;
+		}
+		if (pttl != null) {
+			pttl[0] = batch.pttls[index];
+		}
+		return batch.results == null ? null : batch.results.get(index);
+	}
+
+	private void lead(final Batch batch) {
+		lock.lock();
+		try {
+			long remaining = windowNanos;
+			// 所有进行中的读取都已在本批次内时不再等待
+			while (batch.size() < maxBatchSize && batch.size() < active.get() && remaining > 0) {
+				try {
+					remaining = full.awaitNanos(remaining);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					break;
+				}
+			}
+			if (current == batch) {
+				current = null;
+			}
+		} finally {
+			lock.unlock();
+		}
+
+		batches.incrementAndGet();
+		try {
+			final byte[][] rawKeys = batch.rawKeys();
+			if (batch.withPttl) {
+				fetchWithPttl(batch, rawKeys);
+			} else {
+				batch.results = redisTemplate.execute(new RedisCallback<List<byte[]>>() {
+					@Override
+					public List<byte[]> doInRedis(RedisConnection connection) throws DataAccessException {
+						return connection.mGet(rawKeys);
+					}
+				});
+			}
+		} catch (RuntimeException e) {
+			batch.error = e;
+		} finally {
+			batch.done.countDown();
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private void fetchWithPttl(Batch batch, final byte[][] rawKeys) {
+		List<Object> results = Redis.executePipelinedRaw(redisTemplate, new RedisCallback<Object>() {
+			@Override
+			public Object doInRedis(RedisConnection connection) throws DataAccessException {
+				connection.mGet(rawKeys);
+				for (byte[] rawKey : rawKeys) {
+					connection.pTtl(rawKey);
+				}
+				return null;
+			}
+		});
+		Long[] pttls = new Long[rawKeys.length];
+		for (int i = 0; i < pttls.length; i++) {
+			pttls[i] = (Long) results.get(i + 1);
+		}
+		batch.pttls = pttls;
+		batch.results = (List<byte[]>) results.get(0);
+	}
+
+	private byte[] getDirectly(final byte[] rawKey, Long[] pttl) {
+		if (pttl != null) {
+			List<Object> results = Redis.executePipelinedRaw(redisTemplate, new RedisCallback<Object>() {
+				@Override
+				public Object doInRedis(RedisConnection connection) throws DataAccessException {
+					connection.get(rawKey);
+					connection.pTtl(rawKey);
+					return null;
+				}
+			});
+			pttl[0] = (Long) results.get(1);
+			return (byte[]) results.get(0);
+		}
+		return redisTemplate.execute(new RedisCallback<byte[]>() {
+			@Override
+			public byte[] doInRedis(RedisConnection connection) throws DataAccessException {
+				return connection.get(rawKey);
+			}
+		});
+	}
+
+	/**
+	 * 一次读取的结果
+	 */
+	public static final class Entry {
+
+		private final byte[] value;
+
+		private final Long pttl;
+
+		public Entry(byte[] value, Long pttl) {
+			this.value = value;
+			this.pttl = pttl;
+		}
+
+		/**
+		 * @return redis返回的原始字节，key不存在返回<tt>null</tt>
+		 */
+		public byte[] getValue() {
+			return value;
+		}
+
+		/**
+		 * @return 剩余过期时间（毫秒）
+		 */
+		public Long getPttl() {
+			return pttl;
+		}
+	}
+
+	private static final class Batch {
+
+		private final Map<ByteBuffer, Integer> indexes = new LinkedHashMap<ByteBuffer, Integer>();
+
+		private int size;
+
+		private final CountDownLatch done = new CountDownLatch(1);
+
+		private boolean withPttl;
+
+		private volatile List<byte[]> results;
+
+		private volatile Long[] pttls;
+
+		private volatile RuntimeException error;
+
+		private int add(byte[] rawKey) {
+			size++;
+			ByteBuffer wrapped = ByteBuffer.wrap(rawKey);
+			Integer index = indexes.get(wrapped);
+			if (index == null) {
+				index = indexes.size();
+				indexes.put(wrapped, index);
+			}
+			return index;
+		}
+
+		private int size() {
+			return size;
+		}
+
+		private byte[][] rawKeys() {
+			byte[][] rawKeys = new byte[indexes.size()][];
+			int i = 0;
+			for (ByteBuffer key : indexes.keySet()) {
+				rawKeys[i++] = key.array();
+			}
+			return rawKeys;
+		}
+	}
+}
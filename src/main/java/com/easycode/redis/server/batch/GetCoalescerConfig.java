@@ -0,0 +1,49 @@
+package com.easycode.redis.server.batch;
+
+/**
+ * 并发GET合并为MGET的配置
+ */
+public class GetCoalescerConfig {
+
+	private long windowMicros = 200L;
+
+	private int maxBatchSize = 64;
+
+	private long waitTimeoutMillis = 1000L;
+
+	public long getWindowMicros() {
+		return windowMicros;
+	}
+
+	/**
+	 * @param windowMicros
+	 *            合并窗口（微秒），第一个请求到达后最多等待这么久再发出MGET
+	 */
+	public void setWindowMicros(long windowMicros) {
+		this.windowMicros = windowMicros;
+	}
+
+	public int getMaxBatchSize() {
+		return maxBatchSize;
+	}
+
+	/**
+	 * @param maxBatchSize
+	 *            单次MGET最多合并的请求个数，攒满后不再等待窗口结束
+	 */
+	public void setMaxBatchSize(int maxBatchSize) {
+		this.maxBatchSize = maxBatchSize;
+	}
+
+	public long getWaitTimeoutMillis() {
+		return waitTimeoutMillis;
+	}
+
+	/**
+	 * @param waitTimeoutMillis
+	 *            跟随者等待合并结果的最长时间，超时后自行发出GET
+	 */
+	public void setWaitTimeoutMillis(long waitTimeoutMillis) {
+		this.waitTimeoutMillis = waitTimeoutMillis;
+	}
+}
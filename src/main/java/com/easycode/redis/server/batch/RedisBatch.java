@@ -0,0 +1,856 @@
+package com.easycode.redis.server.batch;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisPipelineException;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.util.StringUtils;
+
+import com.easycode.redis.server.Redis;
+import com.easycode.redis.server.RedisContext;
+import com.easycode.redis.server.cache.InvalidationBus;
+import com.easycode.redis.server.cache.NearCache;
+import com.easycode.redis.server.codec.RedisCodecs;
+import com.easycode.redis.server.metrics.MeteredCall;
+import com.easycode.redis.server.metrics.RedisMetrics;
+
+/**
+ * 把任意多个不同结构的读写命令放在一个pipeline中执行，一次往返拿到全部结果：
+ *
+ * <pre>
+ * RedisBatch&lt;String, Object&gt; batch = service.batch();
+ * CompletableFuture&lt;User&gt; user = batch.getObj("user:1", User.class);
+ * CompletableFuture&lt;Double&gt; score = batch.zScore("rank", "user:1");
+ * CompletableFuture&lt;Long&gt; views = batch.incr("views:1");
+ * batch.execute();
+ * </pre>
+ *
+ * 每个命令在加入时完成序列化并返回一个future，{@link #execute()}在一个pipeline中发出全部命令，归还连接后
+ * 在调用线程上反序列化并完成各个future；不经过近端缓存，字符串写命令（及put）执行后失效对应key的近端缓存。
+ * <p>
+ * 与服务方法不同，key为空的命令不发出，future直接以null完成；不存在的key、field与member同样得到null。
+ * 非线程安全，一个RedisBatch只能执行一次。
+ */
+public class RedisBatch<K, V> {
+
+	private static final String FAMILY = "batch";
+
+	private final RedisTemplate<K, V> redisTemplate;
+
+	private final RedisCodecs codecs;
+
+	private final List<Op<?>> ops = new ArrayList<Op<?>>();
+
+	private boolean executed;
+
+	public RedisBatch(RedisTemplate<K, V> redisTemplate) {
+		this.redisTemplate = redisTemplate;
+		this.codecs = Redis.codecs(redisTemplate);
+	}
+
+	/**
+	 * 已加入的命令数
+	 */
+	public int size() {
+		return ops.size();
+	}
+
+	// base key-value
+	public CompletableFuture<Void> set(K key, V value) {
+		return set(key, value, null, null);
+	}
+
+	public CompletableFuture<Void> set(K key, V value, Long timeout, TimeUnit unit) {
+		if (StringUtils.isEmpty(key)) {
+			return empty();
+		}
+		return setRaw(key, codecs.encodeValue(value), timeout, unit);
+	}
+
+	public CompletableFuture<Void> setLong(K key, long value) {
+		if (StringUtils.isEmpty(key)) {
+			return empty();
+		}
+		return setRaw(key, codecs.encodeLong(value), null, null);
+	}
+
+	public CompletableFuture<Void> setDouble(K key, double value) {
+		if (StringUtils.isEmpty(key)) {
+			return empty();
+		}
+		return setRaw(key, codecs.encodeDouble(value), null, null);
+	}
+
+	private CompletableFuture<Void> setRaw(K key, final byte[] raw, Long timeout, TimeUnit unit) {
+		final byte[] rawKey = codecs.encodeKey(key);
+		final long expireMillis = timeout == null || timeout.longValue() <= 0 ? 0
+				: Math.max((unit == null ? TimeUnit.MILLISECONDS : unit).toMillis(timeout), 1L);
+		return add(new Status(key) {
+			@Override
+			void send(RedisConnection connection) {
+				if (expireMillis > Integer.MAX_VALUE) {
+					// pipeline中的pSetEx会把毫秒数截断为int
+					connection.setEx(rawKey, (expireMillis + 999) / 1000, raw);
+				} else if (expireMillis > 0) {
+					connection.pSetEx(rawKey, expireMillis, raw);
+				} else {
+					connection.set(rawKey, raw);
+				}
+			}
+		});
+	}
+
+	public <T> CompletableFuture<T> getObj(K key, Class<T> clazz) {
+		if (StringUtils.isEmpty(key)) {
+			return empty();
+		}
+		final byte[] rawKey = codecs.encodeKey(key);
+		return add(new Op<T>(null, false) {
+			@Override
+			void send(RedisConnection connection) {
+				connection.get(rawKey);
+			}
+
+			@Override
+			@SuppressWarnings("unchecked")
+			T decode(Object reply) {
+				return (T) codecs.decodeValue((byte[]) reply);
+			}
+		});
+	}
+
+	public CompletableFuture<Long> getLong(K key) {
+		if (StringUtils.isEmpty(key)) {
+			return empty();
+		}
+		final byte[] rawKey = codecs.encodeKey(key);
+		return add(new Op<Long>(null, false) {
+			@Override
+			void send(RedisConnection connection) {
+				connection.get(rawKey);
+			}
+
+			@Override
+			Long decode(Object reply) {
+				return reply == null ? null : codecs.decodeLong((byte[]) reply);
+			}
+		});
+	}
+
+	public CompletableFuture<Double> getDouble(K key) {
+		if (StringUtils.isEmpty(key)) {
+			return empty();
+		}
+		final byte[] rawKey = codecs.encodeKey(key);
+		return add(new Op<Double>(null, false) {
+			@Override
+			void send(RedisConnection connection) {
+				connection.get(rawKey);
+			}
+
+			@Override
+			Double decode(Object reply) {
+				return reply == null ? null : codecs.decodeDouble((byte[]) reply);
+			}
+		});
+	}
+
+	public CompletableFuture<Long> incr(K key) {
+		return incrBy(key, 1L);
+	}
+
+	public CompletableFuture<Long> incrBy(K key, final long delta) {
+		if (StringUtils.isEmpty(key)) {
+			return empty();
+		}
+		final byte[] rawKey = codecs.encodeKey(key);
+		return add(new Plain<Long>(key) {
+			@Override
+			void send(RedisConnection connection) {
+				connection.incrBy(rawKey, delta);
+			}
+		});
+	}
+
+	public CompletableFuture<Long> del(K key) {
+		if (StringUtils.isEmpty(key)) {
+			return empty();
+		}
+		final byte[] rawKey = codecs.encodeKey(key);
+		return add(new Plain<Long>(key) {
+			@Override
+			void send(RedisConnection connection) {
+				connection.del(rawKey);
+			}
+		});
+	}
+
+	public CompletableFuture<Boolean> hasKey(K key) {
+		if (StringUtils.isEmpty(key)) {
+			return empty();
+		}
+		final byte[] rawKey = codecs.encodeKey(key);
+		return add(new Plain<Boolean>(null) {
+			@Override
+			void send(RedisConnection connection) {
+				connection.exists(rawKey);
+			}
+		});
+	}
+
+	public CompletableFuture<Boolean> setTimeOut(K key, long expireTime, TimeUnit unit) {
+		if (StringUtils.isEmpty(key)) {
+			return empty();
+		}
+		final byte[] rawKey = codecs.encodeKey(key);
+		final long expireMillis = Math.max((unit == null ? TimeUnit.MILLISECONDS : unit).toMillis(expireTime), 1L);
+		return add(new Plain<Boolean>(key) {
+			@Override
+			void send(RedisConnection connection) {
+				if (expireMillis > Integer.MAX_VALUE) {
+					// pipeline中的pExpire会把毫秒数截断为int
+					connection.expire(rawKey, (expireMillis + 999) / 1000);
+				} else {
+					connection.pExpire(rawKey, expireMillis);
+				}
+			}
+		});
+	}
+
+	/**
+	 * 剩余过期时间（秒），没有过期时间时为-1，key不存在时为-2
+	 */
+	public CompletableFuture<Long> ttl(K key) {
+		if (StringUtils.isEmpty(key)) {
+			return empty();
+		}
+		final byte[] rawKey = codecs.encodeKey(key);
+		return add(new Plain<Long>(null) {
+			@Override
+			void send(RedisConnection connection) {
+				connection.ttl(rawKey);
+			}
+		});
+	}
+
+	// list
+	public CompletableFuture<Long> leftPush(K key, V value) {
+		if (StringUtils.isEmpty(key)) {
+			return empty();
+		}
+		final byte[] rawKey = codecs.encodeKey(key);
+		final byte[] rawValue = codecs.encodeValue(value);
+		return add(new Plain<Long>(null) {
+			@Override
+			void send(RedisConnection connection) {
+				connection.lPush(rawKey, rawValue);
+			}
+		});
+	}
+
+	public CompletableFuture<Long> rightPush(K key, V value) {
+		if (StringUtils.isEmpty(key)) {
+			return empty();
+		}
+		final byte[] rawKey = codecs.encodeKey(key);
+		final byte[] rawValue = codecs.encodeValue(value);
+		return add(new Plain<Long>(null) {
+			@Override
+			void send(RedisConnection connection) {
+				connection.rPush(rawKey, rawValue);
+			}
+		});
+	}
+
+	public <T> CompletableFuture<List<T>> lRangeObjects(K key, final long start, final long end, Class<T> clazz) {
+		if (StringUtils.isEmpty(key)) {
+			return empty();
+		}
+		final byte[] rawKey = codecs.encodeKey(key);
+		return add(new Op<List<T>>(null, false) {
+			@Override
+			void send(RedisConnection connection) {
+				connection.lRange(rawKey, start, end);
+			}
+
+			@Override
+			@SuppressWarnings("unchecked")
+			List<T> decode(Object reply) {
+				return decodeValues((Collection<byte[]>) reply);
+			}
+		});
+	}
+
+	public <T> CompletableFuture<T> lIndex(K key, final long index, Class<T> clazz) {
+		if (StringUtils.isEmpty(key)) {
+			return empty();
+		}
+		final byte[] rawKey = codecs.encodeKey(key);
+		return add(new Op<T>(null, false) {
+			@Override
+			void send(RedisConnection connection) {
+				connection.lIndex(rawKey, index);
+			}
+
+			@Override
+			@SuppressWarnings("unchecked")
+			T decode(Object reply) {
+				return (T) codecs.decodeValue((byte[]) reply);
+			}
+		});
+	}
+
+	public CompletableFuture<Long> lengthOfList(K key) {
+		if (StringUtils.isEmpty(key)) {
+			return empty();
+		}
+		final byte[] rawKey = codecs.encodeKey(key);
+		return add(new Plain<Long>(null) {
+			@Override
+			void send(RedisConnection connection) {
+				connection.lLen(rawKey);
+			}
+		});
+	}
+
+	// Set
+	public CompletableFuture<Long> sAdd(K key, V value) {
+		if (StringUtils.isEmpty(key)) {
+			return empty();
+		}
+		final byte[] rawKey = codecs.encodeKey(key);
+		final byte[] rawValue = codecs.encodeValue(value);
+		return add(new Plain<Long>(null) {
+			@Override
+			void send(RedisConnection connection) {
+				connection.sAdd(rawKey, rawValue);
+			}
+		});
+	}
+
+	public CompletableFuture<Long> sRemove(K key, V value) {
+		if (StringUtils.isEmpty(key)) {
+			return empty();
+		}
+		final byte[] rawKey = codecs.encodeKey(key);
+		final byte[] rawValue = codecs.encodeValue(value);
+		return add(new Plain<Long>(null) {
+			@Override
+			void send(RedisConnection connection) {
+				connection.sRem(rawKey, rawValue);
+			}
+		});
+	}
+
+	public CompletableFuture<Boolean> sIsMember(K key, V value) {
+		if (StringUtils.isEmpty(key)) {
+			return empty();
+		}
+		final byte[] rawKey = codecs.encodeKey(key);
+		final byte[] rawValue = codecs.encodeValue(value);
+		return add(new Plain<Boolean>(null) {
+			@Override
+			void send(RedisConnection connection) {
+				connection.sIsMember(rawKey, rawValue);
+			}
+		});
+	}
+
+	public CompletableFuture<Long> sizeOfSet(K key) {
+		if (StringUtils.isEmpty(key)) {
+			return empty();
+		}
+		final byte[] rawKey = codecs.encodeKey(key);
+		return add(new Plain<Long>(null) {
+			@Override
+			void send(RedisConnection connection) {
+				connection.sCard(rawKey);
+			}
+		});
+	}
+
+	public <T> CompletableFuture<Set<T>> sMembers(K key, Class<T> clazz) {
+		if (StringUtils.isEmpty(key)) {
+			return empty();
+		}
+		final byte[] rawKey = codecs.encodeKey(key);
+		return add(new Op<Set<T>>(null, false) {
+			@Override
+			void send(RedisConnection connection) {
+				connection.sMembers(rawKey);
+			}
+
+			@Override
+			@SuppressWarnings("unchecked")
+			Set<T> decode(Object reply) {
+				List<T> values = decodeValues((Collection<byte[]>) reply);
+				return values == null ? null : new LinkedHashSet<T>(values);
+			}
+		});
+	}
+
+	// Zset
+	public CompletableFuture<Boolean> zAdd(K key, V value, final double score) {
+		if (StringUtils.isEmpty(key)) {
+			return empty();
+		}
+		final byte[] rawKey = codecs.encodeKey(key);
+		final byte[] rawValue = codecs.encodeValue(value);
+		return add(new Plain<Boolean>(null) {
+			@Override
+			void send(RedisConnection connection) {
+				connection.zAdd(rawKey, score, rawValue);
+			}
+		});
+	}
+
+	public CompletableFuture<Double> increaseScoreInZset(K key, V value, final double delta) {
+		if (StringUtils.isEmpty(key)) {
+			return empty();
+		}
+		final byte[] rawKey = codecs.encodeKey(key);
+		final byte[] rawValue = codecs.encodeValue(value);
+		return add(new Plain<Double>(null) {
+			@Override
+			void send(RedisConnection connection) {
+				connection.zIncrBy(rawKey, delta, rawValue);
+			}
+		});
+	}
+
+	public CompletableFuture<Double> zScore(K key, V value) {
+		if (StringUtils.isEmpty(key)) {
+			return empty();
+		}
+		final byte[] rawKey = codecs.encodeKey(key);
+		final byte[] rawValue = codecs.encodeValue(value);
+		return add(new Plain<Double>(null) {
+			@Override
+			void send(RedisConnection connection) {
+				connection.zScore(rawKey, rawValue);
+			}
+		});
+	}
+
+	public CompletableFuture<Long> zRank(K key, V value) {
+		if (StringUtils.isEmpty(key)) {
+			return empty();
+		}
+		final byte[] rawKey = codecs.encodeKey(key);
+		final byte[] rawValue = codecs.encodeValue(value);
+		return add(new Plain<Long>(null) {
+			@Override
+			void send(RedisConnection connection) {
+				connection.zRank(rawKey, rawValue);
+			}
+		});
+	}
+
+	public CompletableFuture<Long> sizeOfZSet(K key) {
+		if (StringUtils.isEmpty(key)) {
+			return empty();
+		}
+		final byte[] rawKey = codecs.encodeKey(key);
+		return add(new Plain<Long>(null) {
+			@Override
+			void send(RedisConnection connection) {
+				connection.zCard(rawKey);
+			}
+		});
+	}
+
+	public <T> CompletableFuture<List<T>> zRangeObjects(K key, long start, long end, Class<T> clazz) {
+		return zRange(key, start, end, clazz, false);
+	}
+
+	public <T> CompletableFuture<List<T>> zRevRangeObjects(K key, long start, long end, Class<T> clazz) {
+		return zRange(key, start, end, clazz, true);
+	}
+
+	private <T> CompletableFuture<List<T>> zRange(K key, final long start, final long end, Class<T> clazz,
+			final boolean reverse) {
+		if (StringUtils.isEmpty(key)) {
+			return empty();
+		}
+		final byte[] rawKey = codecs.encodeKey(key);
+		return add(new Op<List<T>>(null, false) {
+			@Override
+			void send(RedisConnection connection) {
+				if (reverse) {
+					connection.zRevRange(rawKey, start, end);
+				} else {
+					connection.zRange(rawKey, start, end);
+				}
+			}
+
+			@Override
+			@SuppressWarnings("unchecked")
+			List<T> decode(Object reply) {
+				return decodeValues((Collection<byte[]>) reply);
+			}
+		});
+	}
+
+	// Hash
+	public CompletableFuture<Boolean> put(K key, Object hashKey, Object value) {
+		if (StringUtils.isEmpty(key)) {
+			return empty();
+		}
+		final byte[] rawKey = codecs.encodeKey(key);
+		final byte[] rawHashKey = codecs.encodeHashKey(hashKey);
+		final byte[] rawValue = codecs.encodeHashValue(value);
+		return add(new Plain<Boolean>(key) {
+			@Override
+			void send(RedisConnection connection) {
+				connection.hSet(rawKey, rawHashKey, rawValue);
+			}
+		});
+	}
+
+	public <T> CompletableFuture<T> hGetObject(K key, Object hashKey, Class<T> clazz) {
+		if (StringUtils.isEmpty(key)) {
+			return empty();
+		}
+		final byte[] rawKey = codecs.encodeKey(key);
+		final byte[] rawHashKey = codecs.encodeHashKey(hashKey);
+		return add(new Op<T>(null, false) {
+			@Override
+			void send(RedisConnection connection) {
+				connection.hGet(rawKey, rawHashKey);
+			}
+
+			@Override
+			@SuppressWarnings("unchecked")
+			T decode(Object reply) {
+				return (T) codecs.decodeHashValue((byte[]) reply);
+			}
+		});
+	}
+
+	public <T> CompletableFuture<List<T>> hMultiGetObjects(K key, Collection<?> hashKeys, Class<T> clazz) {
+		if (StringUtils.isEmpty(key) || hashKeys == null || hashKeys.isEmpty()) {
+			return empty();
+		}
+		final byte[] rawKey = codecs.encodeKey(key);
+		final byte[][] rawHashKeys = new byte[hashKeys.size()][];
+		int i = 0;
+		for (Object hashKey : hashKeys) {
+			rawHashKeys[i++] = codecs.encodeHashKey(hashKey);
+		}
+		return add(new Op<List<T>>(null, false) {
+			@Override
+			void send(RedisConnection connection) {
+				connection.hMGet(rawKey, rawHashKeys);
+			}
+
+			@Override
+			@SuppressWarnings("unchecked")
+			List<T> decode(Object reply) {
+				List<byte[]> raws = (List<byte[]>) reply;
+				List<T> values = new ArrayList<T>(raws.size());
+				for (byte[] raw : raws) {
+					values.add((T) codecs.decodeHashValue(raw));
+				}
+				return values;
+			}
+		});
+	}
+
+	public <T> CompletableFuture<Map<Object, T>> hGetAll(K key, Class<T> clazz) {
+		if (StringUtils.isEmpty(key)) {
+			return empty();
+		}
+		final byte[] rawKey = codecs.encodeKey(key);
+		return add(new Op<Map<Object, T>>(null, false) {
+			@Override
+			void send(RedisConnection connection) {
+				connection.hGetAll(rawKey);
+			}
+
+			@Override
+			@SuppressWarnings("unchecked")
+			Map<Object, T> decode(Object reply) {
+				Map<byte[], byte[]> raws = (Map<byte[], byte[]>) reply;
+				Map<Object, T> values = new LinkedHashMap<Object, T>(raws.size());
+				for (Entry<byte[], byte[]> entry : raws.entrySet()) {
+					values.put(codecs.decodeHashKey(entry.getKey()), (T) codecs.decodeHashValue(entry.getValue()));
+				}
+				return values;
+			}
+		});
+	}
+
+	public CompletableFuture<Boolean> hContainKey(K key, Object hashKey) {
+		if (StringUtils.isEmpty(key)) {
+			return empty();
+		}
+		final byte[] rawKey = codecs.encodeKey(key);
+		final byte[] rawHashKey = codecs.encodeHashKey(hashKey);
+		return add(new Plain<Boolean>(null) {
+			@Override
+			void send(RedisConnection connection) {
+				connection.hExists(rawKey, rawHashKey);
+			}
+		});
+	}
+
+	public CompletableFuture<Double> hIncrBy(K key, Object hashKey, final double delta) {
+		if (StringUtils.isEmpty(key)) {
+			return empty();
+		}
+		final byte[] rawKey = codecs.encodeKey(key);
+		final byte[] rawHashKey = codecs.encodeHashKey(hashKey);
+		return add(new Plain<Double>(null) {
+			@Override
+			void send(RedisConnection connection) {
+				connection.hIncrBy(rawKey, rawHashKey, delta);
+			}
+		});
+	}
+
+	public CompletableFuture<Long> delFromHash(K key, Object hashKey) {
+		if (StringUtils.isEmpty(key)) {
+			return empty();
+		}
+		final byte[] rawKey = codecs.encodeKey(key);
+		final byte[] rawHashKey = codecs.encodeHashKey(hashKey);
+		return add(new Plain<Long>(null) {
+			@Override
+			void send(RedisConnection connection) {
+				connection.hDel(rawKey, rawHashKey);
+			}
+		});
+	}
+
+	public CompletableFuture<Long> sizeOfHash(K key) {
+		if (StringUtils.isEmpty(key)) {
+			return empty();
+		}
+		final byte[] rawKey = codecs.encodeKey(key);
+		return add(new Plain<Long>(null) {
+			@Override
+			void send(RedisConnection connection) {
+				connection.hLen(rawKey);
+			}
+		});
+	}
+
+	/**
+	 * 在一个pipeline中执行已加入的全部命令并完成各个future。
+	 * <p>
+	 * 部分命令在redis中执行出错时，其余命令的future照常完成，出错命令的future以对应异常完成，之后抛出{@link RedisPipelineException}；
+	 * 连接失败等整体失败时所有future以该异常完成并抛出。
+	 */
+	public void execute() {
+		checkNotExecuted();
+		executed = true;
+		if (ops.isEmpty()) {
+			return;
+		}
+		RedisMetrics metrics = RedisMetrics.of(redisTemplate);
+		if (metrics == null) {
+			send();
+			return;
+		}
+		RedisMetrics.record(metrics, FAMILY, null, ops, new MeteredCall<Void>() {
+			@Override
+			protected Void call() {
+				send();
+				return null;
+			}
+		});
+	}
+
+	private void send() {
+		try {
+			List<Object> results;
+			RedisPipelineException failure = null;
+			try {
+				results = Redis.executePipelinedRaw(redisTemplate, new RedisCallback<Object>() {
+					@Override
+					public Object doInRedis(RedisConnection connection) throws DataAccessException {
+						for (Op<?> op : ops) {
+							op.send(connection);
+						}
+						return null;
+					}
+				});
+			} catch (RedisPipelineException e) {
+				failure = e;
+				results = e.getPipelineResult();
+			}
+			complete(results, failure);
+			if (failure != null) {
+				throw failure;
+			}
+		} catch (RuntimeException e) {
+			for (Op<?> op : ops) {
+				op.future.completeExceptionally(e);
+			}
+			throw e;
+		} finally {
+			invalidate();
+		}
+	}
+
+	/**
+	 * 按顺序把回复交给各命令；状态类命令（SET等）不占回复位置，只在出错时占一个位置，
+	 * 出错且回复数对不上时无法确定对应关系，留给调用方整体失败
+	 */
+	private void complete(List<Object> results, RedisPipelineException failure) {
+		int replies = 0;
+		for (Op<?> op : ops) {
+			if (!op.status) {
+				replies++;
+			}
+		}
+		int size = results == null ? 0 : results.size();
+		boolean withStatus = size == ops.size();
+		if (size != replies && !withStatus) {
+			if (failure != null) {
+				return;
+			}
+			throw new IllegalStateException("Expected " + replies + " replies from redis but got " + size);
+		}
+		int index = 0;
+		for (Op<?> op : ops) {
+			if (op.status && !withStatus) {
+				op.future.complete(null);
+				continue;
+			}
+			Object reply = results.get(index++);
+			if (reply instanceof Throwable) {
+				op.future.completeExceptionally((Throwable) reply);
+			} else {
+				op.complete(reply);
+			}
+		}
+	}
+
+	private void invalidate() {
+		RedisContext context = RedisContext.get(redisTemplate);
+		if (context == null) {
+			return;
+		}
+		NearCache nearCache = context.getNearCache();
+		InvalidationBus bus = context.getInvalidationBus();
+		if (nearCache == null && bus == null) {
+			return;
+		}
+		Set<Object> keys = new LinkedHashSet<Object>();
+		for (Op<?> op : ops) {
+			if (op.key != null) {
+				keys.add(op.key);
+			}
+		}
+		if (keys.isEmpty()) {
+			return;
+		}
+		if (nearCache != null) {
+			nearCache.invalidateAll(keys);
+		}
+		if (bus != null) {
+			bus.publishAll(keys);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private <T> List<T> decodeValues(Collection<byte[]> raws) {
+		if (raws == null) {
+			return null;
+		}
+		List<T> values = new ArrayList<T>(raws.size());
+		for (byte[] raw : raws) {
+			values.add((T) codecs.decodeValue(raw));
+		}
+		return values;
+	}
+
+	private <T> CompletableFuture<T> add(Op<T> op) {
+		checkNotExecuted();
+		ops.add(op);
+		return op.future;
+	}
+
+	private <T> CompletableFuture<T> empty() {
+		checkNotExecuted();
+		return CompletableFuture.completedFuture(null);
+	}
+
+	private void checkNotExecuted() {
+		if (executed) {
+			throw new IllegalStateException("RedisBatch has already been executed");
+		}
+	}
+
+	/**
+	 * 一个已序列化的命令及其结果
+	 */
+	private abstract static class Op<T> {
+
+		final CompletableFuture<T> future = new CompletableFuture<T>();
+
+		// 字符串写命令（及put）的key，执行后失效近端缓存；其余命令为null
+		final Object key;
+
+		// 无返回值的命令，pipeline结果中不占位置
+		final boolean status;
+
+		Op(Object key, boolean status) {
+			this.key = key;
+			this.status = status;
+		}
+
+		abstract void send(RedisConnection connection);
+
+		abstract T decode(Object reply);
+
+		void complete(Object reply) {
+			try {
+				future.complete(decode(reply));
+			} catch (RuntimeException e) {
+				future.completeExceptionally(e);
+			}
+		}
+	}
+
+	/**
+	 * 回复已由连接转换为目标类型（Long、Boolean、Double）的命令
+	 */
+	private abstract static class Plain<T> extends Op<T> {
+
+		Plain(Object key) {
+			super(key, false);
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		T decode(Object reply) {
+			return (T) reply;
+		}
+	}
+
+	private abstract static class Status extends Op<Void> {
+
+		Status(Object key) {
+			super(key, true);
+		}
+
+		@Override
+		Void decode(Object reply) {
+			return null;
+		}
+	}
+}
@@ -0,0 +1,17 @@
+package com.easycode.redis.server.cache;
+
+/**
+ * 近端缓存超出容量时的淘汰策略
+ */
+public enum EvictionPolicy {
+
+	/**
+	 * 淘汰最久未被访问的key
+	 */
+	LRU,
+
+	/**
+	 * 在最久未被访问的若干key中，淘汰命中次数最少的key（近似LFU，与redis的实现思路一致）
+	 */
+	LFU
+}
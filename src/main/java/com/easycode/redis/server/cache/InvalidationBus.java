@@ -0,0 +1,256 @@
+package com.easycode.redis.server.cache;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import com.easycode.redis.server.RedisContext;
+
+/**
+ * 基于redis发布/订阅的跨实例近端缓存失效通道。
+ * <p>
+ * 写操作涉及的key先进入本地队列，由后台线程按{@link InvalidationBusConfig#getFlushIntervalMillis()}合并去重后批量发布，
+ * 一次pipeline写入的所有key（如multiSet、putAll）会落在同一条消息中；订阅端收到消息后整批失效本地缓存。
+ * 本实例发布的消息会被自身忽略，因为写入时已在本地失效。
+ */
+public class InvalidationBus implements MessageListener {
+
+	private static final Logger logger = LoggerFactory.getLogger(InvalidationBus.class);
+
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	private static final byte TYPE_KEYS = 0;
+
+	private static final byte TYPE_CLEAR = 1;
+
+	private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+	private final RedisTemplate<?, ?> redisTemplate;
+
+	private final byte[] channel;
+
+	private final long flushIntervalMillis;
+
+	private final int maxKeysPerMessage;
+
+	private final int maxPendingKeys;
+
+	private final byte[] nodeId = UUID.randomUUID().toString().getBytes(UTF8);
+
+	private final ConcurrentLinkedQueue<Object> pending = new ConcurrentLinkedQueue<Object>();
+
+	private final AtomicInteger pendingCount = new AtomicInteger();
+
+	private final AtomicBoolean overflow = new AtomicBoolean();
+
+	private ScheduledExecutorService publisher;
+
+	private RedisMessageListenerContainer container;
+
+	public InvalidationBus(RedisTemplate<?, ?> redisTemplate, InvalidationBusConfig config) {
+		if (config == null) {
+			config = new InvalidationBusConfig();
+		}
+		this.redisTemplate = redisTemplate;
+		this.channel = config.getChannel().getBytes(UTF8);
+		this.flushIntervalMillis = config.getFlushIntervalMillis() <= 0 ? 1 : config.getFlushIntervalMillis();
+		this.maxKeysPerMessage = config.getMaxKeysPerMessage() <= 0 ? 1000 : config.getMaxKeysPerMessage();
+		this.maxPendingKeys = config.getMaxPendingKeys() <= 0 ? Integer.MAX_VALUE : config.getMaxPendingKeys();
+	}
+
+	public synchronized void start() {
+		if (publisher != null) {
+			return;
+		}
+		container = new RedisMessageListenerContainer();
+		container.setConnectionFactory(redisTemplate.getConnectionFactory());
+		container.addMessageListener(this, new ChannelTopic(new String(channel, UTF8)));
+		container.afterPropertiesSet();
+		container.start();
+
+		publisher = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread thread = new Thread(r, "redis-invalidation-bus-" + THREAD_COUNT.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		publisher.scheduleWithFixedDelay(new Runnable() {
+			@Override
+			public void run() {
+				flush();
+			}
+		}, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+	}
+
+	public synchronized void stop() {
+		if (publisher == null) {
+			return;
+		}
+		publisher.shutdown();
+		publisher = null;
+		flush();
+		try {
+			container.destroy();
+		} catch (Exception e) {
+			logger.warn("failed to stop near cache invalidation listener", e);
+		}
+		container = null;
+	}
+
+	/**
+	 * 登记被写入的key，等待下一次合并发布
+	 */
+	public void publish(Object key) {
+		if (key == null) {
+			return;
+		}
+		if (pendingCount.incrementAndGet() > maxPendingKeys) {
+			pendingCount.decrementAndGet();
+			overflow.set(true);
+			return;
+		}
+		pending.offer(key);
+	}
+
+	/**
+	 * 登记一次写操作涉及的全部key
+	 */
+	public void publishAll(Collection<?> keys) {
+		if (keys == null) {
+			return;
+		}
+		for (Object key : keys) {
+			publish(key);
+		}
+	}
+
+	/**
+	 * 立即发布所有待发布的key
+	 */
+	@SuppressWarnings("unchecked")
+	public void flush() {
+		final List<byte[]> messages = new ArrayList<byte[]>();
+		if (overflow.getAndSet(false)) {
+			// 积压过多时放弃逐个失效，通知所有实例清空近端缓存
+			while (pending.poll() != null) {
+				pendingCount.decrementAndGet();
+			}
+			messages.add(encode(TYPE_CLEAR, new ArrayList<byte[]>()));
+		} else {
+			Set<Object> keys = new LinkedHashSet<Object>();
+			Object key;
+			while ((key = pending.poll()) != null) {
+				pendingCount.decrementAndGet();
+				keys.add(key);
+			}
+			if (keys.size() <= 0) {
+				return;
+			}
+			RedisSerializer<Object> keySerializer = (RedisSerializer<Object>) redisTemplate.getKeySerializer();
+			List<byte[]> batch = new ArrayList<byte[]>();
+			for (Object k : keys) {
+				batch.add(keySerializer.serialize(k));
+				if (batch.size() >= maxKeysPerMessage) {
+					messages.add(encode(TYPE_KEYS, batch));
+					batch = new ArrayList<byte[]>();
+				}
+			}
+			if (batch.size() > 0) {
+				messages.add(encode(TYPE_KEYS, batch));
+			}
+		}
+
+		try {
+			redisTemplate.execute(new RedisCallback<Object>() {
+				@Override
+				public Object doInRedis(RedisConnection connection) throws DataAccessException {
+					for (byte[] message : messages) {
+						connection.publish(channel, message);
+					}
+					return null;
+				}
+			}, false, true);
+		} catch (RuntimeException e) {
+			overflow.set(true);
+			logger.warn("failed to publish near cache invalidation, will ask peers to clear on next flush", e);
+		}
+	}
+
+	@Override
+	public void onMessage(Message message, byte[] pattern) {
+		NearCache nearCache = nearCache();
+		if (nearCache == null) {
+			return;
+		}
+		ByteBuffer buffer = ByteBuffer.wrap(message.getBody());
+		byte type = buffer.get();
+		byte[] sender = new byte[buffer.get()];
+		buffer.get(sender);
+		if (Arrays.equals(sender, nodeId)) {
+			return;
+		}
+		if (type == TYPE_CLEAR) {
+			nearCache.clear();
+			return;
+		}
+
+		int count = buffer.getInt();
+		List<Object> keys = new ArrayList<Object>(count);
+		RedisSerializer<?> keySerializer = redisTemplate.getKeySerializer();
+		for (int i = 0; i < count; i++) {
+			byte[] rawKey = new byte[buffer.getInt()];
+			buffer.get(rawKey);
+			keys.add(keySerializer.deserialize(rawKey));
+		}
+		nearCache.invalidateAll(keys);
+	}
+
+	private NearCache nearCache() {
+		RedisContext context = RedisContext.get(redisTemplate);
+		return context == null ? null : context.getNearCache();
+	}
+
+	private byte[] encode(byte type, List<byte[]> rawKeys) {
+		int size = 2 + nodeId.length + 4;
+		for (byte[] rawKey : rawKeys) {
+			size += 4 + rawKey.length;
+		}
+		ByteBuffer buffer = ByteBuffer.allocate(size);
+		buffer.put(type);
+		buffer.put((byte) nodeId.length);
+		buffer.put(nodeId);
+		buffer.putInt(rawKeys.size());
+		for (byte[] rawKey : rawKeys) {
+			buffer.putInt(rawKey.length);
+			buffer.put(rawKey);
+		}
+		return buffer.array();
+	}
+}
@@ -0,0 +1,63 @@
+package com.easycode.redis.server.cache;
+
+/**
+ * 跨实例近端缓存失效通道的配置
+ */
+public class InvalidationBusConfig {
+
+	private String channel = "easycode:near-cache:invalidate";
+
+	private long flushIntervalMillis = 5L;
+
+	private int maxKeysPerMessage = 1000;
+
+	private int maxPendingKeys = 100000;
+
+	public String getChannel() {
+		return channel;
+	}
+
+	/**
+	 * @param channel
+	 *            发布/订阅失效消息的redis频道，使用同一频道的实例互相失效
+	 */
+	public void setChannel(String channel) {
+		this.channel = channel;
+	}
+
+	public long getFlushIntervalMillis() {
+		return flushIntervalMillis;
+	}
+
+	/**
+	 * @param flushIntervalMillis
+	 *            合并发布的时间窗口，窗口内同一个key只发布一次
+	 */
+	public void setFlushIntervalMillis(long flushIntervalMillis) {
+		this.flushIntervalMillis = flushIntervalMillis;
+	}
+
+	public int getMaxKeysPerMessage() {
+		return maxKeysPerMessage;
+	}
+
+	/**
+	 * @param maxKeysPerMessage
+	 *            单条失效消息中最多包含的key个数
+	 */
+	public void setMaxKeysPerMessage(int maxKeysPerMessage) {
+		this.maxKeysPerMessage = maxKeysPerMessage;
+	}
+
+	public int getMaxPendingKeys() {
+		return maxPendingKeys;
+	}
+
+	/**
+	 * @param maxPendingKeys
+	 *            待发布key的上限，超过后改为发布一条清空全部近端缓存的消息
+	 */
+	public void setMaxPendingKeys(int maxPendingKeys) {
+		this.maxPendingKeys = maxPendingKeys;
+	}
+}
@@ -0,0 +1,317 @@
+package com.easycode.redis.server.cache;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 位于redis前的进程内近端缓存，按key缓存GET读到的原始字节及反序列化后的值。
+ * <p>
+ * 容量同时受key个数与字节数限制，每个key的本地存活时间不超过其在redis中的剩余过期时间。
+ * 同一实例上的写操作通过{@link #invalidate(Object)}失效本地缓存；为避免“读旧值、写新值、旧值回填”的竞争，
+ * 回填时需带上读取前取得的{@link #generation(Object)}，期间同一分段上发生过失效的回填会被丢弃；
+ * 失效计数按key的hash分段，一个key的失效不影响其他分段上进行中的回填。
+ * <p>
+ * 缓存的值对象会被多个调用方共享，调用方不应修改返回的对象。
+ */
+public class NearCache {
+
+	private static final int ENTRY_OVERHEAD = 64;
+
+	private static final int GENERATION_STRIPES = 1024;
+
+	private final int maxEntries;
+
+	private final long maxBytes;
+
+	private final long timeToLiveMillis;
+
+	private final EvictionPolicy evictionPolicy;
+
+	private final int lfuSamples;
+
+	private final ReentrantLock lock = new ReentrantLock();
+
+	private final LinkedHashMap<Object, Entry> entries = new LinkedHashMap<Object, Entry>(16, 0.75f, true);
+
+	private long bytes;
+
+	private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+
+	private final AtomicLong hits = new AtomicLong();
+
+	private final AtomicLong misses = new AtomicLong();
+
+	private final AtomicLong loads = new AtomicLong();
+
+	private final AtomicLong evictions = new AtomicLong();
+
+	private final AtomicLong expirations = new AtomicLong();
+
+	private final AtomicLong invalidations = new AtomicLong();
+
+	public NearCache(NearCacheConfig config) {
+		if (config == null) {
+			config = new NearCacheConfig();
+		}
+		this.maxEntries = config.getMaxEntries() <= 0 ? Integer.MAX_VALUE : config.getMaxEntries();
+		this.maxBytes = config.getMaxBytes() <= 0 ? Long.MAX_VALUE : config.getMaxBytes();
+		this.timeToLiveMillis = config.getTimeToLiveMillis() <= 0 ? Long.MAX_VALUE : config.getTimeToLiveMillis();
+		this.evictionPolicy = config.getEvictionPolicy() == null ? EvictionPolicy.LRU : config.getEvictionPolicy();
+		this.lfuSamples = config.getLfuSamples() <= 0 ? 1 : config.getLfuSamples();
+	}
+
+	/**
+	 * 获取缓存的值
+	 *
+	 * @param key
+	 *            redis中的key
+	 * @return 缓存的值，未命中或已过期返回<tt>null</tt>
+	 */
+	public Object get(Object key) {
+		Entry entry = getEntry(key, true);
+		return entry == null ? null : entry.value;
+	}
+
+	/**
+	 * 获取缓存的原始字节
+	 *
+	 * @param key
+	 *            redis中的key
+	 * @return 缓存的原始字节，未命中或已过期返回<tt>null</tt>
+	 */
+	public byte[] getRaw(Object key) {
+		Entry entry = getEntry(key, false);
+		return entry == null ? null : entry.raw;
+	}
+
+	private Entry getEntry(Object key, boolean requireValue) {
+		if (key == null) {
+			return null;
+		}
+		lock.lock();
+		try {
+			Entry entry = entries.get(key);
+			if (entry == null) {
+				misses.incrementAndGet();
+				return null;
+			}
+			if (entry.expireAt <= System.currentTimeMillis()) {
+				remove(key, entry);
+				expirations.incrementAndGet();
+				misses.incrementAndGet();
+				return null;
+			}
+			if (requireValue && entry.value == null) {
+				// 只按原始字节缓存的条目，需要对象的调用方按未命中处理后重新回填
+				misses.incrementAndGet();
+				return null;
+			}
+			entry.hits++;
+			hits.incrementAndGet();
+			return entry;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * 读取redis之前调用，回填该key时原样传回
+	 */
+	public long generation(Object key) {
+		return generations.get(stripe(key));
+	}
+
+	/**
+	 * 回填从redis读取到的值
+	 *
+	 * @param key
+	 *            redis中的key
+	 * @param raw
+	 *            redis返回的原始字节
+	 * @param value
+	 *            反序列化后的值，为<tt>null</tt>时只缓存原始字节
+	 * @param redisTtlMillis
+	 *            key在redis中的剩余过期时间（PTTL），-1表示永不过期，-2表示key不存在
+	 * @param generation
+	 *            读取redis之前取得的{@link #generation(Object)}
+	 */
+	public void put(Object key, byte[] raw, Object value, Long redisTtlMillis, long generation) {
+		if (key == null || raw == null) {
+			return;
+		}
+		long ttl = timeToLiveMillis;
+		if (redisTtlMillis != null) {
+			if (redisTtlMillis.longValue() == -2 || redisTtlMillis.longValue() == 0) {
+				return;
+			}
+			if (redisTtlMillis.longValue() > 0 && redisTtlMillis.longValue() < ttl) {
+				ttl = redisTtlMillis.longValue();
+			}
+		}
+
+		long now = System.currentTimeMillis();
+		Entry entry = new Entry(raw, value, ttl == Long.MAX_VALUE ? Long.MAX_VALUE : now + ttl,
+				raw.length + ENTRY_OVERHEAD);
+		if (entry.weight > maxBytes) {
+			return;
+		}
+
+		lock.lock();
+		try {
+			if (generations.get(stripe(key)) != generation) {
+				return;
+			}
+			Entry old = entries.put(key, entry);
+			if (old != null) {
+				bytes -= old.weight;
+			}
+			bytes += entry.weight;
+			loads.incrementAndGet();
+			evictIfNecessary(now);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * 失效单个key
+	 */
+	public void invalidate(Object key) {
+		if (key == null) {
+			return;
+		}
+		generations.incrementAndGet(stripe(key));
+		lock.lock();
+		try {
+			Entry entry = entries.get(key);
+			if (entry != null) {
+				remove(key, entry);
+			}
+			invalidations.incrementAndGet();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * 批量失效，整批只加一次锁
+	 */
+	public void invalidateAll(Collection<?> keys) {
+		if (keys == null || keys.size() <= 0) {
+			return;
+		}
+		for (Object key : keys) {
+			if (key != null) {
+				generations.incrementAndGet(stripe(key));
+			}
+		}
+		lock.lock();
+		try {
+			for (Object key : keys) {
+				Entry entry = key == null ? null : entries.get(key);
+				if (entry != null) {
+					remove(key, entry);
+				}
+			}
+			invalidations.addAndGet(keys.size());
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public void clear() {
+		for (int i = 0; i < GENERATION_STRIPES; i++) {
+			generations.incrementAndGet(i);
+		}
+		lock.lock();
+		try {
+			entries.clear();
+			bytes = 0;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public NearCacheStats getStats() {
+		int size;
+		long currentBytes;
+		lock.lock();
+		try {
+			size = entries.size();
+			currentBytes = bytes;
+		} finally {
+			lock.unlock();
+		}
+		return new NearCacheStats(hits.get(), misses.get(), loads.get(), evictions.get(), expirations.get(),
+				invalidations.get(), size, currentBytes);
+	}
+
+	private static int stripe(Object key) {
+		int h = key.hashCode();
+		return (h ^ (h >>> 16)) & (GENERATION_STRIPES - 1);
+	}
+
+	private void remove(Object key, Entry entry) {
+		entries.remove(key);
+		bytes -= entry.weight;
+	}
+
+	private void evictIfNecessary(long now) {
+		while (entries.size() > maxEntries || bytes > maxBytes) {
+			Object victimKey = null;
+			Entry victim = null;
+			int sampled = 0;
+			Iterator<Map.Entry<Object, Entry>> iterator = entries.entrySet().iterator();
+			while (iterator.hasNext() && sampled < lfuSamples) {
+				Map.Entry<Object, Entry> candidate = iterator.next();
+				if (candidate.getValue().expireAt <= now) {
+					victimKey = candidate.getKey();
+					victim = candidate.getValue();
+					break;
+				}
+				if (victim == null || candidate.getValue().hits < victim.hits) {
+					victimKey = candidate.getKey();
+					victim = candidate.getValue();
+				}
+				if (evictionPolicy == EvictionPolicy.LRU) {
+					break;
+				}
+				sampled++;
+			}
+			if (victim == null) {
+				return;
+			}
+			remove(victimKey, victim);
+			if (victim.expireAt <= now) {
+				expirations.incrementAndGet();
+			} else {
+				evictions.incrementAndGet();
+			}
+		}
+	}
+
+	private static final class Entry {
+
+		private final byte[] raw;
+
+		private final Object value;
+
+		private final long expireAt;
+
+		private final int weight;
+
+		private long hits;
+
+		private Entry(byte[] raw, Object value, long expireAt, int weight) {
+			this.raw = raw;
+			this.value = value;
+			this.expireAt = expireAt;
+			this.weight = weight;
+		}
+	}
+}
@@ -0,0 +1,90 @@
+package com.easycode.redis.server.cache;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 近端缓存配置，所有属性均提供默认值，可直接在spring中按bean属性注入
+ */
+public class NearCacheConfig {
+
+	private int maxEntries = 10000;
+
+	private long maxBytes = 64L * 1024 * 1024;
+
+	private long timeToLive = 60000L;
+
+	private TimeUnit timeUnit = TimeUnit.MILLISECONDS;
+
+	private EvictionPolicy evictionPolicy = EvictionPolicy.LRU;
+
+	private int lfuSamples = 8;
+
+	public int getMaxEntries() {
+		return maxEntries;
+	}
+
+	/**
+	 * @param maxEntries
+	 *            缓存的最大key个数
+	 */
+	public void setMaxEntries(int maxEntries) {
+		this.maxEntries = maxEntries;
+	}
+
+	public long getMaxBytes() {
+		return maxBytes;
+	}
+
+	/**
+	 * @param maxBytes
+	 *            缓存值（序列化后）占用的最大字节数
+	 */
+	public void setMaxBytes(long maxBytes) {
+		this.maxBytes = maxBytes;
+	}
+
+	public long getTimeToLive() {
+		return timeToLive;
+	}
+
+	/**
+	 * @param timeToLive
+	 *            本地缓存的最长存活时间，若redis中key的剩余过期时间更短，以redis为准
+	 */
+	public void setTimeToLive(long timeToLive) {
+		this.timeToLive = timeToLive;
+	}
+
+	public TimeUnit getTimeUnit() {
+		return timeUnit;
+	}
+
+	public void setTimeUnit(TimeUnit timeUnit) {
+		this.timeUnit = timeUnit;
+	}
+
+	public EvictionPolicy getEvictionPolicy() {
+		return evictionPolicy;
+	}
+
+	public void setEvictionPolicy(EvictionPolicy evictionPolicy) {
+		this.evictionPolicy = evictionPolicy;
+	}
+
+	public int getLfuSamples() {
+		return lfuSamples;
+	}
+
+	/**
+	 * @param lfuSamples
+	 *            LFU淘汰时采样的key个数
+	 */
+	public void setLfuSamples(int lfuSamples) {
+		this.lfuSamples = lfuSamples;
+	}
+
+	public long getTimeToLiveMillis() {
+		TimeUnit unit = timeUnit == null ? TimeUnit.MILLISECONDS : timeUnit;
+		return unit.toMillis(timeToLive);
+	}
+}
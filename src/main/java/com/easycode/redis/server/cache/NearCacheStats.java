@@ -0,0 +1,79 @@
+package com.easycode.redis.server.cache;
+
+/**
+ * 近端缓存统计数据的快照
+ */
+public class NearCacheStats {
+
+	private final long hits;
+
+	private final long misses;
+
+	private final long loads;
+
+	private final long evictions;
+
+	private final long expirations;
+
+	private final long invalidations;
+
+	private final int size;
+
+	private final long bytes;
+
+	public NearCacheStats(long hits, long misses, long loads, long evictions, long expirations, long invalidations,
+			int size, long bytes) {
+		this.hits = hits;
+		this.misses = misses;
+		this.loads = loads;
+		this.evictions = evictions;
+		this.expirations = expirations;
+		this.invalidations = invalidations;
+		this.size = size;
+		this.bytes = bytes;
+	}
+
+	public long getHits() {
+		return hits;
+	}
+
+	public long getMisses() {
+		return misses;
+	}
+
+	public long getLoads() {
+		return loads;
+	}
+
+	public long getEvictions() {
+		return evictions;
+	}
+
+	public long getExpirations() {
+		return expirations;
+	}
+
+	public long getInvalidations() {
+		return invalidations;
+	}
+
+	public int getSize() {
+		return size;
+	}
+
+	public long getBytes() {
+		return bytes;
+	}
+
+	public double getHitRate() {
+		long total = hits + misses;
+		return total == 0 ? 0 : (double) hits / total;
+	}
+
+	@Override
+	public String toString() {
+		return "NearCacheStats [hits=" + hits + ", misses=" + misses + ", loads=" + loads + ", evictions=" + evictions
+				+ ", expirations=" + expirations + ", invalidations=" + invalidations + ", size=" + size + ", bytes="
+				+ bytes + "]";
+	}
+}
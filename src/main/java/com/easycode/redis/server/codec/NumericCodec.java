@@ -0,0 +1,185 @@
+package com.easycode.redis.server.codec;
+
+/**
+ * 数字与ASCII十进制字节之间的编解码，格式与redis的INCRBY/INCRBYFLOAT一致，因此写入的值可以直接被这些命令累加。
+ * <p>
+ * 解析直接在字节上进行，不创建String或包装对象；无法识别的格式由调用方回退到value序列化器。
+ */
+public final class NumericCodec {
+
+	private static final byte[] LONG_MIN = "-9223372036854775808".getBytes();
+
+	// 10^0 ~ 10^22均可被double精确表示
+	private static final double[] POWERS_OF_TEN = new double[23];
+
+	static {
+		double power = 1;
+		for (int i = 0; i < POWERS_OF_TEN.length; i++) {
+			POWERS_OF_TEN[i] = power;
+			power *= 10;
+		}
+	}
+
+	private NumericCodec() {
+	}
+
+	public static byte[] encodeLong(long value) {
+		if (value == Long.MIN_VALUE) {
+			return LONG_MIN.clone();
+		}
+		boolean negative = value < 0;
+		long remaining = negative ? -value : value;
+		int length = negative ? 2 : 1;
+		for (long v = remaining; v >= 10; v /= 10) {
+			length++;
+		}
+		byte[] raw = new byte[length];
+		for (int i = length - 1; i >= (negative ? 1 : 0); i--) {
+			raw[i] = (byte) ('0' + remaining % 10);
+			remaining /= 10;
+		}
+		if (negative) {
+			raw[0] = '-';
+		}
+		return raw;
+	}
+
+	/**
+	 * 整数值按{@link #encodeLong(long)}编码，其余使用Java的最短往返表示；NaN与无穷大redis无法累加，不允许写入
+	 */
+	public static byte[] encodeDouble(double value) {
+		if (Double.isNaN(value) || Double.isInfinite(value)) {
+			throw new IllegalArgumentException("can not encode " + value);
+		}
+		if (value == (long) value && Math.abs(value) < 1e15) {
+			return encodeLong((long) value);
+		}
+		String text = Double.toString(value);
+		byte[] raw = new byte[text.length()];
+		for (int i = 0; i < raw.length; i++) {
+			raw[i] = (byte) text.charAt(i);
+		}
+		return raw;
+	}
+
+	/**
+	 * 是否为可以按long解析的十进制整数
+	 */
+	public static boolean isLong(byte[] raw) {
+		if (raw == null || raw.length <= 0 || raw.length > 20) {
+			return false;
+		}
+		int start = raw[0] == '-' ? 1 : 0;
+		if (start >= raw.length) {
+			return false;
+		}
+		long value = 0;
+		for (int i = start; i < raw.length; i++) {
+			int digit = raw[i] - '0';
+			if (digit < 0 || digit > 9) {
+				return false;
+			}
+			// 以负数累加，避免Long.MIN_VALUE溢出
+			if (value < (Long.MIN_VALUE + digit) / 10) {
+				return false;
+			}
+			value = value * 10 - digit;
+		}
+		return start == 1 || value != Long.MIN_VALUE;
+	}
+
+	/**
+	 * 解析十进制整数，调用前需通过{@link #isLong(byte[])}校验
+	 */
+	public static long decodeLong(byte[] raw) {
+		int start = raw[0] == '-' ? 1 : 0;
+		long value = 0;
+		for (int i = start; i < raw.length; i++) {
+			value = value * 10 - (raw[i] - '0');
+		}
+		return start == 1 ? value : -value;
+	}
+
+	/**
+	 * 是否为十进制数字（可含小数点与指数），即INCRBYFLOAT可以识别的格式
+	 */
+	public static boolean isNumber(byte[] raw) {
+		if (raw == null || raw.length <= 0 || raw.length > 64) {
+			return false;
+		}
+		int i = raw[0] == '-' || raw[0] == '+' ? 1 : 0;
+		int digits = 0;
+		boolean dot = false;
+		for (; i < raw.length; i++) {
+			byte b = raw[i];
+			if (b >= '0' && b <= '9') {
+				digits++;
+			} else if (b == '.' && !dot) {
+				dot = true;
+			} else if ((b == 'e' || b == 'E') && digits > 0) {
+				i++;
+				if (i < raw.length && (raw[i] == '-' || raw[i] == '+')) {
+					i++;
+				}
+				if (i >= raw.length) {
+					return false;
+				}
+				for (; i < raw.length; i++) {
+					if (raw[i] < '0' || raw[i] > '9') {
+						return false;
+					}
+				}
+				return true;
+			} else {
+				return false;
+			}
+		}
+		return digits > 0;
+	}
+
+	/**
+	 * 解析十进制数字，调用前需通过{@link #isNumber(byte[])}校验。
+	 * <p>
+	 * 不超过15位有效数字且不含指数时直接在字节上计算（结果与Double.parseDouble一致），其余情况交给Double.parseDouble。
+	 */
+	public static double decodeDouble(byte[] raw) {
+		int i = raw[0] == '-' || raw[0] == '+' ? 1 : 0;
+		boolean negative = raw[0] == '-';
+		long mantissa = 0;
+		int digits = 0;
+		int scale = -1;
+		for (; i < raw.length; i++) {
+			byte b = raw[i];
+			if (b == '.') {
+				scale = 0;
+				continue;
+			}
+			if (b < '0' || b > '9' || digits >= 15) {
+				return slowDecodeDouble(raw);
+			}
+			if (mantissa != 0 || b != '0') {
+				digits++;
+			}
+			mantissa = mantissa * 10 + (b - '0');
+			if (scale >= 0) {
+				scale++;
+			}
+		}
+		if (scale < 0) {
+			scale = 0;
+		}
+		if (scale >= POWERS_OF_TEN.length) {
+			return slowDecodeDouble(raw);
+		}
+		double value = mantissa / POWERS_OF_TEN[scale];
+		return negative ? -value : value;
+	}
+
+	private static double slowDecodeDouble(byte[] raw) {
+		char[] chars = new char[raw.length];
+		for (int i = 0; i < raw.length; i++) {
+			chars[i] = (char) raw[i];
+		}
+		return Double.parseDouble(new String(chars));
+	}
+}
@@ -0,0 +1,171 @@
+package com.easycode.redis.server.codec;
+
+import java.math.BigDecimal;
+
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.SerializationException;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import com.easycode.redis.server.metrics.RedisMetrics;
+
+/**
+ * 按RedisTemplate预先解析好的编解码器，避免每次调用都查找并判空各个序列化器。
+ * <p>
+ * 创建时读取template上的序列化器，之后template上的序列化器变更不会生效，需通过{@code Redis.resetCodecs}重新解析。
+ * <p>
+ * 开启客户端指标时在这里统计读写的字节数，只包含经过编解码器的key与value，不含协议开销及直接经由template序列化的数据。
+ */
+public final class RedisCodecs {
+
+	private final RedisSerializer<Object> keySerializer;
+
+	private final RedisSerializer<Object> valueSerializer;
+
+	private final RedisSerializer<Object> hashKeySerializer;
+
+	private final RedisSerializer<Object> hashValueSerializer;
+
+	private final RedisSerializer<String> stringSerializer;
+
+	private volatile RedisMetrics metrics;
+
+	@SuppressWarnings("unchecked")
+	public RedisCodecs(RedisTemplate<?, ?> redisTemplate) {
+		RedisSerializer<?> defaultSerializer = redisTemplate.getDefaultSerializer();
+		RedisSerializer<?> serializer = redisTemplate.getKeySerializer();
+		this.keySerializer = (RedisSerializer<Object>) (serializer == null ? redisTemplate.getStringSerializer()
+				: serializer);
+		serializer = redisTemplate.getValueSerializer();
+		this.valueSerializer = (RedisSerializer<Object>) (serializer == null ? defaultSerializer : serializer);
+		serializer = redisTemplate.getHashKeySerializer();
+		this.hashKeySerializer = (RedisSerializer<Object>) (serializer == null ? defaultSerializer : serializer);
+		serializer = redisTemplate.getHashValueSerializer();
+		this.hashValueSerializer = (RedisSerializer<Object>) (serializer == null ? defaultSerializer : serializer);
+		this.stringSerializer = redisTemplate.getStringSerializer();
+	}
+
+	public void setMetrics(RedisMetrics metrics) {
+		this.metrics = metrics;
+	}
+
+	public byte[] encodeKey(Object key) {
+		return out(keySerializer.serialize(key));
+	}
+
+	public Object decodeKey(byte[] raw) {
+		return keySerializer.deserialize(in(raw));
+	}
+
+	public byte[] encodeValue(Object value) {
+		return out(valueSerializer.serialize(value));
+	}
+
+	/**
+	 * 用value序列化器反序列化，<tt>null</tt>原样返回
+	 */
+	public Object decodeValue(byte[] raw) {
+		if (raw == null) {
+			return null;
+		}
+		return valueSerializer.deserialize(in(raw));
+	}
+
+	/**
+	 * 按目标类型反序列化，String使用字符串序列化器，其余使用value序列化器；空字节返回<tt>null</tt>
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> T decodeValue(byte[] raw, Class<T> clazz) {
+		if (raw == null || raw.length <= 0) {
+			return null;
+		}
+		in(raw);
+		if (clazz == String.class) {
+			return (T) stringSerializer.deserialize(raw);
+		}
+		return (T) valueSerializer.deserialize(raw);
+	}
+
+	public byte[] encodeHashKey(Object hashKey) {
+		return out(hashKeySerializer.serialize(hashKey));
+	}
+
+	public Object decodeHashKey(byte[] raw) {
+		return hashKeySerializer.deserialize(in(raw));
+	}
+
+	public byte[] encodeHashValue(Object hashValue) {
+		return out(hashValueSerializer.serialize(hashValue));
+	}
+
+	public Object decodeHashValue(byte[] raw) {
+		return hashValueSerializer.deserialize(in(raw));
+	}
+
+	public byte[] encodeString(String value) {
+		return out(stringSerializer.serialize(value));
+	}
+
+	public String decodeString(byte[] raw) {
+		return stringSerializer.deserialize(in(raw));
+	}
+
+	/**
+	 * 按redis INCRBY可识别的ASCII十进制编码
+	 */
+	public byte[] encodeLong(long value) {
+		return out(NumericCodec.encodeLong(value));
+	}
+
+	public byte[] encodeDouble(double value) {
+		return out(NumericCodec.encodeDouble(value));
+	}
+
+	/**
+	 * 解码数字，ASCII十进制直接解析；其余（如旧数据由value序列化器写入）回退到value序列化器
+	 */
+	public long decodeLong(byte[] raw) {
+		in(raw);
+		if (NumericCodec.isLong(raw)) {
+			return NumericCodec.decodeLong(raw);
+		}
+		if (NumericCodec.isNumber(raw)) {
+			return (long) NumericCodec.decodeDouble(raw);
+		}
+		return decodeNumber(raw).longValue();
+	}
+
+	public double decodeDouble(byte[] raw) {
+		in(raw);
+		if (NumericCodec.isNumber(raw)) {
+			return NumericCodec.decodeDouble(raw);
+		}
+		return decodeNumber(raw).doubleValue();
+	}
+
+	private Number decodeNumber(byte[] raw) {
+		Object value = valueSerializer.deserialize(raw);
+		if (value instanceof Number) {
+			return (Number) value;
+		}
+		if (value instanceof String) {
+			return new BigDecimal((String) value);
+		}
+		throw new SerializationException("value is not a number: " + value);
+	}
+
+	private byte[] out(byte[] raw) {
+		RedisMetrics metrics = this.metrics;
+		if (metrics != null && raw != null) {
+			metrics.recordBytesOut(raw.length);
+		}
+		return raw;
+	}
+
+	private byte[] in(byte[] raw) {
+		RedisMetrics metrics = this.metrics;
+		if (metrics != null && raw != null) {
+			metrics.recordBytesIn(raw.length);
+		}
+		return raw;
+	}
+}
@@ -0,0 +1,49 @@
+package com.easycode.redis.server.concurrency;
+
+/**
+ * 连接并发上限的配置
+ */
+public class ConcurrencyLimitConfig {
+
+	private int maxConcurrency;
+
+	private long acquireTimeoutMillis = 2000L;
+
+	private boolean fair = true;
+
+	public int getMaxConcurrency() {
+		return maxConcurrency;
+	}
+
+	/**
+	 * @param maxConcurrency
+	 *            同时占用的连接数上限，不超过连接池的maxTotal；为0时取JedisConnectionFactory连接池的maxTotal
+	 */
+	public void setMaxConcurrency(int maxConcurrency) {
+		this.maxConcurrency = maxConcurrency;
+	}
+
+	public long getAcquireTimeoutMillis() {
+		return acquireTimeoutMillis;
+	}
+
+	/**
+	 * @param acquireTimeoutMillis
+	 *            等待许可的超时时间（毫秒），超时抛出RedisConnectionFailureException；小于0时一直等待
+	 */
+	public void setAcquireTimeoutMillis(long acquireTimeoutMillis) {
+		this.acquireTimeoutMillis = acquireTimeoutMillis;
+	}
+
+	public boolean isFair() {
+		return fair;
+	}
+
+	/**
+	 * @param fair
+	 *            是否按到达顺序发放许可，默认是，避免高并发下个别调用方长时间拿不到连接
+	 */
+	public void setFair(boolean fair) {
+		this.fair = fair;
+	}
+}
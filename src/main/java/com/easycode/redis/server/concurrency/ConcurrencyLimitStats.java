@@ -0,0 +1,60 @@
+package com.easycode.redis.server.concurrency;
+
+/**
+ * 连接并发上限统计数据的快照
+ */
+public class ConcurrencyLimitStats {
+
+	private final int maxConcurrency;
+
+	private final int inUse;
+
+	private final int waiting;
+
+	private final long acquired;
+
+	private final long timeouts;
+
+	public ConcurrencyLimitStats(int maxConcurrency, int inUse, int waiting, long acquired, long timeouts) {
+		this.maxConcurrency = maxConcurrency;
+		this.inUse = inUse;
+		this.waiting = waiting;
+		this.acquired = acquired;
+		this.timeouts = timeouts;
+	}
+
+	public int getMaxConcurrency() {
+		return maxConcurrency;
+	}
+
+	/**
+	 * 当前占用的许可数
+	 */
+	public int getInUse() {
+		return inUse;
+	}
+
+	/**
+	 * 正在等待许可的调用数（估计值）
+	 */
+	public int getWaiting() {
+		return waiting;
+	}
+
+	public long getAcquired() {
+		return acquired;
+	}
+
+	/**
+	 * 等待许可超时的次数
+	 */
+	public long getTimeouts() {
+		return timeouts;
+	}
+
+	@Override
+	public String toString() {
+		return "ConcurrencyLimitStats [maxConcurrency=" + maxConcurrency + ", inUse=" + inUse + ", waiting=" + waiting
+				+ ", acquired=" + acquired + ", timeouts=" + timeouts + "]";
+	}
+}
@@ -0,0 +1,195 @@
+package com.easycode.redis.server.concurrency;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisSentinelConnection;
+import org.springframework.data.redis.connection.jedis.JedisConnectionFactory;
+
+import com.easycode.redis.server.metrics.TimedConnectionFactory;
+
+/**
+ * 用信号量限制同时占用连接数的连接工厂装饰器。
+ * <p>
+ * 许可数不超过连接池的maxTotal，取连接的线程先在信号量上排队，拿到许可后连接池中必有空闲连接，
+ * 不会在连接池内部阻塞等待；信号量基于AQS，等待时不占用虚拟线程的载体线程。连接关闭时归还许可。
+ * <p>
+ * 同一线程在持有连接时再次取连接（如回调中再调用RedisTemplate）不再占用许可，避免许可耗尽时自己等自己；
+ * 这些连接共用外层连接的许可，全部关闭后才归还，与关闭的顺序和所在线程无关。
+ * 订阅连接在subscribe时提前归还自己的份额，长期阻塞的订阅不占用并发额度。
+ */
+public class ConcurrencyLimitedConnectionFactory implements RedisConnectionFactory {
+
+	private final RedisConnectionFactory delegate;
+
+	private final int maxConcurrency;
+
+	private final long acquireTimeoutMillis;
+
+	private final Semaphore permits;
+
+	private final ThreadLocal<Lease> leases = new ThreadLocal<Lease>();
+
+	private final LongAdder acquired = new LongAdder();
+
+	private final LongAdder timeouts = new LongAdder();
+
+	public ConcurrencyLimitedConnectionFactory(RedisConnectionFactory delegate, ConcurrencyLimitConfig config) {
+		this.delegate = delegate;
+		this.maxConcurrency = config.getMaxConcurrency() > 0 ? config.getMaxConcurrency() : poolSize(delegate);
+		this.acquireTimeoutMillis = config.getAcquireTimeoutMillis();
+		this.permits = new Semaphore(maxConcurrency, config.isFair());
+	}
+
+	public RedisConnectionFactory getDelegate() {
+		return delegate;
+	}
+
+	public int getMaxConcurrency() {
+		return maxConcurrency;
+	}
+
+	public ConcurrencyLimitStats getStats() {
+		return new ConcurrencyLimitStats(maxConcurrency, maxConcurrency - permits.availablePermits(),
+				permits.getQueueLength(), acquired.sum(), timeouts.sum());
+	}
+
+	@Override
+	public RedisConnection getConnection() {
+		Lease lease = leases.get();
+		if (lease == null || !lease.retain()) {
+			acquire();
+			lease = new Lease();
+			leases.set(lease);
+		}
+		RedisConnection connection;
+		try {
+			connection = delegate.getConnection();
+		} catch (RuntimeException e) {
+			lease.release();
+			throw e;
+		}
+		return (RedisConnection) Proxy.newProxyInstance(RedisConnection.class.getClassLoader(),
+				new Class<?>[] { RedisConnection.class }, new PermitHandler(connection, lease));
+	}
+
+	private void acquire() {
+		boolean acquiredPermit;
+		try {
+			if (acquireTimeoutMillis < 0) {
+				permits.acquire();
+				acquiredPermit = true;
+			} else {
+				acquiredPermit = permits.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RedisConnectionFailureException("Interrupted while waiting for a redis connection", e);
+		}
+		if (!acquiredPermit) {
+			timeouts.increment();
+			throw new RedisConnectionFailureException("Timed out after " + acquireTimeoutMillis
+					+ " ms waiting for one of " + maxConcurrency + " redis connections");
+		}
+		acquired.increment();
+	}
+
+	@Override
+	public boolean getConvertPipelineAndTxResults() {
+		return delegate.getConvertPipelineAndTxResults();
+	}
+
+	@Override
+	public RedisSentinelConnection getSentinelConnection() {
+		return delegate.getSentinelConnection();
+	}
+
+	@Override
+	public DataAccessException translateExceptionIfPossible(RuntimeException ex) {
+		return delegate.translateExceptionIfPossible(ex);
+	}
+
+	private static int poolSize(RedisConnectionFactory factory) {
+		if (factory instanceof TimedConnectionFactory) {
+			return poolSize(((TimedConnectionFactory) factory).getDelegate());
+		}
+		if (factory instanceof JedisConnectionFactory && ((JedisConnectionFactory) factory).getUsePool()
+				&& ((JedisConnectionFactory) factory).getPoolConfig() != null) {
+			int maxTotal = ((JedisConnectionFactory) factory).getPoolConfig().getMaxTotal();
+			if (maxTotal > 0) {
+				return maxTotal;
+			}
+		}
+		throw new IllegalArgumentException(
+				"maxConcurrency is required unless the connection factory is a bounded JedisConnectionFactory pool");
+	}
+
+	/**
+	 * 一个许可及共用它的连接数，计数降到0时归还许可，之后不能再共用
+	 */
+	private final class Lease {
+
+		private final AtomicInteger connections = new AtomicInteger(1);
+
+		private boolean retain() {
+			for (;;) {
+				int current = connections.get();
+				if (current == 0) {
+					return false;
+				}
+				if (connections.compareAndSet(current, current + 1)) {
+					return true;
+				}
+			}
+		}
+
+		private void release() {
+			if (connections.decrementAndGet() == 0) {
+				permits.release();
+			}
+		}
+	}
+
+	/**
+	 * 关闭连接时释放它在许可上的份额，只释放一次
+	 */
+	private final class PermitHandler implements InvocationHandler {
+
+		private final RedisConnection connection;
+
+		private final Lease lease;
+
+		private final AtomicBoolean released = new AtomicBoolean();
+
+		PermitHandler(RedisConnection connection, Lease lease) {
+			this.connection = connection;
+			this.lease = lease;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			String name = method.getName();
+			if ("close".equals(name) || "subscribe".equals(name) || "pSubscribe".equals(name)) {
+				if (released.compareAndSet(false, true)) {
+					lease.release();
+				}
+			}
+			try {
+				return method.invoke(connection, args);
+			} catch (InvocationTargetException e) {
+				throw e.getTargetException();
+			}
+		}
+	}
+}
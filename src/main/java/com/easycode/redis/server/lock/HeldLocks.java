@@ -0,0 +1,47 @@
+package com.easycode.redis.server.lock;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 按key登记通过lock(key)获得、之后以unlock(key)释放的锁句柄，句柄绑定到加锁的线程。
+ * <p>
+ * 只有加锁的线程能释放自己登记的句柄：租约过期后锁被其他线程获得时，原线程的unlock(key)不会释放新持有者的锁，
+ * 未持有锁的线程调用unlock(key)也不起作用。
+ */
+public class HeldLocks<K> {
+
+	private final ConcurrentMap<K, Held> locks = new ConcurrentHashMap<K, Held>();
+
+	/**
+	 * 登记当前线程获得的锁，覆盖该key上租约已过期的旧持有者
+	 */
+	public void hold(K key, RedisLock lock) {
+		locks.put(key, new Held(lock, Thread.currentThread()));
+	}
+
+	/**
+	 * 释放当前线程登记的锁
+	 *
+	 * @return 当前线程未持有该key上登记的锁时返回false
+	 */
+	public boolean release(K key) {
+		Held held = locks.get(key);
+		if (held == null || held.owner != Thread.currentThread() || !locks.remove(key, held)) {
+			return false;
+		}
+		return held.lock.unlock();
+	}
+
+	private static final class Held {
+
+		private final RedisLock lock;
+
+		private final Thread owner;
+
+		private Held(RedisLock lock, Thread owner) {
+			this.lock = lock;
+			this.owner = owner;
+		}
+	}
+}
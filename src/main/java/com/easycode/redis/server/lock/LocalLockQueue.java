@@ -0,0 +1,255 @@
+package com.easycode.redis.server.lock;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+
+/**
+ * 分布式锁前的本地排队层。
+ * <p>
+ * 同一JVM内同一个锁key同时只有一个线程去redis竞争，其余线程在本地的公平队列中等待，不产生redis请求。
+ * 持有者释放时若本地仍有等待者，先续约再把redis锁直接交给下一个等待者，省去一次释放与重新竞争；
+ * 连续交接{@value #MAX_HANDOFFS}次后强制在redis中释放一次，给其他实例竞争的机会。
+ * <p>
+ * 本地许可的占有时间以租约为限：未开启自动续期的锁在租约到期后仍未{@link RedisLock#unlock()}时，由下一个等待者收回许可，
+ * 此后原句柄的unlock不再生效。
+ * <p>
+ * 每个key的队列按引用计数创建与回收，计数由按key散列的分段锁保护；分段锁与排队都基于AQS，在虚拟线程中等待时不占用载体线程。
+ */
+public class LocalLockQueue {
+
+	private static final Logger logger = LoggerFactory.getLogger(LocalLockQueue.class);
+
+	private static final int STRIPES = 64;
+
+	private static final int MAX_HANDOFFS = 16;
+
+	private final RedisTemplate<?, ?> redisTemplate;
+
+	private final Stripe[] stripes = new Stripe[STRIPES];
+
+	public LocalLockQueue(RedisTemplate<?, ?> redisTemplate) {
+		this.redisTemplate = redisTemplate;
+		for (int i = 0; i < STRIPES; i++) {
+			stripes[i] = new Stripe();
+		}
+	}
+
+	/**
+	 * 先在本地排队，轮到后再向redis加锁；本地等待与redis重试共用waitMillis
+	 *
+	 * @return 加锁成功返回锁的句柄，否则返回<tt>null</tt>
+	 */
+	public RedisLock tryAcquire(Object key, byte[] rawKey, long leaseMillis, long waitMillis) {
+		return acquire(key, rawKey, leaseMillis, waitMillis, true);
+	}
+
+	/**
+	 * 最多在本地排队waitMillis，轮到后只向redis尝试一次，不在redis上轮询
+	 *
+	 * @return 加锁成功返回锁的句柄，否则返回<tt>null</tt>
+	 */
+	public RedisLock tryAcquireLocally(Object key, byte[] rawKey, long leaseMillis, long waitMillis) {
+		return acquire(key, rawKey, leaseMillis, waitMillis, false);
+	}
+
+	private RedisLock acquire(Object key, byte[] rawKey, long leaseMillis, long waitMillis, boolean retryInRedis) {
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(waitMillis);
+		ByteBuffer slotKey = ByteBuffer.wrap(rawKey);
+		Slot slot = retain(slotKey);
+		if (!acquirePermit(slotKey, slot, deadline)) {
+			releaseSlot(slotKey, slot);
+			return null;
+		}
+
+		RedisLock lock = null;
+		try {
+			RedisLock handoff = slot.handoff;
+			if (handoff != null) {
+				slot.handoff = null;
+				if (System.nanoTime() - slot.handoffNanos < TimeUnit.MILLISECONDS.toNanos(handoff.getLeaseMillis()) / 2) {
+					lock = handoff;
+					return lock;
+				}
+				// 交接后搁置过久，剩余租约不可靠，放弃后重新加锁
+				handoff.deleteIfOwner();
+			}
+			slot.handoffs = 0;
+			long remaining = retryInRedis ? TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()) : 0;
+			lock = RedisLock.tryAcquire(redisTemplate, key, rawKey, leaseMillis, remaining, this);
+			return lock;
+		} finally {
+			if (lock == null) {
+				slot.permit.release();
+				releaseSlot(slotKey, slot);
+			} else {
+				slot.holder = lock;
+			}
+		}
+	}
+
+	/**
+	 * 等待本地许可；持有者未续期且租约已到期仍未释放时，收回其许可，避免依赖租约过期的调用方永久占住本地队列
+	 */
+	private boolean acquirePermit(ByteBuffer slotKey, Slot slot, long deadline) {
+		try {
+			while (true) {
+				long remaining = deadline - System.nanoTime();
+				RedisLock holder = slot.holder;
+				if (holder != null && !holder.isReleased() && !holder.isAutoRenewing()) {
+					remaining = Math.min(remaining, holder.expireNanos - System.nanoTime());
+				}
+				if (remaining <= 0 ? slot.permit.tryAcquire() : slot.permit.tryAcquire(remaining,
+						TimeUnit.NANOSECONDS)) {
+					return true;
+				}
+				if (!reclaim(slotKey, slot) && deadline - System.nanoTime() <= 0) {
+					return false;
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+
+	private boolean reclaim(ByteBuffer slotKey, Slot slot) {
+		RedisLock holder = slot.holder;
+		if (holder == null || holder.isAutoRenewing() || System.nanoTime() - holder.expireNanos < 0
+				|| !holder.expire()) {
+			return false;
+		}
+		logger.debug("lease of redis lock {} ran out without unlock, reclaiming its local permit", holder.getKey());
+		slot.holder = null;
+		slot.permit.release();
+		releaseSlot(slotKey, slot);
+		return true;
+	}
+
+	/**
+	 * 由{@link RedisLock#unlock()}调用，此时调用方仍占有本地许可
+	 */
+	boolean release(RedisLock lock) {
+		ByteBuffer slotKey = ByteBuffer.wrap(lock.rawKey);
+		Slot slot = slot(slotKey);
+		boolean released = false;
+		try {
+			if (slot != null && slot.permit.hasQueuedThreads() && slot.handoffs < MAX_HANDOFFS) {
+				try {
+					if (lock.renew()) {
+						slot.handoffs++;
+						slot.handoffNanos = System.nanoTime();
+						slot.handoff = lock.handOff();
+						released = true;
+					}
+				} catch (RuntimeException e) {
+					logger.warn("failed to hand off redis lock " + lock.getKey() + ", releasing it", e);
+				}
+			}
+			if (!released) {
+				released = lock.deleteIfOwner();
+			}
+		} finally {
+			if (slot != null) {
+				slot.holder = null;
+				slot.permit.release();
+				releaseSlot(slotKey, slot);
+			}
+		}
+		return released;
+	}
+
+	private Stripe stripe(ByteBuffer slotKey) {
+		int h = slotKey.hashCode();
+		h ^= (h >>> 16);
+		return stripes[h & (STRIPES - 1)];
+	}
+
+	private Slot retain(ByteBuffer slotKey) {
+		Stripe stripe = stripe(slotKey);
+		stripe.lock();
+		try {
+			Slot slot = stripe.slots.get(slotKey);
+			if (slot == null) {
+				slot = new Slot();
+				stripe.slots.put(slotKey, slot);
+			}
+			slot.users++;
+			return slot;
+		} finally {
+			stripe.unlock();
+		}
+	}
+
+	private Slot slot(ByteBuffer slotKey) {
+		Stripe stripe = stripe(slotKey);
+		stripe.lock();
+		try {
+			return stripe.slots.get(slotKey);
+		} finally {
+			stripe.unlock();
+		}
+	}
+
+	private void releaseSlot(ByteBuffer slotKey, Slot slot) {
+		RedisLock orphan = null;
+		Stripe stripe = stripe(slotKey);
+		stripe.lock();
+		try {
+			if (--slot.users > 0) {
+				return;
+			}
+			stripe.slots.remove(slotKey);
+			orphan = slot.handoff;
+			slot.handoff = null;
+		} finally {
+			stripe.unlock();
+		}
+		if (orphan != null) {
+			// 等待者在交接前超时离开，锁无人接手，直接在redis中释放
+			try {
+				orphan.deleteIfOwner();
+			} catch (RuntimeException e) {
+				logger.warn("failed to release orphaned redis lock " + orphan.getKey(), e);
+			}
+		}
+	}
+
+	private static final class Stripe extends ReentrantLock {
+
+		private static final long serialVersionUID = 1L;
+
+		private final Map<ByteBuffer, Slot> slots = new HashMap<ByteBuffer, Slot>();
+	}
+
+	private static final class Slot {
+
+		private final Semaphore permit = new Semaphore(1, true);
+
+		/**
+		 * 正在排队或持有锁的线程数，由所在分段的锁保护
+		 */
+		private int users;
+
+		/**
+		 * 连续交接的次数，由许可保护
+		 */
+		private int handoffs;
+
+		private volatile long handoffNanos;
+
+		private volatile RedisLock handoff;
+
+		/**
+		 * 当前占有许可的锁，租约到期仍未释放时由等待者收回许可
+		 */
+		private volatile RedisLock holder;
+	}
+}
@@ -0,0 +1,198 @@
+package com.easycode.redis.server.lock;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisPipelineException;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import com.easycode.redis.server.Redis;
+import com.easycode.redis.server.codec.NumericCodec;
+import com.easycode.redis.server.script.LuaScript;
+import com.easycode.redis.server.script.RedisScripts;
+
+/**
+ * 为开启自动续期的{@link RedisLock}续约。
+ * <p>
+ * 整个JVM共用一个守护线程，每{@value #TICK_MILLIS}毫秒检查一次，距上次续约超过租约1/3的锁按RedisTemplate分组，
+ * 每组在一个pipeline中用脚本校验token后PEXPIRE；锁已不属于本实例时停止续约。锁释放或JVM关闭时续约随之停止。
+ */
+final class LockWatchdog {
+
+	private static final Logger logger = LoggerFactory.getLogger(LockWatchdog.class);
+
+	private static final long TICK_MILLIS = 50;
+
+	private static final LockWatchdog INSTANCE = new LockWatchdog();
+
+	private final Set<RedisLock> locks = Collections.newSetFromMap(new ConcurrentHashMap<RedisLock, Boolean>());
+
+	private ScheduledExecutorService scheduler;
+
+	private boolean shutdown;
+
+	private LockWatchdog() {
+	}
+
+	static LockWatchdog getInstance() {
+		return INSTANCE;
+	}
+
+	void register(RedisLock lock) {
+		if (!start()) {
+			return;
+		}
+		lock.nextRenewNanos = System.nanoTime() + renewIntervalNanos(lock);
+		locks.add(lock);
+		// 与unlock并发时，可能在unregister之后才加入
+		if (lock.isReleased()) {
+			locks.remove(lock);
+		}
+	}
+
+	void unregister(RedisLock lock) {
+		locks.remove(lock);
+	}
+
+	boolean isRegistered(RedisLock lock) {
+		return locks.contains(lock);
+	}
+
+	private synchronized boolean start() {
+		if (shutdown) {
+			return false;
+		}
+		if (scheduler != null) {
+			return true;
+		}
+		scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread thread = new Thread(r, "redis-lock-watchdog");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		scheduler.scheduleWithFixedDelay(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					renewDueLocks();
+				} catch (Throwable e) {
+					logger.warn("failed to renew redis locks", e);
+				}
+			}
+		}, TICK_MILLIS, TICK_MILLIS, TimeUnit.MILLISECONDS);
+		Runtime.getRuntime().addShutdownHook(new Thread("redis-lock-watchdog-shutdown") {
+			@Override
+			public void run() {
+				shutdown();
+			}
+		});
+		return true;
+	}
+
+	private synchronized void shutdown() {
+		shutdown = true;
+		if (scheduler != null) {
+			scheduler.shutdownNow();
+			scheduler = null;
+		}
+		locks.clear();
+	}
+
+	private void renewDueLocks() {
+		long now = System.nanoTime();
+		Map<RedisTemplate<?, ?>, List<RedisLock>> due = new IdentityHashMap<RedisTemplate<?, ?>, List<RedisLock>>();
+		for (RedisLock lock : locks) {
+			if (now - lock.nextRenewNanos < 0) {
+				continue;
+			}
+			List<RedisLock> batch = due.get(lock.redisTemplate);
+			if (batch == null) {
+				batch = new ArrayList<RedisLock>();
+				due.put(lock.redisTemplate, batch);
+			}
+			batch.add(lock);
+		}
+		for (Entry<RedisTemplate<?, ?>, List<RedisLock>> entry : due.entrySet()) {
+			try {
+				renew(entry.getKey(), entry.getValue());
+			} catch (RuntimeException e) {
+				// 下一轮重试，租约的剩余2/3留有余量
+				logger.warn("failed to renew " + entry.getValue().size() + " redis locks", e);
+			}
+		}
+	}
+
+	private void renew(RedisTemplate<?, ?> redisTemplate, List<RedisLock> batch) {
+		List<Object> results;
+		try {
+			results = renewPipelined(redisTemplate, batch);
+		} catch (RedisPipelineException e) {
+			if (LuaScript.isNoScriptError(e)) {
+				loadScript(redisTemplate);
+				results = renewPipelined(redisTemplate, batch);
+			} else {
+				results = e.getPipelineResult();
+			}
+		}
+		long now = System.nanoTime();
+		for (int i = 0; i < batch.size() && i < results.size(); i++) {
+			RedisLock lock = batch.get(i);
+			Object result = results.get(i);
+			if (result instanceof Long) {
+				if (((Long) result).longValue() > 0) {
+					lock.nextRenewNanos = now + renewIntervalNanos(lock);
+				} else {
+					locks.remove(lock);
+					if (!lock.isReleased()) {
+						logger.warn("redis lock {} is no longer held, stop renewing", lock.getKey());
+					}
+				}
+			}
+		}
+	}
+
+	private List<Object> renewPipelined(RedisTemplate<?, ?> redisTemplate, final List<RedisLock> batch) {
+		return Redis.executePipelinedRaw(redisTemplate, new RedisCallback<Object>() {
+			@Override
+			public Object doInRedis(RedisConnection connection) throws DataAccessException {
+				for (RedisLock lock : batch) {
+					RedisScripts.COMPARE_AND_PEXPIRE.executePipelined(connection, 1, lock.rawKey, lock.token,
+							NumericCodec.encodeLong(lock.getLeaseMillis()));
+				}
+				return null;
+			}
+		});
+	}
+
+	private void loadScript(RedisTemplate<?, ?> redisTemplate) {
+		redisTemplate.execute(new RedisCallback<Object>() {
+			@Override
+			public Object doInRedis(RedisConnection connection) throws DataAccessException {
+				RedisScripts.COMPARE_AND_PEXPIRE.load(connection);
+				return null;
+			}
+		});
+	}
+
+	private static long renewIntervalNanos(RedisLock lock) {
+		return TimeUnit.MILLISECONDS.toNanos(Math.max(lock.getLeaseMillis() / 3, TICK_MILLIS));
+	}
+}
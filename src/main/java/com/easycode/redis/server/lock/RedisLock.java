@@ -0,0 +1,231 @@
+package com.easycode.redis.server.lock;
+
+import java.nio.charset.Charset;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import com.easycode.redis.server.codec.NumericCodec;
+import com.easycode.redis.server.script.RedisScripts;
+
+/**
+ * 基于租约的分布式锁句柄。
+ * <p>
+ * 加锁为一条<tt>SET key token NX PX lease</tt>，token对每次加锁唯一；释放时用脚本比较token后再删除，
+ * 租约过期后被其他实例重新获得的锁不会被误删。
+ * <p>
+ * 调用{@link #autoRenew()}后由共享的后台线程定期续约，直到释放或JVM退出，因此可以使用较短的租约以便持有者宕机后快速转移。
+ */
+public class RedisLock {
+
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	private static final byte[] NX = "NX".getBytes(UTF8);
+
+	private static final byte[] PX = "PX".getBytes(UTF8);
+
+	private static final long MIN_BACKOFF_MILLIS = 5;
+
+	private static final long MAX_BACKOFF_MILLIS = 100;
+
+	final RedisTemplate<?, ?> redisTemplate;
+
+	private final Object key;
+
+	final byte[] rawKey;
+
+	final byte[] token;
+
+	private final long leaseMillis;
+
+	private final AtomicBoolean released = new AtomicBoolean();
+
+	/**
+	 * 经由本地排队获得的锁在释放时交还给该队列
+	 */
+	private final LocalLockQueue queue;
+
+	/**
+	 * 不续约时租约在本地的到期时间
+	 */
+	final long expireNanos;
+
+	/**
+	 * 下一次续约的时间，由{@link LockWatchdog}维护
+	 */
+	volatile long nextRenewNanos;
+
+	private RedisLock(RedisTemplate<?, ?> redisTemplate, Object key, byte[] rawKey, byte[] token, long leaseMillis,
+			LocalLockQueue queue) {
+		this.redisTemplate = redisTemplate;
+		this.key = key;
+		this.rawKey = rawKey;
+		this.token = token;
+		this.leaseMillis = leaseMillis;
+		this.queue = queue;
+		this.expireNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(leaseMillis);
+	}
+
+	/**
+	 * 尝试加锁，在waitMillis内失败时退避后重试
+	 *
+	 * @param rawKey
+	 *            序列化后的锁key
+	 * @param leaseMillis
+	 *            租约时长，到期后锁自动释放
+	 * @param waitMillis
+	 *            最长等待时间，小于等于0时只尝试一次
+	 * @return 加锁成功返回锁的句柄，否则返回<tt>null</tt>；等待期间线程被中断也返回<tt>null</tt>并保留中断状态
+	 */
+	public static RedisLock tryAcquire(RedisTemplate<?, ?> redisTemplate, Object key, byte[] rawKey,
+			long leaseMillis, long waitMillis) {
+		return tryAcquire(redisTemplate, key, rawKey, leaseMillis, waitMillis, null);
+	}
+
+	static RedisLock tryAcquire(RedisTemplate<?, ?> redisTemplate, Object key, byte[] rawKey, long leaseMillis,
+			long waitMillis, LocalLockQueue queue) {
+		leaseMillis = leaseMillis <= 0 ? 1 : leaseMillis;
+		byte[] token = UUID.randomUUID().toString().getBytes(UTF8);
+		byte[] rawLease = NumericCodec.encodeLong(leaseMillis);
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(waitMillis);
+		long backoff = MIN_BACKOFF_MILLIS;
+		while (true) {
+			if (setIfAbsent(redisTemplate, rawKey, token, rawLease)) {
+				return new RedisLock(redisTemplate, key, rawKey, token, leaseMillis, queue);
+			}
+			long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+			if (remaining <= 0) {
+				return null;
+			}
+			// 加随机抖动，避免多个竞争者同时醒来
+			long sleep = Math.min(remaining, backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1));
+			try {
+				Thread.sleep(sleep);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return null;
+			}
+			backoff = Math.min(backoff << 1, MAX_BACKOFF_MILLIS);
+		}
+	}
+
+	private static boolean setIfAbsent(RedisTemplate<?, ?> redisTemplate, final byte[] rawKey, final byte[] token,
+			final byte[] rawLease) {
+		Object reply = redisTemplate.execute(new RedisCallback<Object>() {
+			@Override
+			public Object doInRedis(RedisConnection connection) throws DataAccessException {
+				// 未获得锁时服务端返回nil
+				return connection.execute("SET", rawKey, token, NX, PX, rawLease);
+			}
+		});
+		return reply != null;
+	}
+
+	/**
+	 * 释放锁，只有token仍与加锁时一致才会删除key；重复调用只生效一次
+	 *
+	 * @return 是否由本次调用释放了锁（删除或交给本地的下一个等待者），租约已过期时返回false
+	 */
+	public boolean unlock() {
+		if (!released.compareAndSet(false, true)) {
+			return false;
+		}
+		LockWatchdog.getInstance().unregister(this);
+		if (queue != null) {
+			return queue.release(this);
+		}
+		return deleteIfOwner();
+	}
+
+	/**
+	 * 租约到期后由本地队列收回，之后的unlock不再生效
+	 *
+	 * @return 是否由本次调用收回
+	 */
+	boolean expire() {
+		if (!released.compareAndSet(false, true)) {
+			return false;
+		}
+		LockWatchdog.getInstance().unregister(this);
+		return true;
+	}
+
+	boolean deleteIfOwner() {
+		Long ret = redisTemplate.execute(new RedisCallback<Long>() {
+			@Override
+			public Long doInRedis(RedisConnection connection) throws DataAccessException {
+				return RedisScripts.COMPARE_AND_DELETE.execute(connection, 1, rawKey, token);
+			}
+		});
+		return ret != null && ret.longValue() > 0;
+	}
+
+	/**
+	 * token仍一致时重置租约
+	 *
+	 * @return 是否仍持有锁
+	 */
+	boolean renew() {
+		final byte[] rawLease = NumericCodec.encodeLong(leaseMillis);
+		Long ret = redisTemplate.execute(new RedisCallback<Long>() {
+			@Override
+			public Long doInRedis(RedisConnection connection) throws DataAccessException {
+				return RedisScripts.COMPARE_AND_PEXPIRE.execute(connection, 1, rawKey, token, rawLease);
+			}
+		});
+		return ret != null && ret.longValue() > 0;
+	}
+
+	/**
+	 * 以同一个token生成新的句柄，用于把仍在租约内的锁直接交给本地的下一个等待者
+	 */
+	RedisLock handOff() {
+		return new RedisLock(redisTemplate, key, rawKey, token, leaseMillis, queue);
+	}
+
+	/**
+	 * 开启自动续期，每经过租约的1/3续约一次；锁被释放、发现锁已不属于本实例或JVM关闭时停止
+	 *
+	 * @return 当前锁
+	 */
+	public RedisLock autoRenew() {
+		if (!released.get()) {
+			LockWatchdog.getInstance().register(this);
+		}
+		return this;
+	}
+
+	/**
+	 * 是否仍在自动续期
+	 */
+	public boolean isAutoRenewing() {
+		return LockWatchdog.getInstance().isRegistered(this);
+	}
+
+	public boolean isReleased() {
+		return released.get();
+	}
+
+	public Object getKey() {
+		return key;
+	}
+
+	public String getToken() {
+		return new String(token, UTF8);
+	}
+
+	public long getLeaseMillis() {
+		return leaseMillis;
+	}
+
+	@Override
+	public String toString() {
+		return "RedisLock [key=" + key + ", token=" + getToken() + ", leaseMillis=" + leaseMillis + "]";
+	}
+}
@@ -0,0 +1,62 @@
+package com.easycode.redis.server.metrics;
+
+/**
+ * 当前线程上一次入口调用的明细（获取连接的等待时间、编解码字节数），开启慢调用日志时才记录；每个线程复用一个实例
+ */
+final class CallTrace {
+
+	private static final ThreadLocal<CallTrace> CURRENT = new ThreadLocal<CallTrace>() {
+		@Override
+		protected CallTrace initialValue() {
+			return new CallTrace();
+		}
+	};
+
+	/**
+	 * 入口调用的嵌套层数，只在最外层开始时清空明细
+	 */
+	int depth;
+
+	long connectionWaitNanos;
+
+	/**
+	 * 首次取得连接的时间，未经过{@link TimedConnectionFactory}时为0
+	 */
+	long connectedNanos;
+
+	long bytes;
+
+	/**
+	 * 入口调用返回的集合，慢调用时据此计算批量大小；记录后即清空，不延长其生命周期
+	 */
+	Object result;
+
+	static CallTrace current() {
+		return CURRENT.get();
+	}
+
+	static void enter() {
+		CallTrace trace = CURRENT.get();
+		if (trace.depth++ == 0) {
+			trace.connectionWaitNanos = 0;
+			trace.connectedNanos = 0;
+			trace.bytes = 0;
+			trace.result = null;
+		}
+	}
+
+	static CallTrace exit() {
+		CallTrace trace = CURRENT.get();
+		if (trace.depth > 0) {
+			trace.depth--;
+		}
+		return trace;
+	}
+
+	static void addBytes(long bytes) {
+		CallTrace trace = CURRENT.get();
+		if (trace.depth > 0) {
+			trace.bytes += bytes;
+		}
+	}
+}
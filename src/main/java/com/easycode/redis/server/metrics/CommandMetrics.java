@@ -0,0 +1,66 @@
+package com.easycode.redis.server.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 一类命令的耗时、错误与pipeline统计，记录时无锁、不创建对象
+ */
+final class CommandMetrics {
+
+	private static final double[] QUANTILES = { 0.5, 0.9, 0.99, 0.999 };
+
+	private final String family;
+
+	private final LatencyHistogram latency = new LatencyHistogram();
+
+	private final LongAdder errors = new LongAdder();
+
+	private final LongAdder pipelines = new LongAdder();
+
+	private final LongAdder pipelinedCommands = new LongAdder();
+
+	private final AtomicLong maxPipeline = new AtomicLong();
+
+	CommandMetrics(String family) {
+		this.family = family;
+	}
+
+	void recordLatency(long nanos) {
+		latency.record(nanos);
+	}
+
+	void recordError() {
+		errors.increment();
+	}
+
+	void recordPipeline(int size) {
+		pipelines.increment();
+		pipelinedCommands.add(size);
+		long current = maxPipeline.get();
+		while (size > current && !maxPipeline.compareAndSet(current, size)) {
+			current = maxPipeline.get();
+		}
+	}
+
+	CommandStats snapshot() {
+		long[] counts = latency.counts();
+		long count = 0;
+		for (long c : counts) {
+			count += c;
+		}
+		long max = latency.getMax();
+		long[] percentiles = LatencyHistogram.percentiles(counts, max, QUANTILES);
+		return new CommandStats(family, count, errors.sum(), count == 0 ? 0 : latency.getSum() / count, max,
+				percentiles[0], percentiles[1], percentiles[2], percentiles[3], pipelines.sum(),
+				pipelinedCommands.sum(), maxPipeline.get());
+	}
+
+	void reset() {
+		latency.reset();
+		errors.reset();
+		pipelines.reset();
+		pipelinedCommands.reset();
+		maxPipeline.set(0);
+	}
+}
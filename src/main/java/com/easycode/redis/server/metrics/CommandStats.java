@@ -0,0 +1,126 @@
+package com.easycode.redis.server.metrics;
+
+/**
+ * 一类命令统计数据的快照，耗时单位均为纳秒；分位数取所在直方图桶的上界，相对误差不超过12.5%
+ */
+public class CommandStats {
+
+	private final String family;
+
+	private final long count;
+
+	private final long errors;
+
+	private final long meanNanos;
+
+	private final long maxNanos;
+
+	private final long p50Nanos;
+
+	private final long p90Nanos;
+
+	private final long p99Nanos;
+
+	private final long p999Nanos;
+
+	private final long pipelines;
+
+	private final long pipelinedCommands;
+
+	private final long maxPipelineSize;
+
+	public CommandStats(String family, long count, long errors, long meanNanos, long maxNanos, long p50Nanos,
+			long p90Nanos, long p99Nanos, long p999Nanos, long pipelines, long pipelinedCommands,
+			long maxPipelineSize) {
+		this.family = family;
+		this.count = count;
+		this.errors = errors;
+		this.meanNanos = meanNanos;
+		this.maxNanos = maxNanos;
+		this.p50Nanos = p50Nanos;
+		this.p90Nanos = p90Nanos;
+		this.p99Nanos = p99Nanos;
+		this.p999Nanos = p999Nanos;
+		this.pipelines = pipelines;
+		this.pipelinedCommands = pipelinedCommands;
+		this.maxPipelineSize = maxPipelineSize;
+	}
+
+	/**
+	 * 命令类别，即{@link com.easycode.redis.server.Redis}或RedisServiceImpl的方法名，如multiGet、zAddAll
+	 */
+	public String getFamily() {
+		return family;
+	}
+
+	/**
+	 * 调用次数（含失败）
+	 */
+	public long getCount() {
+		return count;
+	}
+
+	/**
+	 * 抛出异常的调用次数
+	 */
+	public long getErrors() {
+		return errors;
+	}
+
+	public long getMeanNanos() {
+		return meanNanos;
+	}
+
+	public long getMaxNanos() {
+		return maxNanos;
+	}
+
+	public long getP50Nanos() {
+		return p50Nanos;
+	}
+
+	public long getP90Nanos() {
+		return p90Nanos;
+	}
+
+	public long getP99Nanos() {
+		return p99Nanos;
+	}
+
+	public long getP999Nanos() {
+		return p999Nanos;
+	}
+
+	/**
+	 * 以pipeline执行的次数
+	 */
+	public long getPipelines() {
+		return pipelines;
+	}
+
+	/**
+	 * 各次pipeline中有回复值的命令总数，OK等状态回复不包含在closePipeline的结果中，因而不计入
+	 */
+	public long getPipelinedCommands() {
+		return pipelinedCommands;
+	}
+
+	public long getMaxPipelineSize() {
+		return maxPipelineSize;
+	}
+
+	/**
+	 * 平均每次pipeline的命令数
+	 */
+	public double getMeanPipelineSize() {
+		return pipelines == 0 ? 0 : (double) pipelinedCommands / pipelines;
+	}
+
+	@Override
+	public String toString() {
+		return "CommandStats [family=" + family + ", count=" + count + ", errors=" + errors + ", meanNanos="
+				+ meanNanos + ", maxNanos=" + maxNanos + ", p50Nanos=" + p50Nanos + ", p90Nanos=" + p90Nanos
+				+ ", p99Nanos=" + p99Nanos + ", p999Nanos=" + p999Nanos + ", pipelines=" + pipelines
+				+ ", pipelinedCommands=" + pipelinedCommands + ", maxPipelineSize=" + maxPipelineSize + "]";
+	}
+}
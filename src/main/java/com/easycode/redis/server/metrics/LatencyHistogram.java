@@ -0,0 +1,117 @@
+package com.easycode.redis.server.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 无锁的对数分桶直方图，记录时只有几次原子操作，不创建对象。
+ * <p>
+ * 小于8的值各占一个桶，之后每个2的幂区间均分为8个桶，分位数的相对误差不超过12.5%；超过2^40的值计入最后一个桶。
+ */
+public final class LatencyHistogram {
+
+	private static final int SUB_BUCKET_BITS = 3;
+
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+	private static final int MAX_EXPONENT = 40;
+
+	private static final int BUCKETS = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+	private final LongAdder sum = new LongAdder();
+
+	private final AtomicLong max = new AtomicLong();
+
+	public void record(long value) {
+		if (value < 0) {
+			value = 0;
+		}
+		counts.incrementAndGet(index(value));
+		sum.add(value);
+		long current = max.get();
+		while (value > current && !max.compareAndSet(current, value)) {
+			current = max.get();
+		}
+	}
+
+	public long getMax() {
+		return max.get();
+	}
+
+	public long getSum() {
+		return sum.sum();
+	}
+
+	/**
+	 * 各桶计数的副本，下标与{@link #upperBound(int)}对应
+	 */
+	long[] counts() {
+		long[] copy = new long[BUCKETS];
+		for (int i = 0; i < BUCKETS; i++) {
+			copy[i] = counts.get(i);
+		}
+		return copy;
+	}
+
+	/**
+	 * 按桶计数计算分位数，返回所在桶的上界（不超过最大值）
+	 *
+	 * @param quantiles
+	 *            升序排列的分位点，如0.5、0.99
+	 */
+	static long[] percentiles(long[] counts, long max, double... quantiles) {
+		long total = 0;
+		for (long count : counts) {
+			total += count;
+		}
+		long[] values = new long[quantiles.length];
+		if (total == 0) {
+			return values;
+		}
+		int bucket = 0;
+		long seen = counts[0];
+		for (int q = 0; q < quantiles.length; q++) {
+			long rank = Math.max(1, (long) Math.ceil(quantiles[q] * total));
+			while (seen < rank && bucket < counts.length - 1) {
+				seen += counts[++bucket];
+			}
+			values[q] = Math.min(upperBound(bucket), max);
+		}
+		return values;
+	}
+
+	void reset() {
+		for (int i = 0; i < BUCKETS; i++) {
+			counts.set(i, 0);
+		}
+		sum.reset();
+		max.set(0);
+	}
+
+	static int index(long value) {
+		if (value < SUB_BUCKETS) {
+			return (int) value;
+		}
+		int exponent = 63 - Long.numberOfLeadingZeros(value);
+		if (exponent > MAX_EXPONENT) {
+			return BUCKETS - 1;
+		}
+		int sub = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+		return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + sub;
+	}
+
+	static long upperBound(int index) {
+		if (index < SUB_BUCKETS) {
+			return index;
+		}
+		if (index == BUCKETS - 1) {
+			return Long.MAX_VALUE;
+		}
+		int shift = index / SUB_BUCKETS - 1;
+		long sub = SUB_BUCKETS + index % SUB_BUCKETS;
+		return ((sub + 1) << shift) - 1;
+	}
+}
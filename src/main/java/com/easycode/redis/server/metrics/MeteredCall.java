@@ -0,0 +1,20 @@
+package com.easycode.redis.server.metrics;
+
+/**
+ * 入口方法的调用体，由{@link RedisMetrics#record(RedisMetrics, String, Object, Object, MeteredCall)}
+ * 计时并记录错误；调用体内可以用{@link #metrics}与{@link #family}把pipeline大小等记在同一类别下。
+ */
+public abstract class MeteredCall<T> {
+
+	/**
+	 * 该template的指标
+	 */
+	protected RedisMetrics metrics;
+
+	/**
+	 * 本次调用的命令类别
+	 */
+	protected String family;
+
+	protected abstract T call();
+}
@@ -0,0 +1,245 @@
+package com.easycode.redis.server.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import com.easycode.redis.server.RedisContext;
+
+/**
+ * 某个RedisTemplate的客户端指标：按命令类别（入口方法名）记录耗时直方图、错误数与pipeline大小，以及编解码的字节数。
+ * <p>
+ * 入口方法先取指标，未开启时直接执行调用体方法；开启时把调用体交给{@link #record(RedisMetrics, String, Object, Object, MeteredCall)}，类别名只在这里出现一次：
+ *
+ * <pre>
+ * RedisMetrics metrics = RedisMetrics.of(redisTemplate);
+ * if (metrics == null) {
+ * 	return doMultiGet(redisTemplate, keys, clazz, null);
+ * }
+ * return RedisMetrics.record(metrics, &quot;multiGet&quot;, keys, null, new MeteredCall&lt;Map&lt;K, T&gt;&gt;() {
+ * 	&#64;Override
+ * 	protected Map&lt;K, T&gt; call() {
+ * 		return doMultiGet(redisTemplate, keys, clazz, metrics);
+ * 	}
+ * });
+ * </pre>
+ *
+ * 未开启指标时只多一次查找和判空，不创建对象。SCAN的每一页、{@link com.easycode.redis.server.batch.RedisBatch}的每次执行也按同样方式记录。
+ *
+ * 开启指标时每次调用创建一个调用体对象，此外记录路径上只有两次nanoTime、一次ConcurrentHashMap查找和几次原子操作；分位数在取快照时计算。
+ * 开启慢调用日志（{@link SlowLog}）后，还会在线程本地记录本次调用的明细，慢调用时连同key与批量大小一起写入日志。
+ */
+public final class RedisMetrics implements RedisMetricsMXBean {
+
+	private static final Logger logger = LoggerFactory.getLogger(RedisMetrics.class);
+
+	private final ConcurrentMap<String, CommandMetrics> commands = new ConcurrentHashMap<String, CommandMetrics>();
+
+	private final LongAdder bytesIn = new LongAdder();
+
+	private final LongAdder bytesOut = new LongAdder();
+
+	private volatile long sinceMillis = System.currentTimeMillis();
+
+	private volatile SlowLog slowLog;
+
+	private ObjectName objectName;
+
+	/**
+	 * @return 该template的指标，未开启时为null
+	 */
+	public static RedisMetrics of(RedisTemplate<?, ?> redisTemplate) {
+		RedisContext context = RedisContext.get(redisTemplate);
+		return context == null ? null : context.getMetrics();
+	}
+
+	/**
+	 * 执行调用体，记录耗时，抛出异常时记一次错误。未开启指标时入口方法不应调用本方法，而是直接执行调用体方法。
+	 * <p>
+	 * 是否记录慢调用明细在开始时决定一次，调用期间开启或关闭慢调用日志不影响本次调用，线程本地明细的进出总是成对的。
+	 *
+	 * @param metrics
+	 *            {@link #of(RedisTemplate)}取得的指标，不能为<tt>null</tt>
+	 * @param family
+	 *            命令类别，一般为入口方法名
+	 * @param key
+	 *            本次调用的key，批量调用时为key的集合，只在写入慢调用日志时转为字符串
+	 * @param batch
+	 *            批量写入的元素（集合、Map或数组），为<tt>null</tt>时按{@link #result(RedisMetrics, Object)}记下的返回值或key计算批量大小
+	 */
+	public static <T> T record(RedisMetrics metrics, String family, Object key, Object batch, MeteredCall<T> call) {
+		call.metrics = metrics;
+		call.family = family;
+		SlowLog slowLog = metrics.slowLog;
+		if (slowLog != null) {
+			CallTrace.enter();
+		}
+		long startNanos = System.nanoTime();
+		try {
+			return call.call();
+		} catch (RuntimeException e) {
+			metrics.command(family).recordError();
+			throw e;
+		} finally {
+			metrics.stop(slowLog, family, startNanos, key, batch);
+		}
+	}
+
+	/**
+	 * @param slowLog
+	 *            开始时取得的慢调用日志，为<tt>null</tt>时开始时没有进入线程本地明细
+	 */
+	private void stop(SlowLog slowLog, String family, long startNanos, Object key, Object batch) {
+		long endNanos = System.nanoTime();
+		long nanos = endNanos - startNanos;
+		command(family).recordLatency(nanos);
+		if (slowLog != null) {
+			CallTrace trace = CallTrace.exit();
+			if (nanos >= slowLog.getThresholdNanos()) {
+				slowLog.record(family, key, batch == null ? trace.result : batch, nanos, endNanos, trace);
+			}
+			trace.result = null;
+		}
+	}
+
+	/**
+	 * 开启慢调用日志时记下返回的集合，慢调用时按其大小记录批量大小；原样返回value
+	 */
+	public static <T> T result(RedisMetrics metrics, T value) {
+		if (metrics != null && metrics.slowLog != null) {
+			CallTrace trace = CallTrace.current();
+			if (trace.depth > 0) {
+				trace.result = value;
+			}
+		}
+		return value;
+	}
+
+	/**
+	 * 记录一次pipeline执行，size为closePipeline返回的回复数
+	 */
+	public void recordPipeline(String family, int size) {
+		command(family).recordPipeline(size);
+	}
+
+	public void recordBytesIn(long bytes) {
+		bytesIn.add(bytes);
+		if (slowLog != null) {
+			CallTrace.addBytes(bytes);
+		}
+	}
+
+	public void recordBytesOut(long bytes) {
+		bytesOut.add(bytes);
+		if (slowLog != null) {
+			CallTrace.addBytes(bytes);
+		}
+	}
+
+	/**
+	 * @return 慢调用日志，未开启时为null
+	 */
+	public SlowLog getSlowLog() {
+		return slowLog;
+	}
+
+	public void setSlowLog(SlowLog slowLog) {
+		this.slowLog = slowLog;
+	}
+
+	private CommandMetrics command(String family) {
+		CommandMetrics command = commands.get(family);
+		if (command != null) {
+			return command;
+		}
+		command = new CommandMetrics(family);
+		CommandMetrics existing = commands.putIfAbsent(family, command);
+		return existing == null ? command : existing;
+	}
+
+	public RedisMetricsSnapshot snapshot() {
+		Map<String, CommandStats> stats = new TreeMap<String, CommandStats>();
+		for (Map.Entry<String, CommandMetrics> entry : commands.entrySet()) {
+			stats.put(entry.getKey(), entry.getValue().snapshot());
+		}
+		return new RedisMetricsSnapshot(stats, bytesIn.sum(), bytesOut.sum(), sinceMillis);
+	}
+
+	@Override
+	public Map<String, CommandStats> getCommands() {
+		return snapshot().getCommands();
+	}
+
+	@Override
+	public long getBytesIn() {
+		return bytesIn.sum();
+	}
+
+	@Override
+	public long getBytesOut() {
+		return bytesOut.sum();
+	}
+
+	@Override
+	public List<SlowLogEntry> getSlowLogEntries() {
+		SlowLog slowLog = this.slowLog;
+		return slowLog == null ? Collections.<SlowLogEntry> emptyList() : slowLog.entries();
+	}
+
+	@Override
+	public long getErrors() {
+		return snapshot().getErrors();
+	}
+
+	/**
+	 * 清空统计。与并发的记录之间没有同步，重置瞬间的少量数据可能计入前后任一周期
+	 */
+	@Override
+	public void reset() {
+		for (CommandMetrics command : commands.values()) {
+			command.reset();
+		}
+		bytesIn.reset();
+		bytesOut.reset();
+		sinceMillis = System.currentTimeMillis();
+	}
+
+	/**
+	 * 注册到平台MBeanServer，失败时只记录日志
+	 */
+	public synchronized void register(String name) {
+		try {
+			ObjectName objectName = new ObjectName("com.easycode.redis:type=RedisMetrics,name=" + ObjectName.quote(name));
+			ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+			this.objectName = objectName;
+		} catch (JMException e) {
+			logger.warn("failed to register redis metrics " + name + " to jmx", e);
+		}
+	}
+
+	public synchronized void unregister() {
+		if (objectName == null) {
+			return;
+		}
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		try {
+			server.unregisterMBean(objectName);
+		} catch (JMException e) {
+			logger.warn("failed to unregister redis metrics " + objectName, e);
+		}
+		objectName = null;
+	}
+}
@@ -0,0 +1,35 @@
+package com.easycode.redis.server.metrics;
+
+/**
+ * 客户端指标的配置
+ */
+public class RedisMetricsConfig {
+
+	private boolean jmxEnabled = true;
+
+	private String name;
+
+	public boolean isJmxEnabled() {
+		return jmxEnabled;
+	}
+
+	/**
+	 * @param jmxEnabled
+	 *            是否注册到平台MBeanServer
+	 */
+	public void setJmxEnabled(boolean jmxEnabled) {
+		this.jmxEnabled = jmxEnabled;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * @param name
+	 *            JMX对象名中的name，多个RedisTemplate开启指标时用于区分；为空时使用template的identityHashCode
+	 */
+	public void setName(String name) {
+		this.name = name;
+	}
+}
@@ -0,0 +1,28 @@
+package com.easycode.redis.server.metrics;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 通过JMX导出的客户端指标，对象名为<tt>com.easycode.redis:type=RedisMetrics,name=...</tt>
+ */
+public interface RedisMetricsMXBean {
+
+	/**
+	 * 按命令类别的统计
+	 */
+	Map<String, CommandStats> getCommands();
+
+	long getBytesIn();
+
+	long getBytesOut();
+
+	long getErrors();
+
+	/**
+	 * 慢调用日志中的记录，未开启时为空
+	 */
+	List<SlowLogEntry> getSlowLogEntries();
+
+	void reset();
+}
@@ -0,0 +1,74 @@
+package com.easycode.redis.server.metrics;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * 客户端指标的快照
+ */
+public class RedisMetricsSnapshot {
+
+	private final Map<String, CommandStats> commands;
+
+	private final long bytesIn;
+
+	private final long bytesOut;
+
+	private final long sinceMillis;
+
+	public RedisMetricsSnapshot(Map<String, CommandStats> commands, long bytesIn, long bytesOut, long sinceMillis) {
+		this.commands = Collections.unmodifiableMap(commands);
+		this.bytesIn = bytesIn;
+		this.bytesOut = bytesOut;
+		this.sinceMillis = sinceMillis;
+	}
+
+	/**
+	 * 按命令类别排序的统计
+	 */
+	public Map<String, CommandStats> getCommands() {
+		return commands;
+	}
+
+	/**
+	 * @return 该类别的统计，没有调用过时为null
+	 */
+	public CommandStats getCommand(String family) {
+		return commands.get(family);
+	}
+
+	/**
+	 * 从redis读到并经过解码的字节数
+	 */
+	public long getBytesIn() {
+		return bytesIn;
+	}
+
+	/**
+	 * 编码后写往redis的字节数
+	 */
+	public long getBytesOut() {
+		return bytesOut;
+	}
+
+	public long getErrors() {
+		long errors = 0;
+		for (CommandStats stats : commands.values()) {
+			errors += stats.getErrors();
+		}
+		return errors;
+	}
+
+	/**
+	 * 统计开始（开启或上次重置）的时间
+	 */
+	public long getSinceMillis() {
+		return sinceMillis;
+	}
+
+	@Override
+	public String toString() {
+		return "RedisMetricsSnapshot [commands=" + commands.values() + ", bytesIn=" + bytesIn + ", bytesOut="
+				+ bytesOut + ", sinceMillis=" + sinceMillis + "]";
+	}
+}
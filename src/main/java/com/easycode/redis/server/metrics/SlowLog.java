@@ -0,0 +1,151 @@
+package com.easycode.redis.server.metrics;
+
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 客户端慢调用日志：耗时超过阈值的入口调用按采样比例写入定长的环形缓冲，写满后覆盖最早的记录。
+ * <p>
+ * 写入只有一次自增与一次数组写，不加锁；未超过阈值的调用不做任何事，key等参数只在写入时才转为字符串。
+ */
+public final class SlowLog {
+
+	private static final Comparator<SlowLogEntry> BY_ID = new Comparator<SlowLogEntry>() {
+		@Override
+		public int compare(SlowLogEntry o1, SlowLogEntry o2) {
+			return o1.getId() < o2.getId() ? -1 : o1.getId() == o2.getId() ? 0 : 1;
+		}
+	};
+
+	private final long thresholdNanos;
+
+	private final double sampleRate;
+
+	private final int maxKeyLength;
+
+	private final AtomicReferenceArray<SlowLogEntry> entries;
+
+	private final int mask;
+
+	private final AtomicLong sequence = new AtomicLong();
+
+	private final LongAdder slowCalls = new LongAdder();
+
+	public SlowLog(SlowLogConfig config) {
+		this.thresholdNanos = config.getThresholdMillis() * 1000000L;
+		this.sampleRate = config.getSampleRate();
+		this.maxKeyLength = config.getMaxKeyLength();
+		int capacity = Integer.highestOneBit(Math.max(config.getCapacity(), 1) - 1) << 1;
+		this.entries = new AtomicReferenceArray<SlowLogEntry>(Math.max(capacity, 1));
+		this.mask = entries.length() - 1;
+	}
+
+	public long getThresholdNanos() {
+		return thresholdNanos;
+	}
+
+	/**
+	 * 超过阈值的调用次数，包括未被采样写入的
+	 */
+	public long getSlowCalls() {
+		return slowCalls.sum();
+	}
+
+	void record(String family, Object key, Object batch, long totalNanos, long endNanos, CallTrace trace) {
+		slowCalls.increment();
+		if (sampleRate < 1.0 && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+			return;
+		}
+		long connectionWait = -1;
+		long server = -1;
+		if (trace != null && trace.connectedNanos != 0) {
+			connectionWait = trace.connectionWaitNanos;
+			server = endNanos - trace.connectedNanos;
+		}
+		long id = sequence.getAndIncrement();
+		entries.set((int) (id & mask), new SlowLogEntry(id, System.currentTimeMillis(), family, describe(key),
+				size(key, batch), trace == null ? 0 : trace.bytes, connectionWait, server, totalNanos,
+				Thread.currentThread().getName()));
+	}
+
+	/**
+	 * @return 当前缓冲中的记录，按发生顺序排列
+	 */
+	public List<SlowLogEntry> entries() {
+		List<SlowLogEntry> ret = new ArrayList<SlowLogEntry>(entries.length());
+		for (int i = 0; i < entries.length(); i++) {
+			SlowLogEntry entry = entries.get(i);
+			if (entry != null) {
+				ret.add(entry);
+			}
+		}
+		Collections.sort(ret, BY_ID);
+		return ret;
+	}
+
+	/**
+	 * 每条记录一行，便于直接打印到日志
+	 */
+	public String dump() {
+		StringBuilder sb = new StringBuilder();
+		for (SlowLogEntry entry : entries()) {
+			sb.append(entry).append('\n');
+		}
+		return sb.toString();
+	}
+
+	public void clear() {
+		for (int i = 0; i < entries.length(); i++) {
+			entries.set(i, null);
+		}
+		slowCalls.reset();
+	}
+
+	private String describe(Object key) {
+		if (key == null) {
+			return null;
+		}
+		Object first = key;
+		int size = -1;
+		if (key instanceof Map) {
+			Map<?, ?> map = (Map<?, ?>) key;
+			size = map.size();
+			first = size == 0 ? null : map.keySet().iterator().next();
+		} else if (key instanceof Collection) {
+			Collection<?> collection = (Collection<?>) key;
+			size = collection.size();
+			first = size == 0 ? null : collection.iterator().next();
+		}
+		String text = String.valueOf(first);
+		if (text.length() > maxKeyLength) {
+			text = text.substring(0, maxKeyLength) + "...";
+		}
+		return size > 1 ? text + " (+" + (size - 1) + ")" : text;
+	}
+
+	private static int size(Object key, Object batch) {
+		Object sized = batch == null ? key : batch;
+		if (sized == null) {
+			return 0;
+		}
+		if (sized instanceof Collection) {
+			return ((Collection<?>) sized).size();
+		}
+		if (sized instanceof Map) {
+			return ((Map<?, ?>) sized).size();
+		}
+		if (sized.getClass().isArray()) {
+			return Array.getLength(sized);
+		}
+		return 1;
+	}
+}
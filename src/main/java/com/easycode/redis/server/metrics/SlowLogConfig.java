@@ -0,0 +1,63 @@
+package com.easycode.redis.server.metrics;
+
+/**
+ * 客户端慢调用日志的配置
+ */
+public class SlowLogConfig {
+
+	private long thresholdMillis = 10L;
+
+	private int capacity = 128;
+
+	private double sampleRate = 1.0;
+
+	private int maxKeyLength = 64;
+
+	public long getThresholdMillis() {
+		return thresholdMillis;
+	}
+
+	/**
+	 * @param thresholdMillis
+	 *            耗时达到该值（毫秒）的调用计为慢调用
+	 */
+	public void setThresholdMillis(long thresholdMillis) {
+		this.thresholdMillis = thresholdMillis;
+	}
+
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * @param capacity
+	 *            环形缓冲的大小，向上取整为2的幂，写满后覆盖最早的记录
+	 */
+	public void setCapacity(int capacity) {
+		this.capacity = capacity;
+	}
+
+	public double getSampleRate() {
+		return sampleRate;
+	}
+
+	/**
+	 * @param sampleRate
+	 *            慢调用写入日志的采样比例（0~1），未采样的慢调用只计数，不截取参数
+	 */
+	public void setSampleRate(double sampleRate) {
+		this.sampleRate = sampleRate;
+	}
+
+	public int getMaxKeyLength() {
+		return maxKeyLength;
+	}
+
+	/**
+	 * @param maxKeyLength
+	 *            记录的key最多保留的字符数
+	 */
+	public void setMaxKeyLength(int maxKeyLength) {
+		this.maxKeyLength = maxKeyLength;
+	}
+}
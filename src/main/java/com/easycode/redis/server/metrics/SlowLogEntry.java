@@ -0,0 +1,110 @@
+package com.easycode.redis.server.metrics;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+/**
+ * 一次慢调用的记录，耗时单位均为纳秒，未知时为-1
+ */
+public class SlowLogEntry {
+
+	private final long id;
+
+	private final long timestampMillis;
+
+	private final String family;
+
+	private final String key;
+
+	private final int batchSize;
+
+	private final long payloadBytes;
+
+	private final long connectionWaitNanos;
+
+	private final long serverNanos;
+
+	private final long totalNanos;
+
+	private final String thread;
+
+	public SlowLogEntry(long id, long timestampMillis, String family, String key, int batchSize, long payloadBytes,
+			long connectionWaitNanos, long serverNanos, long totalNanos, String thread) {
+		this.id = id;
+		this.timestampMillis = timestampMillis;
+		this.family = family;
+		this.key = key;
+		this.batchSize = batchSize;
+		this.payloadBytes = payloadBytes;
+		this.connectionWaitNanos = connectionWaitNanos;
+		this.serverNanos = serverNanos;
+		this.totalNanos = totalNanos;
+		this.thread = thread;
+	}
+
+	/**
+	 * 递增的序号，可据此判断两次导出之间是否有记录被覆盖
+	 */
+	public long getId() {
+		return id;
+	}
+
+	public long getTimestampMillis() {
+		return timestampMillis;
+	}
+
+	public String getFamily() {
+		return family;
+	}
+
+	/**
+	 * 截断后的key，批量调用时为第一个key及总数
+	 */
+	public String getKey() {
+		return key;
+	}
+
+	/**
+	 * 批量调用写入或返回的元素个数，单个元素时为1
+	 */
+	public int getBatchSize() {
+		return batchSize;
+	}
+
+	/**
+	 * 本次调用经过编解码器的字节数，不含直接经由template序列化的数据
+	 */
+	public long getPayloadBytes() {
+		return payloadBytes;
+	}
+
+	/**
+	 * 从连接池获取连接的等待时间，需使用{@link TimedConnectionFactory}，否则为-1
+	 */
+	public long getConnectionWaitNanos() {
+		return connectionWaitNanos;
+	}
+
+	/**
+	 * 取得连接之后到调用结束的时间，包括网络往返、服务端执行与结果解码；未使用{@link TimedConnectionFactory}时为-1
+	 */
+	public long getServerNanos() {
+		return serverNanos;
+	}
+
+	public long getTotalNanos() {
+		return totalNanos;
+	}
+
+	public String getThread() {
+		return thread;
+	}
+
+	@Override
+	public String toString() {
+		return new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS").format(new Date(timestampMillis)) + " #" + id + " "
+				+ family + " key=" + key + " batch=" + batchSize + " bytes=" + payloadBytes + " total="
+				+ totalNanos / 1000 + "us wait=" + (connectionWaitNanos < 0 ? "-" : connectionWaitNanos / 1000 + "us")
+				+ " server=" + (serverNanos < 0 ? "-" : serverNanos / 1000 + "us") + " thread=" + thread;
+	}
+}
@@ -0,0 +1,59 @@
+package com.easycode.redis.server.metrics;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisSentinelConnection;
+
+/**
+ * 记录获取连接等待时间的连接工厂装饰器，配置在RedisTemplate上后慢调用日志才有连接等待与服务端耗时：
+ *
+ * <pre>
+ * template.setConnectionFactory(new TimedConnectionFactory(jedisConnectionFactory));
+ * </pre>
+ *
+ * 只在开启慢调用日志的入口调用中计时，其余情况直接委托。
+ */
+public class TimedConnectionFactory implements RedisConnectionFactory {
+
+	private final RedisConnectionFactory delegate;
+
+	public TimedConnectionFactory(RedisConnectionFactory delegate) {
+		this.delegate = delegate;
+	}
+
+	public RedisConnectionFactory getDelegate() {
+		return delegate;
+	}
+
+	@Override
+	public RedisConnection getConnection() {
+		CallTrace trace = CallTrace.current();
+		if (trace.depth <= 0) {
+			return delegate.getConnection();
+		}
+		long start = System.nanoTime();
+		RedisConnection connection = delegate.getConnection();
+		long now = System.nanoTime();
+		trace.connectionWaitNanos += now - start;
+		if (trace.connectedNanos == 0) {
+			trace.connectedNanos = now;
+		}
+		return connection;
+	}
+
+	@Override
+	public boolean getConvertPipelineAndTxResults() {
+		return delegate.getConvertPipelineAndTxResults();
+	}
+
+	@Override
+	public RedisSentinelConnection getSentinelConnection() {
+		return delegate.getSentinelConnection();
+	}
+
+	@Override
+	public DataAccessException translateExceptionIfPossible(RuntimeException ex) {
+		return delegate.translateExceptionIfPossible(ex);
+	}
+}
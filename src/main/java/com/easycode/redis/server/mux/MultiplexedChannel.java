@@ -0,0 +1,304 @@
+package com.easycode.redis.server.mux;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.redis.RedisConnectionFailureException;
+
+/**
+ * 到一个redis节点的长连接，多个线程并发写入命令，回复按发送顺序（FIFO）交给等待的调用。
+ * <p>
+ * 命令先进入写队列，拿到写锁的线程把队列中的命令一次写出，并发高时多个调用的命令合并为一次写；
+ * 读线程逐条解析回复并完成最早发出的请求。连接断开时未完成的请求都以{@link RedisConnectionFailureException}失败，
+ * 下一次写入时重新连接。
+ */
+final class MultiplexedChannel {
+
+	private static final Logger logger = LoggerFactory.getLogger(MultiplexedChannel.class);
+
+	private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+	// 一次gathering write最多合并的请求数
+	private static final int MAX_WRITE_BATCH = 256;
+
+	private final String host;
+
+	private final int port;
+
+	private final String password;
+
+	private final int database;
+
+	private final int timeoutMillis;
+
+	private final ConcurrentLinkedQueue<Request> queue = new ConcurrentLinkedQueue<Request>();
+
+	private final ReentrantLock writeLock = new ReentrantLock();
+
+	// 受writeLock保护
+	private Link link;
+
+	private volatile boolean closed;
+
+	/**
+	 * 一条已编码的命令及其回复
+	 */
+	static final class Request {
+
+		final ByteBuffer command;
+
+		final CompletableFuture<Object> reply = new CompletableFuture<Object>();
+
+		Request(byte[] command) {
+			this.command = ByteBuffer.wrap(command);
+		}
+	}
+
+	MultiplexedChannel(String host, int port, String password, int database, int timeoutMillis) {
+		this.host = host;
+		this.port = port;
+		this.password = password;
+		this.database = database;
+		this.timeoutMillis = timeoutMillis;
+	}
+
+	Request send(byte[] command) {
+		Request request = new Request(command);
+		queue.add(request);
+		flush();
+		return request;
+	}
+
+	/**
+	 * 按顺序发送一批请求（管道）
+	 */
+	void send(List<Request> requests) {
+		queue.addAll(requests);
+		flush();
+	}
+
+	/**
+	 * 等待回复，error回复以InvalidDataAccessApiUsageException抛出
+	 */
+	Object await(Request request) {
+		Object reply;
+		try {
+			reply = request.reply.get(timeoutMillis, TimeUnit.MILLISECONDS);
+		} catch (TimeoutException e) {
+			throw new QueryTimeoutException("Redis command timed out after " + timeoutMillis + " ms");
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RedisConnectionFailureException("Interrupted while waiting for redis reply", e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			throw new RedisConnectionFailureException("Redis command failed", cause);
+		}
+		if (reply instanceof RespReader.Error) {
+			throw new InvalidDataAccessApiUsageException(((RespReader.Error) reply).message);
+		}
+		return reply;
+	}
+
+	void close() {
+		closed = true;
+		writeLock.lock();
+		try {
+			if (link != null) {
+				link.fail(new IOException("multiplexed connection closed"));
+				link = null;
+			}
+		} finally {
+			writeLock.unlock();
+		}
+		failQueued(new RedisConnectionFailureException("multiplexed connection closed"));
+	}
+
+	private void flush() {
+		// 没拿到锁的线程直接返回，持锁线程释放锁后会再检查队列，保证新加入的请求被写出
+		while (!queue.isEmpty() && writeLock.tryLock()) {
+			try {
+				write();
+			} finally {
+				writeLock.unlock();
+			}
+		}
+	}
+
+	private void write() {
+		ByteBuffer[] buffers = new ByteBuffer[MAX_WRITE_BATCH];
+		while (!queue.isEmpty()) {
+			Link current;
+			try {
+				current = connect();
+			} catch (RuntimeException e) {
+				failQueued(e);
+				return;
+			}
+			int count = 0;
+			Request request;
+			while (count < MAX_WRITE_BATCH && (request = queue.poll()) != null) {
+				// 先登记再写出，回复不会早于登记到达
+				current.pending.add(request.reply);
+				buffers[count++] = request.command;
+			}
+			try {
+				current.write(buffers, count);
+			} catch (IOException e) {
+				current.fail(e);
+			}
+		}
+	}
+
+	private void failQueued(RuntimeException cause) {
+		Request request;
+		while ((request = queue.poll()) != null) {
+			request.reply.completeExceptionally(cause);
+		}
+	}
+
+	/**
+	 * 在写锁内调用，返回可用的连接，断开时重连并完成AUTH与SELECT
+	 */
+	private Link connect() {
+		if (closed) {
+			throw new RedisConnectionFailureException("multiplexed connection closed");
+		}
+		if (link != null && !link.broken) {
+			return link;
+		}
+		link = null;
+		SocketChannel socket = null;
+		try {
+			socket = SocketChannel.open();
+			socket.socket().setTcpNoDelay(true);
+			socket.socket().setKeepAlive(true);
+			socket.socket().connect(new InetSocketAddress(host, port), timeoutMillis);
+		} catch (IOException e) {
+			closeQuietly(socket);
+			throw new RedisConnectionFailureException("Cannot connect to redis " + host + ":" + port, e);
+		}
+		Link connected = new Link(socket);
+		Thread reader = new Thread(connected, "redis-mux-reader-" + THREAD_COUNT.incrementAndGet());
+		reader.setDaemon(true);
+		reader.start();
+		try {
+			List<byte[]> handshake = new ArrayList<byte[]>();
+			if (password != null && !password.isEmpty()) {
+				handshake.add(MultiplexedCommands.bytes("AUTH"));
+				handshake.add(MultiplexedCommands.bytes(password));
+				connected.call(handshake);
+				handshake.clear();
+			}
+			if (database != 0) {
+				handshake.add(MultiplexedCommands.bytes("SELECT"));
+				handshake.add(MultiplexedCommands.bytes(String.valueOf(database)));
+				connected.call(handshake);
+			}
+		} catch (RuntimeException e) {
+			connected.fail(e);
+			throw e;
+		}
+		link = connected;
+		return connected;
+	}
+
+	private static void closeQuietly(SocketChannel socket) {
+		if (socket != null) {
+			try {
+				socket.close();
+			} catch (IOException e) {
+				// ignore
+			}
+		}
+	}
+
+	/**
+	 * 一次建立的TCP连接及其读线程，断开后不再复用
+	 */
+	private final class Link implements Runnable {
+
+		final SocketChannel socket;
+
+		final ConcurrentLinkedQueue<CompletableFuture<Object>> pending =
+				new ConcurrentLinkedQueue<CompletableFuture<Object>>();
+
+		volatile boolean broken;
+
+		Link(SocketChannel socket) {
+			this.socket = socket;
+		}
+
+		void write(ByteBuffer[] buffers, int count) throws IOException {
+			int offset = 0;
+			while (offset < count) {
+				socket.write(buffers, offset, count - offset);
+				while (offset < count && !buffers[offset].hasRemaining()) {
+					buffers[offset++] = null;
+				}
+			}
+		}
+
+		/**
+		 * 握手阶段在写锁内直接发送并等待回复
+		 */
+		void call(List<byte[]> command) {
+			Request request = new Request(MultiplexedCommands.encode(command));
+			pending.add(request.reply);
+			try {
+				write(new ByteBuffer[] { request.command }, 1);
+			} catch (IOException e) {
+				fail(e);
+			}
+			await(request);
+		}
+
+		@Override
+		public void run() {
+			RespReader reader = new RespReader(socket);
+			try {
+				while (!broken) {
+					Object reply = reader.read();
+					CompletableFuture<Object> request = pending.poll();
+					if (request == null) {
+						throw new IOException("unexpected reply from redis");
+					}
+					request.complete(reply);
+				}
+			} catch (Exception e) {
+				fail(e);
+			}
+		}
+
+		void fail(Exception cause) {
+			if (!broken) {
+				broken = true;
+				if (!closed) {
+					logger.warn("multiplexed connection to redis {}:{} lost: {}", host, port, cause.toString());
+				}
+			}
+			// 先关闭连接再清空，之后登记的请求写出时必然失败并再次清空
+			closeQuietly(socket);
+			RedisConnectionFailureException failure = new RedisConnectionFailureException(
+					"Multiplexed connection to redis " + host + ":" + port + " lost", cause);
+			CompletableFuture<Object> request;
+			while ((request = pending.poll()) != null) {
+				request.completeExceptionally(failure);
+			}
+		}
+	}
+}
@@ -0,0 +1,556 @@
+package com.easycode.redis.server.mux;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.data.redis.connection.DataType;
+import org.springframework.data.redis.connection.DefaultTuple;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisZSetCommands.Tuple;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.connection.jedis.JedisScriptReturnConverter;
+
+/**
+ * 可以在多路复用连接上执行的{@link RedisConnection}方法：参数到RESP命令的编码，以及回复到返回值的转换，
+ * 转换结果与JedisConnection一致。
+ * <p>
+ * 阻塞命令、事务、订阅、select、scan游标等不在表中，由{@link MultiplexedConnection}交给连接池中的普通连接执行；
+ * 经execute发出的同类命令按命令名识别，同样交给普通连接。
+ */
+final class MultiplexedCommands {
+
+	static final Charset CHARSET = Charset.forName("UTF-8");
+
+	private static final byte[] LIMIT = bytes("LIMIT");
+
+	private static final byte[] WITHSCORES = bytes("WITHSCORES");
+
+	private static final Map<Method, Command> COMMANDS = new HashMap<Method, Command>();
+
+	/**
+	 * 经execute发出时会改变连接状态的命令，之后的命令依赖这个状态，不能写到共享的长连接上
+	 */
+	private static final Set<String> STATEFUL_COMMANDS = new HashSet<String>(Arrays.asList("MULTI", "EXEC", "DISCARD",
+			"WATCH", "UNWATCH", "SELECT", "AUTH", "HELLO", "RESET", "CLIENT", "READONLY", "READWRITE", "SUBSCRIBE",
+			"PSUBSCRIBE", "SSUBSCRIBE", "UNSUBSCRIBE", "PUNSUBSCRIBE", "SUNSUBSCRIBE", "MONITOR", "QUIT"));
+
+	/**
+	 * 经execute发出的阻塞命令，在共享的长连接上会挡住排在后面的所有回复
+	 */
+	private static final Set<String> BLOCKING_COMMANDS = new HashSet<String>(Arrays.asList("BLPOP", "BRPOP",
+			"BRPOPLPUSH", "BLMOVE", "BLMPOP", "BZPOPMIN", "BZPOPMAX", "BZMPOP", "XREAD", "XREADGROUP", "WAIT",
+			"WAITAOF"));
+
+	/**
+	 * 回复到方法返回值的转换方式，由方法的返回类型决定
+	 */
+	enum Reply {
+		VOID, BOOLEAN, LONG, DOUBLE, STRING, BYTES, BYTES_LIST, BYTES_SET, BYTES_MAP, TUPLE_SET, BOOLEAN_LIST, DATA_TYPE, RAW
+	}
+
+	/**
+	 * 一个方法对应的命令，默认按参数顺序展开为命令参数
+	 */
+	static class Command {
+
+		private final byte[][] words;
+
+		Reply reply;
+
+		Command(String... words) {
+			this.words = new byte[words.length][];
+			for (int i = 0; i < words.length; i++) {
+				this.words[i] = bytes(words[i]);
+			}
+		}
+
+		void arguments(Object[] args, List<byte[]> out) {
+			if (args != null) {
+				for (Object arg : args) {
+					flatten(arg, out);
+				}
+			}
+		}
+
+		Object convert(Object reply, Object[] args) {
+			return MultiplexedCommands.convert(this.reply, reply);
+		}
+
+		/**
+		 * @return 这次调用能否写到共享的长连接上
+		 */
+		boolean shareable(Object[] args) {
+			return true;
+		}
+
+		final byte[] encode(Object[] args) {
+			List<byte[]> parts = new ArrayList<byte[]>();
+			for (byte[] word : words) {
+				parts.add(word);
+			}
+			arguments(args, parts);
+			return MultiplexedCommands.encode(parts);
+		}
+	}
+
+	static {
+		// key
+		register("exists", "EXISTS", byte[].class);
+		register("del", "DEL", byte[][].class);
+		register("type", "TYPE", byte[].class);
+		register("keys", "KEYS", byte[].class);
+		register("randomKey", "RANDOMKEY");
+		register("rename", "RENAME", byte[].class, byte[].class);
+		register("renameNX", "RENAMENX", byte[].class, byte[].class);
+		register("expire", "EXPIRE", byte[].class, long.class);
+		register("pExpire", "PEXPIRE", byte[].class, long.class);
+		register("expireAt", "EXPIREAT", byte[].class, long.class);
+		register("pExpireAt", "PEXPIREAT", byte[].class, long.class);
+		register("persist", "PERSIST", byte[].class);
+		register("ttl", "TTL", byte[].class);
+		register("pTtl", "PTTL", byte[].class);
+
+		// string
+		register("get", "GET", byte[].class);
+		register("getSet", "GETSET", byte[].class, byte[].class);
+		register("mGet", "MGET", byte[][].class);
+		register("set", "SET", byte[].class, byte[].class);
+		register("setNX", "SETNX", byte[].class, byte[].class);
+		register("setEx", "SETEX", byte[].class, long.class, byte[].class);
+		register("pSetEx", "PSETEX", byte[].class, long.class, byte[].class);
+		register("mSet", "MSET", Map.class);
+		register("mSetNX", "MSETNX", Map.class);
+		register("incr", "INCR", byte[].class);
+		register("incrBy", "INCRBY", byte[].class, long.class);
+		register("incrBy", "INCRBYFLOAT", byte[].class, double.class);
+		register("decr", "DECR", byte[].class);
+		register("decrBy", "DECRBY", byte[].class, long.class);
+		register("append", "APPEND", byte[].class, byte[].class);
+		register("getRange", "GETRANGE", byte[].class, long.class, long.class);
+		register("strLen", "STRLEN", byte[].class);
+
+		// list
+		register("rPush", "RPUSH", byte[].class, byte[][].class);
+		register("lPush", "LPUSH", byte[].class, byte[][].class);
+		register("rPushX", "RPUSHX", byte[].class, byte[].class);
+		register("lPushX", "LPUSHX", byte[].class, byte[].class);
+		register("lLen", "LLEN", byte[].class);
+		register("lRange", "LRANGE", byte[].class, long.class, long.class);
+		register("lTrim", "LTRIM", byte[].class, long.class, long.class);
+		register("lIndex", "LINDEX", byte[].class, long.class);
+		register("lSet", "LSET", byte[].class, long.class, byte[].class);
+		register("lRem", "LREM", byte[].class, long.class, byte[].class);
+		register("lPop", "LPOP", byte[].class);
+		register("rPop", "RPOP", byte[].class);
+		register("rPopLPush", "RPOPLPUSH", byte[].class, byte[].class);
+
+		// set
+		register("sAdd", "SADD", byte[].class, byte[][].class);
+		register("sRem", "SREM", byte[].class, byte[][].class);
+		register("sPop", "SPOP", byte[].class);
+		register("sMove", "SMOVE", byte[].class, byte[].class, byte[].class);
+		register("sCard", "SCARD", byte[].class);
+		register("sIsMember", "SISMEMBER", byte[].class, byte[].class);
+		register("sInter", "SINTER", byte[][].class);
+		register("sInterStore", "SINTERSTORE", byte[].class, byte[][].class);
+		register("sUnion", "SUNION", byte[][].class);
+		register("sUnionStore", "SUNIONSTORE", byte[].class, byte[][].class);
+		register("sDiff", "SDIFF", byte[][].class);
+		register("sDiffStore", "SDIFFSTORE", byte[].class, byte[][].class);
+		register("sMembers", "SMEMBERS", byte[].class);
+		register("sRandMember", "SRANDMEMBER", byte[].class);
+		register("sRandMember", "SRANDMEMBER", byte[].class, long.class);
+
+		// zset
+		register("zAdd", "ZADD", byte[].class, double.class, byte[].class);
+		register("zAdd", "ZADD", byte[].class, Set.class);
+		register("zRem", "ZREM", byte[].class, byte[][].class);
+		register("zIncrBy", "ZINCRBY", byte[].class, double.class, byte[].class);
+		register("zRank", "ZRANK", byte[].class, byte[].class);
+		register("zRevRank", "ZREVRANK", byte[].class, byte[].class);
+		register("zRange", "ZRANGE", byte[].class, long.class, long.class);
+		register("zRangeWithScores", new ScoresCommand("ZRANGE"), byte[].class, long.class, long.class);
+		register("zRevRange", "ZREVRANGE", byte[].class, long.class, long.class);
+		register("zRevRangeWithScores", new ScoresCommand("ZREVRANGE"), byte[].class, long.class, long.class);
+		register("zRangeByScore", "ZRANGEBYSCORE", byte[].class, double.class, double.class);
+		register("zRangeByScore", "ZRANGEBYSCORE", byte[].class, String.class, String.class);
+		register("zRangeByScore", new ScoreRangeCommand("ZRANGEBYSCORE", false, false), byte[].class, double.class,
+				double.class, long.class, long.class);
+		register("zRangeByScore", new ScoreRangeCommand("ZRANGEBYSCORE", false, false), byte[].class, String.class,
+				String.class, long.class, long.class);
+		register("zRangeByScoreWithScores", new ScoreRangeCommand("ZRANGEBYSCORE", false, true), byte[].class,
+				double.class, double.class);
+		register("zRangeByScoreWithScores", new ScoreRangeCommand("ZRANGEBYSCORE", false, true), byte[].class,
+				double.class, double.class, long.class, long.class);
+		register("zRevRangeByScore", new ScoreRangeCommand("ZREVRANGEBYSCORE", true, false), byte[].class,
+				double.class, double.class);
+		register("zRevRangeByScore", new ScoreRangeCommand("ZREVRANGEBYSCORE", true, false), byte[].class,
+				double.class, double.class, long.class, long.class);
+		register("zRevRangeByScoreWithScores", new ScoreRangeCommand("ZREVRANGEBYSCORE", true, true), byte[].class,
+				double.class, double.class);
+		register("zRevRangeByScoreWithScores", new ScoreRangeCommand("ZREVRANGEBYSCORE", true, true), byte[].class,
+				double.class, double.class, long.class, long.class);
+		register("zCount", "ZCOUNT", byte[].class, double.class, double.class);
+		register("zCard", "ZCARD", byte[].class);
+		register("zScore", "ZSCORE", byte[].class, byte[].class);
+		register("zRemRange", "ZREMRANGEBYRANK", byte[].class, long.class, long.class);
+		register("zRemRangeByScore", "ZREMRANGEBYSCORE", byte[].class, double.class, double.class);
+
+		// hash
+		register("hSet", "HSET", byte[].class, byte[].class, byte[].class);
+		register("hSetNX", "HSETNX", byte[].class, byte[].class, byte[].class);
+		register("hGet", "HGET", byte[].class, byte[].class);
+		register("hMGet", "HMGET", byte[].class, byte[][].class);
+		register("hMSet", "HMSET", byte[].class, Map.class);
+		register("hIncrBy", "HINCRBY", byte[].class, byte[].class, long.class);
+		register("hIncrBy", "HINCRBYFLOAT", byte[].class, byte[].class, double.class);
+		register("hExists", "HEXISTS", byte[].class, byte[].class);
+		register("hDel", "HDEL", byte[].class, byte[][].class);
+		register("hLen", "HLEN", byte[].class);
+		register("hKeys", "HKEYS", byte[].class);
+		register("hVals", "HVALS", byte[].class);
+		register("hGetAll", "HGETALL", byte[].class);
+
+		// script
+		register("scriptFlush", new Command("SCRIPT", "FLUSH"));
+		register("scriptLoad", new Command("SCRIPT", "LOAD"), byte[].class);
+		register("scriptExists", new Command("SCRIPT", "EXISTS"), String[].class);
+		register("eval", new ScriptCommand("EVAL"), byte[].class, ReturnType.class, int.class, byte[][].class);
+		register("evalSha", new ScriptCommand("EVALSHA"), String.class, ReturnType.class, int.class, byte[][].class);
+		register("evalSha", new ScriptCommand("EVALSHA"), byte[].class, ReturnType.class, int.class, byte[][].class);
+
+		// server
+		register("publish", "PUBLISH", byte[].class, byte[].class);
+		register("dbSize", "DBSIZE");
+		register("flushDb", "FLUSHDB");
+		register("echo", "ECHO", byte[].class);
+		register("ping", "PING");
+		register("execute", new Command() {
+			@Override
+			void arguments(Object[] args, List<byte[]> out) {
+				out.add(bytes((String) args[0]));
+				flatten(args[1], out);
+			}
+
+			@Override
+			boolean shareable(Object[] args) {
+				String name = rawCommand(args);
+				return !STATEFUL_COMMANDS.contains(name) && !BLOCKING_COMMANDS.contains(name);
+			}
+		}, String.class, byte[][].class);
+	}
+
+	private MultiplexedCommands() {
+	}
+
+	/**
+	 * @return 这次调用对应的命令，不支持或不能写到共享连接上时为null
+	 */
+	static Command get(Method method, Object[] args) {
+		Command command = COMMANDS.get(method);
+		return command == null || !command.shareable(args) ? null : command;
+	}
+
+	/**
+	 * @return 经execute发出、会改变连接状态的命令
+	 */
+	static boolean isStateful(Method method, Object[] args) {
+		return "execute".equals(method.getName()) && STATEFUL_COMMANDS.contains(rawCommand(args));
+	}
+
+	private static String rawCommand(Object[] args) {
+		Object name = args == null || args.length == 0 ? null : args[0];
+		return name == null ? "" : name.toString().trim().toUpperCase(Locale.ENGLISH);
+	}
+
+	private static void register(String method, String command, Class<?>... parameterTypes) {
+		register(method, new Command(command), parameterTypes);
+	}
+
+	private static void register(String method, Command command, Class<?>... parameterTypes) {
+		Method target;
+		try {
+			target = RedisConnection.class.getMethod(method, parameterTypes);
+		} catch (NoSuchMethodException e) {
+			throw new IllegalStateException(e);
+		}
+		command.reply = reply(target.getGenericReturnType());
+		COMMANDS.put(target, command);
+	}
+
+	private static Reply reply(Type type) {
+		if (type == void.class) {
+			return Reply.VOID;
+		}
+		if (type == Boolean.class) {
+			return Reply.BOOLEAN;
+		}
+		if (type == Long.class) {
+			return Reply.LONG;
+		}
+		if (type == Double.class) {
+			return Reply.DOUBLE;
+		}
+		if (type == String.class) {
+			return Reply.STRING;
+		}
+		if (type == byte[].class) {
+			return Reply.BYTES;
+		}
+		if (type == DataType.class) {
+			return Reply.DATA_TYPE;
+		}
+		if (type == Object.class || type instanceof TypeVariable) {
+			return Reply.RAW;
+		}
+		if (type instanceof ParameterizedType) {
+			ParameterizedType parameterized = (ParameterizedType) type;
+			Type raw = parameterized.getRawType();
+			Type element = parameterized.getActualTypeArguments()[0];
+			if (raw == List.class) {
+				return element == Boolean.class ? Reply.BOOLEAN_LIST : Reply.BYTES_LIST;
+			}
+			if (raw == Set.class) {
+				return element == Tuple.class ? Reply.TUPLE_SET : Reply.BYTES_SET;
+			}
+			if (raw == Map.class) {
+				return Reply.BYTES_MAP;
+			}
+		}
+		throw new IllegalStateException("unsupported return type " + type);
+	}
+
+	@SuppressWarnings("unchecked")
+	static Object convert(Reply type, Object reply) {
+		if (reply == null || type == Reply.RAW) {
+			return reply;
+		}
+		switch (type) {
+		case VOID:
+			return null;
+		case BOOLEAN:
+			if (reply instanceof Long) {
+				return ((Long) reply).longValue() == 1;
+			}
+			return Boolean.TRUE;
+		case LONG:
+			return reply;
+		case DOUBLE:
+			return toDouble((byte[]) reply);
+		case STRING:
+			return new String((byte[]) reply, CHARSET);
+		case BYTES:
+			return reply;
+		case BYTES_LIST:
+			return reply;
+		case BYTES_SET:
+			return new LinkedHashSet<byte[]>((List<byte[]>) reply);
+		case BYTES_MAP:
+			List<byte[]> pairs = (List<byte[]>) reply;
+			Map<byte[], byte[]> map = new LinkedHashMap<byte[], byte[]>(pairs.size());
+			for (int i = 0; i + 1 < pairs.size(); i += 2) {
+				map.put(pairs.get(i), pairs.get(i + 1));
+			}
+			return map;
+		case TUPLE_SET:
+			List<byte[]> scored = (List<byte[]>) reply;
+			Set<Tuple> tuples = new LinkedHashSet<Tuple>(scored.size());
+			for (int i = 0; i + 1 < scored.size(); i += 2) {
+				tuples.add(new DefaultTuple(scored.get(i), toDouble(scored.get(i + 1))));
+			}
+			return tuples;
+		case BOOLEAN_LIST:
+			List<Long> flags = (List<Long>) reply;
+			List<Boolean> booleans = new ArrayList<Boolean>(flags.size());
+			for (Long flag : flags) {
+				booleans.add(flag != null && flag.longValue() == 1);
+			}
+			return booleans;
+		case DATA_TYPE:
+			return DataType.fromCode(new String((byte[]) reply, CHARSET));
+		default:
+			return reply;
+		}
+	}
+
+	/**
+	 * 带WITHSCORES的按排名查询
+	 */
+	private static final class ScoresCommand extends Command {
+
+		ScoresCommand(String name) {
+			super(name);
+		}
+
+		@Override
+		void arguments(Object[] args, List<byte[]> out) {
+			super.arguments(args, out);
+			out.add(WITHSCORES);
+		}
+	}
+
+	/**
+	 * 按分数查询：REV时分数上界在前，可选WITHSCORES与LIMIT offset count
+	 */
+	private static final class ScoreRangeCommand extends Command {
+
+		private final boolean reverse;
+
+		private final boolean withScores;
+
+		ScoreRangeCommand(String name, boolean reverse, boolean withScores) {
+			super(name);
+			this.reverse = reverse;
+			this.withScores = withScores;
+		}
+
+		@Override
+		void arguments(Object[] args, List<byte[]> out) {
+			out.add((byte[]) args[0]);
+			flatten(args[reverse ? 2 : 1], out);
+			flatten(args[reverse ? 1 : 2], out);
+			if (withScores) {
+				out.add(WITHSCORES);
+			}
+			if (args.length == 5) {
+				out.add(LIMIT);
+				flatten(args[3], out);
+				flatten(args[4], out);
+			}
+		}
+	}
+
+	/**
+	 * EVAL与EVALSHA，返回值按ReturnType转换
+	 */
+	private static final class ScriptCommand extends Command {
+
+		ScriptCommand(String name) {
+			super(name);
+		}
+
+		@Override
+		void arguments(Object[] args, List<byte[]> out) {
+			flatten(args[0], out);
+			flatten(args[2], out);
+			flatten(args[3], out);
+		}
+
+		@Override
+		Object convert(Object reply, Object[] args) {
+			return new JedisScriptReturnConverter((ReturnType) args[1]).convert(reply);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	static void flatten(Object arg, List<byte[]> out) {
+		if (arg instanceof byte[]) {
+			out.add((byte[]) arg);
+		} else if (arg instanceof byte[][]) {
+			for (byte[] value : (byte[][]) arg) {
+				out.add(value);
+			}
+		} else if (arg instanceof String) {
+			out.add(bytes((String) arg));
+		} else if (arg instanceof String[]) {
+			for (String value : (String[]) arg) {
+				out.add(bytes(value));
+			}
+		} else if (arg instanceof Double) {
+			out.add(bytes(((Double) arg).doubleValue()));
+		} else if (arg instanceof Number) {
+			out.add(bytes(String.valueOf(((Number) arg).longValue())));
+		} else if (arg instanceof Map) {
+			for (Map.Entry<byte[], byte[]> entry : ((Map<byte[], byte[]>) arg).entrySet()) {
+				out.add(entry.getKey());
+				out.add(entry.getValue());
+			}
+		} else if (arg instanceof Set) {
+			for (Tuple tuple : (Set<Tuple>) arg) {
+				out.add(bytes(tuple.getScore().doubleValue()));
+				out.add(tuple.getValue());
+			}
+		} else {
+			throw new IllegalArgumentException("unsupported argument " + arg);
+		}
+	}
+
+	/**
+	 * 编码为RESP的multi bulk请求
+	 */
+	static byte[] encode(List<byte[]> parts) {
+		byte[] count = bytes(String.valueOf(parts.size()));
+		int size = 1 + count.length + 2;
+		for (byte[] part : parts) {
+			size += 1 + stringSize(part.length) + 2 + part.length + 2;
+		}
+		byte[] command = new byte[size];
+		int position = 0;
+		command[position++] = '*';
+		position = put(command, position, count);
+		for (byte[] part : parts) {
+			command[position++] = '$';
+			position = put(command, position, bytes(String.valueOf(part.length)));
+			System.arraycopy(part, 0, command, position, part.length);
+			position += part.length;
+			command[position++] = '\r';
+			command[position++] = '\n';
+		}
+		return command;
+	}
+
+	private static int put(byte[] command, int position, byte[] number) {
+		System.arraycopy(number, 0, command, position, number.length);
+		position += number.length;
+		command[position++] = '\r';
+		command[position++] = '\n';
+		return position;
+	}
+
+	private static int stringSize(int value) {
+		int size = 1;
+		while (value >= 10) {
+			value /= 10;
+			size++;
+		}
+		return size;
+	}
+
+	static byte[] bytes(String value) {
+		return value.getBytes(CHARSET);
+	}
+
+	private static byte[] bytes(double value) {
+		if (value == Double.POSITIVE_INFINITY) {
+			return bytes("+inf");
+		}
+		if (value == Double.NEGATIVE_INFINITY) {
+			return bytes("-inf");
+		}
+		return bytes(String.valueOf(value));
+	}
+
+	private static Double toDouble(byte[] value) {
+		String text = new String(value, CHARSET);
+		if ("inf".equals(text) || "+inf".equals(text)) {
+			return Double.POSITIVE_INFINITY;
+		}
+		if ("-inf".equals(text)) {
+			return Double.NEGATIVE_INFINITY;
+		}
+		return Double.valueOf(text);
+	}
+}
@@ -0,0 +1,250 @@
+package com.easycode.redis.server.mux;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisPipelineException;
+
+import com.easycode.redis.server.mux.MultiplexedChannel.Request;
+import com.easycode.redis.server.mux.MultiplexedCommands.Command;
+import com.easycode.redis.server.mux.MultiplexedCommands.Reply;
+
+/**
+ * 多路复用连接工厂返回的{@link RedisConnection}，与JedisConnection一样只供一个线程使用。
+ * <p>
+ * {@link MultiplexedCommands}中的命令写到共享的长连接上；管道中的命令先在本地缓存，关闭管道时一次发出。
+ * 其余方法从回退的连接工厂借一个普通连接执行，之后的调用都固定在这个连接上直到关闭，事务、订阅等有状态的用法因此不受影响。
+ * 管道中不支持事务、订阅等有状态的方法，其他不支持的命令等之前的命令完成后用临时借出的连接同步执行。
+ * 经execute发出的原始命令按命令名同样处理：MULTI、WATCH等有状态的命令与BLPOP等阻塞命令不会写到共享的长连接上。
+ */
+final class MultiplexedConnection implements InvocationHandler {
+
+	// 管道中缓存的命令达到这个数量时先发出，避免大管道占用过多内存
+	private static final int PIPELINE_FLUSH_SIZE = 1024;
+
+	private static final Set<String> STATEFUL = new HashSet<String>(Arrays.asList("multi", "exec", "discard", "watch",
+			"unwatch", "select", "subscribe", "pSubscribe", "getNativeConnection", "getSentinelConnection"));
+
+	private final MultiplexedChannel channel;
+
+	private final RedisConnectionFactory fallback;
+
+	private RedisConnection pinned;
+
+	// 未开启管道时为null
+	private List<PipelinedCall> pipeline;
+
+	private int unsent;
+
+	private boolean closed;
+
+	/**
+	 * 管道中的一个调用
+	 */
+	private static final class PipelinedCall {
+
+		final Command command;
+
+		final Object[] args;
+
+		final Request request;
+
+		boolean done;
+
+		Object value;
+
+		RuntimeException error;
+
+		boolean status;
+
+		PipelinedCall(Command command, Object[] args, Request request) {
+			this.command = command;
+			this.args = args;
+			this.request = request;
+			this.status = command != null && command.reply == Reply.VOID;
+		}
+	}
+
+	private MultiplexedConnection(MultiplexedChannel channel, RedisConnectionFactory fallback) {
+		this.channel = channel;
+		this.fallback = fallback;
+	}
+
+	static RedisConnection create(MultiplexedChannel channel, RedisConnectionFactory fallback) {
+		return (RedisConnection) Proxy.newProxyInstance(RedisConnection.class.getClassLoader(),
+				new Class<?>[] { RedisConnection.class }, new MultiplexedConnection(channel, fallback));
+	}
+
+	@Override
+	public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+		String name = method.getName();
+		if (method.getDeclaringClass() == Object.class) {
+			if ("equals".equals(name)) {
+				return proxy == args[0];
+			}
+			if ("hashCode".equals(name)) {
+				return System.identityHashCode(proxy);
+			}
+			return "MultiplexedConnection@" + Integer.toHexString(System.identityHashCode(proxy));
+		}
+		if ("close".equals(name)) {
+			close();
+			return null;
+		}
+		if ("isClosed".equals(name)) {
+			return closed;
+		}
+		if (closed) {
+			throw new InvalidDataAccessApiUsageException("Connection is closed");
+		}
+		if (pinned != null) {
+			return invoke(pinned, method, args);
+		}
+		if ("isPipelined".equals(name)) {
+			return pipeline != null;
+		}
+		if ("isQueueing".equals(name) || "isSubscribed".equals(name)) {
+			return false;
+		}
+		if ("getSubscription".equals(name)) {
+			return null;
+		}
+		if ("openPipeline".equals(name)) {
+			if (pipeline == null) {
+				pipeline = new ArrayList<PipelinedCall>();
+				unsent = 0;
+			}
+			return null;
+		}
+		if ("closePipeline".equals(name)) {
+			return closePipeline();
+		}
+		Command command = MultiplexedCommands.get(method, args);
+		if (pipeline != null) {
+			if (command == null) {
+				pipelineFallback(method, args);
+			} else {
+				pipeline.add(new PipelinedCall(command, args, new Request(command.encode(args))));
+				if (pipeline.size() - unsent >= PIPELINE_FLUSH_SIZE) {
+					sendPipeline();
+				}
+			}
+			return null;
+		}
+		if (command == null) {
+			pinned = fallback.getConnection();
+			return invoke(pinned, method, args);
+		}
+		return command.convert(channel.await(channel.send(command.encode(args))), args);
+	}
+
+	private List<Object> closePipeline() {
+		if (pipeline == null) {
+			return new ArrayList<Object>();
+		}
+		List<PipelinedCall> calls = pipeline;
+		sendPipeline();
+		pipeline = null;
+		List<Object> results = new ArrayList<Object>(calls.size());
+		RuntimeException failure = null;
+		for (PipelinedCall call : calls) {
+			complete(call);
+			if (call.error != null) {
+				results.add(call.error);
+				if (failure == null) {
+					failure = call.error;
+				}
+			} else if (!call.status) {
+				results.add(call.value);
+			}
+		}
+		if (failure != null) {
+			throw new RedisPipelineException(failure, results);
+		}
+		return results;
+	}
+
+	private void sendPipeline() {
+		if (unsent < pipeline.size()) {
+			List<Request> requests = new ArrayList<Request>(pipeline.size() - unsent);
+			for (int i = unsent; i < pipeline.size(); i++) {
+				requests.add(pipeline.get(i).request);
+			}
+			unsent = pipeline.size();
+			channel.send(requests);
+		}
+	}
+
+	private void complete(PipelinedCall call) {
+		if (call.done) {
+			return;
+		}
+		call.done = true;
+		try {
+			call.value = call.command.convert(channel.await(call.request), call.args);
+		} catch (RuntimeException e) {
+			call.error = e;
+		}
+	}
+
+	/**
+	 * 管道中不支持的命令：等之前的命令都完成后同步执行，保持执行顺序
+	 */
+	private void pipelineFallback(Method method, Object[] args) throws Throwable {
+		if (STATEFUL.contains(method.getName())) {
+			throw new InvalidDataAccessApiUsageException(method.getName()
+					+ " is not supported in a pipeline on a multiplexed connection");
+		}
+		if (MultiplexedCommands.isStateful(method, args)) {
+			throw new InvalidDataAccessApiUsageException(args[0]
+					+ " is not supported in a pipeline on a multiplexed connection");
+		}
+		sendPipeline();
+		for (PipelinedCall call : pipeline) {
+			complete(call);
+		}
+		PipelinedCall call = new PipelinedCall(null, args, null);
+		call.done = true;
+		call.status = method.getReturnType() == void.class;
+		RedisConnection connection = fallback.getConnection();
+		try {
+			call.value = invoke(connection, method, args);
+		} catch (RuntimeException e) {
+			call.error = e;
+		} finally {
+			connection.close();
+		}
+		pipeline.add(call);
+		unsent = pipeline.size();
+	}
+
+	private void close() {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		pipeline = null;
+		if (pinned != null) {
+			pinned.close();
+			pinned = null;
+		}
+	}
+
+	private static Object invoke(RedisConnection connection, Method method, Object[] args) throws Throwable {
+		try {
+			return method.invoke(connection, args);
+		} catch (InvocationTargetException e) {
+			throw e.getTargetException();
+		}
+	}
+}
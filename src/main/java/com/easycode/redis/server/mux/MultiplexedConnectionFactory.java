@@ -0,0 +1,154 @@
+package com.easycode.redis.server.mux;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisSentinelConnection;
+import org.springframework.data.redis.connection.jedis.JedisConnectionFactory;
+
+/**
+ * 多路复用的连接工厂：所有连接共用到redis的少数几条长连接，多个线程的命令并发写入同一条连接，
+ * 回复按发送顺序匹配，吞吐随在途请求数增长而不受连接池大小限制。配置在RedisTemplate上即可，
+ * Redis与各service不需要改动：
+ *
+ * <pre>
+ * MultiplexedConnectionFactory factory = new MultiplexedConnectionFactory();
+ * factory.setHostName("127.0.0.1");
+ * factory.setPort(6379);
+ * factory.afterPropertiesSet();
+ * template.setConnectionFactory(factory);
+ * </pre>
+ *
+ * 阻塞命令、事务、订阅等不能共用连接的操作交给回退的连接工厂，未配置时按相同的地址创建JedisConnectionFactory。
+ * 一个慢命令（如大key的HGETALL）会推迟同一条连接上之后的所有回复，可以用connections配置多条连接分散。
+ */
+public class MultiplexedConnectionFactory implements RedisConnectionFactory, InitializingBean, DisposableBean {
+
+	private String hostName = "localhost";
+
+	private int port = 6379;
+
+	private String password;
+
+	private int database;
+
+	private int timeout = 2000;
+
+	private int connections = 1;
+
+	private RedisConnectionFactory fallback;
+
+	private JedisConnectionFactory ownFallback;
+
+	private volatile MultiplexedChannel[] channels;
+
+	private final AtomicInteger next = new AtomicInteger();
+
+	public void setHostName(String hostName) {
+		this.hostName = hostName;
+	}
+
+	public void setPort(int port) {
+		this.port = port;
+	}
+
+	public void setPassword(String password) {
+		this.password = password;
+	}
+
+	public void setDatabase(int database) {
+		this.database = database;
+	}
+
+	/**
+	 * 连接与等待回复的超时时间（毫秒），默认2000
+	 */
+	public void setTimeout(int timeout) {
+		this.timeout = timeout;
+	}
+
+	/**
+	 * 共用的长连接数，默认1；每个RedisConnection轮流使用其中一条，同一个RedisConnection上的命令保持顺序
+	 */
+	public void setConnections(int connections) {
+		this.connections = connections;
+	}
+
+	/**
+	 * 执行不能共用连接的操作的连接工厂，需指向同一个redis
+	 */
+	public void setFallback(RedisConnectionFactory fallback) {
+		this.fallback = fallback;
+	}
+
+	@Override
+	public void afterPropertiesSet() {
+		if (connections <= 0) {
+			throw new IllegalArgumentException("connections must be positive");
+		}
+		if (timeout <= 0) {
+			throw new IllegalArgumentException("timeout must be positive");
+		}
+		if (fallback == null) {
+			ownFallback = new JedisConnectionFactory();
+			ownFallback.setHostName(hostName);
+			ownFallback.setPort(port);
+			ownFallback.setPassword(password);
+			ownFallback.setDatabase(database);
+			ownFallback.setTimeout(timeout);
+			ownFallback.afterPropertiesSet();
+			fallback = ownFallback;
+		}
+		channels = new MultiplexedChannel[connections];
+		for (int i = 0; i < connections; i++) {
+			channels[i] = new MultiplexedChannel(hostName, port, password, database, timeout);
+		}
+	}
+
+	@Override
+	public void destroy() {
+		if (channels != null) {
+			for (MultiplexedChannel channel : channels) {
+				channel.close();
+			}
+			channels = null;
+		}
+		if (ownFallback != null) {
+			ownFallback.destroy();
+			ownFallback = null;
+			fallback = null;
+		}
+	}
+
+	@Override
+	public RedisConnection getConnection() {
+		MultiplexedChannel[] current = channels;
+		if (current == null) {
+			throw new IllegalStateException("MultiplexedConnectionFactory is not initialized or already destroyed");
+		}
+		int index = (next.getAndIncrement() & Integer.MAX_VALUE) % current.length;
+		return MultiplexedConnection.create(current[index], fallback);
+	}
+
+	@Override
+	public boolean getConvertPipelineAndTxResults() {
+		return true;
+	}
+
+	@Override
+	public RedisSentinelConnection getSentinelConnection() {
+		return fallback.getSentinelConnection();
+	}
+
+	@Override
+	public DataAccessException translateExceptionIfPossible(RuntimeException ex) {
+		if (ex instanceof DataAccessException) {
+			return (DataAccessException) ex;
+		}
+		return fallback.translateExceptionIfPossible(ex);
+	}
+}
@@ -0,0 +1,154 @@
+package com.easycode.redis.server.mux;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 阻塞地从连接中逐条解析RESP回复，只在读线程中使用。
+ * <p>
+ * 回复的表示与Jedis一致：status与bulk string为byte[]，integer为Long，array为List，nil为null；error为{@link Error}。
+ */
+final class RespReader {
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private static final int MAX_LINE = 64 * 1024;
+
+	private final ReadableByteChannel channel;
+
+	private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+	/**
+	 * error回复
+	 */
+	static final class Error {
+
+		final String message;
+
+		Error(String message) {
+			this.message = message;
+		}
+	}
+
+	RespReader(ReadableByteChannel channel) {
+		this.channel = channel;
+		buffer.flip();
+	}
+
+	Object read() throws IOException {
+		byte type = readByte();
+		switch (type) {
+		case '+':
+			return readLine();
+		case '-':
+			return new Error(new String(readLine(), MultiplexedCommands.CHARSET));
+		case ':':
+			return Long.valueOf(readLong());
+		case '$':
+			long length = readLong();
+			if (length < 0) {
+				return null;
+			}
+			if (length > Integer.MAX_VALUE - 2) {
+				throw new IOException("bulk reply too big: " + length);
+			}
+			byte[] data = new byte[(int) length];
+			readFully(data);
+			if (readByte() != '\r' || readByte() != '\n') {
+				throw new IOException("bulk reply not terminated by CRLF");
+			}
+			return data;
+		case '*':
+			long size = readLong();
+			if (size < 0) {
+				return null;
+			}
+			List<Object> values = new ArrayList<Object>((int) Math.min(size, 1024));
+			for (long i = 0; i < size; i++) {
+				values.add(read());
+			}
+			return values;
+		default:
+			throw new IOException("unknown reply type '" + (char) type + "'");
+		}
+	}
+
+	private byte readByte() throws IOException {
+		if (!buffer.hasRemaining()) {
+			fill();
+		}
+		return buffer.get();
+	}
+
+	private byte[] readLine() throws IOException {
+		byte[] line = new byte[16];
+		int length = 0;
+		byte b;
+		while ((b = readByte()) != '\r') {
+			if (length == line.length) {
+				if (length >= MAX_LINE) {
+					throw new IOException("reply line too long");
+				}
+				byte[] grown = new byte[length << 1];
+				System.arraycopy(line, 0, grown, 0, length);
+				line = grown;
+			}
+			line[length++] = b;
+		}
+		if (readByte() != '\n') {
+			throw new IOException("reply line not terminated by CRLF");
+		}
+		byte[] result = new byte[length];
+		System.arraycopy(line, 0, result, 0, length);
+		return result;
+	}
+
+	private long readLong() throws IOException {
+		byte b = readByte();
+		boolean negative = b == '-';
+		if (negative) {
+			b = readByte();
+		}
+		long value = 0;
+		int digits = 0;
+		while (b != '\r') {
+			if (b < '0' || b > '9' || ++digits > 19) {
+				throw new IOException("invalid number in reply");
+			}
+			value = value * 10 + (b - '0');
+			b = readByte();
+		}
+		if (digits == 0 || readByte() != '\n') {
+			throw new IOException("invalid number in reply");
+		}
+		return negative ? -value : value;
+	}
+
+	private void readFully(byte[] data) throws IOException {
+		int offset = 0;
+		while (offset < data.length) {
+			if (!buffer.hasRemaining()) {
+				fill();
+			}
+			int n = Math.min(buffer.remaining(), data.length - offset);
+			buffer.get(data, offset, n);
+			offset += n;
+		}
+	}
+
+	private void fill() throws IOException {
+		buffer.clear();
+		int n;
+		do {
+			n = channel.read(buffer);
+		} while (n == 0);
+		buffer.flip();
+		if (n < 0) {
+			throw new EOFException("connection closed by server");
+		}
+	}
+}
@@ -0,0 +1,18 @@
+package com.easycode.redis.server.scan;
+
+import java.util.List;
+
+/**
+ * 逐页处理SCAN类命令的结果，每次只持有一页数据
+ */
+public interface ScanCallback<T> {
+
+	/**
+	 * 处理一页结果
+	 *
+	 * @param page
+	 *            本页反序列化后的元素，不为<tt>null</tt>，可能为空；同一元素可能在不同页中重复出现
+	 * @return false时停止后续扫描
+	 */
+	boolean doInPage(List<T> page);
+}
@@ -0,0 +1,194 @@
+package com.easycode.redis.server.scan;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import com.easycode.redis.server.metrics.MeteredCall;
+import com.easycode.redis.server.metrics.RedisMetrics;
+
+/**
+ * 基于游标的惰性迭代器，每取完一页才向redis发出下一次SCAN/HSCAN/SSCAN/ZSCAN。
+ * <p>
+ * 每一页单独从连接池获取连接，迭代期间不占用连接，可以随时放弃迭代。
+ * 按redis游标的语义，迭代期间一直存在的元素至少返回一次，但同一元素可能返回多次。
+ * <p>
+ * 也可以通过{@link #stream()}以顺序流的方式消费，流同样按页惰性读取。
+ */
+public abstract class ScanIterator<T> implements Iterator<T> {
+
+	private static final byte[] START_CURSOR = "0".getBytes();
+
+	private static final byte[] MATCH = "MATCH".getBytes();
+
+	private static final byte[] COUNT = "COUNT".getBytes();
+
+	private final RedisTemplate<?, ?> redisTemplate;
+
+	private final String command;
+
+	/**
+	 * 指标中的命令类别，与{@code Redis}中的入口方法名一致，如hScan
+	 */
+	private final String family;
+
+	private final byte[] rawKey;
+
+	private final byte[] rawPattern;
+
+	private final byte[] rawCount;
+
+	private byte[] cursor = START_CURSOR;
+
+	private boolean finished;
+
+	private List<T> page = new ArrayList<T>();
+
+	private int index;
+
+	/**
+	 * @param command
+	 *            SCAN、HSCAN、SSCAN或ZSCAN
+	 * @param rawKey
+	 *            HSCAN等命令的key，SCAN时为<tt>null</tt>
+	 * @param pattern
+	 *            匹配模式，为<tt>null</tt>时不过滤
+	 * @param count
+	 *            每页的COUNT提示，小于等于0时使用服务端默认值
+	 */
+	protected ScanIterator(RedisTemplate<?, ?> redisTemplate, String command, byte[] rawKey, String pattern,
+			int count) {
+		this.redisTemplate = redisTemplate;
+		this.command = command;
+		this.family = command.length() == 4 ? "scan"
+				: Character.toLowerCase(command.charAt(0)) + "Scan";
+		this.rawKey = rawKey;
+		this.rawPattern = pattern == null ? null : redisTemplate.getStringSerializer().serialize(pattern);
+		this.rawCount = count <= 0 ? null : String.valueOf(count).getBytes();
+	}
+
+	/**
+	 * 将一页原始回复解码后追加到page
+	 */
+	protected abstract void decode(List<Object> items, List<T> page);
+
+	@Override
+	public boolean hasNext() {
+		while (index >= page.size()) {
+			if (finished) {
+				return false;
+			}
+			page = fetch();
+			index = 0;
+		}
+		return true;
+	}
+
+	@Override
+	public T next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		return page.get(index++);
+	}
+
+	@Override
+	public void remove() {
+		throw new UnsupportedOperationException();
+	}
+
+	/**
+	 * 以顺序流的方式遍历剩余元素，终止操作提前结束（如findFirst、limit）时不会再读取后续页
+	 */
+	public Stream<T> stream() {
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this, 0), false);
+	}
+
+	/**
+	 * 取出下一页，包括当前页中尚未通过{@link #next()}取出的元素
+	 *
+	 * @return 下一页元素，扫描结束后返回<tt>null</tt>
+	 */
+	public List<T> nextPage() {
+		if (index < page.size()) {
+			List<T> rest = new ArrayList<T>(page.subList(index, page.size()));
+			index = page.size();
+			return rest;
+		}
+		if (finished) {
+			return null;
+		}
+		return fetch();
+	}
+
+	/**
+	 * 逐页回调，直到扫描结束或回调返回false
+	 *
+	 * @return 回调处理过的元素总数
+	 */
+	public long forEachPage(ScanCallback<T> callback) {
+		long total = 0;
+		List<T> next;
+		while ((next = nextPage()) != null) {
+			total += next.size();
+			if (!callback.doInPage(next)) {
+				break;
+			}
+		}
+		return total;
+	}
+
+	@SuppressWarnings("unchecked")
+	private List<T> fetch() {
+		List<Object> reply;
+		RedisMetrics metrics = RedisMetrics.of(redisTemplate);
+		if (metrics == null) {
+			reply = page();
+		} else {
+			reply = RedisMetrics.record(metrics, family, null, null, new MeteredCall<List<Object>>() {
+				@Override
+				protected List<Object> call() {
+					return page();
+				}
+			});
+		}
+		cursor = (byte[]) reply.get(0);
+		finished = Arrays.equals(cursor, START_CURSOR);
+		List<T> next = new ArrayList<T>();
+		decode((List<Object>) reply.get(1), next);
+		return next;
+	}
+
+	@SuppressWarnings("unchecked")
+	private List<Object> page() {
+		return redisTemplate.execute(new RedisCallback<List<Object>>() {
+			@Override
+			public List<Object> doInRedis(RedisConnection connection) throws DataAccessException {
+				List<byte[]> args = new ArrayList<byte[]>(6);
+				if (rawKey != null) {
+					args.add(rawKey);
+				}
+				args.add(cursor);
+				if (rawPattern != null) {
+					args.add(MATCH);
+					args.add(rawPattern);
+				}
+				if (rawCount != null) {
+					args.add(COUNT);
+					args.add(rawCount);
+				}
+				return (List<Object>) connection.execute(command, args.toArray(new byte[args.size()][]));
+			}
+		});
+	}
+}
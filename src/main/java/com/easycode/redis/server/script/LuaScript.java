@@ -0,0 +1,95 @@
+package com.easycode.redis.server.script;
+
+import java.nio.charset.Charset;
+
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.script.DigestUtils;
+
+/**
+ * 预先计算好SHA1的lua脚本，执行时优先EVALSHA，服务端未缓存该脚本时回退到EVAL
+ */
+public final class LuaScript {
+
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	private final String text;
+
+	private final byte[] rawText;
+
+	private final String sha1;
+
+	private final byte[] rawSha1;
+
+	private final ReturnType returnType;
+
+	public LuaScript(String text, ReturnType returnType) {
+		this.text = text;
+		this.rawText = text.getBytes(UTF8);
+		this.sha1 = DigestUtils.sha1DigestAsHex(text);
+		this.rawSha1 = sha1.getBytes(UTF8);
+		this.returnType = returnType;
+	}
+
+	public String getText() {
+		return text;
+	}
+
+	public String getSha1() {
+		return sha1;
+	}
+
+	public ReturnType getReturnType() {
+		return returnType;
+	}
+
+	/**
+	 * 执行脚本，不能在pipeline中调用
+	 *
+	 * @param numKeys
+	 *            keysAndArgs中key的个数
+	 * @param keysAndArgs
+	 *            先key后参数，均为序列化后的字节
+	 */
+	public <T> T execute(RedisConnection connection, int numKeys, byte[]... keysAndArgs) {
+		try {
+			return connection.evalSha(sha1, returnType, numKeys, keysAndArgs);
+		} catch (RuntimeException e) {
+			if (!isNoScriptError(e)) {
+				throw e;
+			}
+			return connection.eval(rawText, returnType, numKeys, keysAndArgs);
+		}
+	}
+
+	/**
+	 * 在pipeline中以原始命令发出EVALSHA，结果为redis原始回复；调用方需保证脚本已经加载（见{@link #load(RedisConnection)}）
+	 */
+	public void executePipelined(RedisConnection connection, int numKeys, byte[]... keysAndArgs) {
+		byte[][] args = new byte[keysAndArgs.length + 2][];
+		args[0] = rawSha1;
+		args[1] = String.valueOf(numKeys).getBytes(UTF8);
+		System.arraycopy(keysAndArgs, 0, args, 2, keysAndArgs.length);
+		connection.execute("EVALSHA", args);
+	}
+
+	/**
+	 * 将脚本加载到服务端的脚本缓存
+	 */
+	public void load(RedisConnection connection) {
+		connection.scriptLoad(rawText);
+	}
+
+	/**
+	 * 是否为服务端未缓存脚本导致的NOSCRIPT错误
+	 */
+	public static boolean isNoScriptError(Throwable e) {
+		for (Throwable current = e; current != null; current = current.getCause()) {
+			String message = current.getMessage();
+			if (message != null && message.contains("NOSCRIPT")) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
@@ -0,0 +1,64 @@
+package com.easycode.redis.server.script;
+
+import org.springframework.data.redis.connection.ReturnType;
+
+/**
+ * Redis中使用的lua脚本
+ */
+public final class RedisScripts {
+
+	/**
+	 * 从左侧一次弹出最多ARGV[1]个元素，按弹出顺序返回
+	 */
+	public static final LuaScript LEFT_POP_BATCH = new LuaScript(
+			"local values = redis.call('LRANGE', KEYS[1], 0, tonumber(ARGV[1]) - 1)\n"
+					+ "if #values > 0 then redis.call('LTRIM', KEYS[1], #values, -1) end\n"
+					+ "return values", ReturnType.MULTI);
+
+	/**
+	 * 从右侧一次弹出最多ARGV[1]个元素，按列表中的顺序返回（与弹出顺序相反）
+	 */
+	public static final LuaScript RIGHT_POP_BATCH = new LuaScript(
+			"local values = redis.call('LRANGE', KEYS[1], -tonumber(ARGV[1]), -1)\n"
+					+ "if #values > 0 then redis.call('LTRIM', KEYS[1], 0, -#values - 1) end\n"
+					+ "return values", ReturnType.MULTI);
+
+	/**
+	 * KEYS[1]的值等于ARGV[1]时删除，返回删除的个数
+	 */
+	public static final LuaScript COMPARE_AND_DELETE = new LuaScript(
+			"if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('DEL', KEYS[1]) end\n"
+					+ "return 0", ReturnType.INTEGER);
+
+	/**
+	 * KEYS[1]的值等于ARGV[1]时将过期时间重置为ARGV[2]毫秒，返回1；否则返回0
+	 */
+	public static final LuaScript COMPARE_AND_PEXPIRE = new LuaScript(
+			"if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('PEXPIRE', KEYS[1], ARGV[2]) end\n"
+					+ "return 0", ReturnType.INTEGER);
+
+	/**
+	 * 对KEYS[1]执行INCRBY ARGV[1]，key原本不存在时设置ARGV[2]毫秒的过期时间，返回累加后的值
+	 */
+	public static final LuaScript INCRBY_EXPIRE_ON_CREATE = new LuaScript(
+			"local created = redis.call('EXISTS', KEYS[1]) == 0\n"
+					+ "local value = redis.call('INCRBY', KEYS[1], ARGV[1])\n"
+					+ "if created then redis.call('PEXPIRE', KEYS[1], ARGV[2]) end\n"
+					+ "return value", ReturnType.INTEGER);
+
+	/**
+	 * 以ARGV[1]（LPUSH或RPUSH）写入ARGV[3..]，列表原本不存在时设置ARGV[2]毫秒的过期时间，返回列表长度；
+	 * 每次最多展开1000个参数，避免超出lua栈的限制
+	 */
+	public static final LuaScript PUSH_EXPIRE_ON_CREATE = new LuaScript(
+			"local created = redis.call('EXISTS', KEYS[1]) == 0\n"
+					+ "local size = 0\n"
+					+ "for i = 3, #ARGV, 1000 do\n"
+					+ "  size = redis.call(ARGV[1], KEYS[1], unpack(ARGV, i, math.min(i + 999, #ARGV)))\n"
+					+ "end\n"
+					+ "if created and size > 0 then redis.call('PEXPIRE', KEYS[1], ARGV[2]) end\n"
+					+ "return size", ReturnType.INTEGER);
+
+	private RedisScripts() {
+	}
+}
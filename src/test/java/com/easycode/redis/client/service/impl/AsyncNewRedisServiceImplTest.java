@@ -0,0 +1,40 @@
+package com.easycode.redis.client.service.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class AsyncNewRedisServiceImplTest {
+
+	@Test(expected = IllegalStateException.class)
+	public void ownExecutorIsNotRecreatedAfterDestroy() {
+		AsyncNewRedisServiceImpl<String, Object> service = new AsyncNewRedisServiceImpl<String, Object>();
+		service.setDelegate(new NewRedisServiceImpl<String, Object>());
+		service.destroy();
+		service.set("k", "v");
+	}
+
+	@Test
+	public void suppliedExecutorIsNotUsedAfterDestroy() {
+		final AtomicInteger submitted = new AtomicInteger();
+		AsyncNewRedisServiceImpl<String, Object> service = new AsyncNewRedisServiceImpl<String, Object>();
+		service.setDelegate(new NewRedisServiceImpl<String, Object>());
+		service.setExecutor(new Executor() {
+			@Override
+			public void execute(Runnable command) {
+				submitted.incrementAndGet();
+			}
+		});
+		service.destroy();
+		try {
+			service.set("k", "v");
+			fail();
+		} catch (IllegalStateException expected) {
+		}
+		assertEquals(0, submitted.get());
+	}
+}
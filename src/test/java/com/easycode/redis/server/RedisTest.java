@@ -0,0 +1,187 @@
+package com.easycode.redis.server;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations.TypedTuple;
+
+import com.easycode.redis.server.batch.GetCoalescer;
+import com.easycode.redis.server.batch.GetCoalescerConfig;
+import com.easycode.redis.server.cache.NearCacheConfig;
+import com.easycode.redis.server.embedded.EmbeddedRedisResource;
+
+public class RedisTest {
+
+	@ClassRule
+	public static final EmbeddedRedisResource REDIS = new EmbeddedRedisResource();
+
+	private RedisTemplate<String, Object> redisTemplate;
+
+	@Before
+	public void setUp() {
+		REDIS.flushAll();
+		redisTemplate = REDIS.getRedisTemplate();
+	}
+
+	@Test
+	public void setAndGet() {
+		Redis.set(redisTemplate, "k", "hello", null, null);
+		assertEquals("hello", Redis.get(redisTemplate, "k", String.class));
+		assertEquals(-1L, Redis.ttl(redisTemplate, "k"));
+
+		Redis.del(redisTemplate, "k");
+		assertNull(Redis.get(redisTemplate, "k", String.class));
+	}
+
+	@Test
+	public void multiSetAndMultiGet() {
+		Map<String, Object> pairs = new LinkedHashMap<String, Object>();
+		pairs.put("m1", 1);
+		pairs.put("m2", 2);
+		Redis.multiSet(redisTemplate, pairs, 10L, TimeUnit.SECONDS);
+
+		Map<String, Integer> values = Redis.multiGet(redisTemplate, Arrays.asList("m1", "m2", "m3"), Integer.class);
+		assertEquals(Integer.valueOf(1), values.get("m1"));
+		assertEquals(Integer.valueOf(2), values.get("m2"));
+		assertNull(values.get("m3"));
+		assertTrue(Redis.ttl(redisTemplate, "m1") > 0);
+	}
+
+	/**
+	 * 超过int范围的毫秒数不能直接交给PSETEX
+	 */
+	@Test
+	public void expiryLongerThanIntMillis() {
+		long fortyDays = TimeUnit.DAYS.toSeconds(40);
+		Map<String, Object> pairs = new LinkedHashMap<String, Object>();
+		pairs.put("m1", 1);
+		Redis.multiSet(redisTemplate, pairs, 40L, TimeUnit.DAYS);
+		assertTrue(Redis.ttl(redisTemplate, "m1") > fortyDays - 10);
+
+		Redis.setLong(redisTemplate, "n", 5, 40L, TimeUnit.DAYS);
+		assertTrue(Redis.ttl(redisTemplate, "n") > fortyDays - 10);
+		assertEquals(6L, Redis.incrBy(redisTemplate, "n", 1));
+	}
+
+	/**
+	 * 未指定时间单位时按毫秒处理
+	 */
+	@Test
+	public void expiryWithoutUnitIsMillis() {
+		Redis.sadd(redisTemplate, "s1", "a", 5000L, null);
+		Redis.saddAll(redisTemplate, "s2", Arrays.<Object> asList("a", "b"), 5000L, null);
+		Map<Object, Double> tuples = new LinkedHashMap<Object, Double>();
+		tuples.put("a", 1.0);
+		Redis.zAddAll(redisTemplate, "z", tuples, 5000L, null);
+
+		for (String key : Arrays.asList("s1", "s2", "z")) {
+			long ttl = Redis.ttl(redisTemplate, key);
+			assertTrue(key + " ttl " + ttl, ttl > 0 && ttl <= 5);
+		}
+	}
+
+	@Test
+	public void incrByWithExpiryOnlyOnCreate() {
+		assertEquals(5L, Redis.incrBy(redisTemplate, "c", 5, 10L, TimeUnit.SECONDS));
+		assertEquals(7L, Redis.incrBy(redisTemplate, "c", 2, 100L, TimeUnit.SECONDS));
+		assertTrue(Redis.ttl(redisTemplate, "c") <= 10);
+	}
+
+	@Test
+	public void popBatch() {
+		Redis.rightPushAll(redisTemplate, "l", Arrays.<Object> asList("a", "b", "c", "d", "e"), null, null);
+		assertEquals(Arrays.<Object> asList("a", "b"), Redis.leftPop(redisTemplate, "l", Object.class, 2));
+		assertEquals(3L, Redis.llength(redisTemplate, "l"));
+	}
+
+	@Test
+	public void randomPopMembers() {
+		Redis.saddAll(redisTemplate, "s", Arrays.<Object> asList("a", "b", "c"), null, null);
+		List<Object> popped = Redis.randomPopMembers(redisTemplate, "s", 2, Object.class);
+		assertEquals(2, popped.size());
+		assertEquals(1L, Redis.sCard(redisTemplate, "s"));
+	}
+
+	@Test
+	public void zAddAllAndRangeWithScore() {
+		Map<Object, Double> tuples = new LinkedHashMap<Object, Double>();
+		tuples.put("x", 3.0);
+		tuples.put("y", 1.5);
+		Redis.zAddAll(redisTemplate, "z", tuples, null, null);
+
+		Set<TypedTuple<Object>> range = Redis.zrangeWithScore(redisTemplate, "z", 0, 1, Object.class, false);
+		TypedTuple<Object> first = range.iterator().next();
+		assertEquals("y", first.getValue());
+		assertEquals(1.5, first.getScore(), 0);
+	}
+
+	@Test
+	public void scanStreams() {
+		Set<Object> members = new HashSet<Object>();
+		for (int i = 0; i < 100; i++) {
+			members.add(i);
+		}
+		Redis.saddAll(redisTemplate, "s", members, null, null);
+
+		Set<Integer> scanned = Redis.sScan(redisTemplate, "s", null, 10, Integer.class).stream()
+				.collect(Collectors.<Integer> toSet());
+		assertEquals(members, new HashSet<Object>(scanned));
+	}
+
+	@Test
+	public void nearCacheIsInvalidatedByWrites() {
+		Redis.enableNearCache(redisTemplate, new NearCacheConfig());
+		try {
+			Redis.set(redisTemplate, "k", "v1", null, null);
+			assertEquals("v1", Redis.get(redisTemplate, "k", String.class));
+			assertEquals("v1", Redis.get(redisTemplate, "k", String.class));
+			assertTrue(Redis.nearCacheStats(redisTemplate).getHits() > 0);
+
+			Redis.set(redisTemplate, "k", "v2", null, null);
+			assertEquals("v2", Redis.get(redisTemplate, "k", String.class));
+
+			Redis.del(redisTemplate, "k");
+			assertNull(Redis.get(redisTemplate, "k", String.class));
+			assertFalse(Redis.nearCacheStats(redisTemplate).getSize() > 0);
+		} finally {
+			Redis.disableNearCache(redisTemplate);
+		}
+	}
+
+	@Test
+	public void nearCacheMissGoesThroughCoalescer() throws InterruptedException {
+		Redis.enableNearCache(redisTemplate, new NearCacheConfig());
+		Redis.enableGetCoalescing(redisTemplate, new GetCoalescerConfig());
+		try {
+			GetCoalescer coalescer = RedisContext.get(redisTemplate).getGetCoalescer();
+			Redis.set(redisTemplate, "k", "v", 200L, null);
+			assertEquals("v", Redis.get(redisTemplate, "k", String.class));
+			assertEquals("v", Redis.get(redisTemplate, "k", String.class));
+			assertEquals(1, coalescer.getRequestCount());
+			assertEquals(1, Redis.nearCacheStats(redisTemplate).getHits());
+
+			// 随批次读取的PTTL限制了近端缓存的有效期
+			Thread.sleep(300);
+			assertNull(Redis.get(redisTemplate, "k", String.class));
+			assertEquals(2, coalescer.getRequestCount());
+		} finally {
+			Redis.disableGetCoalescing(redisTemplate);
+			Redis.disableNearCache(redisTemplate);
+		}
+	}
+}
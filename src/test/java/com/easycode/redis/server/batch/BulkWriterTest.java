@@ -0,0 +1,109 @@
+package com.easycode.redis.server.batch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import com.easycode.redis.server.Redis;
+import com.easycode.redis.server.embedded.EmbeddedRedisResource;
+import com.easycode.redis.server.metrics.CommandStats;
+import com.easycode.redis.server.metrics.RedisMetricsConfig;
+
+public class BulkWriterTest {
+
+	@ClassRule
+	public static final EmbeddedRedisResource REDIS = new EmbeddedRedisResource();
+
+	private RedisTemplate<String, Object> redisTemplate;
+
+	private final List<Long> progress = new ArrayList<Long>();
+
+	private BulkWriteConfig config;
+
+	@Before
+	public void setUp() {
+		REDIS.flushAll();
+		redisTemplate = REDIS.getRedisTemplate();
+		config = new BulkWriteConfig();
+		config.setMaxElementsPerCommand(10);
+		config.setMaxBytesPerFlush(0);
+		config.setProgressListener(new BulkProgressListener() {
+			@Override
+			public void onProgress(String operation, Object key, long written, long total) {
+				progress.add(written);
+				progress.add(total);
+			}
+		});
+		Redis.configureBulkWrites(redisTemplate, config);
+		Redis.enableMetrics(redisTemplate, new RedisMetricsConfig());
+	}
+
+	@After
+	public void tearDown() {
+		Redis.disableMetrics(redisTemplate);
+		Redis.configureBulkWrites(redisTemplate, null);
+	}
+
+	@Test
+	public void saddAllFlushesEveryChunk() {
+		config.setMaxCommandsPerFlush(3);
+		List<Object> values = new ArrayList<Object>();
+		for (int i = 0; i < 100; i++) {
+			values.add(i);
+		}
+		Redis.saddAll(redisTemplate, "s", values, null, null);
+
+		assertEquals(100, Redis.sCard(redisTemplate, "s"));
+		// 10条SADD，每3条读取一次回复
+		CommandStats stats = stats("saddAll");
+		assertEquals(4, stats.getPipelines());
+		assertEquals(10, stats.getPipelinedCommands());
+		assertEquals(Arrays.asList(30L, 100L, 60L, 100L, 90L, 100L, 100L, 100L), progress);
+	}
+
+	@Test
+	public void multiSetFlushesEveryChunk() {
+		config.setMaxCommandsPerFlush(2);
+		Map<String, Object> pairs = new LinkedHashMap<String, Object>();
+		for (int i = 0; i < 25; i++) {
+			pairs.put("k" + i, i);
+		}
+		Redis.multiSet(redisTemplate, pairs, null, null);
+
+		assertEquals(25, Redis.multiGet(redisTemplate, pairs.keySet(), Integer.class).size());
+		// 3条MSET，每2条读取一次回复
+		assertEquals(2, stats("multiSet").getPipelines());
+		assertEquals(Arrays.asList(20L, 25L, 25L, 25L), progress);
+	}
+
+	@Test
+	public void multiSetWithExpireSendsOneCommandPerKey() {
+		config.setMaxCommandsPerFlush(2);
+		Map<String, Object> pairs = new LinkedHashMap<String, Object>();
+		for (int i = 0; i < 5; i++) {
+			pairs.put("k" + i, i);
+		}
+		Redis.multiSet(redisTemplate, pairs, 10L, TimeUnit.SECONDS);
+
+		// 5条PSETEX，每2条读取一次回复
+		assertEquals(3, stats("multiSet").getPipelines());
+		assertTrue(Redis.ttl(redisTemplate, "k4") > 0);
+		assertEquals(Arrays.asList(2L, 5L, 4L, 5L, 5L, 5L), progress);
+	}
+
+	private CommandStats stats(String family) {
+		return Redis.metricsSnapshot(redisTemplate).getCommands().get(family);
+	}
+}
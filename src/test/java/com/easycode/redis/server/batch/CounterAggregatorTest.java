@@ -0,0 +1,78 @@
+package com.easycode.redis.server.batch;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import com.easycode.redis.server.Redis;
+import com.easycode.redis.server.embedded.EmbeddedRedisResource;
+
+public class CounterAggregatorTest {
+
+	@ClassRule
+	public static final EmbeddedRedisResource REDIS = new EmbeddedRedisResource();
+
+	private RedisTemplate<String, Object> redisTemplate;
+
+	@Before
+	public void setUp() {
+		REDIS.flushAll();
+		redisTemplate = REDIS.getRedisTemplate();
+	}
+
+	@Test
+	public void concurrentIncrementsAreFlushedExactlyOnce() throws InterruptedException {
+		final CounterAggregator aggregator = new CounterAggregator(redisTemplate, new CounterAggregatorConfig());
+		aggregator.start();
+		try {
+			List<Thread> threads = new ArrayList<Thread>();
+			for (int i = 0; i < 8; i++) {
+				Thread thread = new Thread() {
+					@Override
+					public void run() {
+						for (int j = 0; j < 10000; j++) {
+							aggregator.incrBy("counter:" + (j % 4), 1);
+						}
+					}
+				};
+				threads.add(thread);
+				thread.start();
+			}
+			for (Thread thread : threads) {
+				thread.join();
+			}
+		} finally {
+			aggregator.stop();
+		}
+
+		for (int i = 0; i < 4; i++) {
+			assertEquals(20000L, Redis.incrBy(redisTemplate, "counter:" + i, 0));
+		}
+		CounterAggregatorStats stats = aggregator.getStats();
+		assertEquals(80000L, stats.getRequests());
+		assertEquals(80000L, stats.getFlushedRequests());
+	}
+
+	/**
+	 * 命令已经发出后的失败不重试，避免重复累加
+	 */
+	@Test
+	public void rejectedIncrementsAreDropped() {
+		redisTemplate.opsForValue().set("string", "x");
+		CounterAggregator aggregator = new CounterAggregator(redisTemplate, new CounterAggregatorConfig());
+		aggregator.hIncrBy("string", "field", 1);
+		aggregator.hIncrBy("string", "field", 2);
+		aggregator.flush();
+		aggregator.flush();
+
+		CounterAggregatorStats stats = aggregator.getStats();
+		assertEquals(2L, stats.getDroppedRequests());
+		assertEquals(1L, stats.getFailedFlushes());
+	}
+}
@@ -0,0 +1,177 @@
+package com.easycode.redis.server.batch;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import com.easycode.redis.server.embedded.EmbeddedRedisResource;
+
+public class GetCoalescerTest {
+
+	@ClassRule
+	public static final EmbeddedRedisResource REDIS = new EmbeddedRedisResource();
+
+	private GatedTemplate redisTemplate;
+
+	private ExecutorService executor;
+
+	@Before
+	public void setUp() {
+		REDIS.flushAll();
+		redisTemplate = new GatedTemplate();
+		redisTemplate.setConnectionFactory(REDIS.getConnectionFactory());
+		redisTemplate.afterPropertiesSet();
+		set("k1", "v1");
+		set("k2", "v2");
+		redisTemplate.calls.set(0);
+		executor = Executors.newCachedThreadPool();
+	}
+
+	@After
+	public void tearDown() {
+		redisTemplate.gate.countDown();
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void followersShareLeaderBatch() throws Exception {
+		GetCoalescerConfig config = new GetCoalescerConfig();
+		config.setWindowMicros(TimeUnit.SECONDS.toMicros(5));
+		config.setMaxBatchSize(3);
+		config.setWaitTimeoutMillis(5000);
+		final GetCoalescer coalescer = new GetCoalescer(redisTemplate, config);
+		redisTemplate.blocked = 2;
+
+		// 第一个读取单独成批并停在gate上，之后的三个读取在leader的窗口内攒满一批
+		Future<byte[]> first = get(coalescer, "k1");
+		redisTemplate.awaitCalls(1);
+		List<Future<byte[]>> batch = new ArrayList<Future<byte[]>>();
+		batch.add(get(coalescer, "k1"));
+		batch.add(get(coalescer, "k2"));
+		batch.add(get(coalescer, "k2"));
+		redisTemplate.awaitCalls(2);
+		redisTemplate.gate.countDown();
+
+		assertArrayEquals("v1".getBytes(), first.get());
+		assertArrayEquals("v1".getBytes(), batch.get(0).get());
+		assertArrayEquals("v2".getBytes(), batch.get(1).get());
+		assertArrayEquals("v2".getBytes(), batch.get(2).get());
+		assertEquals(4, coalescer.getRequestCount());
+		assertEquals(2, coalescer.getBatchCount());
+		assertEquals(2, redisTemplate.calls.get());
+	}
+
+	@Test
+	public void followerReadsDirectlyAfterTimeout() throws Exception {
+		GetCoalescerConfig config = new GetCoalescerConfig();
+		config.setWindowMicros(TimeUnit.SECONDS.toMicros(5));
+		config.setMaxBatchSize(2);
+		config.setWaitTimeoutMillis(50);
+		final GetCoalescer coalescer = new GetCoalescer(redisTemplate, config);
+		redisTemplate.blocked = 2;
+
+		Future<byte[]> first = get(coalescer, "k1");
+		redisTemplate.awaitCalls(1);
+		Future<byte[]> a = get(coalescer, "k2");
+		Future<byte[]> b = get(coalescer, "k2");
+
+		// leader停在gate上，follower超时后单独读取
+		long deadline = System.currentTimeMillis() + 5000;
+		while (!a.isDone() && !b.isDone() && System.currentTimeMillis() < deadline) {
+			Thread.sleep(1);
+		}
+		Future<byte[]> follower = a.isDone() ? a : b;
+		Future<byte[]> leader = a.isDone() ? b : a;
+		assertArrayEquals("v2".getBytes(), follower.get(0, TimeUnit.SECONDS));
+		assertFalse(leader.isDone());
+		assertEquals(3, redisTemplate.calls.get());
+
+		redisTemplate.gate.countDown();
+		assertArrayEquals("v1".getBytes(), first.get());
+		assertArrayEquals("v2".getBytes(), leader.get());
+		assertEquals(2, coalescer.getBatchCount());
+	}
+
+	@Test
+	public void pttlFetchedWithBatch() {
+		GetCoalescer coalescer = new GetCoalescer(redisTemplate, new GetCoalescerConfig());
+		GetCoalescer.Entry entry = coalescer.getWithPttl("k1".getBytes());
+		assertArrayEquals("v1".getBytes(), entry.getValue());
+		assertEquals(Long.valueOf(-1), entry.getPttl());
+
+		entry = coalescer.getWithPttl("missing".getBytes());
+		assertNull(entry.getValue());
+		assertEquals(Long.valueOf(-2), entry.getPttl());
+	}
+
+	private Future<byte[]> get(final GetCoalescer coalescer, final String key) {
+		return executor.submit(new Callable<byte[]>() {
+			@Override
+			public byte[] call() {
+				return coalescer.get(key.getBytes());
+			}
+		});
+	}
+
+	private void set(final String key, final String value) {
+		redisTemplate.execute(new RedisCallback<Object>() {
+			@Override
+			public Object doInRedis(RedisConnection connection) throws DataAccessException {
+				connection.set(key.getBytes(), value.getBytes());
+				return null;
+			}
+		});
+	}
+
+	/**
+	 * 前{@link #blocked}次执行停在gate上，直到gate打开
+	 */
+	private static class GatedTemplate extends RedisTemplate<String, Object> {
+
+		private final CountDownLatch gate = new CountDownLatch(1);
+
+		private final AtomicInteger calls = new AtomicInteger();
+
+		private volatile int blocked;
+
+		@Override
+		public <T> T execute(RedisCallback<T> action) {
+			if (calls.incrementAndGet() <= blocked) {
+				try {
+					gate.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+			return super.execute(action);
+		}
+
+		private void awaitCalls(int expected) throws InterruptedException {
+			long deadline = System.currentTimeMillis() + 5000;
+			while (calls.get() < expected && System.currentTimeMillis() < deadline) {
+				Thread.sleep(1);
+			}
+			assertEquals(expected, calls.get());
+		}
+	}
+}
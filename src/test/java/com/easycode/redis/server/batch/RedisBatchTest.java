@@ -0,0 +1,60 @@
+package com.easycode.redis.server.batch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import com.easycode.redis.server.Redis;
+import com.easycode.redis.server.embedded.EmbeddedRedisResource;
+
+public class RedisBatchTest {
+
+	@ClassRule
+	public static final EmbeddedRedisResource REDIS = new EmbeddedRedisResource();
+
+	private RedisTemplate<String, Object> redisTemplate;
+
+	@Before
+	public void setUp() {
+		REDIS.flushAll();
+		redisTemplate = REDIS.getRedisTemplate();
+	}
+
+	@Test
+	public void mixedCommandsInOnePipeline() throws Exception {
+		RedisBatch<String, Object> batch = Redis.batch(redisTemplate);
+		CompletableFuture<Void> set = batch.set("k", "v", 10L, TimeUnit.SECONDS);
+		CompletableFuture<String> get = batch.getObj("k", String.class);
+		CompletableFuture<Long> incr = batch.incrBy("n", 3);
+		CompletableFuture<Long> push = batch.rightPush("l", "a");
+		CompletableFuture<String> missing = batch.getObj("missing", String.class);
+		batch.execute();
+
+		assertNull(set.get());
+		assertEquals("v", get.get());
+		assertEquals(Long.valueOf(3), incr.get());
+		assertEquals(Long.valueOf(1), push.get());
+		assertNull(missing.get());
+	}
+
+	@Test
+	public void expiryLongerThanIntMillis() {
+		RedisBatch<String, Object> batch = Redis.batch(redisTemplate);
+		batch.set("k", "v", 40L, TimeUnit.DAYS);
+		batch.set("t", "v", null, null);
+		batch.setTimeOut("t", 40L, TimeUnit.DAYS);
+		batch.execute();
+
+		long fortyDays = TimeUnit.DAYS.toSeconds(40);
+		assertTrue(Redis.ttl(redisTemplate, "k") > fortyDays - 10);
+		assertTrue(Redis.ttl(redisTemplate, "t") > fortyDays - 10);
+	}
+}
@@ -0,0 +1,87 @@
+package com.easycode.redis.server.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+
+import com.easycode.redis.server.Redis;
+import com.easycode.redis.server.embedded.EmbeddedRedisResource;
+
+public class InvalidationBusTest {
+
+	@ClassRule
+	public static final EmbeddedRedisResource REDIS = new EmbeddedRedisResource();
+
+	private RedisTemplate<String, Object> writer;
+
+	private RedisTemplate<String, Object> reader;
+
+	@Before
+	public void setUp() {
+		REDIS.flushAll();
+		writer = REDIS.getRedisTemplate();
+		// 另一个实例：同一个redis上的独立template，各自有近端缓存
+		reader = new RedisTemplate<String, Object>();
+		reader.setConnectionFactory(REDIS.getConnectionFactory());
+		reader.setKeySerializer(new StringRedisSerializer());
+		reader.setValueSerializer(new JdkSerializationRedisSerializer());
+		reader.afterPropertiesSet();
+
+		InvalidationBusConfig config = new InvalidationBusConfig();
+		config.setFlushIntervalMillis(5);
+		for (RedisTemplate<String, Object> template : Arrays.asList(writer, reader)) {
+			Redis.enableNearCache(template, new NearCacheConfig());
+			Redis.enableInvalidationBus(template, config);
+		}
+	}
+
+	@After
+	public void tearDown() {
+		for (RedisTemplate<String, Object> template : Arrays.asList(writer, reader)) {
+			Redis.disableInvalidationBus(template);
+			Redis.disableNearCache(template);
+		}
+	}
+
+	@Test
+	public void writeInvalidatesOtherTemplate() throws InterruptedException {
+		awaitSubscribed();
+		Redis.set(writer, "k", "v1", null, null);
+		// 等这次写入的失效消息先到达
+		Thread.sleep(100);
+		assertEquals("v1", Redis.get(reader, "k", String.class));
+		assertEquals("v1", Redis.get(reader, "k", String.class));
+		NearCacheStats before = Redis.nearCacheStats(reader);
+		assertTrue(before.getHits() > 0);
+
+		Redis.set(writer, "k", "v2", null, null);
+		long deadline = System.currentTimeMillis() + 5000;
+		while (Redis.nearCacheStats(reader).getInvalidations() == before.getInvalidations()
+				&& System.currentTimeMillis() < deadline) {
+			Thread.sleep(5);
+		}
+		assertEquals("v2", Redis.get(reader, "k", String.class));
+	}
+
+	/**
+	 * 订阅是异步建立的，反复写入一个预热key直到对方收到失效消息
+	 */
+	private void awaitSubscribed() throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 5000;
+		while (Redis.nearCacheStats(reader).getInvalidations() == 0) {
+			assertTrue("invalidation never received", System.currentTimeMillis() < deadline);
+			Redis.set(writer, "warmup", "v", null, null);
+			Redis.get(reader, "warmup", String.class);
+			Thread.sleep(20);
+		}
+	}
+}
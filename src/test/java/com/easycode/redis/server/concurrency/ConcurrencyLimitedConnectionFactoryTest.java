@@ -0,0 +1,101 @@
+package com.easycode.redis.server.concurrency;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.connection.RedisConnection;
+
+import com.easycode.redis.server.embedded.EmbeddedRedisResource;
+
+public class ConcurrencyLimitedConnectionFactoryTest {
+
+	@ClassRule
+	public static final EmbeddedRedisResource REDIS = new EmbeddedRedisResource();
+
+	private ConcurrencyLimitedConnectionFactory factory;
+
+	private ExecutorService executor;
+
+	@Before
+	public void setUp() {
+		ConcurrencyLimitConfig config = new ConcurrencyLimitConfig();
+		config.setMaxConcurrency(1);
+		config.setAcquireTimeoutMillis(50);
+		factory = new ConcurrencyLimitedConnectionFactory(REDIS.getConnectionFactory(), config);
+		executor = Executors.newSingleThreadExecutor();
+	}
+
+	@After
+	public void tearDown() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void permitHeldUntilClose() throws Exception {
+		RedisConnection connection = factory.getConnection();
+		assertEquals(1, factory.getStats().getInUse());
+		try {
+			connectOnOtherThread();
+			fail();
+		} catch (ExecutionException e) {
+			assertEquals(RedisConnectionFailureException.class, e.getCause().getClass());
+		}
+
+		connection.close();
+		assertEquals(0, factory.getStats().getInUse());
+		connectOnOtherThread();
+	}
+
+	@Test
+	public void nestedConnectionSharesPermit() {
+		RedisConnection outer = factory.getConnection();
+		RedisConnection inner = factory.getConnection();
+		assertEquals(1, factory.getStats().getAcquired());
+		assertEquals(1, factory.getStats().getInUse());
+
+		// 外层先关闭时内层仍占着许可
+		outer.close();
+		assertEquals(1, factory.getStats().getInUse());
+		inner.close();
+		assertEquals(0, factory.getStats().getInUse());
+	}
+
+	@Test
+	public void closedOnAnotherThread() throws Exception {
+		final RedisConnection outer = factory.getConnection();
+		RedisConnection inner = factory.getConnection();
+		executor.submit(new Runnable() {
+			@Override
+			public void run() {
+				outer.close();
+			}
+		}).get();
+		assertEquals(1, factory.getStats().getInUse());
+		inner.close();
+		assertEquals(0, factory.getStats().getInUse());
+
+		RedisConnection next = factory.getConnection();
+		assertEquals(2, factory.getStats().getAcquired());
+		next.close();
+	}
+
+	private void connectOnOtherThread() throws Exception {
+		Future<?> future = executor.submit(new Runnable() {
+			@Override
+			public void run() {
+				factory.getConnection().close();
+			}
+		});
+		future.get();
+	}
+}
@@ -0,0 +1,119 @@
+package com.easycode.redis.server.embedded;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 嵌入式服务端的一个客户端连接：读缓冲、写缓冲以及MULTI与订阅状态，只在事件循环线程中访问
+ */
+final class EmbeddedClient {
+
+	private static final int INITIAL_BUFFER = 16 * 1024;
+
+	private static final int MAX_BUFFER = 1024 * 1024 * 1024;
+
+	final SocketChannel channel;
+
+	final SelectionKey key;
+
+	final Resp.Output output = new Resp.Output();
+
+	/**
+	 * MULTI之后排队的命令，不在事务中时为null
+	 */
+	List<byte[][]> transaction;
+
+	/**
+	 * 事务中有命令排队失败，EXEC时放弃整个事务
+	 */
+	boolean transactionFailed;
+
+	final Set<ByteBuffer> channels = new HashSet<ByteBuffer>();
+
+	final Set<ByteBuffer> patterns = new HashSet<ByteBuffer>();
+
+	/**
+	 * 写完当前回复后关闭连接（QUIT与协议错误）
+	 */
+	boolean closing;
+
+	/**
+	 * 解析请求时的协议错误，在之前已解析的命令执行完后回复
+	 */
+	Resp.ErrorReply protocolError;
+
+	private ByteBuffer input = ByteBuffer.allocate(INITIAL_BUFFER);
+
+	EmbeddedClient(SocketChannel channel, SelectionKey key) {
+		this.channel = channel;
+		this.key = key;
+	}
+
+	/**
+	 * @return 读到的字节数，连接关闭时为-1
+	 */
+	int read() throws IOException {
+		if (!input.hasRemaining()) {
+			if (input.capacity() >= MAX_BUFFER) {
+				throw new IOException("client request too big");
+			}
+			ByteBuffer grown = ByteBuffer.allocate(input.capacity() << 1);
+			input.flip();
+			grown.put(input);
+			input = grown;
+		}
+		return channel.read(input);
+	}
+
+	/**
+	 * 依次取出已完整到达的命令
+	 */
+	List<byte[][]> commands() {
+		List<byte[][]> commands = new ArrayList<byte[][]>();
+		input.flip();
+		try {
+			byte[][] command;
+			while (!closing && (command = Resp.parse(input)) != null) {
+				if (command.length > 0) {
+					commands.add(command);
+				}
+			}
+		} catch (Resp.ErrorReply e) {
+			protocolError = e;
+			closing = true;
+		} finally {
+			input.compact();
+		}
+		return commands;
+	}
+
+	int subscriptions() {
+		return channels.size() + patterns.size();
+	}
+
+	/**
+	 * 尽量写出缓冲中的回复，写不完时关注OP_WRITE
+	 *
+	 * @return 是否已全部写出
+	 */
+	boolean flush() throws IOException {
+		while (!output.isEmpty()) {
+			int written = channel.write(output.pending());
+			if (written <= 0) {
+				key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+				return false;
+			}
+			output.flushed(written);
+		}
+		if ((key.interestOps() & SelectionKey.OP_WRITE) != 0) {
+			key.interestOps(key.interestOps() & ~SelectionKey.OP_WRITE);
+		}
+		return true;
+	}
+}
@@ -0,0 +1,1679 @@
+package com.easycode.redis.server.embedded;
+
+import static com.easycode.redis.server.embedded.Resp.OK;
+import static com.easycode.redis.server.embedded.Resp.ONE;
+import static com.easycode.redis.server.embedded.Resp.ZERO;
+import static com.easycode.redis.server.embedded.Resp.error;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import com.easycode.redis.server.codec.NumericCodec;
+
+/**
+ * 嵌入式服务端的数据与命令实现，只有一个库，所有方法都在事件循环线程中调用，不做同步。
+ * <p>
+ * 值的类型：string为byte[]，list为LinkedList&lt;byte[]&gt;，set为HashSet&lt;ByteBuffer&gt;，
+ * hash为LinkedHashMap&lt;ByteBuffer, byte[]&gt;，zset为{@link ZSet}。过期在访问时惰性检查，并由{@link #expireCycle()}定期清理。
+ */
+final class EmbeddedDatabase {
+
+	private static final String WRONGTYPE = "WRONGTYPE Operation against a key holding the wrong kind of value";
+
+	private static final byte[] WITHSCORES = "WITHSCORES".getBytes(Resp.CHARSET);
+
+	private final Map<ByteBuffer, Object> data = new HashMap<ByteBuffer, Object>();
+
+	private final Map<ByteBuffer, Long> expires = new HashMap<ByteBuffer, Long>();
+
+	private final Map<String, Command> commands = new HashMap<String, Command>();
+
+	private final EmbeddedScripts scripts = new EmbeddedScripts(this);
+
+	private final Random random = new Random();
+
+	/**
+	 * @param arity
+	 *            包括命令名在内的参数个数，负数表示至少为其绝对值
+	 */
+	private abstract class Command {
+
+		final int arity;
+
+		Command(int arity) {
+			this.arity = arity;
+		}
+
+		abstract Object execute(byte[][] args);
+	}
+
+	EmbeddedDatabase() {
+		registerConnectionCommands();
+		registerKeyCommands();
+		registerStringCommands();
+		registerListCommands();
+		registerSetCommands();
+		registerHashCommands();
+		registerZSetCommands();
+	}
+
+	boolean hasCommand(String name) {
+		return commands.containsKey(name);
+	}
+
+	/**
+	 * 执行命令，执行中的错误作为{@link Resp.ErrorReply}回复返回
+	 */
+	Object execute(byte[][] args) {
+		try {
+			return call(args);
+		} catch (Resp.ErrorReply e) {
+			return e;
+		}
+	}
+
+	/**
+	 * 执行命令，错误以{@link Resp.ErrorReply}抛出，供脚本调用
+	 */
+	Object call(byte[][] args) {
+		String name = name(args[0]);
+		Command command = commands.get(name);
+		if (command == null) {
+			throw error("unknown command '" + name + "'");
+		}
+		if (command.arity > 0 ? args.length != command.arity : args.length < -command.arity) {
+			throw error("wrong number of arguments for '" + name.toLowerCase(Locale.ROOT) + "' command");
+		}
+		return command.execute(args);
+	}
+
+	Object call(String name, byte[]... args) {
+		byte[][] command = new byte[args.length + 1][];
+		command[0] = name.getBytes(Resp.CHARSET);
+		System.arraycopy(args, 0, command, 1, args.length);
+		return call(command);
+	}
+
+	static String name(byte[] raw) {
+		return new String(raw, Resp.CHARSET).toUpperCase(Locale.ROOT);
+	}
+
+	/**
+	 * 清理已过期的key
+	 */
+	void expireCycle() {
+		long now = System.currentTimeMillis();
+		Iterator<Entry<ByteBuffer, Long>> iterator = expires.entrySet().iterator();
+		while (iterator.hasNext()) {
+			Entry<ByteBuffer, Long> entry = iterator.next();
+			if (entry.getValue().longValue() <= now) {
+				data.remove(entry.getKey());
+				iterator.remove();
+			}
+		}
+	}
+
+	private void registerConnectionCommands() {
+		commands.put("PING", new Command(-1) {
+			@Override
+			Object execute(byte[][] args) {
+				return args.length > 1 ? args[1] : Resp.PONG;
+			}
+		});
+		commands.put("ECHO", new Command(2) {
+			@Override
+			Object execute(byte[][] args) {
+				return args[1];
+			}
+		});
+		Command ok = new Command(-1) {
+			@Override
+			Object execute(byte[][] args) {
+				return OK;
+			}
+		};
+		// 只有一个库，不校验密码
+		commands.put("SELECT", ok);
+		commands.put("AUTH", ok);
+		commands.put("CLIENT", new Command(-2) {
+			@Override
+			Object execute(byte[][] args) {
+				return "GETNAME".equals(name(args[1])) ? null : OK;
+			}
+		});
+		commands.put("INFO", new Command(-1) {
+			@Override
+			Object execute(byte[][] args) {
+				return ("# Server\r\nredis_version:3.0.0\r\nredis_mode:standalone\r\n\r\n# Keyspace\r\ndb0:keys="
+						+ data.size() + ",expires=" + expires.size() + "\r\n").getBytes(Resp.CHARSET);
+			}
+		});
+		commands.put("TIME", new Command(1) {
+			@Override
+			Object execute(byte[][] args) {
+				long micros = System.currentTimeMillis() * 1000;
+				return Arrays.<Object> asList(bytes(micros / 1000000), bytes(micros % 1000000));
+			}
+		});
+		Command flush = new Command(-1) {
+			@Override
+			Object execute(byte[][] args) {
+				data.clear();
+				expires.clear();
+				return OK;
+			}
+		};
+		commands.put("FLUSHDB", flush);
+		commands.put("FLUSHALL", flush);
+		commands.put("DBSIZE", new Command(1) {
+			@Override
+			Object execute(byte[][] args) {
+				expireCycle();
+				return Long.valueOf(data.size());
+			}
+		});
+		commands.put("EVAL", new Command(-3) {
+			@Override
+			Object execute(byte[][] args) {
+				return scripts.eval(args);
+			}
+		});
+		commands.put("EVALSHA", new Command(-3) {
+			@Override
+			Object execute(byte[][] args) {
+				return scripts.evalSha(args);
+			}
+		});
+		commands.put("SCRIPT", new Command(-2) {
+			@Override
+			Object execute(byte[][] args) {
+				return scripts.script(args);
+			}
+		});
+	}
+
+	private void registerKeyCommands() {
+		commands.put("DEL", new Command(-2) {
+			@Override
+			Object execute(byte[][] args) {
+				long removed = 0;
+				for (int i = 1; i < args.length; i++) {
+					if (lookup(args[i]) != null) {
+						remove(key(args[i]));
+						removed++;
+					}
+				}
+				return Long.valueOf(removed);
+			}
+		});
+		commands.put("EXISTS", new Command(-2) {
+			@Override
+			Object execute(byte[][] args) {
+				long count = 0;
+				for (int i = 1; i < args.length; i++) {
+					count += lookup(args[i]) != null ? 1 : 0;
+				}
+				return Long.valueOf(count);
+			}
+		});
+		commands.put("TYPE", new Command(2) {
+			@Override
+			Object execute(byte[][] args) {
+				Object value = lookup(args[1]);
+				if (value == null) {
+					return new Resp.Status("none");
+				}
+				return new Resp.Status(value instanceof byte[] ? "string" : value instanceof LinkedList ? "list"
+						: value instanceof HashSet ? "set" : value instanceof ZSet ? "zset" : "hash");
+			}
+		});
+		commands.put("EXPIRE", new Command(3) {
+			@Override
+			Object execute(byte[][] args) {
+				return expireAt(args[1], System.currentTimeMillis() + toLong(args[2]) * 1000);
+			}
+		});
+		commands.put("PEXPIRE", new Command(3) {
+			@Override
+			Object execute(byte[][] args) {
+				return expireAt(args[1], System.currentTimeMillis() + toLong(args[2]));
+			}
+		});
+		commands.put("EXPIREAT", new Command(3) {
+			@Override
+			Object execute(byte[][] args) {
+				return expireAt(args[1], toLong(args[2]) * 1000);
+			}
+		});
+		commands.put("PEXPIREAT", new Command(3) {
+			@Override
+			Object execute(byte[][] args) {
+				return expireAt(args[1], toLong(args[2]));
+			}
+		});
+		commands.put("PERSIST", new Command(2) {
+			@Override
+			Object execute(byte[][] args) {
+				return lookup(args[1]) != null && expires.remove(key(args[1])) != null ? ONE : ZERO;
+			}
+		});
+		commands.put("TTL", new Command(2) {
+			@Override
+			Object execute(byte[][] args) {
+				long ttl = ttl(args[1]);
+				return ttl < 0 ? Long.valueOf(ttl) : Long.valueOf((ttl + 500) / 1000);
+			}
+		});
+		commands.put("PTTL", new Command(2) {
+			@Override
+			Object execute(byte[][] args) {
+				return Long.valueOf(ttl(args[1]));
+			}
+		});
+		commands.put("RENAME", new Command(3) {
+			@Override
+			Object execute(byte[][] args) {
+				rename(args[1], args[2]);
+				return OK;
+			}
+		});
+		commands.put("RENAMENX", new Command(3) {
+			@Override
+			Object execute(byte[][] args) {
+				if (lookup(args[1]) == null) {
+					throw error("no such key");
+				}
+				if (lookup(args[2]) != null) {
+					return ZERO;
+				}
+				rename(args[1], args[2]);
+				return ONE;
+			}
+		});
+		commands.put("KEYS", new Command(2) {
+			@Override
+			Object execute(byte[][] args) {
+				expireCycle();
+				List<Object> keys = new ArrayList<Object>();
+				for (ByteBuffer key : data.keySet()) {
+					if (glob(args[1], key.array())) {
+						keys.add(key.array());
+					}
+				}
+				return keys;
+			}
+		});
+		commands.put("SCAN", new Command(-2) {
+			@Override
+			Object execute(byte[][] args) {
+				expireCycle();
+				return scan(args, 1, data.keySet().iterator());
+			}
+		});
+	}
+
+	private void registerStringCommands() {
+		commands.put("GET", new Command(2) {
+			@Override
+			Object execute(byte[][] args) {
+				return getString(args[1]);
+			}
+		});
+		commands.put("SET", new Command(-3) {
+			@Override
+			Object execute(byte[][] args) {
+				boolean nx = false;
+				boolean xx = false;
+				long expireAt = 0;
+				for (int i = 3; i < args.length; i++) {
+					String option = name(args[i]);
+					if ("NX".equals(option)) {
+						nx = true;
+					} else if ("XX".equals(option)) {
+						xx = true;
+					} else if (("EX".equals(option) || "PX".equals(option)) && i + 1 < args.length) {
+						long timeout = toLong(args[++i]);
+						if (timeout <= 0) {
+							throw error("invalid expire time in set");
+						}
+						expireAt = System.currentTimeMillis() + ("EX".equals(option) ? timeout * 1000 : timeout);
+					} else {
+						throw error("syntax error");
+					}
+				}
+				boolean exists = lookup(args[1]) != null;
+				if ((nx && exists) || (xx && !exists)) {
+					return null;
+				}
+				setString(args[1], args[2], expireAt);
+				return OK;
+			}
+		});
+		commands.put("SETNX", new Command(3) {
+			@Override
+			Object execute(byte[][] args) {
+				if (lookup(args[1]) != null) {
+					return ZERO;
+				}
+				setString(args[1], args[2], 0);
+				return ONE;
+			}
+		});
+		commands.put("SETEX", new Command(4) {
+			@Override
+			Object execute(byte[][] args) {
+				setString(args[1], args[3], System.currentTimeMillis() + positive(toLong(args[2]), "setex") * 1000);
+				return OK;
+			}
+		});
+		commands.put("PSETEX", new Command(4) {
+			@Override
+			Object execute(byte[][] args) {
+				setString(args[1], args[3], System.currentTimeMillis() + positive(toLong(args[2]), "psetex"));
+				return OK;
+			}
+		});
+		commands.put("GETSET", new Command(3) {
+			@Override
+			Object execute(byte[][] args) {
+				byte[] old = getString(args[1]);
+				setString(args[1], args[2], 0);
+				return old;
+			}
+		});
+		commands.put("MGET", new Command(-2) {
+			@Override
+			Object execute(byte[][] args) {
+				List<Object> values = new ArrayList<Object>(args.length - 1);
+				for (int i = 1; i < args.length; i++) {
+					Object value = lookup(args[i]);
+					values.add(value instanceof byte[] ? value : null);
+				}
+				return values;
+			}
+		});
+		commands.put("MSET", new Command(-3) {
+			@Override
+			Object execute(byte[][] args) {
+				checkPairs(args, 1, "mset");
+				for (int i = 1; i < args.length; i += 2) {
+					setString(args[i], args[i + 1], 0);
+				}
+				return OK;
+			}
+		});
+		commands.put("MSETNX", new Command(-3) {
+			@Override
+			Object execute(byte[][] args) {
+				checkPairs(args, 1, "msetnx");
+				for (int i = 1; i < args.length; i += 2) {
+					if (lookup(args[i]) != null) {
+						return ZERO;
+					}
+				}
+				for (int i = 1; i < args.length; i += 2) {
+					setString(args[i], args[i + 1], 0);
+				}
+				return ONE;
+			}
+		});
+		commands.put("INCR", new Command(2) {
+			@Override
+			Object execute(byte[][] args) {
+				return incrBy(args[1], 1);
+			}
+		});
+		commands.put("DECR", new Command(2) {
+			@Override
+			Object execute(byte[][] args) {
+				return incrBy(args[1], -1);
+			}
+		});
+		commands.put("INCRBY", new Command(3) {
+			@Override
+			Object execute(byte[][] args) {
+				return incrBy(args[1], toLong(args[2]));
+			}
+		});
+		commands.put("DECRBY", new Command(3) {
+			@Override
+			Object execute(byte[][] args) {
+				return incrBy(args[1], -toLong(args[2]));
+			}
+		});
+		commands.put("INCRBYFLOAT", new Command(3) {
+			@Override
+			Object execute(byte[][] args) {
+				byte[] value = getString(args[1]);
+				double current = value == null ? 0 : toDouble(value);
+				byte[] result = fromDouble(checkFinite(current + toDouble(args[2])));
+				data.put(key(args[1]), result);
+				return result;
+			}
+		});
+		commands.put("APPEND", new Command(3) {
+			@Override
+			Object execute(byte[][] args) {
+				byte[] value = getString(args[1]);
+				byte[] result = value == null ? args[2] : concat(value, args[2]);
+				data.put(key(args[1]), result);
+				return Long.valueOf(result.length);
+			}
+		});
+		commands.put("STRLEN", new Command(2) {
+			@Override
+			Object execute(byte[][] args) {
+				byte[] value = getString(args[1]);
+				return Long.valueOf(value == null ? 0 : value.length);
+			}
+		});
+	}
+
+	private void registerListCommands() {
+		commands.put("LPUSH", new Command(-3) {
+			@Override
+			Object execute(byte[][] args) {
+				return push(args, true, true);
+			}
+		});
+		commands.put("RPUSH", new Command(-3) {
+			@Override
+			Object execute(byte[][] args) {
+				return push(args, false, true);
+			}
+		});
+		commands.put("LPUSHX", new Command(-3) {
+			@Override
+			Object execute(byte[][] args) {
+				return push(args, true, false);
+			}
+		});
+		commands.put("RPUSHX", new Command(-3) {
+			@Override
+			Object execute(byte[][] args) {
+				return push(args, false, false);
+			}
+		});
+		commands.put("LPOP", new Command(2) {
+			@Override
+			Object execute(byte[][] args) {
+				LinkedList<byte[]> list = getList(args[1], false);
+				if (list == null) {
+					return null;
+				}
+				byte[] value = list.removeFirst();
+				removeIfEmpty(args[1], list);
+				return value;
+			}
+		});
+		commands.put("RPOP", new Command(2) {
+			@Override
+			Object execute(byte[][] args) {
+				LinkedList<byte[]> list = getList(args[1], false);
+				if (list == null) {
+					return null;
+				}
+				byte[] value = list.removeLast();
+				removeIfEmpty(args[1], list);
+				return value;
+			}
+		});
+		commands.put("RPOPLPUSH", new Command(3) {
+			@Override
+			Object execute(byte[][] args) {
+				LinkedList<byte[]> source = getList(args[1], false);
+				if (source == null) {
+					return null;
+				}
+				getList(args[2], false);
+				byte[] value = source.removeLast();
+				removeIfEmpty(args[1], source);
+				getList(args[2], true).addFirst(value);
+				return value;
+			}
+		});
+		commands.put("LLEN", new Command(2) {
+			@Override
+			Object execute(byte[][] args) {
+				LinkedList<byte[]> list = getList(args[1], false);
+				return Long.valueOf(list == null ? 0 : list.size());
+			}
+		});
+		commands.put("LRANGE", new Command(4) {
+			@Override
+			Object execute(byte[][] args) {
+				LinkedList<byte[]> list = getList(args[1], false);
+				List<Object> values = new ArrayList<Object>();
+				if (list == null) {
+					return values;
+				}
+				int[] range = range(toLong(args[2]), toLong(args[3]), list.size());
+				if (range != null) {
+					ListIterator<byte[]> iterator = list.listIterator(range[0]);
+					for (int i = range[0]; i <= range[1]; i++) {
+						values.add(iterator.next());
+					}
+				}
+				return values;
+			}
+		});
+		commands.put("LINDEX", new Command(3) {
+			@Override
+			Object execute(byte[][] args) {
+				LinkedList<byte[]> list = getList(args[1], false);
+				if (list == null) {
+					return null;
+				}
+				long index = toLong(args[2]);
+				index = index < 0 ? list.size() + index : index;
+				return index < 0 || index >= list.size() ? null : list.get((int) index);
+			}
+		});
+		commands.put("LSET", new Command(4) {
+			@Override
+			Object execute(byte[][] args) {
+				LinkedList<byte[]> list = getList(args[1], false);
+				if (list == null) {
+					throw error("no such key");
+				}
+				long index = toLong(args[2]);
+				index = index < 0 ? list.size() + index : index;
+				if (index < 0 || index >= list.size()) {
+					throw error("index out of range");
+				}
+				list.set((int) index, args[3]);
+				return OK;
+			}
+		});
+		commands.put("LREM", new Command(4) {
+			@Override
+			Object execute(byte[][] args) {
+				LinkedList<byte[]> list = getList(args[1], false);
+				if (list == null) {
+					return ZERO;
+				}
+				long count = toLong(args[2]);
+				long limit = count == 0 ? Long.MAX_VALUE : Math.abs(count);
+				long removed = 0;
+				Iterator<byte[]> iterator = count < 0 ? list.descendingIterator() : list.iterator();
+				while (removed < limit && iterator.hasNext()) {
+					if (Arrays.equals(iterator.next(), args[3])) {
+						iterator.remove();
+						removed++;
+					}
+				}
+				removeIfEmpty(args[1], list);
+				return Long.valueOf(removed);
+			}
+		});
+		commands.put("LTRIM", new Command(4) {
+			@Override
+			Object execute(byte[][] args) {
+				LinkedList<byte[]> list = getList(args[1], false);
+				if (list == null) {
+					return OK;
+				}
+				int[] range = range(toLong(args[2]), toLong(args[3]), list.size());
+				if (range == null) {
+					list.clear();
+				} else {
+					int tail = list.size() - range[1] - 1;
+					for (int i = 0; i < range[0]; i++) {
+						list.removeFirst();
+					}
+					for (int i = 0; i < tail; i++) {
+						list.removeLast();
+					}
+				}
+				removeIfEmpty(args[1], list);
+				return OK;
+			}
+		});
+	}
+
+	private void registerSetCommands() {
+		commands.put("SADD", new Command(-3) {
+			@Override
+			Object execute(byte[][] args) {
+				HashSet<ByteBuffer> set = getSet(args[1], true);
+				long added = 0;
+				for (int i = 2; i < args.length; i++) {
+					added += set.add(key(args[i])) ? 1 : 0;
+				}
+				return Long.valueOf(added);
+			}
+		});
+		commands.put("SREM", new Command(-3) {
+			@Override
+			Object execute(byte[][] args) {
+				HashSet<ByteBuffer> set = getSet(args[1], false);
+				if (set == null) {
+					return ZERO;
+				}
+				long removed = 0;
+				for (int i = 2; i < args.length; i++) {
+					removed += set.remove(key(args[i])) ? 1 : 0;
+				}
+				removeIfEmpty(args[1], set);
+				return Long.valueOf(removed);
+			}
+		});
+		commands.put("SMEMBERS", new Command(2) {
+			@Override
+			Object execute(byte[][] args) {
+				return members(getSet(args[1], false));
+			}
+		});
+		commands.put("SISMEMBER", new Command(3) {
+			@Override
+			Object execute(byte[][] args) {
+				HashSet<ByteBuffer> set = getSet(args[1], false);
+				return set != null && set.contains(key(args[2])) ? ONE : ZERO;
+			}
+		});
+		commands.put("SCARD", new Command(2) {
+			@Override
+			Object execute(byte[][] args) {
+				HashSet<ByteBuffer> set = getSet(args[1], false);
+				return Long.valueOf(set == null ? 0 : set.size());
+			}
+		});
+		commands.put("SMOVE", new Command(4) {
+			@Override
+			Object execute(byte[][] args) {
+				HashSet<ByteBuffer> source = getSet(args[1], false);
+				getSet(args[2], false);
+				if (source == null || !source.remove(key(args[3]))) {
+					return ZERO;
+				}
+				removeIfEmpty(args[1], source);
+				getSet(args[2], true).add(key(args[3]));
+				return ONE;
+			}
+		});
+		commands.put("SPOP", new Command(-2) {
+			@Override
+			Object execute(byte[][] args) {
+				HashSet<ByteBuffer> set = getSet(args[1], false);
+				if (args.length == 2) {
+					if (set == null) {
+						return null;
+					}
+					ByteBuffer member = randomMembers(set, 1, false).get(0);
+					set.remove(member);
+					removeIfEmpty(args[1], set);
+					return member.array();
+				}
+				long count = toLong(args[2]);
+				if (count < 0) {
+					throw error("value is out of range, must be positive");
+				}
+				List<Object> values = new ArrayList<Object>();
+				if (set == null) {
+					return values;
+				}
+				for (ByteBuffer member : randomMembers(set, count, false)) {
+					set.remove(member);
+					values.add(member.array());
+				}
+				removeIfEmpty(args[1], set);
+				return values;
+			}
+		});
+		commands.put("SRANDMEMBER", new Command(-2) {
+			@Override
+			Object execute(byte[][] args) {
+				HashSet<ByteBuffer> set = getSet(args[1], false);
+				if (args.length == 2) {
+					return set == null ? null : randomMembers(set, 1, false).get(0).array();
+				}
+				long count = toLong(args[2]);
+				List<Object> values = new ArrayList<Object>();
+				if (set != null) {
+					for (ByteBuffer member : randomMembers(set, Math.abs(count), count < 0)) {
+						values.add(member.array());
+					}
+				}
+				return values;
+			}
+		});
+		commands.put("SINTER", new Command(-2) {
+			@Override
+			Object execute(byte[][] args) {
+				return members(combine(args, 1, 0));
+			}
+		});
+		commands.put("SUNION", new Command(-2) {
+			@Override
+			Object execute(byte[][] args) {
+				return members(combine(args, 1, 1));
+			}
+		});
+		commands.put("SDIFF", new Command(-2) {
+			@Override
+			Object execute(byte[][] args) {
+				return members(combine(args, 1, 2));
+			}
+		});
+		commands.put("SINTERSTORE", new Command(-3) {
+			@Override
+			Object execute(byte[][] args) {
+				return store(args[1], combine(args, 2, 0));
+			}
+		});
+		commands.put("SUNIONSTORE", new Command(-3) {
+			@Override
+			Object execute(byte[][] args) {
+				return store(args[1], combine(args, 2, 1));
+			}
+		});
+		commands.put("SDIFFSTORE", new Command(-3) {
+			@Override
+			Object execute(byte[][] args) {
+				return store(args[1], combine(args, 2, 2));
+			}
+		});
+		commands.put("SSCAN", new Command(-3) {
+			@Override
+			Object execute(byte[][] args) {
+				HashSet<ByteBuffer> set = getSet(args[1], false);
+				return scan(args, 2, set == null ? null : set.iterator());
+			}
+		});
+	}
+
+	private void registerHashCommands() {
+		Command hset = new Command(-4) {
+			@Override
+			Object execute(byte[][] args) {
+				checkPairs(args, 2, name(args[0]).toLowerCase(Locale.ROOT));
+				LinkedHashMap<ByteBuffer, byte[]> hash = getHash(args[1], true);
+				long added = 0;
+				for (int i = 2; i < args.length; i += 2) {
+					added += hash.put(key(args[i]), args[i + 1]) == null ? 1 : 0;
+				}
+				return "HMSET".equals(name(args[0])) ? OK : Long.valueOf(added);
+			}
+		};
+		commands.put("HSET", hset);
+		commands.put("HMSET", hset);
+		commands.put("HSETNX", new Command(4) {
+			@Override
+			Object execute(byte[][] args) {
+				LinkedHashMap<ByteBuffer, byte[]> hash = getHash(args[1], true);
+				if (hash.containsKey(key(args[2]))) {
+					return ZERO;
+				}
+				hash.put(key(args[2]), args[3]);
+				return ONE;
+			}
+		});
+		commands.put("HGET", new Command(3) {
+			@Override
+			Object execute(byte[][] args) {
+				LinkedHashMap<ByteBuffer, byte[]> hash = getHash(args[1], false);
+				return hash == null ? null : hash.get(key(args[2]));
+			}
+		});
+		commands.put("HMGET", new Command(-3) {
+			@Override
+			Object execute(byte[][] args) {
+				LinkedHashMap<ByteBuffer, byte[]> hash = getHash(args[1], false);
+				List<Object> values = new ArrayList<Object>(args.length - 2);
+				for (int i = 2; i < args.length; i++) {
+					values.add(hash == null ? null : hash.get(key(args[i])));
+				}
+				return values;
+			}
+		});
+		commands.put("HGETALL", new Command(2) {
+			@Override
+			Object execute(byte[][] args) {
+				LinkedHashMap<ByteBuffer, byte[]> hash = getHash(args[1], false);
+				List<Object> values = new ArrayList<Object>();
+				if (hash != null) {
+					for (Entry<ByteBuffer, byte[]> entry : hash.entrySet()) {
+						values.add(entry.getKey().array());
+						values.add(entry.getValue());
+					}
+				}
+				return values;
+			}
+		});
+		commands.put("HKEYS", new Command(2) {
+			@Override
+			Object execute(byte[][] args) {
+				LinkedHashMap<ByteBuffer, byte[]> hash = getHash(args[1], false);
+				return members(hash == null ? null : hash.keySet());
+			}
+		});
+		commands.put("HVALS", new Command(2) {
+			@Override
+			Object execute(byte[][] args) {
+				LinkedHashMap<ByteBuffer, byte[]> hash = getHash(args[1], false);
+				return hash == null ? new ArrayList<Object>() : new ArrayList<Object>(hash.values());
+			}
+		});
+		commands.put("HLEN", new Command(2) {
+			@Override
+			Object execute(byte[][] args) {
+				LinkedHashMap<ByteBuffer, byte[]> hash = getHash(args[1], false);
+				return Long.valueOf(hash == null ? 0 : hash.size());
+			}
+		});
+		commands.put("HEXISTS", new Command(3) {
+			@Override
+			Object execute(byte[][] args) {
+				LinkedHashMap<ByteBuffer, byte[]> hash = getHash(args[1], false);
+				return hash != null && hash.containsKey(key(args[2])) ? ONE : ZERO;
+			}
+		});
+		commands.put("HDEL", new Command(-3) {
+			@Override
+			Object execute(byte[][] args) {
+				LinkedHashMap<ByteBuffer, byte[]> hash = getHash(args[1], false);
+				if (hash == null) {
+					return ZERO;
+				}
+				long removed = 0;
+				for (int i = 2; i < args.length; i++) {
+					removed += hash.remove(key(args[i])) != null ? 1 : 0;
+				}
+				removeIfEmpty(args[1], hash.keySet());
+				return Long.valueOf(removed);
+			}
+		});
+		commands.put("HINCRBY", new Command(4) {
+			@Override
+			Object execute(byte[][] args) {
+				LinkedHashMap<ByteBuffer, byte[]> hash = getHash(args[1], true);
+				byte[] value = hash.get(key(args[2]));
+				if (value != null && !NumericCodec.isLong(value)) {
+					throw error("hash value is not an integer");
+				}
+				long current = value == null ? 0 : NumericCodec.decodeLong(value);
+				long result = addExact(current, toLong(args[3]));
+				hash.put(key(args[2]), bytes(result));
+				return Long.valueOf(result);
+			}
+		});
+		commands.put("HINCRBYFLOAT", new Command(4) {
+			@Override
+			Object execute(byte[][] args) {
+				LinkedHashMap<ByteBuffer, byte[]> hash = getHash(args[1], true);
+				byte[] value = hash.get(key(args[2]));
+				double current = value == null ? 0 : toDouble(value);
+				byte[] result = fromDouble(checkFinite(current + toDouble(args[3])));
+				hash.put(key(args[2]), result);
+				return result;
+			}
+		});
+		commands.put("HSCAN", new Command(-3) {
+			@Override
+			Object execute(byte[][] args) {
+				LinkedHashMap<ByteBuffer, byte[]> hash = getHash(args[1], false);
+				return scan(args, 2, hash == null ? null : hash.entrySet().iterator());
+			}
+		});
+	}
+
+	private void registerZSetCommands() {
+		commands.put("ZADD", new Command(-4) {
+			@Override
+			Object execute(byte[][] args) {
+				checkPairs(args, 2, "zadd");
+				double[] scores = new double[(args.length - 2) / 2];
+				for (int i = 0; i < scores.length; i++) {
+					scores[i] = toDouble(args[2 + i * 2]);
+				}
+				ZSet zset = getZSet(args[1], true);
+				long added = 0;
+				for (int i = 0; i < scores.length; i++) {
+					added += zset.add(args[3 + i * 2], scores[i]) ? 1 : 0;
+				}
+				return Long.valueOf(added);
+			}
+		});
+		commands.put("ZINCRBY", new Command(4) {
+			@Override
+			Object execute(byte[][] args) {
+				double increment = toDouble(args[2]);
+				ZSet zset = getZSet(args[1], true);
+				Double current = zset.scores.get(key(args[3]));
+				double score = checkFinite(current == null ? increment : current.doubleValue() + increment);
+				zset.add(args[3], score);
+				return fromDouble(score);
+			}
+		});
+		commands.put("ZREM", new Command(-3) {
+			@Override
+			Object execute(byte[][] args) {
+				ZSet zset = getZSet(args[1], false);
+				if (zset == null) {
+					return ZERO;
+				}
+				long removed = 0;
+				for (int i = 2; i < args.length; i++) {
+					removed += zset.remove(args[i]) ? 1 : 0;
+				}
+				removeIfEmpty(args[1], zset.entries);
+				return Long.valueOf(removed);
+			}
+		});
+		commands.put("ZSCORE", new Command(3) {
+			@Override
+			Object execute(byte[][] args) {
+				ZSet zset = getZSet(args[1], false);
+				Double score = zset == null ? null : zset.scores.get(key(args[2]));
+				return score == null ? null : fromDouble(score.doubleValue());
+			}
+		});
+		commands.put("ZCARD", new Command(2) {
+			@Override
+			Object execute(byte[][] args) {
+				ZSet zset = getZSet(args[1], false);
+				return Long.valueOf(zset == null ? 0 : zset.entries.size());
+			}
+		});
+		commands.put("ZCOUNT", new Command(4) {
+			@Override
+			Object execute(byte[][] args) {
+				ZSet zset = getZSet(args[1], false);
+				ScoreBound min = new ScoreBound(args[2]);
+				ScoreBound max = new ScoreBound(args[3]);
+				long count = 0;
+				if (zset != null) {
+					for (ZEntry entry : zset.entries) {
+						if (max.below(entry.score)) {
+							break;
+						}
+						count += min.above(entry.score) ? 0 : 1;
+					}
+				}
+				return Long.valueOf(count);
+			}
+		});
+		Command rank = new Command(3) {
+			@Override
+			Object execute(byte[][] args) {
+				ZSet zset = getZSet(args[1], false);
+				Double score = zset == null ? null : zset.scores.get(key(args[2]));
+				if (score == null) {
+					return null;
+				}
+				boolean reverse = "ZREVRANK".equals(name(args[0]));
+				ZEntry target = new ZEntry(args[2], score.doubleValue());
+				return Long.valueOf(reverse ? zset.entries.tailSet(target, false).size() : zset.entries.headSet(
+						target, false).size());
+			}
+		};
+		commands.put("ZRANK", rank);
+		commands.put("ZREVRANK", rank);
+		Command rangeByRank = new Command(-4) {
+			@Override
+			Object execute(byte[][] args) {
+				boolean withScores = args.length > 4;
+				if (withScores && (args.length > 5 || !Arrays.equals(WITHSCORES, upper(args[4])))) {
+					throw error("syntax error");
+				}
+				List<Object> values = new ArrayList<Object>();
+				for (ZEntry entry : rangeByRank(args, "ZREVRANGE".equals(name(args[0])))) {
+					values.add(entry.member);
+					if (withScores) {
+						values.add(fromDouble(entry.score));
+					}
+				}
+				return values;
+			}
+		};
+		commands.put("ZRANGE", rangeByRank);
+		commands.put("ZREVRANGE", rangeByRank);
+		Command rangeByScore = new Command(-4) {
+			@Override
+			Object execute(byte[][] args) {
+				boolean reverse = "ZREVRANGEBYSCORE".equals(name(args[0]));
+				boolean withScores = false;
+				long offset = 0;
+				long count = -1;
+				for (int i = 4; i < args.length; i++) {
+					String option = name(args[i]);
+					if ("WITHSCORES".equals(option)) {
+						withScores = true;
+					} else if ("LIMIT".equals(option) && i + 2 < args.length) {
+						offset = toLong(args[++i]);
+						count = toLong(args[++i]);
+					} else {
+						throw error("syntax error");
+					}
+				}
+				List<Object> values = new ArrayList<Object>();
+				for (ZEntry entry : rangeByScore(args[1], args[reverse ? 3 : 2], args[reverse ? 2 : 3], reverse)) {
+					if (offset > 0) {
+						offset--;
+						continue;
+					}
+					if (count == 0) {
+						break;
+					}
+					count--;
+					values.add(entry.member);
+					if (withScores) {
+						values.add(fromDouble(entry.score));
+					}
+				}
+				return values;
+			}
+		};
+		commands.put("ZRANGEBYSCORE", rangeByScore);
+		commands.put("ZREVRANGEBYSCORE", rangeByScore);
+		commands.put("ZREMRANGEBYRANK", new Command(4) {
+			@Override
+			Object execute(byte[][] args) {
+				return removeRange(args[1], rangeByRank(args, false));
+			}
+		});
+		commands.put("ZREMRANGEBYSCORE", new Command(4) {
+			@Override
+			Object execute(byte[][] args) {
+				return removeRange(args[1], rangeByScore(args[1], args[2], args[3], false));
+			}
+		});
+		commands.put("ZSCAN", new Command(-3) {
+			@Override
+			Object execute(byte[][] args) {
+				ZSet zset = getZSet(args[1], false);
+				return scan(args, 2, zset == null ? null : zset.scores.entrySet().iterator());
+			}
+		});
+	}
+
+	static ByteBuffer key(byte[] raw) {
+		return ByteBuffer.wrap(raw);
+	}
+
+	static byte[] bytes(long value) {
+		return NumericCodec.encodeLong(value);
+	}
+
+	private Object lookup(byte[] raw) {
+		ByteBuffer key = key(raw);
+		Long expireAt = expires.get(key);
+		if (expireAt != null && expireAt.longValue() <= System.currentTimeMillis()) {
+			remove(key);
+			return null;
+		}
+		return data.get(key);
+	}
+
+	private void remove(ByteBuffer key) {
+		data.remove(key);
+		expires.remove(key);
+	}
+
+	private void removeIfEmpty(byte[] raw, Collection<?> collection) {
+		if (collection.isEmpty()) {
+			remove(key(raw));
+		}
+	}
+
+	private Long expireAt(byte[] raw, long expireAt) {
+		if (lookup(raw) == null) {
+			return ZERO;
+		}
+		if (expireAt <= System.currentTimeMillis()) {
+			remove(key(raw));
+		} else {
+			expires.put(key(raw), Long.valueOf(expireAt));
+		}
+		return ONE;
+	}
+
+	/**
+	 * @return 剩余毫秒数，key不存在为-2，没有过期时间为-1
+	 */
+	private long ttl(byte[] raw) {
+		if (lookup(raw) == null) {
+			return -2;
+		}
+		Long expireAt = expires.get(key(raw));
+		return expireAt == null ? -1 : Math.max(0, expireAt.longValue() - System.currentTimeMillis());
+	}
+
+	private void rename(byte[] source, byte[] target) {
+		Object value = lookup(source);
+		if (value == null) {
+			throw error("no such key");
+		}
+		Long expireAt = expires.get(key(source));
+		remove(key(source));
+		remove(key(target));
+		data.put(key(target), value);
+		if (expireAt != null) {
+			expires.put(key(target), expireAt);
+		}
+	}
+
+	private byte[] getString(byte[] raw) {
+		Object value = lookup(raw);
+		if (value != null && !(value instanceof byte[])) {
+			throw error(WRONGTYPE);
+		}
+		return (byte[]) value;
+	}
+
+	/**
+	 * 写入string并覆盖原有的过期时间
+	 *
+	 * @param expireAt
+	 *            过期的时间戳，0表示不过期
+	 */
+	private void setString(byte[] raw, byte[] value, long expireAt) {
+		ByteBuffer key = key(raw);
+		data.put(key, value);
+		if (expireAt > 0) {
+			expires.put(key, Long.valueOf(expireAt));
+		} else {
+			expires.remove(key);
+		}
+	}
+
+	private Long incrBy(byte[] raw, long delta) {
+		byte[] value = getString(raw);
+		long current = value == null ? 0 : toLong(value);
+		long result = addExact(current, delta);
+		data.put(key(raw), bytes(result));
+		return Long.valueOf(result);
+	}
+
+	@SuppressWarnings("unchecked")
+	private LinkedList<byte[]> getList(byte[] raw, boolean create) {
+		Object value = lookup(raw);
+		if (value == null && create) {
+			value = new LinkedList<byte[]>();
+			data.put(key(raw), value);
+		}
+		if (value != null && !(value instanceof LinkedList)) {
+			throw error(WRONGTYPE);
+		}
+		return (LinkedList<byte[]>) value;
+	}
+
+	private Long push(byte[][] args, boolean left, boolean create) {
+		LinkedList<byte[]> list = getList(args[1], create);
+		if (list == null) {
+			return ZERO;
+		}
+		for (int i = 2; i < args.length; i++) {
+			if (left) {
+				list.addFirst(args[i]);
+			} else {
+				list.addLast(args[i]);
+			}
+		}
+		return Long.valueOf(list.size());
+	}
+
+	@SuppressWarnings("unchecked")
+	private HashSet<ByteBuffer> getSet(byte[] raw, boolean create) {
+		Object value = lookup(raw);
+		if (value == null && create) {
+			value = new HashSet<ByteBuffer>();
+			data.put(key(raw), value);
+		}
+		if (value != null && !(value instanceof HashSet)) {
+			throw error(WRONGTYPE);
+		}
+		return (HashSet<ByteBuffer>) value;
+	}
+
+	/**
+	 * @param repeat
+	 *            是否允许重复，不允许时最多返回集合中的全部元素
+	 */
+	private List<ByteBuffer> randomMembers(Set<ByteBuffer> set, long count, boolean repeat) {
+		ByteBuffer[] members = set.toArray(new ByteBuffer[set.size()]);
+		List<ByteBuffer> picked = new ArrayList<ByteBuffer>();
+		if (repeat) {
+			for (long i = 0; i < count; i++) {
+				picked.add(members[random.nextInt(members.length)]);
+			}
+			return picked;
+		}
+		// 部分洗牌
+		int size = (int) Math.min(count, members.length);
+		for (int i = 0; i < size; i++) {
+			int j = i + random.nextInt(members.length - i);
+			ByteBuffer member = members[j];
+			members[j] = members[i];
+			members[i] = member;
+			picked.add(member);
+		}
+		return picked;
+	}
+
+	/**
+	 * @param operation
+	 *            0为交集，1为并集，2为差集
+	 */
+	private Set<ByteBuffer> combine(byte[][] args, int from, int operation) {
+		Set<ByteBuffer> result = null;
+		for (int i = from; i < args.length; i++) {
+			HashSet<ByteBuffer> set = getSet(args[i], false);
+			if (result == null) {
+				result = set == null ? new HashSet<ByteBuffer>() : new HashSet<ByteBuffer>(set);
+			} else if (operation == 0) {
+				if (set == null) {
+					result.clear();
+				} else {
+					result.retainAll(set);
+				}
+			} else if (set != null) {
+				if (operation == 1) {
+					result.addAll(set);
+				} else {
+					result.removeAll(set);
+				}
+			}
+		}
+		return result;
+	}
+
+	private Long store(byte[] raw, Set<ByteBuffer> members) {
+		remove(key(raw));
+		if (!members.isEmpty()) {
+			data.put(key(raw), members instanceof HashSet ? members : new HashSet<ByteBuffer>(members));
+		}
+		return Long.valueOf(members.size());
+	}
+
+	private static List<Object> members(Collection<ByteBuffer> members) {
+		List<Object> values = new ArrayList<Object>();
+		if (members != null) {
+			for (ByteBuffer member : members) {
+				values.add(member.array());
+			}
+		}
+		return values;
+	}
+
+	@SuppressWarnings("unchecked")
+	private LinkedHashMap<ByteBuffer, byte[]> getHash(byte[] raw, boolean create) {
+		Object value = lookup(raw);
+		if (value == null && create) {
+			value = new LinkedHashMap<ByteBuffer, byte[]>();
+			data.put(key(raw), value);
+		}
+		if (value != null && !(value instanceof LinkedHashMap)) {
+			throw error(WRONGTYPE);
+		}
+		return (LinkedHashMap<ByteBuffer, byte[]>) value;
+	}
+
+	private ZSet getZSet(byte[] raw, boolean create) {
+		Object value = lookup(raw);
+		if (value == null && create) {
+			value = new ZSet();
+			data.put(key(raw), value);
+		}
+		if (value != null && !(value instanceof ZSet)) {
+			throw error(WRONGTYPE);
+		}
+		return (ZSet) value;
+	}
+
+	private List<ZEntry> rangeByRank(byte[][] args, boolean reverse) {
+		ZSet zset = getZSet(args[1], false);
+		List<ZEntry> entries = new ArrayList<ZEntry>();
+		if (zset == null) {
+			return entries;
+		}
+		int[] range = range(toLong(args[2]), toLong(args[3]), zset.entries.size());
+		if (range == null) {
+			return entries;
+		}
+		int index = 0;
+		for (ZEntry entry : reverse ? zset.entries.descendingSet() : zset.entries) {
+			if (index > range[1]) {
+				break;
+			}
+			if (index++ >= range[0]) {
+				entries.add(entry);
+			}
+		}
+		return entries;
+	}
+
+	private List<ZEntry> rangeByScore(byte[] raw, byte[] rawMin, byte[] rawMax, boolean reverse) {
+		ScoreBound min = new ScoreBound(rawMin);
+		ScoreBound max = new ScoreBound(rawMax);
+		ZSet zset = getZSet(raw, false);
+		List<ZEntry> entries = new ArrayList<ZEntry>();
+		if (zset == null) {
+			return entries;
+		}
+		for (ZEntry entry : reverse ? zset.entries.descendingSet() : zset.entries) {
+			if (reverse ? min.above(entry.score) : max.below(entry.score)) {
+				break;
+			}
+			if (!min.above(entry.score) && !max.below(entry.score)) {
+				entries.add(entry);
+			}
+		}
+		return entries;
+	}
+
+	private Long removeRange(byte[] raw, List<ZEntry> entries) {
+		ZSet zset = getZSet(raw, false);
+		for (ZEntry entry : entries) {
+			zset.remove(entry.member);
+		}
+		if (zset != null) {
+			removeIfEmpty(raw, zset.entries);
+		}
+		return Long.valueOf(entries.size());
+	}
+
+	/**
+	 * SCAN系列命令的一页，游标为已遍历元素的个数；遍历期间集合被修改时可能重复或遗漏，与redis的保证不同
+	 *
+	 * @param from
+	 *            游标参数的位置
+	 * @param iterator
+	 *            元素为ByteBuffer（key与set）或Entry（hash与zset），null表示key不存在
+	 */
+	private List<Object> scan(byte[][] args, int from, Iterator<?> iterator) {
+		long cursor = toLong(args[from]);
+		byte[] pattern = null;
+		long count = 10;
+		for (int i = from + 1; i < args.length; i++) {
+			String option = name(args[i]);
+			if ("MATCH".equals(option) && i + 1 < args.length) {
+				pattern = args[++i];
+			} else if ("COUNT".equals(option) && i + 1 < args.length) {
+				count = toLong(args[++i]);
+				if (count < 1) {
+					throw error("syntax error");
+				}
+			} else {
+				throw error("syntax error");
+			}
+		}
+		List<Object> items = new ArrayList<Object>();
+		long position = 0;
+		long next = 0;
+		while (iterator != null && iterator.hasNext()) {
+			Object element = iterator.next();
+			if (position++ < cursor) {
+				continue;
+			}
+			if (position - cursor > count) {
+				next = position - 1;
+				break;
+			}
+			ByteBuffer member = (ByteBuffer) (element instanceof Entry ? ((Entry<?, ?>) element).getKey() : element);
+			if (pattern != null && !glob(pattern, member.array())) {
+				continue;
+			}
+			items.add(member.array());
+			if (element instanceof Entry) {
+				Object value = ((Entry<?, ?>) element).getValue();
+				items.add(value instanceof Double ? fromDouble(((Double) value).doubleValue()) : value);
+			}
+		}
+		return Arrays.<Object> asList(bytes(next), items);
+	}
+
+	/**
+	 * 将redis风格的起止下标（可为负数，包含两端）转换为[start, end]，范围为空时返回null
+	 */
+	private static int[] range(long start, long end, int size) {
+		start = start < 0 ? Math.max(size + start, 0) : start;
+		end = end < 0 ? size + end : Math.min(end, size - 1);
+		if (start > end || start >= size) {
+			return null;
+		}
+		return new int[] { (int) start, (int) end };
+	}
+
+	private static void checkPairs(byte[][] args, int from, String command) {
+		if ((args.length - from) % 2 != 0) {
+			throw error("wrong number of arguments for '" + command + "' command");
+		}
+	}
+
+	private static long positive(long timeout, String command) {
+		if (timeout <= 0) {
+			throw error("invalid expire time in " + command);
+		}
+		return timeout;
+	}
+
+	private static long addExact(long a, long b) {
+		long result = a + b;
+		if (((a ^ result) & (b ^ result)) < 0) {
+			throw error("increment or decrement would overflow");
+		}
+		return result;
+	}
+
+	static long toLong(byte[] raw) {
+		if (!NumericCodec.isLong(raw)) {
+			throw error("value is not an integer or out of range");
+		}
+		return NumericCodec.decodeLong(raw);
+	}
+
+	static double toDouble(byte[] raw) {
+		String text = new String(raw, Resp.CHARSET).toLowerCase(Locale.ROOT);
+		if ("inf".equals(text) || "+inf".equals(text) || "infinity".equals(text) || "+infinity".equals(text)) {
+			return Double.POSITIVE_INFINITY;
+		}
+		if ("-inf".equals(text) || "-infinity".equals(text)) {
+			return Double.NEGATIVE_INFINITY;
+		}
+		if (!NumericCodec.isNumber(raw)) {
+			throw error("value is not a valid float");
+		}
+		return NumericCodec.decodeDouble(raw);
+	}
+
+	static byte[] fromDouble(double value) {
+		if (Double.isInfinite(value)) {
+			return (value > 0 ? "inf" : "-inf").getBytes(Resp.CHARSET);
+		}
+		return NumericCodec.encodeDouble(value);
+	}
+
+	private static double checkFinite(double value) {
+		if (Double.isNaN(value) || Double.isInfinite(value)) {
+			throw error("increment would produce NaN or Infinity");
+		}
+		return value;
+	}
+
+	private static byte[] concat(byte[] a, byte[] b) {
+		byte[] result = Arrays.copyOf(a, a.length + b.length);
+		System.arraycopy(b, 0, result, a.length, b.length);
+		return result;
+	}
+
+	private static byte[] upper(byte[] raw) {
+		return name(raw).getBytes(Resp.CHARSET);
+	}
+
+	/**
+	 * redis的glob匹配，支持*、?、[...]、[^...]与\转义
+	 */
+	static boolean glob(byte[] pattern, byte[] text) {
+		return glob(pattern, 0, text, 0);
+	}
+
+	private static boolean glob(byte[] pattern, int p, byte[] text, int t) {
+		while (p < pattern.length) {
+			byte c = pattern[p];
+			if (c == '*') {
+				while (p + 1 < pattern.length && pattern[p + 1] == '*') {
+					p++;
+				}
+				if (p + 1 == pattern.length) {
+					return true;
+				}
+				for (int i = t; i <= text.length; i++) {
+					if (glob(pattern, p + 1, text, i)) {
+						return true;
+					}
+				}
+				return false;
+			}
+			if (t >= text.length) {
+				return false;
+			}
+			if (c == '?') {
+				p++;
+				t++;
+				continue;
+			}
+			if (c == '[') {
+				int i = p + 1;
+				boolean not = i < pattern.length && pattern[i] == '^';
+				if (not) {
+					i++;
+				}
+				boolean matched = false;
+				int actual = text[t] & 0xff;
+				while (i < pattern.length && pattern[i] != ']') {
+					if (pattern[i] == '\\' && i + 1 < pattern.length) {
+						matched |= (pattern[i + 1] & 0xff) == actual;
+						i += 2;
+					} else if (i + 2 < pattern.length && pattern[i + 1] == '-' && pattern[i + 2] != ']') {
+						int low = Math.min(pattern[i] & 0xff, pattern[i + 2] & 0xff);
+						int high = Math.max(pattern[i] & 0xff, pattern[i + 2] & 0xff);
+						matched |= actual >= low && actual <= high;
+						i += 3;
+					} else {
+						matched |= (pattern[i] & 0xff) == actual;
+						i++;
+					}
+				}
+				if (matched == not) {
+					return false;
+				}
+				p = Math.min(i + 1, pattern.length);
+				t++;
+				continue;
+			}
+			if (c == '\\' && p + 1 < pattern.length) {
+				c = pattern[++p];
+			}
+			if (c != text[t]) {
+				return false;
+			}
+			p++;
+			t++;
+		}
+		return t == text.length;
+	}
+
+	/**
+	 * 分值区间的一端，支持(开区间与±inf
+	 */
+	private static final class ScoreBound {
+
+		final double value;
+
+		final boolean exclusive;
+
+		ScoreBound(byte[] raw) {
+			exclusive = raw.length > 0 && raw[0] == '(';
+			value = toDouble(exclusive ? Arrays.copyOfRange(raw, 1, raw.length) : raw);
+		}
+
+		/**
+		 * score是否低于作为下限的本边界
+		 */
+		boolean above(double score) {
+			return exclusive ? score <= value : score < value;
+		}
+
+		/**
+		 * score是否高于作为上限的本边界
+		 */
+		boolean below(double score) {
+			return exclusive ? score >= value : score > value;
+		}
+	}
+
+	/**
+	 * 有序集合：成员到分值的映射加上按（分值, 成员）排序的集合
+	 */
+	static final class ZSet {
+
+		final Map<ByteBuffer, Double> scores = new HashMap<ByteBuffer, Double>();
+
+		final TreeSet<ZEntry> entries = new TreeSet<ZEntry>();
+
+		/**
+		 * @return 是否为新增的成员
+		 */
+		boolean add(byte[] member, double score) {
+			Double old = scores.put(key(member), Double.valueOf(score));
+			if (old != null) {
+				entries.remove(new ZEntry(member, old.doubleValue()));
+			}
+			entries.add(new ZEntry(member, score));
+			return old == null;
+		}
+
+		boolean remove(byte[] member) {
+			Double old = scores.remove(key(member));
+			if (old == null) {
+				return false;
+			}
+			entries.remove(new ZEntry(member, old.doubleValue()));
+			return true;
+		}
+	}
+
+	static final class ZEntry implements Comparable<ZEntry> {
+
+		final byte[] member;
+
+		final double score;
+
+		ZEntry(byte[] member, double score) {
+			this.member = member;
+			this.score = score;
+		}
+
+		@Override
+		public int compareTo(ZEntry other) {
+			int c = Double.compare(score, other.score);
+			if (c != 0) {
+				return c;
+			}
+			int length = Math.min(member.length, other.member.length);
+			for (int i = 0; i < length; i++) {
+				c = (member[i] & 0xff) - (other.member[i] & 0xff);
+				if (c != 0) {
+					return c;
+				}
+			}
+			return member.length - other.member.length;
+		}
+	}
+}
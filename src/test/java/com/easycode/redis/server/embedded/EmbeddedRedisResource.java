@@ -0,0 +1,78 @@
+package com.easycode.redis.server.embedded;
+
+import org.junit.rules.ExternalResource;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.jedis.JedisConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+
+import redis.clients.jedis.JedisPoolConfig;
+
+/**
+ * 测试中使用的{@link EmbeddedRedisServer}及连接它的template，作为<tt>@ClassRule</tt>在测试类开始时启动、结束时关闭。
+ * <p>
+ * key与hash key按字符串序列化，value与hash value按JDK序列化，与业务中常见的配置一致。
+ */
+public class EmbeddedRedisResource extends ExternalResource {
+
+	private EmbeddedRedisServer server;
+
+	private JedisConnectionFactory connectionFactory;
+
+	private RedisTemplate<String, Object> redisTemplate;
+
+	@Override
+	protected void before() throws Throwable {
+		server = new EmbeddedRedisServer();
+		int port = server.start();
+
+		JedisPoolConfig poolConfig = new JedisPoolConfig();
+		poolConfig.setMaxTotal(64);
+		connectionFactory = new JedisConnectionFactory(poolConfig);
+		connectionFactory.setHostName("127.0.0.1");
+		connectionFactory.setPort(port);
+		connectionFactory.afterPropertiesSet();
+
+		redisTemplate = new RedisTemplate<String, Object>();
+		redisTemplate.setConnectionFactory(connectionFactory);
+		redisTemplate.setKeySerializer(new StringRedisSerializer());
+		redisTemplate.setValueSerializer(new JdkSerializationRedisSerializer());
+		redisTemplate.setHashKeySerializer(new StringRedisSerializer());
+		redisTemplate.setHashValueSerializer(new JdkSerializationRedisSerializer());
+		redisTemplate.afterPropertiesSet();
+	}
+
+	@Override
+	protected void after() {
+		connectionFactory.destroy();
+		server.stop();
+	}
+
+	public int getPort() {
+		return server.getPort();
+	}
+
+	public JedisConnectionFactory getConnectionFactory() {
+		return connectionFactory;
+	}
+
+	public RedisTemplate<String, Object> getRedisTemplate() {
+		return redisTemplate;
+	}
+
+	/**
+	 * 清空服务端的全部数据，在每个测试方法开始前调用
+	 */
+	public void flushAll() {
+		redisTemplate.execute(new RedisCallback<Object>() {
+			@Override
+			public Object doInRedis(RedisConnection connection) throws DataAccessException {
+				connection.flushAll();
+				return null;
+			}
+		});
+	}
+}
@@ -0,0 +1,444 @@
+package com.easycode.redis.server.embedded;
+
+import static com.easycode.redis.server.embedded.EmbeddedDatabase.glob;
+import static com.easycode.redis.server.embedded.EmbeddedDatabase.name;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 进程内的RESP服务端，用于在没有redis的环境中测试与压测{@link com.easycode.redis.server.Redis}及各service。
+ * <p>
+ * 与redis一样由单个事件循环线程基于NIO处理所有连接：一次读到的多条命令（pipeline）依次执行后一起写回，因此pipeline的效果可以真实测出。
+ * 支持string、list、set、hash、zset、过期、SCAN系列、MULTI/EXEC、发布订阅以及{@link com.easycode.redis.server.script.RedisScripts}
+ * 中的脚本（不解释lua，见{@link EmbeddedScripts}）；只有一个库，不支持阻塞命令、持久化与集群。
+ * <p>
+ * 只随测试代码发布（tests classifier的test-jar），供本项目的测试与benchmark模块使用，不进入正式jar。
+ *
+ * <pre>
+ * EmbeddedRedisServer server = new EmbeddedRedisServer();
+ * int port = server.start();
+ * ...
+ * server.stop();
+ * </pre>
+ */
+public class EmbeddedRedisServer {
+
+	private static final Logger logger = LoggerFactory.getLogger(EmbeddedRedisServer.class);
+
+	private static final long CRON_MILLIS = 100;
+
+	private static final byte[] SUBSCRIBE = bytes("subscribe");
+
+	private static final byte[] UNSUBSCRIBE = bytes("unsubscribe");
+
+	private static final byte[] PSUBSCRIBE = bytes("psubscribe");
+
+	private static final byte[] PUNSUBSCRIBE = bytes("punsubscribe");
+
+	private static final byte[] MESSAGE = bytes("message");
+
+	private static final byte[] PMESSAGE = bytes("pmessage");
+
+	private String host = "127.0.0.1";
+
+	private int port;
+
+	private final EmbeddedDatabase database = new EmbeddedDatabase();
+
+	private final Map<ByteBuffer, Set<EmbeddedClient>> channels = new HashMap<ByteBuffer, Set<EmbeddedClient>>();
+
+	private final Map<ByteBuffer, Set<EmbeddedClient>> patterns = new HashMap<ByteBuffer, Set<EmbeddedClient>>();
+
+	// 收到发布消息、需要在本轮写出的订阅者
+	private final Set<EmbeddedClient> pendingFlush = new LinkedHashSet<EmbeddedClient>();
+
+	private Selector selector;
+
+	private ServerSocketChannel serverChannel;
+
+	private Thread eventLoop;
+
+	private volatile boolean running;
+
+	public EmbeddedRedisServer() {
+	}
+
+	/**
+	 * @param port
+	 *            监听的端口，0表示由系统分配
+	 */
+	public EmbeddedRedisServer(int port) {
+		this.port = port;
+	}
+
+	public void setHost(String host) {
+		this.host = host;
+	}
+
+	public void setPort(int port) {
+		this.port = port;
+	}
+
+	/**
+	 * @return 实际监听的端口，启动前为配置的端口
+	 */
+	public int getPort() {
+		return port;
+	}
+
+	public boolean isRunning() {
+		return running;
+	}
+
+	/**
+	 * 开始监听并启动事件循环线程
+	 *
+	 * @return 实际监听的端口
+	 */
+	public synchronized int start() throws IOException {
+		if (running) {
+			return port;
+		}
+		selector = Selector.open();
+		serverChannel = ServerSocketChannel.open();
+		serverChannel.configureBlocking(false);
+		serverChannel.socket().setReuseAddress(true);
+		serverChannel.socket().bind(new InetSocketAddress(host, port), 1024);
+		serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+		port = serverChannel.socket().getLocalPort();
+		running = true;
+		eventLoop = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				loop();
+			}
+		}, "embedded-redis-" + port);
+		eventLoop.setDaemon(true);
+		eventLoop.start();
+		return port;
+	}
+
+	/**
+	 * 停止监听并关闭所有连接，数据随之丢弃
+	 */
+	public synchronized void stop() {
+		if (!running) {
+			return;
+		}
+		running = false;
+		selector.wakeup();
+		try {
+			eventLoop.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private void loop() {
+		long nextCron = System.currentTimeMillis() + CRON_MILLIS;
+		try {
+			while (running) {
+				selector.select(CRON_MILLIS);
+				Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+				while (keys.hasNext()) {
+					SelectionKey key = keys.next();
+					keys.remove();
+					if (!key.isValid()) {
+						continue;
+					}
+					if (key.isAcceptable()) {
+						accept();
+						continue;
+					}
+					EmbeddedClient client = (EmbeddedClient) key.attachment();
+					try {
+						if (key.isReadable()) {
+							read(client);
+						}
+						if (key.isValid() && key.isWritable() && client.flush() && client.closing) {
+							close(client);
+						}
+					} catch (IOException e) {
+						close(client);
+					}
+				}
+				flushSubscribers();
+				long now = System.currentTimeMillis();
+				if (now >= nextCron) {
+					database.expireCycle();
+					nextCron = now + CRON_MILLIS;
+				}
+			}
+		} catch (IOException e) {
+			logger.error("embedded redis server stopped unexpectedly", e);
+			running = false;
+		} finally {
+			shutdown();
+		}
+	}
+
+	private void accept() throws IOException {
+		SocketChannel channel;
+		while ((channel = serverChannel.accept()) != null) {
+			channel.configureBlocking(false);
+			channel.socket().setTcpNoDelay(true);
+			SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+			key.attach(new EmbeddedClient(channel, key));
+		}
+	}
+
+	private void read(EmbeddedClient client) throws IOException {
+		if (client.read() < 0) {
+			close(client);
+			return;
+		}
+		for (byte[][] command : client.commands()) {
+			if (client.closing && client.protocolError == null) {
+				break;
+			}
+			client.output.write(dispatch(client, command));
+		}
+		if (client.protocolError != null) {
+			client.output.write(client.protocolError);
+			client.protocolError = null;
+		}
+		if (client.flush() && client.closing) {
+			close(client);
+		}
+	}
+
+	private void flushSubscribers() {
+		if (pendingFlush.isEmpty()) {
+			return;
+		}
+		List<EmbeddedClient> clients = new ArrayList<EmbeddedClient>(pendingFlush);
+		pendingFlush.clear();
+		for (EmbeddedClient client : clients) {
+			try {
+				if (client.key.isValid()) {
+					client.flush();
+				}
+			} catch (IOException e) {
+				close(client);
+			}
+		}
+	}
+
+	/**
+	 * 处理与连接状态相关的命令（事务、发布订阅、QUIT），其余交给{@link EmbeddedDatabase}
+	 */
+	private Object dispatch(EmbeddedClient client, byte[][] command) {
+		String name = name(command[0]);
+		if (client.transaction != null) {
+			if ("EXEC".equals(name)) {
+				return exec(client);
+			}
+			if ("DISCARD".equals(name)) {
+				client.transaction = null;
+				client.transactionFailed = false;
+				return Resp.OK;
+			}
+			if ("MULTI".equals(name)) {
+				return Resp.error("MULTI calls can not be nested");
+			}
+			if (!database.hasCommand(name) && !"PUBLISH".equals(name)) {
+				client.transactionFailed = true;
+				return Resp.error("unknown command '" + name + "'");
+			}
+			client.transaction.add(command);
+			return Resp.QUEUED;
+		}
+		if (client.subscriptions() > 0 && !name.endsWith("SUBSCRIBE") && !"PING".equals(name)
+				&& !"QUIT".equals(name)) {
+			return Resp.error("only (P)SUBSCRIBE / (P)UNSUBSCRIBE / PING / QUIT allowed in this context");
+		}
+		if ("MULTI".equals(name)) {
+			client.transaction = new ArrayList<byte[][]>();
+			return Resp.OK;
+		}
+		if ("EXEC".equals(name) || "DISCARD".equals(name)) {
+			return Resp.error(name + " without MULTI");
+		}
+		if ("WATCH".equals(name) || "UNWATCH".equals(name)) {
+			// 单线程串行执行，事务总是成功，WATCH不需要做什么
+			return Resp.OK;
+		}
+		if ("QUIT".equals(name)) {
+			client.closing = true;
+			return Resp.OK;
+		}
+		if ("PUBLISH".equals(name)) {
+			return command.length == 3 ? publish(command[1], command[2]) : arityError(name);
+		}
+		if ("SUBSCRIBE".equals(name) || "PSUBSCRIBE".equals(name)) {
+			return command.length >= 2 ? subscribe(client, command, "PSUBSCRIBE".equals(name)) : arityError(name);
+		}
+		if ("UNSUBSCRIBE".equals(name) || "PUNSUBSCRIBE".equals(name)) {
+			return unsubscribe(client, command, "PUNSUBSCRIBE".equals(name));
+		}
+		return database.execute(command);
+	}
+
+	private Object exec(EmbeddedClient client) {
+		List<byte[][]> queued = client.transaction;
+		boolean failed = client.transactionFailed;
+		client.transaction = null;
+		client.transactionFailed = false;
+		if (failed) {
+			return Resp.error("EXECABORT Transaction discarded because of previous errors.");
+		}
+		List<Object> replies = new ArrayList<Object>(queued.size());
+		for (byte[][] command : queued) {
+			replies.add("PUBLISH".equals(name(command[0])) ? publish(command[1], command[2]) : database
+					.execute(command));
+		}
+		return replies;
+	}
+
+	private Long publish(byte[] channel, byte[] message) {
+		long receivers = 0;
+		Set<EmbeddedClient> subscribers = channels.get(ByteBuffer.wrap(channel));
+		if (subscribers != null) {
+			for (EmbeddedClient subscriber : subscribers) {
+				subscriber.output.write(Arrays.<Object> asList(MESSAGE, channel, message));
+				pendingFlush.add(subscriber);
+				receivers++;
+			}
+		}
+		for (Map.Entry<ByteBuffer, Set<EmbeddedClient>> entry : patterns.entrySet()) {
+			byte[] pattern = entry.getKey().array();
+			if (!glob(pattern, channel)) {
+				continue;
+			}
+			for (EmbeddedClient subscriber : entry.getValue()) {
+				subscriber.output.write(Arrays.<Object> asList(PMESSAGE, pattern, channel, message));
+				pendingFlush.add(subscriber);
+				receivers++;
+			}
+		}
+		return Long.valueOf(receivers);
+	}
+
+	/**
+	 * 每个频道各有一条确认回复，除最后一条外直接写入输出缓冲，最后一条作为返回值
+	 */
+	private Object subscribe(EmbeddedClient client, byte[][] command, boolean pattern) {
+		Map<ByteBuffer, Set<EmbeddedClient>> registry = pattern ? patterns : channels;
+		Set<ByteBuffer> subscribed = pattern ? client.patterns : client.channels;
+		Object reply = null;
+		for (int i = 1; i < command.length; i++) {
+			ByteBuffer channel = ByteBuffer.wrap(command[i]);
+			if (subscribed.add(channel)) {
+				Set<EmbeddedClient> subscribers = registry.get(channel);
+				if (subscribers == null) {
+					subscribers = new LinkedHashSet<EmbeddedClient>();
+					registry.put(channel, subscribers);
+				}
+				subscribers.add(client);
+			}
+			if (reply != null) {
+				client.output.write(reply);
+			}
+			reply = Arrays.<Object> asList(pattern ? PSUBSCRIBE : SUBSCRIBE, command[i],
+					Long.valueOf(client.subscriptions()));
+		}
+		return reply;
+	}
+
+	private Object unsubscribe(EmbeddedClient client, byte[][] command, boolean pattern) {
+		Set<ByteBuffer> subscribed = pattern ? client.patterns : client.channels;
+		List<ByteBuffer> targets = new ArrayList<ByteBuffer>();
+		if (command.length > 1) {
+			for (int i = 1; i < command.length; i++) {
+				targets.add(ByteBuffer.wrap(command[i]));
+			}
+		} else {
+			targets.addAll(subscribed);
+		}
+		byte[] kind = pattern ? PUNSUBSCRIBE : UNSUBSCRIBE;
+		if (targets.isEmpty()) {
+			return Arrays.<Object> asList(kind, null, Long.valueOf(client.subscriptions()));
+		}
+		Object reply = null;
+		for (ByteBuffer channel : targets) {
+			if (subscribed.remove(channel)) {
+				removeSubscriber(pattern ? patterns : channels, channel, client);
+			}
+			if (reply != null) {
+				client.output.write(reply);
+			}
+			reply = Arrays.<Object> asList(kind, channel.array(), Long.valueOf(client.subscriptions()));
+		}
+		return reply;
+	}
+
+	private static void removeSubscriber(Map<ByteBuffer, Set<EmbeddedClient>> registry, ByteBuffer channel,
+			EmbeddedClient client) {
+		Set<EmbeddedClient> subscribers = registry.get(channel);
+		if (subscribers != null && subscribers.remove(client) && subscribers.isEmpty()) {
+			registry.remove(channel);
+		}
+	}
+
+	private static Resp.ErrorReply arityError(String name) {
+		return Resp.error("wrong number of arguments for '" + name.toLowerCase(Locale.ROOT) + "' command");
+	}
+
+	private void close(EmbeddedClient client) {
+		for (ByteBuffer channel : client.channels) {
+			removeSubscriber(channels, channel, client);
+		}
+		for (ByteBuffer pattern : client.patterns) {
+			removeSubscriber(patterns, pattern, client);
+		}
+		client.channels.clear();
+		client.patterns.clear();
+		pendingFlush.remove(client);
+		client.key.cancel();
+		try {
+			client.channel.close();
+		} catch (IOException e) {
+			// ignore
+		}
+	}
+
+	private void shutdown() {
+		for (SelectionKey key : selector.keys()) {
+			try {
+				key.channel().close();
+			} catch (IOException e) {
+				// ignore
+			}
+		}
+		try {
+			selector.close();
+		} catch (IOException e) {
+			// ignore
+		}
+		channels.clear();
+		patterns.clear();
+		pendingFlush.clear();
+	}
+
+	private static byte[] bytes(String text) {
+		return text.getBytes(Resp.CHARSET);
+	}
+}
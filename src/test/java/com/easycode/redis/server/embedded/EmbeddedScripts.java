@@ -0,0 +1,224 @@
+package com.easycode.redis.server.embedded;
+
+import static com.easycode.redis.server.embedded.EmbeddedDatabase.bytes;
+import static com.easycode.redis.server.embedded.EmbeddedDatabase.name;
+import static com.easycode.redis.server.embedded.EmbeddedDatabase.toLong;
+import static com.easycode.redis.server.embedded.Resp.ZERO;
+import static com.easycode.redis.server.embedded.Resp.error;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.data.redis.core.script.DigestUtils;
+
+import com.easycode.redis.server.script.LuaScript;
+import com.easycode.redis.server.script.RedisScripts;
+
+/**
+ * 嵌入式服务端的脚本支持。没有lua解释器，{@link RedisScripts}中的脚本按SHA1对应到等价的Java实现，
+ * 通过{@link EmbeddedDatabase#call(String, byte[]...)}逐条执行脚本中的命令。
+ * <p>
+ * 每个实现都记录了编写时脚本的SHA1：修改脚本而未同步修改实现时，执行该脚本会回复错误，
+ * EmbeddedScriptsTest也会失败，不会静默地按旧逻辑执行。
+ * <p>
+ * 与redis一样，EVALSHA只认SCRIPT LOAD或EVAL过的脚本，否则回复NOSCRIPT。
+ */
+final class EmbeddedScripts {
+
+	private static final byte[] LTRIM_START = bytes(0);
+
+	private static final byte[] LAST = bytes(-1);
+
+	private final EmbeddedDatabase database;
+
+	private final Map<String, Script> scripts = new HashMap<String, Script>();
+
+	private final Set<String> loaded = new HashSet<String>();
+
+	/**
+	 * 脚本已修改但Java实现未同步的SHA1，值为实现对应的旧SHA1
+	 */
+	private final Map<String, String> outdated = new HashMap<String, String>();
+
+	/**
+	 * 一个脚本的Java实现
+	 */
+	private abstract static class Script {
+
+		abstract Object execute(EmbeddedDatabase database, byte[][] keys, byte[][] argv);
+	}
+
+	EmbeddedScripts(EmbeddedDatabase database) {
+		this.database = database;
+		register(RedisScripts.LEFT_POP_BATCH, "6dff883f0466d8a3830b0fcc2af289bed7b0a2c3", new Script() {
+			@Override
+			Object execute(EmbeddedDatabase database, byte[][] keys, byte[][] argv) {
+				List<?> values = (List<?>) database.call("LRANGE", keys[0], LTRIM_START, bytes(toLong(argv[0]) - 1));
+				if (!values.isEmpty()) {
+					database.call("LTRIM", keys[0], bytes(values.size()), LAST);
+				}
+				return values;
+			}
+		});
+		register(RedisScripts.RIGHT_POP_BATCH, "903196d64248650fe0f9eb7dbd302f37695414ab", new Script() {
+			@Override
+			Object execute(EmbeddedDatabase database, byte[][] keys, byte[][] argv) {
+				List<?> values = (List<?>) database.call("LRANGE", keys[0], bytes(-toLong(argv[0])), LAST);
+				if (!values.isEmpty()) {
+					database.call("LTRIM", keys[0], LTRIM_START, bytes(-values.size() - 1));
+				}
+				return values;
+			}
+		});
+		register(RedisScripts.COMPARE_AND_DELETE, "7f8f6677b8f2b4b65b9b9905151ced126e6b7e49", new Script() {
+			@Override
+			Object execute(EmbeddedDatabase database, byte[][] keys, byte[][] argv) {
+				if (Arrays.equals((byte[]) database.call("GET", keys[0]), argv[0])) {
+					return database.call("DEL", keys[0]);
+				}
+				return ZERO;
+			}
+		});
+		register(RedisScripts.COMPARE_AND_PEXPIRE, "5765d8a3b63c4ae6047608645b08c78e64475680", new Script() {
+			@Override
+			Object execute(EmbeddedDatabase database, byte[][] keys, byte[][] argv) {
+				if (Arrays.equals((byte[]) database.call("GET", keys[0]), argv[0])) {
+					return database.call("PEXPIRE", keys[0], argv[1]);
+				}
+				return ZERO;
+			}
+		});
+		register(RedisScripts.INCRBY_EXPIRE_ON_CREATE, "db10035945bcd8dfdc8eff1bd4e70c86be756014", new Script() {
+			@Override
+			Object execute(EmbeddedDatabase database, byte[][] keys, byte[][] argv) {
+				boolean created = ZERO.equals(database.call("EXISTS", keys[0]));
+				Object value = database.call("INCRBY", keys[0], argv[0]);
+				if (created) {
+					database.call("PEXPIRE", keys[0], argv[1]);
+				}
+				return value;
+			}
+		});
+		register(RedisScripts.PUSH_EXPIRE_ON_CREATE, "658dccf30c315fa88b455443dfb56b16dc25fe33", new Script() {
+			@Override
+			Object execute(EmbeddedDatabase database, byte[][] keys, byte[][] argv) {
+				boolean created = ZERO.equals(database.call("EXISTS", keys[0]));
+				Object size = ZERO;
+				if (argv.length > 2) {
+					byte[][] args = new byte[argv.length - 1][];
+					args[0] = keys[0];
+					System.arraycopy(argv, 2, args, 1, argv.length - 2);
+					size = database.call(name(argv[0]), args);
+				}
+				if (created && ((Long) size).longValue() > 0) {
+					database.call("PEXPIRE", keys[0], argv[1]);
+				}
+				return size;
+			}
+		});
+	}
+
+	/**
+	 * @param portedSha1
+	 *            编写Java实现时脚本的SHA1；脚本修改后两者不一致，执行时回复错误而不是按旧逻辑执行
+	 */
+	private void register(LuaScript script, String portedSha1, Script implementation) {
+		if (script.getSha1().equals(portedSha1)) {
+			scripts.put(script.getSha1(), implementation);
+		} else {
+			outdated.put(script.getSha1(), portedSha1);
+		}
+	}
+
+	/**
+	 * {@link RedisScripts}中没有对应Java实现或实现已过期的脚本，供测试检查
+	 */
+	static List<String> unsupportedScripts() {
+		EmbeddedScripts supported = new EmbeddedScripts(null);
+		List<String> unsupported = new ArrayList<String>();
+		for (Field field : RedisScripts.class.getFields()) {
+			if (!LuaScript.class.equals(field.getType()) || !Modifier.isStatic(field.getModifiers())) {
+				continue;
+			}
+			try {
+				if (!supported.scripts.containsKey(((LuaScript) field.get(null)).getSha1())) {
+					unsupported.add(field.getName());
+				}
+			} catch (IllegalAccessException e) {
+				throw new IllegalStateException(e);
+			}
+		}
+		return unsupported;
+	}
+
+	/**
+	 * EVAL script numkeys key [key ...] arg [arg ...]
+	 */
+	Object eval(byte[][] args) {
+		String sha1 = DigestUtils.sha1DigestAsHex(new String(args[1], Resp.CHARSET));
+		loaded.add(sha1);
+		return run(sha1, args);
+	}
+
+	/**
+	 * EVALSHA sha1 numkeys key [key ...] arg [arg ...]
+	 */
+	Object evalSha(byte[][] args) {
+		String sha1 = new String(args[1], Resp.CHARSET).toLowerCase(Locale.ROOT);
+		if (!loaded.contains(sha1)) {
+			throw error("NOSCRIPT No matching script. Please use EVAL.");
+		}
+		return run(sha1, args);
+	}
+
+	/**
+	 * SCRIPT LOAD|EXISTS|FLUSH
+	 */
+	Object script(byte[][] args) {
+		String subcommand = name(args[1]);
+		if ("LOAD".equals(subcommand) && args.length == 3) {
+			String sha1 = DigestUtils.sha1DigestAsHex(new String(args[2], Resp.CHARSET));
+			loaded.add(sha1);
+			return sha1.getBytes(Resp.CHARSET);
+		}
+		if ("EXISTS".equals(subcommand)) {
+			List<Object> exists = new ArrayList<Object>();
+			for (int i = 2; i < args.length; i++) {
+				String sha1 = new String(args[i], Resp.CHARSET).toLowerCase(Locale.ROOT);
+				exists.add(loaded.contains(sha1) ? Resp.ONE : ZERO);
+			}
+			return exists;
+		}
+		if ("FLUSH".equals(subcommand)) {
+			loaded.clear();
+			return Resp.OK;
+		}
+		throw error("unknown SCRIPT subcommand '" + subcommand + "'");
+	}
+
+	private Object run(String sha1, byte[][] args) {
+		Script script = scripts.get(sha1);
+		if (script == null && outdated.containsKey(sha1)) {
+			throw error("embedded port of script " + sha1 + " was written for " + outdated.get(sha1)
+					+ ", update EmbeddedScripts after changing RedisScripts");
+		}
+		if (script == null) {
+			throw error("embedded server does not support script " + sha1);
+		}
+		long numKeys = toLong(args[2]);
+		if (numKeys < 0 || numKeys > args.length - 3) {
+			throw error("Number of keys can't be greater than number of args");
+		}
+		byte[][] keys = Arrays.copyOfRange(args, 3, 3 + (int) numKeys);
+		byte[][] argv = Arrays.copyOfRange(args, 3 + (int) numKeys, args.length);
+		return script.execute(database, keys, argv);
+	}
+}
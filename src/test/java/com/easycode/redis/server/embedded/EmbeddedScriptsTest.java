@@ -0,0 +1,18 @@
+package com.easycode.redis.server.embedded;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Collections;
+
+import org.junit.Test;
+
+public class EmbeddedScriptsTest {
+
+	/**
+	 * 修改或新增RedisScripts中的脚本后，需要同步修改EmbeddedScripts中的Java实现
+	 */
+	@Test
+	public void everyScriptHasAnUpToDatePort() {
+		assertEquals(Collections.<String> emptyList(), EmbeddedScripts.unsupportedScripts());
+	}
+}
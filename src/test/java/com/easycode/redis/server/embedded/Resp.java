@@ -0,0 +1,309 @@
+package com.easycode.redis.server.embedded;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * RESP协议的解析与回复编码。
+ * <p>
+ * 命令的回复以普通对象表示：byte[]为bulk string，Long为integer，{@link Status}为status，{@link ErrorReply}为error，
+ * List为array，null为nil。
+ */
+final class Resp {
+
+	static final Charset CHARSET = Charset.forName("UTF-8");
+
+	static final Status OK = new Status("OK");
+
+	static final Status PONG = new Status("PONG");
+
+	static final Status QUEUED = new Status("QUEUED");
+
+	static final Long ZERO = Long.valueOf(0);
+
+	static final Long ONE = Long.valueOf(1);
+
+	// 单行（数组长度、bulk长度或inline命令）的最大长度
+	private static final int MAX_LINE = 64 * 1024;
+
+	private static final int MAX_BULK = 512 * 1024 * 1024;
+
+	private static final byte[][] EMPTY = new byte[0][];
+
+	private static final long INCOMPLETE = Long.MIN_VALUE;
+
+	private Resp() {
+	}
+
+	/**
+	 * status回复，如+OK
+	 */
+	static final class Status {
+
+		final String text;
+
+		Status(String text) {
+			this.text = text;
+		}
+	}
+
+	/**
+	 * error回复，命令执行中抛出时作为该命令的回复写回
+	 */
+	static final class ErrorReply extends RuntimeException {
+
+		private static final long serialVersionUID = 1L;
+
+		ErrorReply(String message) {
+			super(message);
+		}
+
+		@Override
+		public synchronized Throwable fillInStackTrace() {
+			return this;
+		}
+	}
+
+	static ErrorReply error(String message) {
+		return new ErrorReply(message.startsWith("ERR ") || message.startsWith("WRONGTYPE ")
+				|| message.startsWith("NOSCRIPT ") || message.startsWith("EXECABORT ") ? message : "ERR " + message);
+	}
+
+	/**
+	 * 从buffer的当前位置解析一条完整的命令，数据不完整时恢复position并返回null；空的inline命令返回长度为0的数组
+	 */
+	static byte[][] parse(ByteBuffer buffer) {
+		int start = buffer.position();
+		if (!buffer.hasRemaining()) {
+			return null;
+		}
+		if (buffer.get(start) != '*') {
+			return parseInline(buffer);
+		}
+		buffer.position(start + 1);
+		long count = readNumber(buffer);
+		if (count == INCOMPLETE) {
+			buffer.position(start);
+			return null;
+		}
+		if (count <= 0) {
+			return EMPTY;
+		}
+		byte[][] args = new byte[(int) count][];
+		for (int i = 0; i < args.length; i++) {
+			if (!buffer.hasRemaining()) {
+				buffer.position(start);
+				return null;
+			}
+			if (buffer.get() != '$') {
+				throw error("Protocol error: expected '$'");
+			}
+			long length = readNumber(buffer);
+			if (length == INCOMPLETE) {
+				buffer.position(start);
+				return null;
+			}
+			if (length < 0 || length > MAX_BULK) {
+				throw error("Protocol error: invalid bulk length");
+			}
+			if (buffer.remaining() < length + 2) {
+				buffer.position(start);
+				return null;
+			}
+			byte[] arg = new byte[(int) length];
+			buffer.get(arg);
+			buffer.position(buffer.position() + 2);
+			args[i] = arg;
+		}
+		return args;
+	}
+
+	/**
+	 * 读取以CRLF结尾的十进制数，数据不完整时返回{@link #INCOMPLETE}
+	 */
+	private static long readNumber(ByteBuffer buffer) {
+		long value = 0;
+		boolean negative = false;
+		int scanned = 0;
+		while (buffer.hasRemaining()) {
+			byte b = buffer.get();
+			if (b == '\r') {
+				if (!buffer.hasRemaining()) {
+					return INCOMPLETE;
+				}
+				buffer.get();
+				return negative ? -value : value;
+			}
+			if (b == '-' && scanned == 0) {
+				negative = true;
+			} else if (b >= '0' && b <= '9' && value < Integer.MAX_VALUE) {
+				value = value * 10 + (b - '0');
+			} else {
+				throw error("Protocol error: invalid multibulk length");
+			}
+			scanned++;
+		}
+		return INCOMPLETE;
+	}
+
+	/**
+	 * redis-cli、telnet等发出的以空白分隔的inline命令
+	 */
+	private static byte[][] parseInline(ByteBuffer buffer) {
+		int start = buffer.position();
+		int end = -1;
+		for (int i = start; i < buffer.limit(); i++) {
+			if (buffer.get(i) == '\n') {
+				end = i;
+				break;
+			}
+		}
+		if (end < 0) {
+			if (buffer.remaining() > MAX_LINE) {
+				throw error("Protocol error: too big inline request");
+			}
+			return null;
+		}
+		byte[] line = new byte[end - start];
+		buffer.get(line);
+		buffer.get();
+		List<byte[]> args = new ArrayList<byte[]>();
+		int from = -1;
+		for (int i = 0; i <= line.length; i++) {
+			boolean blank = i == line.length || line[i] == ' ' || line[i] == '\t' || line[i] == '\r';
+			if (blank && from >= 0) {
+				args.add(Arrays.copyOfRange(line, from, i));
+				from = -1;
+			} else if (!blank && from < 0) {
+				from = i;
+			}
+		}
+		return args.toArray(new byte[args.size()][]);
+	}
+
+	/**
+	 * 回复的写缓冲，按需扩容
+	 */
+	static final class Output {
+
+		private static final int INITIAL_CAPACITY = 16 * 1024;
+
+		private byte[] buffer = new byte[INITIAL_CAPACITY];
+
+		private int size;
+
+		private int flushed;
+
+		boolean isEmpty() {
+			return flushed == size;
+		}
+
+		/**
+		 * @return 待写出部分的视图
+		 */
+		ByteBuffer pending() {
+			return ByteBuffer.wrap(buffer, flushed, size - flushed);
+		}
+
+		void flushed(int count) {
+			flushed += count;
+			if (flushed == size) {
+				flushed = 0;
+				size = 0;
+				// 大回复写完后释放扩容的缓冲
+				if (buffer.length > 1024 * 1024) {
+					buffer = new byte[INITIAL_CAPACITY];
+				}
+			}
+		}
+
+		void write(Object reply) {
+			if (reply == null) {
+				writeRaw((byte) '$');
+				writeRaw((byte) '-');
+				writeRaw((byte) '1');
+				writeCrlf();
+			} else if (reply instanceof byte[]) {
+				byte[] bulk = (byte[]) reply;
+				writeRaw((byte) '$');
+				writeNumber(bulk.length);
+				ensure(bulk.length + 2);
+				System.arraycopy(bulk, 0, buffer, size, bulk.length);
+				size += bulk.length;
+				writeCrlf();
+			} else if (reply instanceof Long) {
+				writeRaw((byte) ':');
+				writeNumber(((Long) reply).longValue());
+			} else if (reply instanceof Status) {
+				writeRaw((byte) '+');
+				writeText(((Status) reply).text);
+				writeCrlf();
+			} else if (reply instanceof ErrorReply) {
+				writeRaw((byte) '-');
+				writeText(((ErrorReply) reply).getMessage());
+				writeCrlf();
+			} else if (reply instanceof List) {
+				List<?> items = (List<?>) reply;
+				writeRaw((byte) '*');
+				writeNumber(items.size());
+				for (Object item : items) {
+					write(item);
+				}
+			} else {
+				throw new IllegalArgumentException("unsupported reply: " + reply.getClass());
+			}
+		}
+
+		private void writeNumber(long value) {
+			if (value < 0) {
+				if (value == Long.MIN_VALUE) {
+					writeText(String.valueOf(value));
+					writeCrlf();
+					return;
+				}
+				writeRaw((byte) '-');
+				value = -value;
+			}
+			int digits = 1;
+			for (long v = value; v >= 10; v /= 10) {
+				digits++;
+			}
+			ensure(digits + 2);
+			for (int i = size + digits - 1; i >= size; i--) {
+				buffer[i] = (byte) ('0' + value % 10);
+				value /= 10;
+			}
+			size += digits;
+			writeCrlf();
+		}
+
+		private void writeText(String text) {
+			ensure(text.length());
+			for (int i = 0; i < text.length(); i++) {
+				char c = text.charAt(i);
+				// status与error中不允许出现换行
+				buffer[size++] = c == '\r' || c == '\n' ? (byte) ' ' : (byte) c;
+			}
+		}
+
+		private void writeCrlf() {
+			ensure(2);
+			buffer[size++] = '\r';
+			buffer[size++] = '\n';
+		}
+
+		private void writeRaw(byte b) {
+			ensure(1);
+			buffer[size++] = b;
+		}
+
+		private void ensure(int count) {
+			if (size + count > buffer.length) {
+				buffer = Arrays.copyOf(buffer, Math.max(buffer.length << 1, size + count));
+			}
+		}
+	}
+}
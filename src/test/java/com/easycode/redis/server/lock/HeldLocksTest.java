@@ -0,0 +1,82 @@
+package com.easycode.redis.server.lock;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import com.easycode.redis.server.Redis;
+import com.easycode.redis.server.embedded.EmbeddedRedisResource;
+
+public class HeldLocksTest {
+
+	@ClassRule
+	public static final EmbeddedRedisResource REDIS = new EmbeddedRedisResource();
+
+	private RedisTemplate<String, Object> redisTemplate;
+
+	private final HeldLocks<String> heldLocks = new HeldLocks<String>();
+
+	@Before
+	public void setUp() {
+		REDIS.flushAll();
+		redisTemplate = REDIS.getRedisTemplate();
+	}
+
+	/**
+	 * 租约过期后锁被其他线程获得，原持有者的release不能释放新持有者的锁
+	 */
+	@Test
+	public void expiredHolderCannotReleaseNewHolder() throws InterruptedException {
+		RedisLock expired = Redis.tryLock(redisTemplate, "held", 0, 100, TimeUnit.MILLISECONDS);
+		assertNotNull(expired);
+		heldLocks.hold("held", expired);
+
+		final AtomicReference<RedisLock> next = new AtomicReference<RedisLock>();
+		Thread other = new Thread() {
+			@Override
+			public void run() {
+				RedisLock lock = Redis.tryLock(redisTemplate, "held", 2000, 10000, TimeUnit.MILLISECONDS);
+				heldLocks.hold("held", lock);
+				next.set(lock);
+			}
+		};
+		other.start();
+		other.join();
+		assertNotNull(next.get());
+
+		assertFalse(heldLocks.release("held"));
+		assertNull(Redis.tryLock(redisTemplate, "held", 10, TimeUnit.SECONDS));
+		assertTrue(next.get().unlock());
+	}
+
+	@Test
+	public void onlyOwningThreadReleases() throws InterruptedException {
+		RedisLock lock = Redis.tryLock(redisTemplate, "owned", 10, TimeUnit.SECONDS);
+		heldLocks.hold("owned", lock);
+
+		final AtomicBoolean released = new AtomicBoolean(true);
+		Thread other = new Thread() {
+			@Override
+			public void run() {
+				released.set(heldLocks.release("owned"));
+			}
+		};
+		other.start();
+		other.join();
+		assertFalse(released.get());
+		assertNull(Redis.tryLock(redisTemplate, "owned", 10, TimeUnit.SECONDS));
+
+		assertTrue(heldLocks.release("owned"));
+		assertFalse(heldLocks.release("owned"));
+	}
+}
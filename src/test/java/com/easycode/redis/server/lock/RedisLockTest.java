@@ -0,0 +1,125 @@
+package com.easycode.redis.server.lock;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import com.easycode.redis.server.Redis;
+import com.easycode.redis.server.embedded.EmbeddedRedisResource;
+
+public class RedisLockTest {
+
+	@ClassRule
+	public static final EmbeddedRedisResource REDIS = new EmbeddedRedisResource();
+
+	private RedisTemplate<String, Object> redisTemplate;
+
+	@Before
+	public void setUp() {
+		REDIS.flushAll();
+		redisTemplate = REDIS.getRedisTemplate();
+	}
+
+	@Test
+	public void lockIsExclusiveUntilUnlocked() {
+		RedisLock lock = Redis.tryLock(redisTemplate, "lock", 10, TimeUnit.SECONDS);
+		assertNotNull(lock);
+		assertNull(Redis.tryLock(redisTemplate, "lock", 10, TimeUnit.SECONDS));
+
+		assertTrue(lock.unlock());
+		assertFalse(lock.unlock());
+		lock = Redis.tryLock(redisTemplate, "lock", 10, TimeUnit.SECONDS);
+		assertNotNull(lock);
+		assertTrue(lock.unlock());
+	}
+
+	@Test
+	public void contendersInOneJvmAreMutuallyExclusive() throws InterruptedException {
+		final AtomicInteger holders = new AtomicInteger();
+		final AtomicInteger acquired = new AtomicInteger();
+		final AtomicInteger overlaps = new AtomicInteger();
+		List<Thread> threads = new ArrayList<Thread>();
+		for (int i = 0; i < 8; i++) {
+			Thread thread = new Thread() {
+				@Override
+				public void run() {
+					for (int j = 0; j < 20; j++) {
+						RedisLock lock = Redis.tryLock(redisTemplate, "contended", 5000, 10000, TimeUnit.MILLISECONDS);
+						if (lock == null) {
+							continue;
+						}
+						if (holders.incrementAndGet() > 1) {
+							overlaps.incrementAndGet();
+						}
+						acquired.incrementAndGet();
+						holders.decrementAndGet();
+						lock.unlock();
+					}
+				}
+			};
+			threads.add(thread);
+			thread.start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		assertEquals(0, overlaps.get());
+		assertEquals(160, acquired.get());
+	}
+
+	/**
+	 * 持有者不调用unlock、依赖租约过期时，本地的下一个竞争者在租约到期后能拿到锁
+	 */
+	@Test
+	public void expiredLeaseReleasesLocalPermit() {
+		RedisLock forgotten = Redis.tryLock(redisTemplate, "expiring", 0, 200, TimeUnit.MILLISECONDS);
+		assertNotNull(forgotten);
+
+		RedisLock next = Redis.tryLock(redisTemplate, "expiring", 2000, 200, TimeUnit.MILLISECONDS);
+		assertNotNull(next);
+		assertFalse(forgotten.unlock());
+		assertTrue(next.unlock());
+	}
+
+	@Test
+	public void autoRenewKeepsLeaseUntilUnlock() throws InterruptedException {
+		RedisLock lock = Redis.tryLock(redisTemplate, "renewed", 0, 300, TimeUnit.MILLISECONDS, true);
+		assertNotNull(lock);
+		assertTrue(LockWatchdog.getInstance().isRegistered(lock));
+
+		// 三个租约之后仍然持有
+		Thread.sleep(900);
+		assertTrue(Redis.hasKey(redisTemplate, "renewed"));
+		assertTrue(LockWatchdog.getInstance().isRegistered(lock));
+
+		assertTrue(lock.unlock());
+		assertFalse(LockWatchdog.getInstance().isRegistered(lock));
+		assertFalse(Redis.hasKey(redisTemplate, "renewed"));
+	}
+
+	@Test
+	public void renewalStopsWhenLockIsLost() throws InterruptedException {
+		RedisLock lock = Redis.tryLock(redisTemplate, "lost", 0, 300, TimeUnit.MILLISECONDS, true);
+		assertNotNull(lock);
+		Redis.del(redisTemplate, "lost");
+
+		long deadline = System.currentTimeMillis() + 2000;
+		while (LockWatchdog.getInstance().isRegistered(lock) && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+		assertFalse(LockWatchdog.getInstance().isRegistered(lock));
+		assertFalse(Redis.hasKey(redisTemplate, "lost"));
+	}
+}
@@ -0,0 +1,98 @@
+package com.easycode.redis.server.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import com.easycode.redis.server.Redis;
+import com.easycode.redis.server.embedded.EmbeddedRedisResource;
+
+public class RedisMetricsTest {
+
+	@ClassRule
+	public static final EmbeddedRedisResource REDIS = new EmbeddedRedisResource();
+
+	private RedisTemplate<String, Object> redisTemplate;
+
+	private RedisMetrics metrics;
+
+	@Before
+	public void setUp() {
+		REDIS.flushAll();
+		redisTemplate = REDIS.getRedisTemplate();
+		Redis.enableMetrics(redisTemplate, new RedisMetricsConfig());
+		metrics = RedisMetrics.of(redisTemplate);
+	}
+
+	@After
+	public void tearDown() {
+		Redis.disableMetrics(redisTemplate);
+	}
+
+	@Test
+	public void slowLogDisabledDuringCall() {
+		Redis.enableSlowLog(redisTemplate, new SlowLogConfig());
+		RedisMetrics.record(metrics, "toggle", null, null, new MeteredCall<Void>() {
+			@Override
+			protected Void call() {
+				Redis.disableSlowLog(redisTemplate);
+				return null;
+			}
+		});
+		assertEquals(0, CallTrace.current().depth);
+	}
+
+	@Test
+	public void slowLogEnabledDuringNestedCall() {
+		Redis.enableSlowLog(redisTemplate, new SlowLogConfig());
+		RedisMetrics.record(metrics, "outer", null, null, new MeteredCall<Void>() {
+			@Override
+			protected Void call() {
+				Redis.disableSlowLog(redisTemplate);
+				RedisMetrics.record(metrics, "inner", null, null, new MeteredCall<Void>() {
+					@Override
+					protected Void call() {
+						Redis.enableSlowLog(redisTemplate, new SlowLogConfig());
+						return null;
+					}
+				});
+				assertEquals(1, CallTrace.current().depth);
+				return null;
+			}
+		});
+		assertEquals(0, CallTrace.current().depth);
+	}
+
+	@Test
+	public void errorsCountedPerFamily() {
+		try {
+			RedisMetrics.record(metrics, "failing", null, null, new MeteredCall<Void>() {
+				@Override
+				protected Void call() {
+					throw new IllegalStateException();
+				}
+			});
+		} catch (IllegalStateException expected) {
+		}
+		CommandStats stats = Redis.metricsSnapshot(redisTemplate).getCommands().get("failing");
+		assertEquals(1, stats.getCount());
+		assertEquals(1, stats.getErrors());
+	}
+
+	@Test
+	public void batchPopRecordedUnderOwnFamily() {
+		Redis.rightPushAll(redisTemplate, "l", Arrays.<Object> asList("a", "b", "c"), null, null);
+		Redis.leftPop(redisTemplate, "l", Object.class, 2);
+		Map<String, CommandStats> commands = Redis.metricsSnapshot(redisTemplate).getCommands();
+		assertEquals(1, commands.get("leftPop").getCount());
+		assertNull(commands.get("leftPopRaw"));
+	}
+}
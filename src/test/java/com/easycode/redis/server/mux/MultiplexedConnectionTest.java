@@ -0,0 +1,110 @@
+package com.easycode.redis.server.mux;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisSentinelConnection;
+
+/**
+ * 不能写到共享长连接上的原始命令应交给回退的普通连接；这些调用不经过共享连接，因此不需要启动redis
+ */
+public class MultiplexedConnectionTest {
+
+	private final List<String> executed = new ArrayList<String>();
+
+	private int borrowed;
+
+	private RedisConnection connection;
+
+	@Before
+	public void setUp() {
+		connection = MultiplexedConnection.create(null, new RecordingFactory());
+	}
+
+	@Test
+	public void transactionPinsFallbackConnection() {
+		connection.execute("multi");
+		connection.execute("SPOP", "k".getBytes());
+		connection.execute("EXEC");
+		connection.close();
+
+		assertEquals(Arrays.asList("multi", "SPOP", "EXEC"), executed);
+		assertEquals(1, borrowed);
+	}
+
+	@Test
+	public void blockingCommandUsesFallbackConnection() {
+		connection.execute("BLPOP", "k".getBytes(), "0".getBytes());
+		connection.close();
+
+		assertEquals(Arrays.asList("BLPOP"), executed);
+	}
+
+	@Test
+	public void blockingCommandInPipelineRunsOnBorrowedConnection() {
+		connection.openPipeline();
+		connection.execute("BRPOP", "k".getBytes(), "0".getBytes());
+		List<Object> results = connection.closePipeline();
+
+		assertEquals(Arrays.asList("BRPOP"), executed);
+		assertEquals(1, results.size());
+	}
+
+	@Test
+	public void transactionInPipelineIsRejected() {
+		connection.openPipeline();
+		try {
+			connection.execute("WATCH", "k".getBytes());
+			fail();
+		} catch (InvalidDataAccessApiUsageException expected) {
+		}
+		assertEquals(0, borrowed);
+	}
+
+	private class RecordingFactory implements RedisConnectionFactory {
+
+		@Override
+		public RedisConnection getConnection() {
+			borrowed++;
+			return (RedisConnection) Proxy.newProxyInstance(RedisConnection.class.getClassLoader(),
+					new Class<?>[] { RedisConnection.class }, new InvocationHandler() {
+						@Override
+						public Object invoke(Object proxy, Method method, Object[] args) {
+							if ("execute".equals(method.getName())) {
+								executed.add((String) args[0]);
+								return "OK";
+							}
+							return null;
+						}
+					});
+		}
+
+		@Override
+		public boolean getConvertPipelineAndTxResults() {
+			return false;
+		}
+
+		@Override
+		public RedisSentinelConnection getSentinelConnection() {
+			return null;
+		}
+
+		@Override
+		public DataAccessException translateExceptionIfPossible(RuntimeException ex) {
+			return null;
+		}
+	}
+}